@@ -912,4 +912,73 @@ public interface ERDesignerBundle {
 	/** \u0045\u0064\u0069\u0074\u0020\u0043\u006f\u006d\u006d\u0065\u006e\u0074. */
 	String EDITCOMMENT = "EDITCOMMENT";
 
+	/** \u0053\u0063\u0072\u0069\u0070\u0074\u0020\u0062\u0061\u0074\u0063\u0068\u0020\u0073\u0069\u007a\u0065. */
+	String SCRIPTBATCHSIZE = "SCRIPTBATCHSIZE";
+
+	/** \u0053\u0063\u0072\u0069\u0070\u0074\u0020\u0073\u0074\u0061\u0074\u0065\u006d\u0065\u006e\u0074\u0073\u0020\u0070\u0065\u0072\u0020\u0074\u0072\u0061\u006e\u0073\u0061\u0063\u0074\u0069\u006f\u006e. */
+	String SCRIPTTRANSACTIONSIZE = "SCRIPTTRANSACTIONSIZE";
+
+	/** \u0044\u0065\u0070\u006c\u006f\u0079\u0020\u006d\u006f\u0064\u0065\u006c\u0020\u0074\u006f\u0020\u0064\u0061\u0074\u0061\u0062\u0061\u0073\u0065\u002e\u002e\u002e. */
+	String DEPLOYMODEL = "DEPLOYMODEL";
+
+	/** \u0044\u006f\u0020\u0079\u006f\u0075\u0020\u0072\u0065\u0061\u006c\u006c\u0079\u0020\u0077\u0061\u006e\u0074\u0020\u0074\u006f\u0020\u0063\u0072\u0065\u0061\u0074\u0065\u0020\u0061\u006c\u006c\u0020\u006f\u0062\u006a\u0065\u0063\u0074\u0073\u0020\u006f\u0066\u0020\u0074\u0068\u0065\u0020\u006d\u006f\u0064\u0065\u006c\u0020\u0069\u006e\u0020\u0074\u0068\u0065\u0020\u0064\u0061\u0074\u0061\u0062\u0061\u0073\u0065\u003f. */
+	String DOYOUREALLYWANTTODEPLOY = "DOYOUREALLYWANTTODEPLOY";
+
+	/** \u0054\u0068\u0065\u0020\u006d\u006f\u0064\u0065\u006c\u0020\u0077\u0061\u0073\u0020\u0064\u0065\u0070\u006c\u006f\u0079\u0065\u0064\u0020\u0073\u0075\u0063\u0063\u0065\u0073\u0073\u0066\u0075\u006c\u006c\u0079\u002e. */
+	String MODELDEPLOYED = "MODELDEPLOYED";
+
+	/** \u007b\u0030\u007d\u0020\u006f\u0062\u006a\u0065\u0063\u0074\u0073\u0020\u0063\u006f\u0075\u006c\u0064\u0020\u006e\u006f\u0074\u0020\u0062\u0065\u0020\u0064\u0065\u0070\u006c\u006f\u0079\u0065\u0064\u003a. */
+	String MODELDEPLOYEDWITHERRORS = "MODELDEPLOYEDWITHERRORS";
+
+	/** \u007b\u0030\u007d\u0020\u0073\u0074\u0061\u0074\u0065\u006d\u0065\u006e\u0074\u0073\u0020\u006f\u0066\u0020\u0074\u0068\u0069\u0073\u0020\u0073\u0063\u0072\u0069\u0070\u0074\u0020\u0077\u0065\u0072\u0065\u0020\u0061\u006c\u0072\u0065\u0061\u0064\u0079\u0020\u0065\u0078\u0065\u0063\u0075\u0074\u0065\u0064\u0020\u006f\u006e\u0020\u0074\u0068\u0069\u0073\u0020\u0064\u0061\u0074\u0061\u0062\u0061\u0073\u0065\u002e\u0020\u0044\u006f\u0020\u0079\u006f\u0075\u0020\u0077\u0061\u006e\u0074\u0020\u0074\u006f\u0020\u0073\u006b\u0069\u0070\u0020\u0074\u0068\u0065\u006d\u003f. */
+	String SKIPEXECUTEDSTATEMENTS = "SKIPEXECUTEDSTATEMENTS";
+
+	/** \u0045\u0078\u0065\u0063\u0075\u0074\u0065\u0020\u0053\u0051\u004c\u0020\u0066\u0069\u006c\u0065\u002e\u002e\u002e. */
+	String EXECUTESQLFILE = "EXECUTESQLFILE";
+
+	/** \u007b\u0030\u007d\u0020\u006f\u0066\u0020\u007b\u0031\u007d\u0020\u004b\u0042\u0020\u0072\u0065\u0061\u0064\u002c\u0020\u007b\u0032\u007d\u0020\u0073\u0074\u0061\u0074\u0065\u006d\u0065\u006e\u0074\u0073\u0020\u0065\u0078\u0065\u0063\u0075\u0074\u0065\u0064. */
+	String SCRIPTEXECUTIONPROGRESS = "SCRIPTEXECUTIONPROGRESS";
+
+	/** \u007b\u0030\u007d\u0020\u0073\u0074\u0061\u0074\u0065\u006d\u0065\u006e\u0074\u0073\u0020\u0077\u0065\u0072\u0065\u0020\u0065\u0078\u0065\u0063\u0075\u0074\u0065\u0064\u002e. */
+	String SCRIPTEXECUTED = "SCRIPTEXECUTED";
+
+	/** \u0043\u0072\u0065\u0061\u0074\u0065\u0020\u0044\u0044\u004c\u0020\u0066\u006f\u0072\u0020\u0062\u0075\u006c\u006b\u0020\u006c\u006f\u0061\u0064\u002e\u002e\u002e. */
+	String GENERATECREATEDBDDLFORBULKLOAD = "GENERATECREATEDBDDLFORBULKLOAD";
+
+	/** \u0045\u0073\u0074\u0069\u006d\u0061\u0074\u0065\u0020\u0076\u006f\u006c\u0075\u006d\u0065. */
+	String ESTIMATEVOLUME = "ESTIMATEVOLUME";
+
+	/** \u004d\u0065\u0074\u0061\u0064\u0061\u0074\u0061\u0020\u006f\u006e\u006c\u0079. */
+	String METADATAONLY = "METADATAONLY";
+
+	/** \u0054\u0061\u0062\u006c\u0065\u0020\u0073\u0063\u0061\u006e. */
+	String TABLESCAN = "TABLESCAN";
+
+	/** \u0049\u006e\u0064\u0065\u0078\u0020\u0062\u0075\u0069\u006c\u0064. */
+	String INDEXBUILD = "INDEXBUILD";
+
+	/** \u0046\u0075\u006c\u006c\u0020\u0074\u0061\u0062\u006c\u0065\u0020\u0072\u0065\u0077\u0072\u0069\u0074\u0065. */
+	String TABLEREWRITE = "TABLEREWRITE";
+
+	/** \u007e\u007b\u0030\u007d\u0020\u0072\u006f\u0077\u0073. */
+	String ESTIMATEDROWS = "ESTIMATEDROWS";
+
+	/** \u0054\u0068\u0065\u0020\u006d\u006f\u0064\u0065\u006c\u0020\u0066\u0069\u006c\u0065\u0020\u0064\u006f\u0065\u0073\u0020\u006e\u006f\u0074\u0020\u0063\u006f\u006e\u0066\u006f\u0072\u006d\u0020\u0074\u006f\u0020\u0069\u0074\u0073\u0020\u0073\u0063\u0068\u0065\u006d\u0061. */
+	String MODELVALIDATIONFAILED = "MODELVALIDATIONFAILED";
+
+	/** \u0055\u006e\u0073\u0061\u0076\u0065\u0064\u0020\u0063\u0068\u0061\u006e\u0067\u0065\u0073\u0020\u006f\u0066\u0020\u0061\u0020\u0073\u0065\u0073\u0073\u0069\u006f\u006e\u0020\u0065\u006e\u0064\u0065\u0064\u0020\u0061\u0074\u0020\u007b\u0030\u007d\u0020\u0077\u0065\u0072\u0065\u0020\u0066\u006f\u0075\u006e\u0064\u002e\u0020\u0044\u006f\u0020\u0079\u006f\u0075\u0020\u0077\u0061\u006e\u0074\u0020\u0074\u006f\u0020\u0072\u0065\u0063\u006f\u0076\u0065\u0072\u0020\u0074\u0068\u0065\u006d. */
+	String RECOVERMODELJOURNAL = "RECOVERMODELJOURNAL";
+
+	/** \u0053\u0061\u0076\u0065\u0020\u0063\u0072\u0065\u0061\u0074\u0065\u0020\u0044\u0044\u004c\u0020\u0074\u006f\u0020\u0066\u0069\u006c\u0065\u002e\u002e\u002e. */
+	String SAVECREATEDBDDLTOFILE = "SAVECREATEDBDDLTOFILE";
+
+	/** \u0043\u006f\u006d\u0062\u0069\u006e\u0065\u0020\u0041\u004c\u0054\u0045\u0052\u0020\u0054\u0041\u0042\u004c\u0045\u0020\u0073\u0074\u0061\u0074\u0065\u006d\u0065\u006e\u0074\u0073. */
+	String COMBINEALTERTABLESTATEMENTS = "COMBINEALTERTABLESTATEMENTS";
+
+	/** \u0055\u0073\u0065\u0020\u006f\u006e\u006c\u0069\u006e\u0065\u0020\u0044\u0044\u004c. */
+	String USEONLINEDDL = "USEONLINEDDL";
+
+	/** \u0054\u0068\u0065\u0020\u0070\u0072\u0065\u0076\u0069\u0065\u0077\u0020\u0065\u006e\u0064\u0073\u0020\u0068\u0065\u0072\u0065\u002e\u0020\u0055\u0073\u0065\u0020\u0022\u007b\u0030\u007d\u0022\u0020\u0066\u006f\u0072\u0020\u0074\u0068\u0065\u0020\u0063\u006f\u006d\u0070\u006c\u0065\u0074\u0065\u0020\u0073\u0063\u0072\u0069\u0070\u0074\u002e. */
+	String SQLPREVIEWTRUNCATED = "SQLPREVIEWTRUNCATED";
+
 }
@@ -59,7 +59,7 @@ public final class DataTypeIO {
 
     private final XMLUtils xmlUtils;
 
-    public static DataTypeIO getInstance() throws ParserConfigurationException {
+    public static synchronized DataTypeIO getInstance() throws ParserConfigurationException {
         if (me == null) {
             me = new DataTypeIO();
         }
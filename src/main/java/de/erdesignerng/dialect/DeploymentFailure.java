@@ -0,0 +1,95 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+/**
+ * A model object which could not be deployed to the database.
+ */
+public class DeploymentFailure {
+
+	private final String objectName;
+
+	private final Statement statement;
+
+	private final Exception exception;
+
+	private final String reason;
+
+	public DeploymentFailure(String aObjectName, Statement aStatement, Exception aException) {
+		objectName = aObjectName;
+		statement = aStatement;
+		exception = aException;
+		reason = aException.getMessage();
+	}
+
+	/**
+	 * Create the failure of a skipped object.
+	 *
+	 * @param aObjectName the name of the skipped object
+	 * @param aReason     why the object was skipped
+	 */
+	public DeploymentFailure(String aObjectName, String aReason) {
+		objectName = aObjectName;
+		statement = null;
+		exception = null;
+		reason = aReason;
+	}
+
+	public String getObjectName() {
+		return objectName;
+	}
+
+	/**
+	 * @return the failed statement, or null if the object was skipped
+	 */
+	public Statement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * @return the cause, or null if the object was skipped
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	/**
+	 * Test if the object was not deployed because an object it depends on
+	 * failed.
+	 *
+	 * @return true if skipped, else false
+	 */
+	public boolean isSkipped() {
+		return exception == null;
+	}
+
+	/**
+	 * @return the message of the cause, or why the object was skipped
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		if (isSkipped()) {
+			return objectName + " : skipped, " + reason;
+		}
+		return objectName + " : " + reason;
+	}
+}
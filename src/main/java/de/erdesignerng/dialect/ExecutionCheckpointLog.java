@@ -0,0 +1,324 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local log of the statements of a script already executed on a database.
+ *
+ * The log file is identified by the connection and the origin of the script,
+ * for instance its file, so another database starts a new log while the
+ * script itself can be edited between two runs. Every executed statement is
+ * appended to the log immediately, together with the hash of its text. After
+ * a failure or a restart of the application, {@link #restore()} marks the
+ * logged statements as executed again if their text is unchanged, so the
+ * execution continues with the fixed or first statement not executed yet.
+ *
+ * A script streamed from a file is passed in windows, see
+ * {@link #setWindow(long, List)}.
+ */
+public class ExecutionCheckpointLog implements Closeable {
+
+	private final File file;
+
+	private List<Statement> statements;
+
+	private final Map<Statement, Integer> indexes = new IdentityHashMap<>();
+
+	private long offset;
+
+	private boolean streamed;
+
+	private boolean streamStarted;
+
+	private BufferedReader streamReader;
+
+	private long[] pendingEntry;
+
+	private Writer writer;
+
+	private ExecutionCheckpointLog(File aFile, List<Statement> aStatements) {
+		file = aFile;
+		setStatements(aStatements);
+	}
+
+	private void setStatements(List<Statement> aStatements) {
+		statements = aStatements;
+		indexes.clear();
+		for (int i = 0; i < aStatements.size(); i++) {
+			indexes.put(aStatements.get(i), i);
+		}
+	}
+
+	/**
+	 * Open the checkpoint log of a script.
+	 *
+	 * @param aDirectory	 the directory for the log files
+	 * @param aConnectionKey identifies the target database, for instance the
+	 *					   url and the user name
+	 * @param aScriptKey	 identifies the script, for instance its file
+	 * @param aStatements	the script
+	 * @return the log
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public static ExecutionCheckpointLog open(File aDirectory, String aConnectionKey, String aScriptKey,
+			List<Statement> aStatements) throws IOException {
+		if (!aDirectory.exists() && !aDirectory.mkdirs()) {
+			throw new IOException("Cannot create directory " + aDirectory);
+		}
+
+		try {
+			MessageDigest theDigest = MessageDigest.getInstance("SHA-1");
+			theDigest.update(aConnectionKey.getBytes(StandardCharsets.UTF_8));
+			theDigest.update((byte) 0);
+			theDigest.update(aScriptKey.getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder theName = new StringBuilder();
+			for (byte theByte : theDigest.digest()) {
+				theName.append(String.format("%02x", theByte));
+			}
+			theName.append(".log");
+
+			return new ExecutionCheckpointLog(new File(aDirectory, theName.toString()), aStatements);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Continue with the next window of a script streamed from a file.
+	 *
+	 * The statements of the window are numbered from the offset on.
+	 * {@link #restore()} then reads the log only up to the end of the window,
+	 * so the log is read once during the whole execution. This expects the
+	 * log in script order, as it is written by a streamed execution.
+	 *
+	 * @param aOffset	 the number of statements of the script before the
+	 *					window
+	 * @param aStatements the statements of the window
+	 */
+	public void setWindow(long aOffset, List<Statement> aStatements) {
+		streamed = true;
+		offset = aOffset;
+		setStatements(aStatements);
+	}
+
+	/**
+	 * Count the statements recorded in the log. They are only restored if
+	 * their text is unchanged.
+	 *
+	 * @return the number of recorded statements
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public long getEntryCount() throws IOException {
+		if (!file.exists()) {
+			return 0;
+		}
+		try (BufferedReader theReader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+				StandardCharsets.UTF_8))) {
+			return theReader.lines().filter(aLine -> parseEntry(aLine) != null).count();
+		}
+	}
+
+	/**
+	 * Parse a line of the log.
+	 *
+	 * @return the index and the hash of the statement, or null if the line is
+	 *		 damaged
+	 */
+	private static long[] parseEntry(String aLine) {
+		// A line might be incomplete after a crash
+		int p = aLine.indexOf(' ');
+		if (p < 0) {
+			return null;
+		}
+		try {
+			return new long[]{Long.parseLong(aLine.substring(0, p)), Integer.parseInt(aLine.substring(p + 1))};
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private boolean restore(long[] aEntry) {
+		long theIndex = aEntry[0] - offset;
+		if (theIndex >= 0 && theIndex < statements.size()) {
+			Statement theStatement = statements.get((int) theIndex);
+			if (theStatement.getSql().hashCode() == aEntry[1] && !theStatement.isExecuted()) {
+				theStatement.setExecuted(true);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Mark all statements found unchanged in the log as executed.
+	 *
+	 * @return the number of restored statements
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public int restore() throws IOException {
+		if (streamed) {
+			return restoreWindow();
+		}
+		if (!file.exists()) {
+			return 0;
+		}
+
+		int theCount = 0;
+		try (BufferedReader theReader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+				StandardCharsets.UTF_8))) {
+			String theLine;
+			while ((theLine = theReader.readLine()) != null) {
+				long[] theEntry = parseEntry(theLine);
+				if (theEntry != null && restore(theEntry)) {
+					theCount++;
+				}
+			}
+		}
+		return theCount;
+	}
+
+	private int restoreWindow() throws IOException {
+		if (!streamStarted) {
+			streamStarted = true;
+			if (!file.exists()) {
+				return 0;
+			}
+			streamReader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+					StandardCharsets.UTF_8));
+		}
+
+		int theCount = 0;
+		long[] theEntry;
+		while ((theEntry = nextEntry()) != null) {
+			if (theEntry[0] >= offset + statements.size()) {
+				pendingEntry = theEntry;
+				break;
+			}
+			if (restore(theEntry)) {
+				theCount++;
+			}
+		}
+		return theCount;
+	}
+
+	private long[] nextEntry() throws IOException {
+		if (pendingEntry != null) {
+			long[] theResult = pendingEntry;
+			pendingEntry = null;
+			return theResult;
+		}
+		while (streamReader != null) {
+			String theLine = streamReader.readLine();
+			if (theLine == null) {
+				closeStreamReader();
+			} else {
+				long[] theEntry = parseEntry(theLine);
+				if (theEntry != null) {
+					return theEntry;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void closeStreamReader() throws IOException {
+		if (streamReader != null) {
+			streamReader.close();
+			streamReader = null;
+		}
+	}
+
+	/**
+	 * Discard the log and mark all statements as not executed.
+	 *
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void reset() throws IOException {
+		closeStreamReader();
+		pendingEntry = null;
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Cannot delete " + file);
+		}
+		for (Statement theStatement : statements) {
+			theStatement.setExecuted(false);
+		}
+	}
+
+	/**
+	 * Record a statement as executed.
+	 *
+	 * @param aStatement the statement, must be part of the script
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void checkpoint(Statement aStatement) throws IOException {
+		Integer theIndex = indexes.get(aStatement);
+		if (theIndex == null) {
+			throw new IllegalArgumentException("Statement is not part of the script : " + aStatement);
+		}
+		if (writer == null) {
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+					StandardCharsets.UTF_8));
+		}
+		writer.write((offset + theIndex) + " " + aStatement.getSql().hashCode() + "\n");
+		writer.flush();
+	}
+
+	/**
+	 * Close the log. It is deleted if all statements of the script were
+	 * executed.
+	 *
+	 * @throws IOException will be thrown in case of an error
+	 */
+	@Override
+	public void close() throws IOException {
+		closeStreamReader();
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+		if (statements.stream().allMatch(Statement::isExecuted) && file.exists() && !file.delete()) {
+			throw new IOException("Cannot delete " + file);
+		}
+	}
+}
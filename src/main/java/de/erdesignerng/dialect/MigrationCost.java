@@ -0,0 +1,50 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+/**
+ * The work a database has to do to execute a DDL statement on a populated
+ * table, ordered from cheap to expensive.
+ */
+public enum MigrationCost {
+
+	/**
+	 * Only the data dictionary is changed, the execution time does not depend
+	 * on the table size.
+	 */
+	METADATA_ONLY,
+
+	/**
+	 * All rows are read once, e.g. to validate a constraint.
+	 */
+	TABLE_SCAN,
+
+	/**
+	 * All rows are read and a new index is written.
+	 */
+	INDEX_BUILD,
+
+	/**
+	 * The whole table is copied or rewritten.
+	 */
+	TABLE_REWRITE;
+
+	public MigrationCost max(MigrationCost aOther) {
+		return aOther != null && aOther.compareTo(this) > 0 ? aOther : this;
+	}
+}
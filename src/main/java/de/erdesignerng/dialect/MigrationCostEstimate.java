@@ -0,0 +1,90 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+/**
+ * The estimated cost of a statement, optionally with the volume of the
+ * affected table taken from the database statistics.
+ */
+public class MigrationCostEstimate {
+
+	public static final long UNKNOWN = -1;
+
+	private final MigrationCost cost;
+
+	private final String tableName;
+
+	private final long rowCount;
+
+	private final long sizeInBytes;
+
+	public MigrationCostEstimate(MigrationCost aCost, String aTableName) {
+		this(aCost, aTableName, UNKNOWN, UNKNOWN);
+	}
+
+	public MigrationCostEstimate(MigrationCost aCost, String aTableName, long aRowCount, long aSizeInBytes) {
+		cost = aCost;
+		tableName = aTableName;
+		rowCount = aRowCount;
+		sizeInBytes = aSizeInBytes;
+	}
+
+	/**
+	 * @return the cost
+	 */
+	public MigrationCost getCost() {
+		return cost;
+	}
+
+	/**
+	 * @return the affected table or null if the statement does not affect
+	 *		 the data of a table
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * @return the estimated number of rows or UNKNOWN
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return the estimated table size in bytes or UNKNOWN
+	 */
+	public long getSizeInBytes() {
+		return sizeInBytes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder theResult = new StringBuilder(cost.toString());
+		if (tableName != null) {
+			theResult.append(" ").append(tableName);
+		}
+		if (rowCount != UNKNOWN) {
+			theResult.append(" rows=").append(rowCount);
+		}
+		if (sizeInBytes != UNKNOWN) {
+			theResult.append(" bytes=").append(sizeInBytes);
+		}
+		return theResult.toString();
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import de.erdesignerng.util.JDBCUtils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the cost of the statements of a script before it is executed.
+ * With a connection, the volume of the affected tables is read from the
+ * database statistics. The statistics are only read for statements that
+ * touch the table data, and only once per table.
+ */
+public class MigrationCostEstimator {
+
+	private final SQLGenerator generator;
+
+	private final Connection connection;
+
+	private final Map<String, long[]> statistics = new HashMap<>();
+
+	public MigrationCostEstimator(SQLGenerator aGenerator) {
+		this(aGenerator, null);
+	}
+
+	public MigrationCostEstimator(SQLGenerator aGenerator, Connection aConnection) {
+		generator = aGenerator;
+		connection = aConnection;
+	}
+
+	public MigrationCostEstimate estimate(Statement aStatement) throws SQLException {
+		MigrationCost theCost = generator.estimateMigrationCost(aStatement);
+		String theTableName = generator.getAffectedTableName(aStatement);
+		if (connection == null || theTableName == null || theCost == MigrationCost.METADATA_ONLY) {
+			return new MigrationCostEstimate(theCost, theTableName);
+		}
+
+		long[] theStatistics = statistics.get(theTableName);
+		if (theStatistics == null) {
+			theStatistics = readStatistics(unquote(theTableName));
+			statistics.put(theTableName, theStatistics);
+		}
+		return new MigrationCostEstimate(theCost, theTableName, theStatistics[0], theStatistics[1]);
+	}
+
+	/**
+	 * Estimate the cost of all statements and store the estimate in the
+	 * statements.
+	 *
+	 * @param aStatements the statements
+	 * @throws SQLException will be thrown in case of an error
+	 */
+	public void estimate(List<Statement> aStatements) throws SQLException {
+		for (Statement theStatement : aStatements) {
+			theStatement.setCostEstimate(estimate(theStatement));
+		}
+	}
+
+	/**
+	 * Remove the schema and the quotes from a table name as written in a
+	 * statement.
+	 */
+	private static String unquote(String aTableName) {
+		String theResult = aTableName;
+		int p = theResult.lastIndexOf('.');
+		if (p >= 0) {
+			theResult = theResult.substring(p + 1);
+		}
+		if (theResult.length() > 1 && "\"`[".indexOf(theResult.charAt(0)) >= 0) {
+			theResult = theResult.substring(1, theResult.length() - 1);
+		}
+		return theResult;
+	}
+
+	private long[] readStatistics(String aTableName) throws SQLException {
+		long[] theResult = {MigrationCostEstimate.UNKNOWN, MigrationCostEstimate.UNKNOWN};
+
+		String theQuery = generator.createTableStatisticsQuery();
+		if (theQuery != null) {
+			PreparedStatement theStatement = connection.prepareStatement(theQuery);
+			ResultSet theResultSet = null;
+			try {
+				theStatement.setString(1, aTableName);
+				theResultSet = theStatement.executeQuery();
+				if (theResultSet.next()) {
+					theResult[0] = getLong(theResultSet, 1);
+					theResult[1] = getLong(theResultSet, 2);
+				}
+			} finally {
+				JDBCUtils.closeQuietly(theResultSet);
+				JDBCUtils.closeQuietly(theStatement);
+			}
+			return theResult;
+		}
+
+		// Approximate statistics are part of the index information of the
+		// JDBC metadata, not every driver provides them
+		ResultSet theResultSet = connection.getMetaData().getIndexInfo(null, null, aTableName, false, true);
+		try {
+			while (theResultSet.next()) {
+				if (theResultSet.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+					theResult[0] = getLong(theResultSet, "CARDINALITY");
+				}
+			}
+		} finally {
+			JDBCUtils.closeQuietly(theResultSet);
+		}
+		return theResult;
+	}
+
+	private static long getLong(ResultSet aResultSet, int aColumn) throws SQLException {
+		long theValue = aResultSet.getLong(aColumn);
+		return aResultSet.wasNull() || theValue < 0 ? MigrationCostEstimate.UNKNOWN : theValue;
+	}
+
+	private static long getLong(ResultSet aResultSet, String aColumn) throws SQLException {
+		return getLong(aResultSet, aResultSet.findColumn(aColumn));
+	}
+}
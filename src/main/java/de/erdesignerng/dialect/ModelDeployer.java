@@ -0,0 +1,247 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.util.JDBCUtils;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Deploys a complete model to an empty database using several connections.
+ *
+ * The deployment follows the dependencies of the model objects:
+ * <ol>
+ * <li>schemas, domains and custom types, sequentially</li>
+ * <li>tables, in parallel</li>
+ * <li>primary keys and indexes, in parallel per table</li>
+ * <li>relations, in parallel per importing table</li>
+ * <li>views, sequentially in model order</li>
+ * </ol>
+ * A failed object does not stop the deployment. Objects depending on a failed
+ * table are skipped. All failures are reported per object.
+ */
+public class ModelDeployer {
+
+	private final ConnectionProvider connectionProvider;
+
+	private final SQLGenerator generator;
+
+	private final int parallelism;
+
+	/**
+	 * @param aConnectionProvider the provider for the connections
+	 * @param aGenerator		  the generator for the target database
+	 * @param aParallelism		the number of connections to use; managed
+	 *							connections are always used by one thread
+	 */
+	public ModelDeployer(ConnectionProvider aConnectionProvider, SQLGenerator aGenerator, int aParallelism) {
+		connectionProvider = aConnectionProvider;
+		generator = aGenerator;
+		parallelism = aConnectionProvider.generatesManagedConnection() ? 1 : Math.max(1, aParallelism);
+	}
+
+	/**
+	 * A named group of statements executed in order on one connection.
+	 */
+	private static class DeploymentTask {
+
+		private final String objectName;
+
+		private final StatementList statements;
+
+		private DeploymentTask(String aObjectName, StatementList aStatements) {
+			objectName = aObjectName;
+			statements = aStatements;
+		}
+	}
+
+	/**
+	 * Deploy the model.
+	 *
+	 * @param aModel the model
+	 * @return the failed objects, empty if everything was deployed
+	 * @throws Exception will be thrown if no connection could be created
+	 */
+	public List<DeploymentFailure> deploy(Model aModel) throws Exception {
+
+		List<DeploymentFailure> theFailures = Collections.synchronizedList(new ArrayList<>());
+
+		BlockingQueue<Connection> theConnections = new LinkedBlockingQueue<>();
+		ExecutorService theExecutor = Executors.newFixedThreadPool(parallelism);
+		try {
+			for (int i = 0; i < parallelism; i++) {
+				theConnections.add(connectionProvider.createConnection());
+			}
+
+			// Objects without dependencies to tables
+			List<DeploymentTask> theBaseTasks = new ArrayList<>();
+			List<String> theSystemSchemas = generator.getDialect().getSystemSchemas();
+			for (String theSchema : aModel.getUsedSchemas()) {
+				if (theSystemSchemas == null || !theSystemSchemas.contains(theSchema)) {
+					theBaseTasks.add(new DeploymentTask(theSchema, generator.createAddSchemaStatement(theSchema)));
+				}
+			}
+			for (Domain theDomain : aModel.getDomains()) {
+				theBaseTasks.add(new DeploymentTask(theDomain.getName(), generator.createAddDomainStatement(theDomain)));
+			}
+			for (CustomType theCustomType : aModel.getCustomTypes()) {
+				theBaseTasks.add(new DeploymentTask(theCustomType.getName(), generator
+						.createAddCustomTypeStatement(theCustomType)));
+			}
+			runSequential(theExecutor, theConnections, theBaseTasks, theFailures);
+
+			// The tables, the first statement creates the table, the
+			// following ones add the primary key and the indexes
+			Map<Table, StatementList> theTableStatements = new LinkedHashMap<>();
+			List<List<DeploymentTask>> theTableTasks = new ArrayList<>();
+			for (Table theTable : aModel.getTables()) {
+				StatementList theStatements = generator.createAddTableStatement(theTable);
+				theTableStatements.put(theTable, theStatements);
+
+				StatementList theCreate = new StatementList();
+				theCreate.add(theStatements.get(0));
+				theTableTasks.add(Collections.singletonList(new DeploymentTask(theTable.getName(), theCreate)));
+			}
+			runParallel(theExecutor, theConnections, theTableTasks, theFailures);
+
+			Set<Table> theFailedTables = new HashSet<>();
+			for (Map.Entry<Table, StatementList> theEntry : theTableStatements.entrySet()) {
+				if (!theEntry.getValue().get(0).isExecuted()) {
+					theFailedTables.add(theEntry.getKey());
+				}
+			}
+
+			List<List<DeploymentTask>> theIndexTasks = new ArrayList<>();
+			for (Map.Entry<Table, StatementList> theEntry : theTableStatements.entrySet()) {
+				StatementList theStatements = theEntry.getValue();
+				if (theStatements.size() > 1 && !theFailedTables.contains(theEntry.getKey())) {
+					StatementList theIndexes = new StatementList();
+					theIndexes.addAll(theStatements.subList(1, theStatements.size()));
+					theIndexTasks.add(Collections.singletonList(new DeploymentTask(theEntry.getKey().getName(),
+							theIndexes)));
+				}
+			}
+			runParallel(theExecutor, theConnections, theIndexTasks, theFailures);
+
+			// Relations of the same importing table are created on the same
+			// connection to prevent lock conflicts
+			Map<Table, List<DeploymentTask>> theRelationTasks = new LinkedHashMap<>();
+			for (Relation theRelation : aModel.getRelations()) {
+				Table theFailedTable = theFailedTables.contains(theRelation.getImportingTable()) ? theRelation
+						.getImportingTable() : theRelation.getExportingTable();
+				if (theFailedTables.contains(theFailedTable)) {
+					theFailures.add(new DeploymentFailure(theRelation.getName(), "table " + theFailedTable.getName()
+							+ " failed"));
+					continue;
+				}
+				theRelationTasks.computeIfAbsent(theRelation.getImportingTable(), k -> new ArrayList<>()).add(
+						new DeploymentTask(theRelation.getName(), generator.createAddRelationStatement(theRelation)));
+			}
+			runParallel(theExecutor, theConnections, new ArrayList<>(theRelationTasks.values()), theFailures);
+
+			List<DeploymentTask> theViewTasks = new ArrayList<>();
+			for (View theView : aModel.getViews()) {
+				theViewTasks.add(new DeploymentTask(theView.getName(), generator.createAddViewStatement(theView)));
+			}
+			runSequential(theExecutor, theConnections, theViewTasks, theFailures);
+
+		} finally {
+			theExecutor.shutdown();
+			if (!connectionProvider.generatesManagedConnection()) {
+				for (Connection theConnection : theConnections) {
+					JDBCUtils.closeQuietly(theConnection);
+				}
+			}
+		}
+
+		return new ArrayList<>(theFailures);
+	}
+
+	private void runSequential(ExecutorService aExecutor, BlockingQueue<Connection> aConnections,
+			List<DeploymentTask> aTasks, List<DeploymentFailure> aFailures) throws Exception {
+		runParallel(aExecutor, aConnections, Collections.singletonList(aTasks), aFailures);
+	}
+
+	/**
+	 * Run the task groups in parallel. Each group is executed in order on one
+	 * connection. The method returns after all groups were executed.
+	 */
+	private void runParallel(ExecutorService aExecutor, BlockingQueue<Connection> aConnections,
+			List<List<DeploymentTask>> aTaskGroups, List<DeploymentFailure> aFailures) throws Exception {
+
+		List<Future<?>> theFutures = new ArrayList<>();
+		for (List<DeploymentTask> theGroup : aTaskGroups) {
+			theFutures.add(aExecutor.submit(() -> {
+				Connection theConnection = aConnections.take();
+				try {
+					for (DeploymentTask theTask : theGroup) {
+						execute(theConnection, theTask, aFailures);
+					}
+				} finally {
+					aConnections.add(theConnection);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> theFuture : theFutures) {
+			try {
+				theFuture.get();
+			} catch (ExecutionException e) {
+				Throwable theCause = e.getCause();
+				if (theCause instanceof Error) {
+					throw (Error) theCause;
+				}
+				if (theCause instanceof Exception) {
+					throw (Exception) theCause;
+				}
+				throw new Exception(theCause);
+			}
+		}
+	}
+
+	private void execute(Connection aConnection, DeploymentTask aTask, List<DeploymentFailure> aFailures) {
+		for (Statement theStatement : aTask.statements) {
+			try (java.sql.Statement theJDBCStatement = aConnection.createStatement()) {
+				theJDBCStatement.execute(theStatement.getSql());
+				theStatement.setExecuted(true);
+			} catch (Exception e) {
+				aFailures.add(new DeploymentFailure(aTask.objectName, theStatement, e));
+				return;
+			}
+		}
+	}
+}
@@ -18,9 +18,19 @@
 package de.erdesignerng.dialect;
 
 import de.erdesignerng.model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
 
 /**
@@ -34,8 +44,29 @@ public abstract class SQLGenerator<T extends Dialect> {
 
 	public static final String TAB = "	";
 
+	/**
+	 * Marks the start of the post load section in a bulk load script.
+	 */
+	public static final String POST_LOAD_SECTION_COMMENT = "-- Create indexes and constraints after loading the data";
+
+	private static final String ALTER_TABLE = "ALTER TABLE ";
+
+	private static final Set<String> ALTER_TABLE_KEYWORDS = new HashSet<>(Arrays.asList("ADD", "ALTER", "CHANGE",
+			"COLUMN", "CONSTRAINT", "DROP", "FOREIGN", "INDEX", "KEY", "MODIFY", "PRIMARY", "UNIQUE"));
+
+	private static final Set<String> CREATE_INDEX_MODIFIERS = new HashSet<>(Arrays.asList("UNIQUE", "BITMAP",
+			"CLUSTERED", "NONCLUSTERED", "FULLTEXT", "SPATIAL"));
+
+	private static final Set<String> METADATA_OBJECT_TYPES = new HashSet<>(Arrays.asList("VIEW", "SEQUENCE",
+			"SCHEMA", "DOMAIN", "TYPE"));
+
+	private static final Set<String> METADATA_COMMANDS = new HashSet<>(Arrays.asList("DROP", "COMMENT", "EXEC",
+			"EXECUTE", "GRANT", "REVOKE", "RENAME"));
+
 	private final T dialect;
 
+	private boolean onlineDDL;
+
 	public SQLGenerator(T aDialect) {
 		dialect = aDialect;
 	}
@@ -49,6 +80,21 @@ public abstract class SQLGenerator<T extends Dialect> {
 		return dialect;
 	}
 
+	public boolean isOnlineDDL() {
+		return onlineDDL;
+	}
+
+	/**
+	 * Generate online variants of index and constraint statements, which do
+	 * not lock the table exclusively while they are executed. Dialects without
+	 * online DDL generate the blocking statements.
+	 *
+	 * @param aOnlineDDL true to generate online statements
+	 */
+	public void setOnlineDDL(boolean aOnlineDDL) {
+		onlineDDL = aOnlineDDL;
+	}
+
 	protected String getSchemaSeparator() {
 		return ".";
 	}
@@ -130,6 +176,61 @@ public abstract class SQLGenerator<T extends Dialect> {
 	public StatementList createCreateAllObjects(Model aModel) {
 
 		StatementList theResult = new StatementList();
+		createCreateAllObjects(aModel, theResult::add);
+		return theResult;
+	}
+
+	/**
+	 * Create the DDL script for the whole model and pass every statement to
+	 * the consumer as soon as it is generated. The statements are emitted in
+	 * the same order as by {@link #createCreateAllObjects(Model)}, but
+	 * only the statements of the current model item are held in memory.
+	 *
+	 * @param aModel	the model
+	 * @param aConsumer the consumer for the generated statements
+	 */
+	public void createCreateAllObjects(Model aModel, Consumer<Statement> aConsumer) {
+		createCreateAllObjects(aModel, aConsumer, false);
+	}
+
+	/**
+	 * Create the DDL script for the whole model. The statements for tables,
+	 * views and relations are generated in parallel, but the resulting script
+	 * is identical to the one created by {@link #createCreateAllObjects(Model)}.
+	 *
+	 * @param aModel the model
+	 * @return the lists of statements
+	 */
+	public StatementList createCreateAllObjectsInParallel(Model aModel) {
+
+		StatementList theResult = new StatementList();
+		createCreateAllObjects(aModel, theResult::add, true);
+		return theResult;
+	}
+
+	/**
+	 * Create the DDL script for the whole model in an order suitable for bulk
+	 * loading the data. The tables are created without their indexes and
+	 * without foreign keys, these are created in a post load section at the
+	 * end of the script. The first statement of the post load section gets
+	 * the {@link #POST_LOAD_SECTION_COMMENT} as comment.
+	 *
+	 * @param aModel the model
+	 * @return the lists of statements
+	 */
+	public StatementList createCreateAllObjectsForBulkLoad(Model aModel) {
+
+		StatementList theResult = new StatementList();
+		createCreateAllObjects(aModel, theResult::add, false, true);
+		return theResult;
+	}
+
+	protected void createCreateAllObjects(Model aModel, Consumer<Statement> aConsumer, boolean aParallel) {
+		createCreateAllObjects(aModel, aConsumer, aParallel, false);
+	}
+
+	protected void createCreateAllObjects(Model aModel, Consumer<Statement> aConsumer, boolean aParallel,
+			boolean aBulkLoad) {
 
 		List<String> theSystemSchemas = new ArrayList<>();
 		List<String> theSchemasFromDialect = dialect.getSystemSchemas();
@@ -138,31 +239,460 @@ public abstract class SQLGenerator<T extends Dialect> {
 		}
         // We will not create the statements for system schemas.
         aModel.getUsedSchemas().stream().filter(theSchema -> !theSystemSchemas.contains(theSchema)).forEach(theSchema -> {
-            theResult.addAll(createAddSchemaStatement(theSchema));
+            createAddSchemaStatement(theSchema).forEach(aConsumer);
         });
 		for (Domain theDomain : aModel.getDomains()) {
-			theResult.addAll(createAddDomainStatement(theDomain));
+			createAddDomainStatement(theDomain).forEach(aConsumer);
 		}
 		for (CustomType theCustomType : aModel.getCustomTypes()) {
-			theResult.addAll(createAddCustomTypeStatement(theCustomType));
+			createAddCustomTypeStatement(theCustomType).forEach(aConsumer);
 		}
-		for (Table theTable : aModel.getTables()) {
-			theResult.addAll(createAddTableStatement(theTable));
+		if (!aBulkLoad) {
+			createStatementsFor(aModel.getTables(), this::createAddTableStatement, aConsumer, aParallel);
+			createStatementsFor(aModel.getViews(), this::createAddViewStatement, aConsumer, aParallel);
+			createStatementsFor(aModel.getRelations(), this::createAddRelationStatement, aConsumer, aParallel);
+			return;
 		}
-		for (View theView : aModel.getViews()) {
-			theResult.addAll(createAddViewStatement(theView));
+
+		createStatementsFor(aModel.getTables(), this::createAddTableStatementForBulkLoad, aConsumer, aParallel);
+		createStatementsFor(aModel.getViews(), this::createAddViewStatement, aConsumer, aParallel);
+
+		boolean[] theFirst = {true};
+		Consumer<Statement> thePostLoadConsumer = theStatement -> {
+			if (theFirst[0]) {
+				theFirst[0] = false;
+				theStatement.setComment(POST_LOAD_SECTION_COMMENT);
+			}
+			aConsumer.accept(theStatement);
+		};
+		createStatementsFor(aModel.getTables(), this::createPostLoadTableStatements, thePostLoadConsumer, aParallel);
+		createStatementsFor(aModel.getRelations(), this::createAddRelationStatement, thePostLoadConsumer, aParallel);
+	}
+
+	/**
+	 * Create a table for bulk loading. By default the table is created
+	 * completely, dialects supporting it create the indexes after loading the
+	 * data by {@link #createPostLoadTableStatements(Table)}.
+	 *
+	 * @param aTable the table
+	 * @return the statements
+	 */
+	protected StatementList createAddTableStatementForBulkLoad(Table aTable) {
+		return createAddTableStatement(aTable);
+	}
+
+	/**
+	 * Create the indexes of a table created by
+	 * {@link #createAddTableStatementForBulkLoad(Table)}.
+	 *
+	 * @param aTable the table
+	 * @return the statements
+	 */
+	protected StatementList createPostLoadTableStatements(Table aTable) {
+		return new StatementList();
+	}
+
+	private <E> void createStatementsFor(Collection<E> aItems, Function<E, StatementList> aGenerator,
+			Consumer<Statement> aConsumer, boolean aParallel) {
+		if (aParallel) {
+			// The generation is done concurrently, the consumer is still called in model order
+			aItems.parallelStream().map(aGenerator).forEachOrdered(theStatements -> theStatements.forEach(aConsumer));
+		} else {
+			for (E theItem : aItems) {
+				aGenerator.apply(theItem).forEach(aConsumer);
+			}
 		}
-		for (Relation theRelation : aModel.getRelations()) {
-			theResult.addAll(createAddRelationStatement(theRelation));
+	}
+
+	/**
+	 * Write the DDL script for the whole model to a writer while it is
+	 * generated. Every statement is followed by the script statement separator
+	 * and a line break, the same format as used when saving a script from the
+	 * sql editor.
+	 *
+	 * @param aModel  the model
+	 * @param aWriter the writer, it is not closed by this method
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void writeCreateAllObjects(Model aModel, Writer aWriter) throws IOException {
+
+		String theSeparator = createScriptStatementSeparator() + System.lineSeparator();
+		try {
+			createCreateAllObjects(aModel, theStatement -> {
+				try {
+					if (theStatement.getComment() != null) {
+						aWriter.write(theStatement.getComment());
+						aWriter.write(System.lineSeparator());
+					}
+					aWriter.write(theStatement.getSql());
+					aWriter.write(theSeparator);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Combine consecutive ALTER TABLE statements on the same table into a
+	 * single statement with multiple clauses, so the database rebuilds the
+	 * table only once. Only clauses the dialect accepts in a combined
+	 * statement are merged, all other statements are returned unchanged.
+	 *
+	 * @param aStatements the statements
+	 * @return the combined statements
+	 */
+	public StatementList createCombinedAlterTableStatements(List<Statement> aStatements) {
+		StatementList theResult = new StatementList();
+
+		String theTable = null;
+		String theGroup = null;
+		List<Statement> theStatements = new ArrayList<>();
+		List<String> theClauses = new ArrayList<>();
+		Set<String> theTargets = new HashSet<>();
+		for (Statement theStatement : aStatements) {
+			String theSql = theStatement.getSql();
+			String theStatementTable = null;
+			String theClause = null;
+			String theClauseGroup = null;
+			String[] theTableAndClause = splitAlterTableStatement(theSql);
+			if (theTableAndClause != null) {
+				theStatementTable = theTableAndClause[0];
+				theClause = theTableAndClause[1];
+				theClauseGroup = getAlterTableClauseGroup(theClause);
+			}
+
+			// All clauses of a statement refer to the table as it was before the
+			// statement, so an object is only altered once per statement
+			String theTarget = theClause != null ? getAlterTableClauseTarget(theClause) : null;
+			if (theClauseGroup != null && theClauseGroup.equals(theGroup) && theStatementTable.equals(theTable)
+					&& (theTarget == null || !theTargets.contains(theTarget))) {
+				theStatements.add(theStatement);
+				theClauses.add(theClause);
+				if (theTarget != null) {
+					theTargets.add(theTarget);
+				}
+				continue;
+			}
+
+			addCombinedAlterTableStatement(theResult, theTable, theGroup, theStatements, theClauses);
+			theStatements.clear();
+			theClauses.clear();
+			theTargets.clear();
+			if (theTarget != null) {
+				theTargets.add(theTarget);
+			}
+			theTable = theStatementTable;
+			theGroup = theClauseGroup;
+			theStatements.add(theStatement);
+			theClauses.add(theClause);
 		}
+		addCombinedAlterTableStatement(theResult, theTable, theGroup, theStatements, theClauses);
 
 		return theResult;
 	}
 
+	private void addCombinedAlterTableStatement(StatementList aResult, String aTable, String aGroup,
+			List<Statement> aStatements, List<String> aClauses) {
+		if (aStatements.size() == 1 || aGroup == null) {
+			aResult.addAll(aStatements);
+		} else if (!aStatements.isEmpty()) {
+			aResult.add(new Statement(ALTER_TABLE + aTable + " " + combineAlterTableClauses(aGroup, aClauses)));
+		}
+	}
+
+	/**
+	 * Get the group of an ALTER TABLE clause. Consecutive clauses of the same
+	 * group on the same table are combined by
+	 * {@link #combineAlterTableClauses(String, List)}.
+	 *
+	 * @param aClause the clause following the table name
+	 * @return the group or null if the clause cannot be combined with others
+	 */
+	protected String getAlterTableClauseGroup(String aClause) {
+		return null;
+	}
+
+	/**
+	 * Get the name of the column, index or constraint an ALTER TABLE clause
+	 * refers to.
+	 *
+	 * @param aClause the clause following the table name
+	 * @return the name in upper case or null if there is none
+	 */
+	protected String getAlterTableClauseTarget(String aClause) {
+		for (String theToken : StringUtils.split(aClause, " \t\r\n(")) {
+			String theWord = theToken.toUpperCase();
+			if (!ALTER_TABLE_KEYWORDS.contains(theWord)) {
+				return theWord;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Combine ALTER TABLE clauses of the same group.
+	 *
+	 * @param aGroup   the group
+	 * @param aClauses the clauses
+	 * @return the combined clause
+	 */
+	protected String combineAlterTableClauses(String aGroup, List<String> aClauses) {
+		return StringUtils.join(aClauses, ", ");
+	}
+
+	/**
+	 * Split an ALTER TABLE statement into the table name and the clauses.
+	 *
+	 * @param aSql the statement
+	 * @return the table name and the clauses or null if the statement is no
+	 *		 ALTER TABLE statement
+	 */
+	private static String[] splitAlterTableStatement(String aSql) {
+		if (aSql.regionMatches(true, 0, ALTER_TABLE, 0, ALTER_TABLE.length())) {
+			String theRest = aSql.substring(ALTER_TABLE.length()).trim();
+			int p = StringUtils.indexOfAny(theRest, " \t\r\n");
+			if (p > 0) {
+				return new String[] {theRest.substring(0, p), theRest.substring(p + 1).trim()};
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Split the clauses of an ALTER TABLE statement at the commas not
+	 * enclosed in parentheses or quotes.
+	 *
+	 * @param aClauses the clauses following the table name
+	 * @return the single clauses
+	 */
+	private static List<String> splitAlterTableClauses(String aClauses) {
+		List<String> theResult = new ArrayList<>();
+		int theDepth = 0;
+		char theQuote = 0;
+		int theStart = 0;
+		for (int i = 0; i < aClauses.length(); i++) {
+			char theChar = aClauses.charAt(i);
+			if (theQuote != 0) {
+				if (theChar == theQuote) {
+					theQuote = 0;
+				}
+			} else if (theChar == '\'' || theChar == '"' || theChar == '`') {
+				theQuote = theChar;
+			} else if (theChar == '(') {
+				theDepth++;
+			} else if (theChar == ')') {
+				theDepth--;
+			} else if (theChar == ',' && theDepth == 0) {
+				theResult.add(aClauses.substring(theStart, i).trim());
+				theStart = i + 1;
+			}
+		}
+		theResult.add(aClauses.substring(theStart).trim());
+		return theResult;
+	}
+
+	/**
+	 * Remove the comment lines in front of a statement.
+	 */
+	private static String stripLeadingComments(String aSql) {
+		String theResult = aSql.trim();
+		while (theResult.startsWith("--")) {
+			int p = theResult.indexOf('\n');
+			theResult = p < 0 ? "" : theResult.substring(p + 1).trim();
+		}
+		return theResult;
+	}
+
+	/**
+	 * Estimate the work the database has to do to execute a statement on
+	 * populated tables. The estimate only looks at the statement text, so it
+	 * works for generated scripts and change logs alike. Statements not known
+	 * to be cheap are estimated as a table rewrite.
+	 *
+	 * @param aStatement the statement
+	 * @return the estimated cost
+	 */
+	public MigrationCost estimateMigrationCost(Statement aStatement) {
+		String theSql = stripLeadingComments(aStatement.getSql());
+		String[] theWords = StringUtils.split(theSql.toUpperCase(), " \t\r\n(");
+		if (theWords.length == 0) {
+			return MigrationCost.METADATA_ONLY;
+		}
+		String[] theTableAndClauses = splitAlterTableStatement(theSql);
+		if (theTableAndClauses != null) {
+			return estimateAlterTableCost(splitAlterTableClauses(theTableAndClauses[1].toUpperCase()));
+		}
+		if ("CREATE".equals(theWords[0])) {
+			for (int i = 1; i < theWords.length; i++) {
+				if ("INDEX".equals(theWords[i])) {
+					return MigrationCost.INDEX_BUILD;
+				}
+				if (!CREATE_INDEX_MODIFIERS.contains(theWords[i])) {
+					break;
+				}
+			}
+			return MigrationCost.METADATA_ONLY;
+		}
+		if ("ALTER".equals(theWords[0]) && theWords.length > 1 && METADATA_OBJECT_TYPES.contains(theWords[1])) {
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (METADATA_COMMANDS.contains(theWords[0])) {
+			return MigrationCost.METADATA_ONLY;
+		}
+		return MigrationCost.TABLE_REWRITE;
+	}
+
+	/**
+	 * Estimate the cost of an ALTER TABLE statement. All clauses are executed
+	 * together, so the most expensive clause determines the cost.
+	 *
+	 * @param aClauses the clauses in upper case
+	 * @return the estimated cost
+	 */
+	protected MigrationCost estimateAlterTableCost(List<String> aClauses) {
+		MigrationCost theResult = null;
+		for (String theClause : aClauses) {
+			MigrationCost theCost = estimateAlterTableClauseCost(theClause);
+			theResult = theResult != null ? theResult.max(theCost) : theCost;
+		}
+		return theResult != null ? theResult : MigrationCost.METADATA_ONLY;
+	}
+
+	/**
+	 * Estimate the cost of a single ALTER TABLE clause. The default
+	 * implementation assumes a database that has to rewrite the table for
+	 * every column change except default values and renames.
+	 *
+	 * @param aClause the clause in upper case
+	 * @return the estimated cost or null if the clause is only an option of
+	 *		 the statement
+	 */
+	protected MigrationCost estimateAlterTableClauseCost(String aClause) {
+		if (aClause.startsWith("RENAME ")) {
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("DROP ")) {
+			if (aClause.startsWith("DROP COLUMN ")) {
+				return MigrationCost.TABLE_REWRITE;
+			}
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("ADD ")) {
+			if (containsKeyword(aClause, "FOREIGN KEY") || containsKeyword(aClause, "CHECK")) {
+				if (containsKeyword(aClause, "NOT VALID") || containsKeyword(aClause, "NOVALIDATE")) {
+					return MigrationCost.METADATA_ONLY;
+				}
+				return MigrationCost.TABLE_SCAN;
+			}
+			if (containsKeyword(aClause, "PRIMARY KEY") || containsKeyword(aClause, "UNIQUE")) {
+				return MigrationCost.INDEX_BUILD;
+			}
+			if (containsKeyword(aClause, "NOT NULL")) {
+				return MigrationCost.TABLE_REWRITE;
+			}
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("VALIDATE CONSTRAINT ")) {
+			return MigrationCost.TABLE_SCAN;
+		}
+		if (aClause.startsWith("ALTER ") || aClause.startsWith("MODIFY ") || aClause.startsWith("CHANGE ")) {
+			if (containsKeyword(aClause, "SET DEFAULT") || containsKeyword(aClause, "DROP DEFAULT")
+					|| containsKeyword(aClause, "DROP NOT NULL")) {
+				return MigrationCost.METADATA_ONLY;
+			}
+			if (containsKeyword(aClause, "SET NOT NULL")) {
+				return MigrationCost.TABLE_SCAN;
+			}
+		}
+		return MigrationCost.TABLE_REWRITE;
+	}
+
+	/**
+	 * Test if an ALTER TABLE clause adds columns without inline constraints.
+	 *
+	 * @param aClause the clause in upper case
+	 * @return true if only columns are added
+	 */
+	protected static boolean isAddColumnClause(String aClause) {
+		String[] theWords = StringUtils.split(aClause, " \t\r\n(");
+		if (theWords.length < 2 || !"ADD".equals(theWords[0])) {
+			return false;
+		}
+		if (!"COLUMN".equals(theWords[1]) && (ALTER_TABLE_KEYWORDS.contains(theWords[1])
+				|| "CHECK".equals(theWords[1]))) {
+			return false;
+		}
+		return !containsKeyword(aClause, "PRIMARY KEY") && !containsKeyword(aClause, "UNIQUE")
+				&& !containsKeyword(aClause, "REFERENCES");
+	}
+
+	/**
+	 * Test if a clause contains a keyword or a keyword sequence as whole words.
+	 *
+	 * @param aClause  the clause in upper case
+	 * @param aKeyword the keyword
+	 * @return true if the keyword was found
+	 */
+	protected static boolean containsKeyword(String aClause, String aKeyword) {
+		return Pattern.compile("\\b" + aKeyword.replace(" ", "\\s+") + "\\b").matcher(aClause).find();
+	}
+
+	/**
+	 * Get the table whose data is read or written by a statement.
+	 *
+	 * @param aStatement the statement
+	 * @return the table name as written in the statement or null if the
+	 *		 statement does not touch the data of a table
+	 */
+	public String getAffectedTableName(Statement aStatement) {
+		String theSql = stripLeadingComments(aStatement.getSql());
+		String[] theTableAndClauses = splitAlterTableStatement(theSql);
+		if (theTableAndClauses != null) {
+			return theTableAndClauses[0];
+		}
+		String[] theWords = StringUtils.split(theSql, " \t\r\n(");
+		if (estimateMigrationCost(aStatement) == MigrationCost.INDEX_BUILD) {
+			for (int i = 0; i < theWords.length - 1; i++) {
+				if ("ON".equalsIgnoreCase(theWords[i])) {
+					return theWords[i + 1];
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Create a query reading the estimated number of rows and the size in
+	 * bytes of a table from the database statistics. The query takes the
+	 * unquoted table name as its only parameter. A NULL value means the
+	 * figure is unknown.
+	 *
+	 * @return the query or null if the database statistics are read with
+	 *		 the standard JDBC metadata
+	 */
+	public String createTableStatisticsQuery() {
+		return null;
+	}
+
 	public String createScriptStatementSeparator() {
 		return ";";
 	}
 
+	/**
+	 * Test if a statement cannot be executed inside a transaction block, so
+	 * it has to be executed on its own with auto commit. This is checked on
+	 * the SQL, as scripts are also read from files.
+	 *
+	 * @param aStatement the statement
+	 * @return true if yes, else false
+	 */
+	public boolean requiresAutoCommit(Statement aStatement) {
+		return false;
+	}
+
 	public abstract StatementList createAddViewStatement(View aView);
 
 	public abstract StatementList createChangeViewStatement(View aView);
@@ -0,0 +1,160 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a SQL script into statements while reading it.
+ *
+ * Separators inside of string literals, quoted identifiers and comments are
+ * ignored. Only the current statement is held in memory, so scripts of any
+ * size can be processed. Statements containing only whitespace and comments
+ * are skipped.
+ */
+public class SQLScriptReader implements Closeable {
+
+	private static final int EOF = -1;
+
+	private final Reader reader;
+
+	private final String separator;
+
+	private int lookahead = EOF;
+
+	private boolean lookaheadValid;
+
+	private long statementCount;
+
+	public SQLScriptReader(Reader aReader, String aSeparator) {
+		reader = aReader;
+		separator = aSeparator;
+	}
+
+	private int read() throws IOException {
+		if (lookaheadValid) {
+			lookaheadValid = false;
+			return lookahead;
+		}
+		return reader.read();
+	}
+
+	private int peek() throws IOException {
+		if (!lookaheadValid) {
+			lookahead = reader.read();
+			lookaheadValid = true;
+		}
+		return lookahead;
+	}
+
+	/**
+	 * Read the next statement.
+	 *
+	 * @return the statement without separator, or null at the end of the script
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public Statement readStatement() throws IOException {
+		StringBuilder theStatement = new StringBuilder();
+		boolean hasContent = false;
+
+		int c;
+		while ((c = read()) != EOF) {
+			if (c == '\'' || c == '"') {
+				// String literal or quoted identifier, doubled quotes are
+				// read as two literals
+				hasContent = true;
+				theStatement.append((char) c);
+				int theQuote = c;
+				while ((c = read()) != EOF) {
+					theStatement.append((char) c);
+					if (c == theQuote) {
+						break;
+					}
+				}
+				continue;
+			}
+			if (c == '-' && peek() == '-') {
+				theStatement.append((char) c);
+				while ((c = read()) != EOF) {
+					theStatement.append((char) c);
+					if (c == '\n') {
+						break;
+					}
+				}
+				continue;
+			}
+			if (c == '/' && peek() == '*') {
+				theStatement.append((char) c).append((char) read());
+				int thePrevious = 0;
+				while ((c = read()) != EOF) {
+					theStatement.append((char) c);
+					if (thePrevious == '*' && c == '/') {
+						break;
+					}
+					thePrevious = c;
+				}
+				continue;
+			}
+
+			theStatement.append((char) c);
+			if (endsWithSeparator(theStatement)) {
+				theStatement.setLength(theStatement.length() - separator.length());
+				if (hasContent) {
+					statementCount++;
+					return new Statement(theStatement.toString().trim());
+				}
+				theStatement.setLength(0);
+			} else if (!Character.isWhitespace(c)) {
+				hasContent = true;
+			}
+		}
+
+		if (hasContent) {
+			statementCount++;
+			return new Statement(theStatement.toString().trim());
+		}
+		return null;
+	}
+
+	private boolean endsWithSeparator(StringBuilder aStatement) {
+		int theOffset = aStatement.length() - separator.length();
+		if (theOffset < 0) {
+			return false;
+		}
+		for (int i = 0; i < separator.length(); i++) {
+			if (aStatement.charAt(theOffset + i) != separator.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of statements read so far
+	 */
+	public long getStatementCount() {
+		return statementCount;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import java.sql.SQLException;
+
+/**
+ * The execution of a script file stopped because a statement failed.
+ */
+public class ScriptExecutionException extends SQLException {
+
+	private static final long serialVersionUID = -3402751387745193412L;
+
+	private final long statementNumber;
+
+	/**
+	 * Statements are not serializable, so the statement is lost when the
+	 * exception is.
+	 */
+	private final transient Statement statement;
+
+	public ScriptExecutionException(long aStatementNumber, Statement aStatement, SQLException aCause) {
+		super("Execution stopped at statement " + aStatementNumber + " : " + aCause.getMessage(), aCause.getSQLState(), aCause
+				.getErrorCode(), aCause);
+		statementNumber = aStatementNumber;
+		statement = aStatement;
+	}
+
+	/**
+	 * Get the number of the first statement not executed, starting with 1.
+	 * Without transactions this is the failed statement, else the first
+	 * statement of the rolled back transaction. The execution can be
+	 * continued by skipping all statements before it. Some drivers continue
+	 * a batch after a failed statement, so without transactions the following
+	 * statements of the same batch might already be executed.
+	 *
+	 * @return the statement number
+	 */
+	public long getStatementNumber() {
+		return statementNumber;
+	}
+
+	/**
+	 * @return the failed statement, or null after deserialization
+	 */
+	public Statement getStatement() {
+		return statement;
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Executes a SQL script file without loading it into memory.
+ *
+ * The statements are read from the file while the script is executed and
+ * passed to a {@link StatementExecutor} in windows of a limited size. With
+ * a transaction size, every window is a multiple of it, so the transactions
+ * are not split. With an {@link ExecutionCheckpointLog}, the executed
+ * statements are recorded, and the statements recorded by a former run are
+ * skipped.
+ */
+public class ScriptFileExecutor {
+
+	public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+	/**
+	 * Progress of a script execution.
+	 */
+	public interface ProgressListener {
+
+		/**
+		 * @param aBytesRead	  the number of bytes read from the file
+		 * @param aTotalBytes	 the size of the file
+		 * @param aStatementCount the number of executed statements
+		 */
+		void progress(long aBytesRead, long aTotalBytes, long aStatementCount);
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		private CountingInputStream(InputStream aStream) {
+			super(aStream);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int theResult = super.read();
+			if (theResult >= 0) {
+				count++;
+			}
+			return theResult;
+		}
+
+		@Override
+		public int read(byte[] aBuffer, int aOffset, int aLength) throws IOException {
+			int theResult = super.read(aBuffer, aOffset, aLength);
+			if (theResult > 0) {
+				count += theResult;
+			}
+			return theResult;
+		}
+
+		@Override
+		public long skip(long aCount) throws IOException {
+			long theResult = super.skip(aCount);
+			count += theResult;
+			return theResult;
+		}
+	}
+
+	private final StatementExecutor executor;
+
+	private final String separator;
+
+	private final Charset charset;
+
+	public ScriptFileExecutor(StatementExecutor aExecutor, String aSeparator, Charset aCharset) {
+		executor = aExecutor;
+		separator = aSeparator;
+		charset = aCharset;
+	}
+
+	private int getWindowSize() {
+		int theUnit = executor.getTransactionSize() > 0 ? executor.getTransactionSize() : executor.getBatchSize();
+		return Math.max(1, (DEFAULT_WINDOW_SIZE + theUnit - 1) / theUnit) * theUnit;
+	}
+
+	/**
+	 * Execute the script.
+	 *
+	 * @param aFile			 the script file
+	 * @param aSkipStatements the number of statements to skip, for instance
+	 *						to continue after a failed statement
+	 * @param aListener		 will be notified after every window of
+	 *						statements, may be null
+	 * @return the number of statements of the script processed, including
+	 *		 the skipped ones
+	 * @throws IOException  will be thrown if the file cannot be read
+	 * @throws SQLException will be thrown if a statement fails, in this case
+	 *					  a {@link ScriptExecutionException}
+	 */
+	public long execute(File aFile, long aSkipStatements, ProgressListener aListener) throws IOException,
+			SQLException {
+		return execute(aFile, aSkipStatements, null, aListener);
+	}
+
+	/**
+	 * Execute the script, continuing a former run recorded in a checkpoint log.
+	 *
+	 * @param aFile	 the script file
+	 * @param aLog	  the checkpoint log of the script
+	 * @param aListener will be notified after every window of statements, may
+	 *				  be null
+	 * @return the number of statements of the script processed, including
+	 *		 the restored ones
+	 * @throws IOException  will be thrown if the file or the log cannot be read
+	 *					  or written
+	 * @throws SQLException will be thrown if a statement fails, in this case
+	 *					  a {@link ScriptExecutionException}
+	 */
+	public long execute(File aFile, ExecutionCheckpointLog aLog, ProgressListener aListener) throws IOException,
+			SQLException {
+		return execute(aFile, 0, aLog, aListener);
+	}
+
+	private long execute(File aFile, long aSkipStatements, ExecutionCheckpointLog aLog,
+			ProgressListener aListener) throws IOException, SQLException {
+
+		long theTotalBytes = aFile.length();
+		int theWindowSize = getWindowSize();
+
+		CountingInputStream theStream = new CountingInputStream(new FileInputStream(aFile));
+		try (SQLScriptReader theReader = new SQLScriptReader(new BufferedReader(new InputStreamReader(theStream,
+				charset)), separator)) {
+
+			long theProcessed = 0;
+			List<Statement> theWindow = new ArrayList<>(theWindowSize);
+
+			Statement theStatement;
+			while ((theStatement = theReader.readStatement()) != null) {
+				if (theReader.getStatementCount() <= aSkipStatements) {
+					theProcessed++;
+					continue;
+				}
+				theWindow.add(theStatement);
+				if (theWindow.size() >= theWindowSize) {
+					theProcessed = executeWindow(theWindow, theProcessed, aLog);
+					if (aListener != null) {
+						aListener.progress(theStream.count, theTotalBytes, theProcessed);
+					}
+				}
+			}
+			theProcessed = executeWindow(theWindow, theProcessed, aLog);
+			if (aListener != null) {
+				aListener.progress(theTotalBytes, theTotalBytes, theProcessed);
+			}
+			return theProcessed;
+		}
+	}
+
+	private long executeWindow(List<Statement> aWindow, long aProcessed, ExecutionCheckpointLog aLog)
+			throws IOException, SQLException {
+		Consumer<Statement> theListener = null;
+		if (aLog != null) {
+			aLog.setWindow(aProcessed, aWindow);
+			aLog.restore();
+			theListener = aStatement -> {
+				try {
+					aLog.checkpoint(aStatement);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			};
+		}
+		try {
+			executor.execute(aWindow, theListener);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} catch (SQLException e) {
+			for (int i = 0; i < aWindow.size(); i++) {
+				if (!aWindow.get(i).isExecuted()) {
+					throw new ScriptExecutionException(aProcessed + i + 1, aWindow.get(i), e);
+				}
+			}
+			throw e;
+		}
+		long theResult = aProcessed + aWindow.size();
+		aWindow.clear();
+		return theResult;
+	}
+}
@@ -25,6 +25,12 @@ public class Statement {
 
 	private boolean saved;
 
+	private long executionTime;
+
+	private MigrationCostEstimate costEstimate;
+
+	private String comment;
+
 	public Statement(String aSQL) {
 		sql = aSQL;
 	}
@@ -64,6 +70,48 @@ public class Statement {
 		this.saved = saved;
 	}
 
+	/**
+	 * @return the execution time in milliseconds
+	 */
+	public long getExecutionTime() {
+		return executionTime;
+	}
+
+	/**
+	 * @param executionTime the execution time in milliseconds to set
+	 */
+	public void setExecutionTime(long executionTime) {
+		this.executionTime = executionTime;
+	}
+
+	/**
+	 * @return the cost estimate or null if the cost was not estimated
+	 */
+	public MigrationCostEstimate getCostEstimate() {
+		return costEstimate;
+	}
+
+	/**
+	 * @param costEstimate the cost estimate to set
+	 */
+	public void setCostEstimate(MigrationCostEstimate costEstimate) {
+		this.costEstimate = costEstimate;
+	}
+
+	/**
+	 * @return the comment written before the statement in a script or null
+	 */
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * @param comment the comment to set
+	 */
+	public void setComment(String comment) {
+		this.comment = comment;
+	}
+
 	@Override
 	public String toString() {
 		return sql;
@@ -0,0 +1,278 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.dialect;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Executes a list of statements on a JDBC connection.
+ *
+ * A single JDBC statement is reused for the whole script. If the driver
+ * supports it, statements are sent in batches of the configured size.
+ * Queries and other statements returning a result set cannot be batched, they
+ * are executed one by one after the pending batch was sent.
+ * Setting a transaction size greater than zero disables auto commit and
+ * commits after that many statements. If a statement fails, the open
+ * transaction is rolled back and its statements are marked as not executed
+ * again. Keep in mind that most databases commit DDL statements implicitly.
+ *
+ * Statements already marked as executed are skipped, so a failed script can
+ * be continued after the problem was fixed. In transaction mode, the listener
+ * is only notified about statements after they were committed.
+ *
+ * Some statements cannot run inside a transaction block, for instance the
+ * concurrent index builds of PostgreSQL. Before such a statement the pending
+ * batch is sent and the open transaction is committed, then the statement is
+ * executed on its own with auto commit.
+ */
+public class StatementExecutor {
+
+	private static final String[] RESULT_SET_KEYWORDS = {"SELECT", "WITH", "VALUES", "SHOW", "DESCRIBE", "DESC",
+			"EXPLAIN", "CALL", "EXEC", "EXECUTE"};
+
+	private final Connection connection;
+
+	private int batchSize = 1;
+
+	private int transactionSize = 0;
+
+	private Predicate<Statement> autoCommitRequired = aStatement -> false;
+
+	public StatementExecutor(Connection aConnection) {
+		connection = aConnection;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @param aBatchSize the number of statements sent to the database at once,
+	 *                   1 disables batching
+	 */
+	public void setBatchSize(int aBatchSize) {
+		batchSize = Math.max(1, aBatchSize);
+	}
+
+	public int getTransactionSize() {
+		return transactionSize;
+	}
+
+	/**
+	 * @param aTransactionSize the number of statements committed together, 0
+	 *                         keeps the auto commit mode of the connection
+	 */
+	public void setTransactionSize(int aTransactionSize) {
+		transactionSize = Math.max(0, aTransactionSize);
+	}
+
+	/**
+	 * @param aAutoCommitRequired tests if a statement has to be executed with
+	 *                            auto commit, see
+	 *                            {@link SQLGenerator#requiresAutoCommit(Statement)}
+	 */
+	public void setAutoCommitRequired(Predicate<Statement> aAutoCommitRequired) {
+		autoCommitRequired = aAutoCommitRequired;
+	}
+
+	/**
+	 * Execute the statements.
+	 *
+	 * @param aStatements the statements to execute
+	 * @param aListener   will be notified after every executed and committed
+	 *                    statement
+	 * @throws SQLException will be thrown if a statement fails
+	 */
+	public void execute(List<Statement> aStatements, Consumer<Statement> aListener) throws SQLException {
+
+		boolean theBatchMode = batchSize > 1 && connection.getMetaData().supportsBatchUpdates();
+		boolean theTransactionMode = transactionSize > 0;
+		boolean theAutoCommit = connection.getAutoCommit();
+
+		List<Statement> theBatch = new ArrayList<>();
+		List<Statement> theUncommitted = new ArrayList<>();
+		Consumer<Statement> theListener = theTransactionMode ? null : aListener;
+
+		if (theTransactionMode) {
+			connection.setAutoCommit(false);
+		}
+		try (java.sql.Statement theJDBCStatement = connection.createStatement()) {
+			for (Statement theStatement : aStatements) {
+				if (theStatement.isExecuted()) {
+					continue;
+				}
+
+				if (autoCommitRequired.test(theStatement)) {
+					executeBatch(theJDBCStatement, theBatch, theListener);
+					if (theTransactionMode) {
+						connection.commit();
+						committed(theUncommitted, aListener);
+					}
+					executeWithAutoCommit(theJDBCStatement, theStatement, aListener);
+					continue;
+				}
+
+				if (theTransactionMode) {
+					theUncommitted.add(theStatement);
+				}
+				if (theBatchMode && !returnsResultSet(theStatement.getSql())) {
+					theJDBCStatement.addBatch(theStatement.getSql());
+					theBatch.add(theStatement);
+					if (theBatch.size() >= batchSize) {
+						executeBatch(theJDBCStatement, theBatch, theListener);
+					}
+				} else {
+					// Keep the script order
+					executeBatch(theJDBCStatement, theBatch, theListener);
+
+					long theStart = System.nanoTime();
+					theJDBCStatement.execute(theStatement.getSql());
+					executed(theStatement, System.nanoTime() - theStart, theListener);
+				}
+
+				if (theTransactionMode && theUncommitted.size() >= transactionSize) {
+					executeBatch(theJDBCStatement, theBatch, theListener);
+					connection.commit();
+					committed(theUncommitted, aListener);
+				}
+			}
+
+			executeBatch(theJDBCStatement, theBatch, theListener);
+			if (theTransactionMode) {
+				connection.commit();
+				committed(theUncommitted, aListener);
+			}
+		} catch (SQLException e) {
+			if (theTransactionMode) {
+				connection.rollback();
+				for (Statement theStatement : theUncommitted) {
+					theStatement.setExecuted(false);
+				}
+			}
+			throw e;
+		} finally {
+			if (theTransactionMode) {
+				connection.setAutoCommit(theAutoCommit);
+			}
+		}
+	}
+
+	private void executeWithAutoCommit(java.sql.Statement aJDBCStatement, Statement aStatement,
+			Consumer<Statement> aListener) throws SQLException {
+		boolean theAutoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(true);
+		try {
+			long theStart = System.nanoTime();
+			aJDBCStatement.execute(aStatement.getSql());
+			executed(aStatement, System.nanoTime() - theStart, aListener);
+		} finally {
+			connection.setAutoCommit(theAutoCommit);
+		}
+	}
+
+	/**
+	 * Test if a statement might return a result set, judged by its first
+	 * keyword after leading comments and brackets.
+	 *
+	 * @param aSql the statement
+	 * @return true if the statement must not be batched
+	 */
+	static boolean returnsResultSet(String aSql) {
+		String theSql = aSql.trim();
+		while (true) {
+			if (theSql.startsWith("--")) {
+				int p = theSql.indexOf('\n');
+				theSql = p < 0 ? "" : theSql.substring(p + 1).trim();
+			} else if (theSql.startsWith("/*")) {
+				int p = theSql.indexOf("*/");
+				theSql = p < 0 ? "" : theSql.substring(p + 2).trim();
+			} else if (theSql.startsWith("(")) {
+				theSql = theSql.substring(1).trim();
+			} else {
+				break;
+			}
+		}
+
+		int theEnd = 0;
+		while (theEnd < theSql.length() && Character.isLetter(theSql.charAt(theEnd))) {
+			theEnd++;
+		}
+		String theKeyword = theSql.substring(0, theEnd);
+		for (String theCandidate : RESULT_SET_KEYWORDS) {
+			if (theCandidate.equalsIgnoreCase(theKeyword)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void executeBatch(java.sql.Statement aJDBCStatement, List<Statement> aBatch,
+			Consumer<Statement> aListener) throws SQLException {
+		if (aBatch.isEmpty()) {
+			return;
+		}
+
+		long theStart = System.nanoTime();
+		try {
+			aJDBCStatement.executeBatch();
+			// The time can only be measured for the whole batch
+			long theTime = (System.nanoTime() - theStart) / aBatch.size();
+			for (Statement theStatement : aBatch) {
+				executed(theStatement, theTime, aListener);
+			}
+		} catch (BatchUpdateException e) {
+			// Depending on the driver, the update counts contain the results
+			// up to the failed statement or for all statements of the batch,
+			// so statements after the failed one might be executed too
+			int[] theCounts = e.getUpdateCounts();
+			if (theCounts != null) {
+				long theTime = (System.nanoTime() - theStart) / aBatch.size();
+				for (int i = 0; i < theCounts.length && i < aBatch.size(); i++) {
+					if (theCounts[i] != java.sql.Statement.EXECUTE_FAILED) {
+						executed(aBatch.get(i), theTime, aListener);
+					}
+				}
+			}
+			throw e;
+		} finally {
+			aJDBCStatement.clearBatch();
+			aBatch.clear();
+		}
+	}
+
+	private void committed(List<Statement> aStatements, Consumer<Statement> aListener) {
+		if (aListener != null) {
+			aStatements.forEach(aListener);
+		}
+		aStatements.clear();
+	}
+
+	private void executed(Statement aStatement, long aNanos, Consumer<Statement> aListener) {
+		aStatement.setExecuted(true);
+		aStatement.setExecutionTime(aNanos / 1000000);
+		if (aListener != null) {
+			aListener.accept(aStatement);
+		}
+	}
+}
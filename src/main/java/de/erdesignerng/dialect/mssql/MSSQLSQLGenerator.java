@@ -17,6 +17,7 @@
  */
 package de.erdesignerng.dialect.mssql;
 
+import de.erdesignerng.dialect.MigrationCost;
 import de.erdesignerng.dialect.Statement;
 import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.sql92.SQL92SQLGenerator;
@@ -28,6 +29,8 @@ import de.erdesignerng.model.Table;
 import de.erdesignerng.model.View;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.List;
+
 /**
  * @author $Author: mirkosertic $
  * @version $Date: 2008-06-13 16:48:58 $
@@ -143,6 +146,10 @@ public class MSSQLSQLGenerator extends SQL92SQLGenerator<MSSQLDialect> {
 
 		theStatement.append(")");
 
+		if (isOnlineDDL()) {
+			theStatement.append(" WITH (ONLINE = ON)");
+		}
+
 		if (!StringUtils.isEmpty(theProperties.getFileGroup())) {
 			theStatement.append(" ON ");
 			theStatement.append("\"");
@@ -219,4 +226,82 @@ public class MSSQLSQLGenerator extends SQL92SQLGenerator<MSSQLDialect> {
 		theResult.add(new Statement(theStatement.toString()));
 		return theResult;
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getAlterTableClauseGroup(String aClause) {
+		String theClause = aClause.toUpperCase();
+		if (theClause.startsWith("ADD ")) {
+			return "ADD";
+		}
+		if (theClause.startsWith("DROP COLUMN ")) {
+			return "DROP COLUMN";
+		}
+		return null;
+	}
+
+	@Override
+	protected String combineAlterTableClauses(String aGroup, List<String> aClauses) {
+		StringBuilder theResult = new StringBuilder(aGroup);
+		for (int i = 0; i < aClauses.size(); i++) {
+			theResult.append(i > 0 ? ", " : " ");
+			theResult.append(aClauses.get(i).substring(aGroup.length()).trim());
+		}
+		return theResult.toString();
+	}
+
+	@Override
+	protected StatementList createOnlineAddRelationStatement(Relation aRelation, String aStatement) {
+		String theTableName = createUniqueTableName(aRelation.getImportingTable());
+		StatementList theResult = new StatementList();
+		theResult.add(new Statement(aStatement.replaceFirst(" ADD CONSTRAINT ", " WITH NOCHECK ADD CONSTRAINT ")));
+		theResult.add(new Statement("ALTER TABLE " + theTableName + " WITH CHECK CHECK CONSTRAINT "
+				+ createUniqueRelationName(aRelation)));
+		return theResult;
+	}
+
+	@Override
+	protected boolean isPrimaryKeyCreatedAfterBulkLoad() {
+		// The primary key is the clustered index by default
+		return false;
+	}
+
+	@Override
+	public MigrationCost estimateMigrationCost(Statement aStatement) {
+		MigrationCost theResult = super.estimateMigrationCost(aStatement);
+		if (theResult == MigrationCost.INDEX_BUILD && containsKeyword(aStatement.getSql().toUpperCase(),
+				"CREATE CLUSTERED INDEX")) {
+			// The table is rebuilt in the order of the clustered index
+			return MigrationCost.TABLE_REWRITE;
+		}
+		return theResult;
+	}
+
+	@Override
+	protected MigrationCost estimateAlterTableClauseCost(String aClause) {
+		if (aClause.startsWith("WITH NOCHECK ")) {
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("WITH CHECK CHECK CONSTRAINT ")) {
+			return MigrationCost.TABLE_SCAN;
+		}
+		if (aClause.startsWith("DROP COLUMN ")) {
+			// The space of dropped columns is only reclaimed by a rebuild
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("ADD ") && containsKeyword(aClause, "PRIMARY KEY")
+				&& !containsKeyword(aClause, "NONCLUSTERED")) {
+			return MigrationCost.TABLE_REWRITE;
+		}
+		if (isAddColumnClause(aClause) && containsKeyword(aClause, "DEFAULT")) {
+			// Since SQL Server 2012 the default of existing rows is kept in the metadata
+			return MigrationCost.METADATA_ONLY;
+		}
+		return super.estimateAlterTableClauseCost(aClause);
+	}
+
+	@Override
+	public String createTableStatisticsQuery() {
+		return "SELECT SUM(row_count), SUM(reserved_page_count) * 8192 FROM sys.dm_db_partition_stats "
+				+ "WHERE object_id = OBJECT_ID(?) AND index_id IN (0, 1)";
+	}
+}
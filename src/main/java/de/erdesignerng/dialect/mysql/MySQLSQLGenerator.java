@@ -17,6 +17,7 @@
  */
 package de.erdesignerng.dialect.mysql;
 
+import de.erdesignerng.dialect.MigrationCost;
 import de.erdesignerng.dialect.Statement;
 import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.sql92.SQL92SQLGenerator;
@@ -25,12 +26,17 @@ import de.erdesignerng.model.Index;
 import de.erdesignerng.model.Relation;
 import de.erdesignerng.model.Table;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author $Author: mirkosertic $
  * @version $Date: 2008-06-13 16:48:59 $
  */
 public class MySQLSQLGenerator extends SQL92SQLGenerator<MySQLDialect> {
 
+	private static final String ONLINE_ALTER_OPTIONS = ", ALGORITHM=INPLACE, LOCK=NONE";
+
 	public MySQLSQLGenerator(MySQLDialect aDialect) {
 		super(aDialect);
 	}
@@ -124,7 +130,7 @@ public class MySQLSQLGenerator extends SQL92SQLGenerator<MySQLDialect> {
 
 		theResult.add(new Statement(theStatement.toString()));
 
-		return theResult;
+		return createOnlineAlterTableStatements(theResult);
 
 	}
 
@@ -145,6 +151,50 @@ public class MySQLSQLGenerator extends SQL92SQLGenerator<MySQLDialect> {
 
 		theResult.add(new Statement(theStatement.toString()));
 
+		return createOnlineAlterTableStatements(theResult);
+	}
+
+	@Override
+	public StatementList createAddAttributeToTableStatement(Table aTable, Attribute<Table> aAttribute) {
+		return createOnlineAlterTableStatements(super.createAddAttributeToTableStatement(aTable, aAttribute));
+	}
+
+	@Override
+	public StatementList createRemoveAttributeFromTableStatement(Table aTable, Attribute<Table> aAttribute) {
+		return createOnlineAlterTableStatements(super.createRemoveAttributeFromTableStatement(aTable, aAttribute));
+	}
+
+	@Override
+	public StatementList createRemoveIndexFromTableStatement(Table aTable, Index aIndex) {
+		StatementList theResult = super.createRemoveIndexFromTableStatement(aTable, aIndex);
+		if (!isOnlineDDL()) {
+			return theResult;
+		}
+		StatementList theOnlineResult = new StatementList();
+		for (Statement theStatement : theResult) {
+			theOnlineResult.add(new Statement(theStatement.getSql() + createOnlineCreateIndexSuffix()));
+		}
+		return theOnlineResult;
+	}
+
+	@Override
+	protected String createOnlineCreateIndexSuffix() {
+		return " ALGORITHM=INPLACE LOCK=NONE";
+	}
+
+	/**
+	 * Request an in place alteration without locks. MySQL refuses to execute
+	 * the statement if the alteration requires a table copy or a lock, instead
+	 * of blocking the table.
+	 */
+	private StatementList createOnlineAlterTableStatements(StatementList aStatements) {
+		if (!isOnlineDDL()) {
+			return aStatements;
+		}
+		StatementList theResult = new StatementList();
+		for (Statement theStatement : aStatements) {
+			theResult.add(new Statement(theStatement.getSql().trim() + ONLINE_ALTER_OPTIONS));
+		}
 		return theResult;
 	}
 
@@ -333,4 +383,82 @@ public class MySQLSQLGenerator extends SQL92SQLGenerator<MySQLDialect> {
 		}
 		return theBuilder.toString();
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getAlterTableClauseGroup(String aClause) {
+		String theClause = aClause.toUpperCase();
+		// Renamed columns and foreign keys are altered in separate statements
+		if (theClause.startsWith("CHANGE ") || theClause.contains("FOREIGN KEY")) {
+			return null;
+		}
+		if (theClause.startsWith("ADD ") || theClause.startsWith("MODIFY ") || theClause.startsWith("DROP ")) {
+			return aClause.endsWith(ONLINE_ALTER_OPTIONS) ? ONLINE_ALTER_OPTIONS : "";
+		}
+		return null;
+	}
+
+	@Override
+	protected String combineAlterTableClauses(String aGroup, List<String> aClauses) {
+		if (aGroup.isEmpty()) {
+			return super.combineAlterTableClauses(aGroup, aClauses);
+		}
+		// The online options are given once for the combined statement
+		List<String> theClauses = new ArrayList<>();
+		for (String theClause : aClauses) {
+			theClauses.add(theClause.substring(0, theClause.length() - aGroup.length()));
+		}
+		return super.combineAlterTableClauses(aGroup, theClauses) + aGroup;
+	}
+
+	@Override
+	protected boolean isPrimaryKeyCreatedAfterBulkLoad() {
+		// InnoDB stores the rows in the primary key index
+		return false;
+	}
+
+	@Override
+	protected MigrationCost estimateAlterTableCost(List<String> aClauses) {
+		MigrationCost theResult = super.estimateAlterTableCost(aClauses);
+		if (aClauses.contains("ALGORITHM=INPLACE")) {
+			// Columns are only added instantly with the default algorithm
+			for (String theClause : aClauses) {
+				if (isAddColumnClause(theClause)) {
+					return MigrationCost.TABLE_REWRITE;
+				}
+			}
+		}
+		return theResult;
+	}
+
+	@Override
+	protected MigrationCost estimateAlterTableClauseCost(String aClause) {
+		if (aClause.startsWith("ALGORITHM=") || aClause.startsWith("LOCK=")) {
+			return null;
+		}
+		if (aClause.startsWith("DROP PRIMARY KEY") || aClause.startsWith("ADD ")
+				&& (containsKeyword(aClause, "PRIMARY KEY") || containsKeyword(aClause, "FOREIGN KEY"))) {
+			// InnoDB stores the rows in the primary key index, and foreign keys
+			// are only added by copying the table while the checks are enabled
+			return MigrationCost.TABLE_REWRITE;
+		}
+		if (aClause.startsWith("ADD INDEX ") || aClause.startsWith("ADD KEY ")
+				|| aClause.startsWith("ADD FULLTEXT ") || aClause.startsWith("ADD SPATIAL ")) {
+			return MigrationCost.INDEX_BUILD;
+		}
+		if (aClause.startsWith("CHANGE ")) {
+			// Renames keep the column definition
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (isAddColumnClause(aClause)) {
+			// MySQL 8 adds columns instantly
+			return MigrationCost.METADATA_ONLY;
+		}
+		return super.estimateAlterTableClauseCost(aClause);
+	}
+
+	@Override
+	public String createTableStatisticsQuery() {
+		return "SELECT TABLE_ROWS, DATA_LENGTH + INDEX_LENGTH FROM information_schema.TABLES "
+				+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+	}
+}
@@ -17,14 +17,18 @@
  */
 package de.erdesignerng.dialect.oracle;
 
+import de.erdesignerng.dialect.MigrationCost;
 import de.erdesignerng.dialect.Statement;
 import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.sql92.SQL92SQLGenerator;
 import de.erdesignerng.model.Attribute;
 import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Relation;
 import de.erdesignerng.model.Table;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.List;
+
 /**
  * @author $Author: mirkosertic $
  * @version $Date: 2009-03-13 15:40:33 $
@@ -109,6 +113,9 @@ public class OracleSQLGenerator extends SQL92SQLGenerator<OracleDialect> {
 
 		theStatement.append("DROP INDEX ");
 		theStatement.append(aIndex.getName());
+		if (isOnlineDDL()) {
+			theStatement.append(" ONLINE");
+		}
 
 		theResult.add(new Statement(theStatement.toString()));
 
@@ -164,4 +171,74 @@ public class OracleSQLGenerator extends SQL92SQLGenerator<OracleDialect> {
 		}
 		return theResult.toString();
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getAlterTableClauseGroup(String aClause) {
+		String theClause = aClause.toUpperCase();
+		if (theClause.startsWith("ADD CONSTRAINT ")) {
+			return null;
+		}
+		if (theClause.startsWith("ADD ")) {
+			return "ADD";
+		}
+		if (theClause.startsWith("MODIFY ")) {
+			return "MODIFY";
+		}
+		if (theClause.startsWith("DROP COLUMN ")) {
+			return "DROP COLUMN";
+		}
+		return null;
+	}
+
+	@Override
+	protected String combineAlterTableClauses(String aGroup, List<String> aClauses) {
+		// Oracle expects a parenthesized list, i.e. ADD (A ..., B ...) or DROP (A, B)
+		StringBuilder theResult = new StringBuilder("DROP COLUMN".equals(aGroup) ? "DROP" : aGroup);
+		theResult.append(" (");
+		for (int i = 0; i < aClauses.size(); i++) {
+			if (i > 0) {
+				theResult.append(", ");
+			}
+			theResult.append(aClauses.get(i).substring(aGroup.length()).trim());
+		}
+		theResult.append(")");
+		return theResult.toString();
+	}
+
+	@Override
+	protected String createOnlineCreateIndexSuffix() {
+		return " ONLINE";
+	}
+
+	@Override
+	protected StatementList createOnlineAddRelationStatement(Relation aRelation, String aStatement) {
+		StatementList theResult = new StatementList();
+		theResult.add(new Statement(aStatement + " ENABLE NOVALIDATE"));
+		theResult.add(new Statement("ALTER TABLE " + createUniqueTableName(aRelation.getImportingTable())
+				+ " MODIFY CONSTRAINT " + createUniqueRelationName(aRelation) + " VALIDATE"));
+		return theResult;
+	}
+
+	@Override
+	protected MigrationCost estimateAlterTableClauseCost(String aClause) {
+		if (isAddColumnClause(aClause)) {
+			// Defaults of new columns are stored in the dictionary since 11g
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("DROP (")) {
+			return MigrationCost.TABLE_REWRITE;
+		}
+		if (aClause.startsWith("MODIFY CONSTRAINT ")) {
+			if (containsKeyword(aClause, "VALIDATE")) {
+				return MigrationCost.TABLE_SCAN;
+			}
+			return MigrationCost.METADATA_ONLY;
+		}
+		return super.estimateAlterTableClauseCost(aClause);
+	}
+
+	@Override
+	public String createTableStatisticsQuery() {
+		return "SELECT NUM_ROWS, NUM_ROWS * AVG_ROW_LEN FROM USER_TABLES WHERE TABLE_NAME = UPPER(?)";
+	}
+}
@@ -17,12 +17,15 @@
  */
 package de.erdesignerng.dialect.postgres;
 
+import de.erdesignerng.dialect.MigrationCost;
 import de.erdesignerng.dialect.Statement;
 import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.sql92.SQL92SQLGenerator;
 import de.erdesignerng.model.Attribute;
 import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Relation;
 import de.erdesignerng.model.Table;
+import java.util.regex.Pattern;
 
 /**
  * @author $Author: mirkosertic $
@@ -30,6 +33,10 @@ import de.erdesignerng.model.Table;
  */
 public class PostgresSQLGenerator extends SQL92SQLGenerator<PostgresDialect> {
 
+	private static final Pattern CONCURRENT_INDEX_STATEMENT = Pattern.compile(
+			"^\\s*(CREATE\\s+(UNIQUE\\s+)?INDEX|DROP\\s+INDEX|REINDEX\\s+.*)\\s+CONCURRENTLY\\b",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
 	public PostgresSQLGenerator(PostgresDialect aDialect) {
 		super(aDialect);
 	}
@@ -40,6 +47,9 @@ public class PostgresSQLGenerator extends SQL92SQLGenerator<PostgresDialect> {
 		StringBuilder theStatement = new StringBuilder();
 
 		theStatement.append("DROP INDEX ");
+		if (isOnlineDDL()) {
+			theStatement.append("CONCURRENTLY ");
+		}
 		theStatement.append(aIndex.getName());
 
 		theResult.add(new Statement(theStatement.toString()));
@@ -117,4 +127,56 @@ public class PostgresSQLGenerator extends SQL92SQLGenerator<PostgresDialect> {
 
 		return theResult;
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected String getAlterTableClauseGroup(String aClause) {
+		String theClause = aClause.toUpperCase();
+		if (theClause.startsWith("ADD ") || theClause.startsWith("ALTER ") || theClause.startsWith("DROP ")) {
+			return "";
+		}
+		return null;
+	}
+
+	@Override
+	public boolean requiresAutoCommit(Statement aStatement) {
+		return CONCURRENT_INDEX_STATEMENT.matcher(aStatement.getSql()).find();
+	}
+
+	@Override
+	protected String createOnlineCreateIndexPrefix() {
+		// Concurrent index builds cannot run inside a transaction block
+		return "CONCURRENTLY ";
+	}
+
+	@Override
+	protected StatementList createOnlineAddRelationStatement(Relation aRelation, String aStatement) {
+		StatementList theResult = new StatementList();
+		theResult.add(new Statement(aStatement + " NOT VALID"));
+		theResult.add(new Statement("ALTER TABLE " + createUniqueTableName(aRelation.getImportingTable())
+				+ " VALIDATE CONSTRAINT " + createUniqueRelationName(aRelation)));
+		return theResult;
+	}
+
+	@Override
+	protected MigrationCost estimateAlterTableClauseCost(String aClause) {
+		if (isAddColumnClause(aClause)) {
+			// Since PostgreSQL 11 a constant default is stored in the catalog,
+			// only a volatile default forces a rewrite
+			if (aClause.contains("SERIAL") || aClause.contains("NEXTVAL")) {
+				return MigrationCost.TABLE_REWRITE;
+			}
+			return MigrationCost.METADATA_ONLY;
+		}
+		if (aClause.startsWith("DROP ")) {
+			// Dropped columns are only hidden until the next rewrite
+			return MigrationCost.METADATA_ONLY;
+		}
+		return super.estimateAlterTableClauseCost(aClause);
+	}
+
+	@Override
+	public String createTableStatisticsQuery() {
+		return "SELECT CAST(reltuples AS BIGINT), pg_total_relation_size(oid) FROM pg_class "
+				+ "WHERE relkind = 'r' AND lower(relname) = lower(?)";
+	}
+}
@@ -112,6 +112,9 @@ public class SQL92SQLGenerator<T extends Dialect> extends SQLGenerator<T> {
 		}
 
 		theStatement.append("INDEX ");
+		if (isOnlineDDL()) {
+			theStatement.append(createOnlineCreateIndexPrefix());
+		}
 		theStatement.append(aIndex.getName());
 		theStatement.append(" ON ");
 		theStatement.append(createUniqueTableName(aTable));
@@ -134,6 +137,9 @@ public class SQL92SQLGenerator<T extends Dialect> extends SQLGenerator<T> {
 
 		theStatement.append(")");
 		theStatement.append(createCreateIndexSuffix(aIndex));
+		if (isOnlineDDL()) {
+			theStatement.append(createOnlineCreateIndexSuffix());
+		}
 
 		theResult.add(new Statement(theStatement.toString()));
 
@@ -220,11 +226,30 @@ public class SQL92SQLGenerator<T extends Dialect> extends SQLGenerator<T> {
 			}
 		}
 
+		if (isOnlineDDL()) {
+			return createOnlineAddRelationStatement(aRelation, theStatement.toString());
+		}
+
 		theResult.add(new Statement(theStatement.toString()));
 
 		return theResult;
 	}
 
+	/**
+	 * Create the online variant of a foreign key constraint. The constraint
+	 * is added without checking the existing rows and validated by a separate
+	 * statement, so the tables are not locked while the rows are checked.
+	 *
+	 * @param aRelation  the relation
+	 * @param aStatement the blocking ADD CONSTRAINT statement
+	 * @return the statements
+	 */
+	protected StatementList createOnlineAddRelationStatement(Relation aRelation, String aStatement) {
+		StatementList theResult = new StatementList();
+		theResult.add(new Statement(aStatement));
+		return theResult;
+	}
+
 	@Override
 	public StatementList createChangeIndexStatement(Index anExistingIndex, Index aNewIndex) {
 		StatementList theList = new StatementList();
@@ -312,6 +337,62 @@ public class SQL92SQLGenerator<T extends Dialect> extends SQLGenerator<T> {
 
 	@Override
 	public StatementList createAddTableStatement(Table aTable) {
+		StatementList theResult = createCreateTableStatement(aTable);
+
+		for (Index theIndex : aTable.getIndexes()) {
+			if (IndexType.PRIMARYKEY == theIndex.getIndexType()) {
+				theResult.addAll(createAddPrimaryKeyToTable(aTable, theIndex));
+			} else {
+				theResult.addAll(createAddIndexToTableStatement(aTable,
+						theIndex));
+			}
+		}
+
+		return theResult;
+	}
+
+	@Override
+	protected StatementList createAddTableStatementForBulkLoad(Table aTable) {
+		StatementList theResult = createCreateTableStatement(aTable);
+
+		Index thePrimaryKey = aTable.getPrimarykey();
+		if (thePrimaryKey != null && !isPrimaryKeyCreatedAfterBulkLoad()) {
+			theResult.addAll(createAddPrimaryKeyToTable(aTable, thePrimaryKey));
+		}
+
+		return theResult;
+	}
+
+	@Override
+	protected StatementList createPostLoadTableStatements(Table aTable) {
+		StatementList theResult = new StatementList();
+
+		for (Index theIndex : aTable.getIndexes()) {
+			if (IndexType.PRIMARYKEY == theIndex.getIndexType()) {
+				if (isPrimaryKeyCreatedAfterBulkLoad()) {
+					theResult.addAll(createAddPrimaryKeyToTable(aTable, theIndex));
+				}
+			} else {
+				theResult.addAll(createAddIndexToTableStatement(aTable,
+						theIndex));
+			}
+		}
+
+		return theResult;
+	}
+
+	/**
+	 * Test if the primary key of a table can be created after bulk loading.
+	 * Dialects storing the rows in the primary key index should create it
+	 * with the table, as adding it later rebuilds the whole table.
+	 *
+	 * @return true if the primary key is created in the post load section
+	 */
+	protected boolean isPrimaryKeyCreatedAfterBulkLoad() {
+		return true;
+	}
+
+	protected StatementList createCreateTableStatement(Table aTable) {
 		StatementList theResult = new StatementList();
 		StringBuilder theStatement = new StringBuilder();
 
@@ -340,15 +421,6 @@ public class SQL92SQLGenerator<T extends Dialect> extends SQLGenerator<T> {
 		theStatement.append(createCreateTableSuffix(aTable));
 		theResult.add(new Statement(theStatement.toString()));
 
-		for (Index theIndex : aTable.getIndexes()) {
-			if (IndexType.PRIMARYKEY == theIndex.getIndexType()) {
-				theResult.addAll(createAddPrimaryKeyToTable(aTable, theIndex));
-			} else {
-				theResult.addAll(createAddIndexToTableStatement(aTable,
-						theIndex));
-			}
-		}
-
 		return theResult;
 	}
 
@@ -361,6 +433,14 @@ public class SQL92SQLGenerator<T extends Dialect> extends SQLGenerator<T> {
 		return "";
 	}
 
+	protected String createOnlineCreateIndexPrefix() {
+		return "";
+	}
+
+	protected String createOnlineCreateIndexSuffix() {
+		return "";
+	}
+
 	protected String createCreateTableSuffix(Table aTable) {
 		return "";
 	}
@@ -41,6 +41,10 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
 
     private String extra;
 
+    private DataType declarationDatatype;
+
+    private String physicalDeclaration;
+
     /**
      * @return the nullable
      */
@@ -91,6 +95,7 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
     public void setNullable(boolean nullable) {
         synchronized (this) {
             this.nullable = nullable;
+            physicalDeclaration = null;
         }
     }
 
@@ -113,6 +118,7 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
                 }
             }
             datatype = aDataType;
+            physicalDeclaration = null;
         }
     }
 
@@ -123,6 +129,7 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
     public void setFraction(Integer fraction) {
         synchronized (this) {
             this.fraction = fraction;
+            physicalDeclaration = null;
         }
     }
 
@@ -139,6 +146,7 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
                 scale = DEFAULT_SCALE;
             }
             this.scale = scale;
+            physicalDeclaration = null;
         }
     }
 
@@ -149,6 +157,7 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
     public void setSize(Integer size) {
         synchronized (this) {
             this.size = size;
+            physicalDeclaration = null;
         }
     }
 
@@ -253,6 +262,7 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
     public void setExtra(String extra) {
         synchronized (this) {
             this.extra = extra;
+            physicalDeclaration = null;
         }
     }
 
@@ -266,9 +276,26 @@ public class Attribute<T extends ModelItem> extends OwnedModelItem<T> implements
         return !getName().equals(aAttribute.getName());
     }
 
+    /**
+     * Get the physical type declaration of this attribute.
+     *
+     * The declaration is cached until the datatype, size, fraction, scale,
+     * nullability or extra information of this attribute changes. Domains
+     * and custom types can change or be renamed independently of the
+     * attributes using them, so their declarations are not cached.
+     *
+     * @return the declaration
+     */
     public String getPhysicalDeclaration() {
         synchronized (this) {
-            return datatype.createTypeDefinitionFor(this);
+            if (datatype.isDomain() || datatype instanceof CustomType) {
+                return datatype.createTypeDefinitionFor(this);
+            }
+            if (physicalDeclaration == null || declarationDatatype != datatype) {
+                physicalDeclaration = datatype.createTypeDefinitionFor(this);
+                declarationDatatype = datatype;
+            }
+            return physicalDeclaration;
         }
     }
 
@@ -39,6 +39,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author $Author: mirkosertic $
@@ -76,6 +77,8 @@ public class Model extends ModelItem {
 
     private transient ModelModificationTracker modificationTracker = new EmptyModelModificationTracker();
 
+    private transient List<ModelChangeListener> changeListeners;
+
     /**
      * Add a table to the database model.
      *
@@ -100,6 +103,8 @@ public class Model extends ModelItem {
 
         aTable.setOwner(this);
         tables.add(aTable);
+
+        notifyAboutChange(aTable);
     }
 
     /**
@@ -120,6 +125,8 @@ public class Model extends ModelItem {
         modificationTracker.addRelation(aRelation);
 
         relations.add(aRelation);
+
+        notifyAboutChange(aRelation);
     }
 
     public Dialect getDialect() {
@@ -183,10 +190,26 @@ public class Model extends ModelItem {
 
         modificationTracker.removeTable(aTable);
 
+        final List<SubjectArea> theSubjectAreas = getSubjectAreasWith(aTable);
+        final List<Relation> theRelations = new ArrayList<>();
+        if (hasChangeListeners()) {
+            for (final Relation theRelation : relations) {
+                if (theRelation.getImportingTable() == aTable || theRelation.getExportingTable() == aTable) {
+                    theRelations.add(theRelation);
+                }
+            }
+        }
+
         tables.remove(aTable);
         relations.removeByTable(aTable);
 
         subjectAreas.removeTable(aTable);
+
+        notifyAboutRemoval(aTable);
+        for (final Relation theRelation : theRelations) {
+            notifyAboutRemoval(theRelation);
+        }
+        notifyAboutSubjectAreas(theSubjectAreas);
     }
 
     /**
@@ -200,6 +223,8 @@ public class Model extends ModelItem {
 
         modificationTracker.removeRelation(aRelation);
         relations.remove(aRelation);
+
+        notifyAboutRemoval(aRelation);
     }
 
     public void removeAttributeFromTable(final Table aTable, final Attribute<Table> aAttribute)
@@ -224,6 +249,8 @@ public class Model extends ModelItem {
 
         modificationTracker.removeAttributeFromTable(aTable, aAttribute);
         aTable.getAttributes().removeById(aAttribute.getSystemId());
+
+        notifyAboutChange(aTable);
     }
 
     public void removeIndex(final Table aTable, final Index aIndex) throws VetoException {
@@ -234,6 +261,8 @@ public class Model extends ModelItem {
             modificationTracker.removeIndexFromTable(aTable, aIndex);
         }
         aTable.getIndexes().removeById(aIndex.getSystemId());
+
+        notifyAboutChange(aTable);
     }
 
     public void addAttributeToTable(final Table aTable, final Attribute<Table> aAttribute)
@@ -242,12 +271,16 @@ public class Model extends ModelItem {
 
         modificationTracker.addAttributeToTable(aTable, aAttribute);
         aTable.addAttribute(this, aAttribute);
+
+        notifyAboutChange(aTable);
     }
 
     public void changeAttribute(final Attribute<Table> anExistingAttribute, final Attribute<Table> aNewAttribute) throws Exception {
         modificationTracker.changeAttribute(anExistingAttribute, aNewAttribute);
 
         anExistingAttribute.restoreFrom(aNewAttribute);
+
+        notifyAboutChange(anExistingAttribute.getOwner());
     }
 
     public void addIndexToTable(final Table aTable, final Index aIndex)
@@ -261,6 +294,8 @@ public class Model extends ModelItem {
         }
 
         aTable.addIndex(this, aIndex);
+
+        notifyAboutChange(aTable);
     }
 
     public void changeIndex(final Index anExistingIndex, final Index aNewIndex)
@@ -269,6 +304,8 @@ public class Model extends ModelItem {
         modificationTracker.changeIndex(anExistingIndex, aNewIndex);
 
         anExistingIndex.restoreFrom(aNewIndex);
+
+        notifyAboutChange(anExistingIndex.getOwner());
     }
 
     public void renameTable(final Table aTable, final String aNewName) throws VetoException {
@@ -276,6 +313,8 @@ public class Model extends ModelItem {
         modificationTracker.renameTable(aTable, aNewName);
 
         aTable.setName(aNewName);
+
+        notifyAboutChange(aTable);
     }
 
     public void changeTableComment(final Table aTable, final String aNewComment)
@@ -284,6 +323,8 @@ public class Model extends ModelItem {
         modificationTracker.changeTableComment(aTable, aNewComment);
 
         aTable.setComment(aNewComment);
+
+        notifyAboutChange(aTable);
     }
 
     public void renameAttribute(final Attribute anExistingAttribute, final String aNewName)
@@ -291,6 +332,8 @@ public class Model extends ModelItem {
         modificationTracker.renameAttribute(anExistingAttribute, aNewName);
 
         anExistingAttribute.setName(aNewName);
+
+        notifyAboutChange(anExistingAttribute.getOwner());
     }
 
     public void changeRelation(final Relation aRelation, final Relation aTempRelation)
@@ -300,6 +343,8 @@ public class Model extends ModelItem {
         aRelation.restoreFrom(aTempRelation);
 
         relations.clearCache();
+
+        notifyAboutChange(aRelation);
     }
 
     public ModelModificationTracker getModificationTracker() {
@@ -311,6 +356,116 @@ public class Model extends ModelItem {
         this.modificationTracker = modificationTracker;
     }
 
+    /**
+     * Add a listener to be notified about changed items.
+     *
+     * @param aListener the listener
+     */
+    public void addChangeListener(final ModelChangeListener aListener) {
+        if (changeListeners == null) {
+            changeListeners = new CopyOnWriteArrayList<>();
+        }
+        changeListeners.add(aListener);
+    }
+
+    /**
+     * Remove a listener added by {@link #addChangeListener(ModelChangeListener)}.
+     *
+     * @param aListener the listener
+     */
+    public void removeChangeListener(final ModelChangeListener aListener) {
+        if (changeListeners != null) {
+            changeListeners.remove(aListener);
+        }
+    }
+
+    private boolean hasChangeListeners() {
+        return changeListeners != null && !changeListeners.isEmpty();
+    }
+
+    /**
+     * Notify about an item changed without the methods of the model, for
+     * instance its properties or its position.
+     * <p>
+     * Attributes refer to their data type by name, so the tables and custom
+     * types using a changed domain or custom type are reported as changed
+     * too.
+     *
+     * @param aItem the changed item
+     */
+    public void notifyAboutChange(final ModelItem aItem) {
+        if (hasChangeListeners()) {
+            final List<ModelItem> theItems = new ArrayList<>();
+            theItems.add(aItem);
+            if (aItem instanceof DataType) {
+                theItems.addAll(getItemsUsing((DataType) aItem));
+            }
+            for (final ModelItem theItem : theItems) {
+                for (final ModelChangeListener theListener : changeListeners) {
+                    theListener.itemChanged(theItem);
+                }
+            }
+        }
+    }
+
+    private List<ModelItem> getItemsUsing(final DataType aDataType) {
+        final List<ModelItem> theResult = new ArrayList<>();
+        for (final Table theTable : tables) {
+            if (isUsing(theTable.getAttributes(), aDataType)) {
+                theResult.add(theTable);
+            }
+        }
+        for (final CustomType theCustomType : customTypes) {
+            if (theCustomType != aDataType && isUsing(theCustomType.getAttributes(), aDataType)) {
+                theResult.add(theCustomType);
+            }
+        }
+        return theResult;
+    }
+
+    private static boolean isUsing(final List<? extends Attribute<?>> aAttributes, final DataType aDataType) {
+        for (final Attribute<?> theAttribute : aAttributes) {
+            if (theAttribute.getDatatype() == aDataType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notifyAboutRemoval(final ModelItem aItem) {
+        if (hasChangeListeners()) {
+            for (final ModelChangeListener theListener : changeListeners) {
+                theListener.itemRemoved(aItem);
+            }
+        }
+    }
+
+    private List<SubjectArea> getSubjectAreasWith(final ModelItem aItem) {
+        final List<SubjectArea> theResult = new ArrayList<>();
+        if (hasChangeListeners()) {
+            for (final SubjectArea theSubjectArea : subjectAreas) {
+                if (theSubjectArea.getTables().contains(aItem) || theSubjectArea.getViews().contains(aItem)
+                        || theSubjectArea.getComments().contains(aItem)) {
+                    theResult.add(theSubjectArea);
+                }
+            }
+        }
+        return theResult;
+    }
+
+    /**
+     * Subject areas are removed together with their last item.
+     */
+    private void notifyAboutSubjectAreas(final List<SubjectArea> aSubjectAreas) {
+        for (final SubjectArea theSubjectArea : aSubjectAreas) {
+            if (subjectAreas.contains(theSubjectArea)) {
+                notifyAboutChange(theSubjectArea);
+            } else {
+                notifyAboutRemoval(theSubjectArea);
+            }
+        }
+    }
+
     /**
      * Add a new subject area.
      *
@@ -318,6 +473,8 @@ public class Model extends ModelItem {
      */
     public void addSubjectArea(final SubjectArea aArea) {
         subjectAreas.add(aArea);
+
+        notifyAboutChange(aArea);
     }
 
     /**
@@ -327,6 +484,8 @@ public class Model extends ModelItem {
      */
     public void removeSubjectArea(final SubjectArea aArea) {
         subjectAreas.remove(aArea);
+
+        notifyAboutRemoval(aArea);
     }
 
     /**
@@ -385,8 +544,13 @@ public class Model extends ModelItem {
      * @param aComment the comment
      */
     public void removeComment(final Comment aComment) {
+        final List<SubjectArea> theSubjectAreas = getSubjectAreasWith(aComment);
+
         comments.remove(aComment);
         subjectAreas.removeComment(aComment);
+
+        notifyAboutRemoval(aComment);
+        notifyAboutSubjectAreas(theSubjectAreas);
     }
 
     /**
@@ -397,6 +561,8 @@ public class Model extends ModelItem {
     public void addComment(final Comment aComment) {
         aComment.setOwner(this);
         comments.add(aComment);
+
+        notifyAboutChange(aComment);
     }
 
     /**
@@ -450,6 +616,8 @@ public class Model extends ModelItem {
 
         aDomain.setOwner(this);
         domains.add(aDomain);
+
+        notifyAboutChange(aDomain);
     }
 
     /**
@@ -463,6 +631,8 @@ public class Model extends ModelItem {
         modificationTracker.removeDomain(aDomain);
 
         domains.remove(aDomain);
+
+        notifyAboutRemoval(aDomain);
     }
 
     /**
@@ -477,6 +647,8 @@ public class Model extends ModelItem {
 
         aCustomType.setOwner(this);
         customTypes.add(aCustomType);
+
+        notifyAboutChange(aCustomType);
     }
 
     /**
@@ -490,6 +662,8 @@ public class Model extends ModelItem {
         modificationTracker.removeCustomType(aCustomType);
 
         customTypes.remove(aCustomType);
+
+        notifyAboutRemoval(aCustomType);
     }
 
     /**
@@ -512,6 +686,8 @@ public class Model extends ModelItem {
 
         aView.setOwner(this);
         views.add(aView);
+
+        notifyAboutChange(aView);
     }
 
     /**
@@ -524,8 +700,13 @@ public class Model extends ModelItem {
 
         modificationTracker.removeView(aView);
 
+        final List<SubjectArea> theSubjectAreas = getSubjectAreasWith(aView);
+
         views.remove(aView);
         subjectAreas.removeView(aView);
+
+        notifyAboutRemoval(aView);
+        notifyAboutSubjectAreas(theSubjectAreas);
     }
 
     /**
@@ -558,6 +739,8 @@ public class Model extends ModelItem {
      */
     public void changeView(final View aView) throws VetoException {
         modificationTracker.changeView(aView);
+
+        notifyAboutChange(aView);
     }
 
     /**
@@ -570,17 +753,25 @@ public class Model extends ModelItem {
         theResult.addAll(getDomains());
 
         for (final Table theTable : tables) {
-            for (final Attribute<Table> theAttribute : theTable.getAttributes()) {
-                final DataType theType = theAttribute.getDatatype();
-                if (!theResult.contains(theType)) {
-                    theResult.add(theType);
-                }
-            }
+            addUsedDataTypes(theTable.getAttributes(), theResult);
+        }
+        for (final CustomType theCustomType : customTypes) {
+            addUsedDataTypes(theCustomType.getAttributes(), theResult);
         }
 
         return theResult;
     }
 
+    private static void addUsedDataTypes(final List<? extends Attribute<?>> aAttributes,
+            final DataTypeList aResult) {
+        for (final Attribute<?> theAttribute : aAttributes) {
+            final DataType theType = theAttribute.getDatatype();
+            if (!aResult.contains(theType)) {
+                aResult.add(theType);
+            }
+        }
+    }
+
     /**
      * Convert the model using defined conversion infos.
      *
@@ -605,18 +796,29 @@ public class Model extends ModelItem {
         for (final Domain theDomain : getDomains()) {
             theDomain.setConcreteType(aConversionInfo.getTypeMapping().get(
                     theDomain));
+            notifyAboutChange(theDomain);
         }
 
         // Convert the attributes
         for (final Table theTable : tables) {
-            for (final Attribute<Table> theAttribute : theTable.getAttributes()) {
-                final DataType theType = theAttribute.getDatatype();
+            convert(theTable.getAttributes(), aConversionInfo);
+            notifyAboutChange(theTable);
+        }
+        for (final CustomType theCustomType : customTypes) {
+            convert(theCustomType.getAttributes(), aConversionInfo);
+            notifyAboutChange(theCustomType);
+        }
+    }
 
-                // Never convert domains, only concrete types !
-                if (!theType.isDomain()) {
-                    theAttribute.setDatatype(aConversionInfo.getTypeMapping()
-                            .get(theType));
-                }
+    private static void convert(final List<? extends Attribute<?>> aAttributes,
+            final ConversionInfos aConversionInfo) {
+        for (final Attribute<?> theAttribute : aAttributes) {
+            final DataType theType = theAttribute.getDatatype();
+
+            // Never convert domains, only concrete types !
+            if (!theType.isDomain()) {
+                theAttribute.setDatatype(aConversionInfo.getTypeMapping()
+                        .get(theType));
             }
         }
     }
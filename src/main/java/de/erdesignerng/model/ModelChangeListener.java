@@ -0,0 +1,43 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model;
+
+/**
+ * Is notified about the changes of the items of a model.
+ * <p>
+ * A notification only names the changed item, the item can be changed further
+ * until its state is needed by the listener. Code changing an item without the
+ * methods of the model has to call {@link Model#notifyAboutChange(ModelItem)},
+ * otherwise the change is not journaled or saved incrementally.
+ */
+public interface ModelChangeListener {
+
+    /**
+     * An item was added or changed.
+     *
+     * @param aItem the item
+     */
+    void itemChanged(ModelItem aItem);
+
+    /**
+     * An item was removed from the model.
+     *
+     * @param aItem the item
+     */
+    void itemRemoved(ModelItem aItem);
+}
@@ -17,8 +17,14 @@
  */
 package de.erdesignerng.model;
 
+import de.erdesignerng.PlatformConfig;
 import de.erdesignerng.dialect.Dialect;
 import de.erdesignerng.model.serializer.AbstractXMLModelSerializer;
+import de.erdesignerng.model.serializer.ModelDirectorySerializer;
+import de.erdesignerng.model.serializer.ModelJournal;
+import de.erdesignerng.model.serializer.StreamingXMLModelReader;
+import de.erdesignerng.model.serializer.StreamingXMLModelWriter;
+import de.erdesignerng.model.serializer.binary.BinaryModelSerializer;
 import de.erdesignerng.model.serializer.repository.DictionaryModelSerializer;
 import de.erdesignerng.model.serializer.repository.RepositoryEntryDescriptor;
 import de.erdesignerng.model.serializer.xml10.XMLModel10Serializer;
@@ -29,15 +35,25 @@ import de.erdesignerng.model.serializer.xml50.XMLModel50Serializer;
 import de.erdesignerng.util.XMLUtils;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author $Author: mirkosertic $
@@ -45,22 +61,36 @@ import java.util.List;
  */
 public final class ModelIOUtilities {
 
+	private static final int COMPRESSION_BUFFER_SIZE = 65536;
+
 	private static ModelIOUtilities me;
 
 	private XMLUtils xmlUtils;
 
 	private final List<AbstractXMLModelSerializer> knownSerializers = new ArrayList<>();
 
+	private final StreamingXMLModelReader streamingReader;
+
+	private final StreamingXMLModelWriter streamingWriter;
+
+	private final BinaryModelSerializer binarySerializer = new BinaryModelSerializer();
+
+	private final ModelDirectorySerializer directorySerializer;
+
 	private ModelIOUtilities() throws ParserConfigurationException {
 		xmlUtils = XMLUtils.getInstance();
 		knownSerializers.add(new XMLModel10Serializer(xmlUtils));
 		knownSerializers.add(new XMLModel20Serializer(xmlUtils));
 		knownSerializers.add(new XMLModel30Serializer(xmlUtils));
 		knownSerializers.add(new XMLModel40Serializer(xmlUtils));
-		knownSerializers.add(new XMLModel50Serializer(xmlUtils));
+		XMLModel50Serializer theCurrentSerializer = new XMLModel50Serializer(xmlUtils);
+		knownSerializers.add(theCurrentSerializer);
+		streamingReader = new StreamingXMLModelReader(theCurrentSerializer);
+		streamingWriter = new StreamingXMLModelWriter(theCurrentSerializer);
+		directorySerializer = new ModelDirectorySerializer(streamingReader, streamingWriter);
 	}
 
-	public static ModelIOUtilities getInstance() throws ParserConfigurationException {
+	public static synchronized ModelIOUtilities getInstance() throws ParserConfigurationException {
 
 		if (me == null) {
 			me = new ModelIOUtilities();
@@ -68,12 +98,111 @@ public final class ModelIOUtilities {
 		return me;
 	}
 
+	/**
+	 * Test if a stream contains compressed data. The stream is reset to its
+	 * current position afterwards, so it must support mark and reset.
+	 *
+	 * @param aInputStream the input stream
+	 * @return true if yes, else false
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public static boolean isCompressed(InputStream aInputStream) throws IOException {
+		aInputStream.mark(2);
+		try {
+			int theFirst = aInputStream.read();
+			int theSecond = aInputStream.read();
+			return theSecond >= 0 && (theFirst | (theSecond << 8)) == GZIPInputStream.GZIP_MAGIC;
+		} finally {
+			aInputStream.reset();
+		}
+	}
+
+	/**
+	 * Prepare a stream for format detection. Compressed content is
+	 * decompressed while it is read.
+	 *
+	 * @param aInputStream the input stream
+	 * @return a stream supporting mark and reset giving the uncompressed content
+	 * @throws IOException will be thrown in case of an error
+	 */
+	private static InputStream openUncompressed(InputStream aInputStream) throws IOException {
+		if (!aInputStream.markSupported()) {
+			aInputStream = new BufferedInputStream(aInputStream);
+		}
+		if (isCompressed(aInputStream)) {
+			return new BufferedInputStream(new GZIPInputStream(aInputStream, COMPRESSION_BUFFER_SIZE));
+		}
+		return aInputStream;
+	}
+
+	/**
+	 * Load a model from XML input or from a binary snapshot, the format is
+	 * detected from the content. Both formats may also be compressed.
+	 *
+	 * @param aInputStream the input stream, it is closed afterwards
+	 * @param aValidate	true if an XML document shall be validated against its schema
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserializeModel(InputStream aInputStream, boolean aValidate) throws SAXException, IOException {
+		return deserializeModel(aInputStream, aValidate, false);
+	}
+
+	/**
+	 * Load a model from XML input or from a binary snapshot, the format is
+	 * detected from the content. Both formats may also be compressed.
+	 * <p>
+	 * Partial loading is only supported by binary snapshots, XML documents are
+	 * always read completely.
+	 *
+	 * @param aInputStream the input stream, it is closed afterwards
+	 * @param aValidate	true if an XML document shall be validated against its schema
+	 * @param aPartial	 true if the details of the tables shall be loaded on demand
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserializeModel(InputStream aInputStream, boolean aValidate, boolean aPartial)
+			throws SAXException, IOException {
+		aInputStream = openUncompressed(aInputStream);
+		if (BinaryModelSerializer.isSnapshot(aInputStream)) {
+			return deserializeModelFromBinary(aInputStream, aPartial);
+		}
+		return deserializeModelFromXML(aInputStream, aValidate);
+	}
+
 	public Model deserializeModelFromXML(InputStream aInputStream) throws SAXException, IOException {
+		return deserializeModelFromXML(aInputStream, true);
+	}
+
+	/**
+	 * Load a model from XML input, which may be compressed.
+	 * <p>
+	 * Skipping the validation makes opening a model faster, the document can
+	 * be validated later using {@link #validateModelXML(File)}.
+	 *
+	 * @param aInputStream the input stream, it is closed afterwards
+	 * @param aValidate	true if the document shall be validated against its schema
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserializeModelFromXML(InputStream aInputStream, boolean aValidate) throws SAXException,
+			IOException {
 		try {
+			aInputStream = openUncompressed(aInputStream);
+
+			// Models in the current format are read without building a DOM
+			// tree first, older formats still use the DOM based loaders
+			if (streamingReader.supportsDocument(aInputStream)) {
+				return streamingReader.read(aInputStream, aValidate);
+			}
+
 			Document theDocument = xmlUtils.parse(aInputStream);
 			for (AbstractXMLModelSerializer theSerializer : knownSerializers) {
 				if (theSerializer.supportsDocument(theDocument)) {
-					return theSerializer.deserializeModelFromXML(theDocument);
+					return theSerializer.deserializeModelFromXML(theDocument, aValidate);
 				}
 			}
 
@@ -86,6 +215,39 @@ public final class ModelIOUtilities {
 		}
 	}
 
+	/**
+	 * Validate a model file against the schema of its format version.
+	 * <p>
+	 * The compiled schemas are shared, so this method can be called from a
+	 * background thread while the model is already being edited.
+	 *
+	 * @param aFile the model file or model directory
+	 * @return the problems found, empty if the file is valid
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public List<SAXParseException> validateModelXML(File aFile) throws SAXException, IOException {
+		File theDirectory = getModelDirectory(aFile);
+		if (theDirectory != null) {
+			return directorySerializer.validate(theDirectory);
+		}
+		try (InputStream theStream = openUncompressed(new FileInputStream(aFile))) {
+			if (BinaryModelSerializer.isSnapshot(theStream)) {
+
+				// Snapshots have no schema to be validated against
+				return Collections.emptyList();
+			}
+			String theVersion = AbstractXMLModelSerializer.readVersion(theStream);
+			for (AbstractXMLModelSerializer theSerializer : knownSerializers) {
+				if (theSerializer.getVersion().equals(theVersion)) {
+					return theSerializer.validate(new StreamSource(theStream, aFile.toURI().toString()));
+				}
+			}
+		}
+
+		throw new IOException("Invalid document version");
+	}
+
 	/**
 	 * Serialize a model to XML output.
 	 *
@@ -95,7 +257,166 @@ public final class ModelIOUtilities {
 	 * @throws IOException		  will be thrown in case of an error
 	 */
 	public void serializeModelToXML(Model aModel, Writer aWriter) throws TransformerException, IOException {
-		new XMLModel50Serializer(xmlUtils).serializeModelToXML(aModel, aWriter);
+		streamingWriter.write(aModel, aWriter);
+	}
+
+	/**
+	 * Serialize a model to compressed XML output. The document is compressed
+	 * while it is written, so it is never held in memory as a whole.
+	 *
+	 * @param aModel		the model
+	 * @param aOutputStream the output stream, it is closed afterwards
+	 * @throws TransformerException will be thrown in case of an error
+	 * @throws IOException		  will be thrown in case of an error
+	 */
+	public void serializeModelToCompressedXML(Model aModel, OutputStream aOutputStream) throws TransformerException,
+			IOException {
+		streamingWriter.write(aModel, new OutputStreamWriter(new GZIPOutputStream(aOutputStream,
+				COMPRESSION_BUFFER_SIZE), PlatformConfig.getXMLEncoding()));
+	}
+
+	/**
+	 * Get the model directory of a file.
+	 *
+	 * @param aFile the file
+	 * @return the file itself if it is a model directory, the directory if
+	 *		 the file is the index of a model directory, else null
+	 */
+	public static File getModelDirectory(File aFile) {
+		if (ModelDirectorySerializer.isModelDirectory(aFile)) {
+			return aFile;
+		}
+		File theParent = aFile.getAbsoluteFile().getParentFile();
+		if (ModelDirectorySerializer.INDEX.equals(aFile.getName())
+				&& ModelDirectorySerializer.isModelDirectory(theParent)) {
+			return theParent;
+		}
+		return null;
+	}
+
+	/**
+	 * Load a model from a model directory.
+	 *
+	 * @param aDirectory the directory
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserializeModelFromDirectory(File aDirectory) throws SAXException, IOException {
+		return deserializeModelFromDirectory(aDirectory, false);
+	}
+
+	/**
+	 * Load a model from a model directory.
+	 *
+	 * @param aDirectory the directory
+	 * @param aPartial   true if the details of the tables shall be loaded on demand
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserializeModelFromDirectory(File aDirectory, boolean aPartial) throws SAXException,
+			IOException {
+		return deserializeModelFromDirectory(aDirectory, true, aPartial);
+	}
+
+	/**
+	 * Load a model from a model directory.
+	 * <p>
+	 * Skipping the validation makes opening a model faster, the directory can
+	 * be validated later using {@link #validateModelXML(File)}.
+	 *
+	 * @param aDirectory the directory
+	 * @param aValidate  true if the files shall be validated against the schema
+	 * @param aPartial   true if the details of the tables shall be loaded on demand
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserializeModelFromDirectory(File aDirectory, boolean aValidate, boolean aPartial)
+			throws SAXException, IOException {
+		return directorySerializer.deserialize(aDirectory, aValidate, aPartial);
+	}
+
+	/**
+	 * Save a model to a model directory. Only the files of changed items are
+	 * written.
+	 *
+	 * @param aModel	 the model
+	 * @param aDirectory the directory
+	 * @return the number of files written
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public int serializeModelToDirectory(Model aModel, File aDirectory) throws IOException {
+		return directorySerializer.serialize(aModel, aDirectory);
+	}
+
+	/**
+	 * Create a journal for the changes of a model.
+	 *
+	 * @param aFile the journal file
+	 * @return the journal
+	 */
+	public ModelJournal createModelJournal(File aFile) {
+		return new ModelJournal(aFile, streamingReader, streamingWriter);
+	}
+
+	/**
+	 * Recover a model from a journal. The journaled model file is loaded
+	 * completely and the changes of the journal are applied.
+	 *
+	 * @param aJournal the journal
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model recoverModel(ModelJournal aJournal) throws SAXException, IOException {
+		Model theModel;
+		File theModelFile = aJournal.getModelFile();
+		if (theModelFile == null) {
+			theModel = new Model();
+		} else if (getModelDirectory(theModelFile) != null) {
+			theModel = deserializeModelFromDirectory(getModelDirectory(theModelFile), false, false);
+		} else {
+			try (InputStream theStream = new BufferedInputStream(new FileInputStream(theModelFile))) {
+				theModel = deserializeModel(theStream, false);
+			}
+		}
+		return aJournal.replay(theModel);
+	}
+
+	/**
+	 * Load a model from a binary snapshot, which may be compressed.
+	 *
+	 * @param aInputStream the input stream, it is closed afterwards
+	 * @return the model
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public Model deserializeModelFromBinary(InputStream aInputStream) throws IOException {
+		return deserializeModelFromBinary(aInputStream, false);
+	}
+
+	/**
+	 * Load a model from a binary snapshot, which may be compressed.
+	 *
+	 * @param aInputStream the input stream, it is closed afterwards
+	 * @param aPartial	 true if the details of the tables shall be loaded on demand
+	 * @return the model
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public Model deserializeModelFromBinary(InputStream aInputStream, boolean aPartial) throws IOException {
+		return binarySerializer.deserialize(openUncompressed(aInputStream), aPartial);
+	}
+
+	/**
+	 * Serialize a model to a binary snapshot.
+	 *
+	 * @param aModel		the model
+	 * @param aOutputStream the output stream, it is closed afterwards
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void serializeModelToBinary(Model aModel, OutputStream aOutputStream) throws IOException {
+		binarySerializer.serialize(aModel, aOutputStream);
 	}
 
 	/**
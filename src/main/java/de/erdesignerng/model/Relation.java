@@ -45,6 +45,17 @@ public class Relation extends OwnedModelItem<Model> implements
 
     private CascadeType onUpdate = CascadeType.CASCADE;
 
+    /**
+     * Resolves the mapping of a relation which was read partially.
+     */
+    private volatile DetailsLoader<Relation> detailsLoader;
+
+    /**
+     * The thread running the details loader. Other threads wait on the
+     * monitor of the relation until the loading is finished.
+     */
+    private Thread loadingThread;
+
     /**
      * @return the end
      */
@@ -77,9 +88,58 @@ public class Relation extends OwnedModelItem<Model> implements
      * @return the mapping
      */
     public Map<IndexExpression, Attribute<Table>> getMapping() {
+        loadDetails();
         return mapping;
     }
 
+    /**
+     * Set the loader for the mapping of a partially read relation. The
+     * mapping refers to the attributes of both tables, so resolving it is
+     * deferred until it is accessed.
+     *
+     * @param aLoader the loader
+     */
+    public void setDetailsLoader(DetailsLoader<Relation> aLoader) {
+        detailsLoader = aLoader;
+    }
+
+    /**
+     * Test if the mapping of the relation is resolved.
+     *
+     * @return true if yes, else false
+     */
+    public boolean isDetailsLoaded() {
+        return detailsLoader == null;
+    }
+
+    private void loadDetails() {
+        if (detailsLoader == null) {
+            return;
+        }
+        synchronized (this) {
+            DetailsLoader<Relation> theLoader = detailsLoader;
+
+            // The loader itself adds to the mapping
+            if (theLoader == null || loadingThread == Thread.currentThread()) {
+                return;
+            }
+
+            loadingThread = Thread.currentThread();
+            try {
+                theLoader.loadDetails(this);
+
+                // Only published when complete, as the check above is done
+                // without the monitor
+                detailsLoader = null;
+            } catch (RuntimeException e) {
+                mapping.clear();
+                throw e;
+            } finally {
+                loadingThread = null;
+            }
+        }
+    }
+
     public CascadeType getOnDelete() {
         return onDelete;
     }
@@ -120,7 +180,7 @@ public class Relation extends OwnedModelItem<Model> implements
         setOnUpdate(aValue.getOnUpdate());
         getProperties().copyFrom(aValue.getProperties());
         for (IndexExpression theExpression : aValue.getMapping().keySet()) {
-            mapping.put(theExpression, aValue.getMapping().get(theExpression));
+            getMapping().put(theExpression, aValue.getMapping().get(theExpression));
         }
     }
 
@@ -139,7 +199,7 @@ public class Relation extends OwnedModelItem<Model> implements
             return true;
         }
 
-        List<Attribute> theMyAttributes = new ArrayList<>(mapping
+        List<Attribute> theMyAttributes = new ArrayList<>(getMapping()
                 .values());
         List<Attribute> theOtherAttributes = new ArrayList<>(aRelation
                 .getMapping().values());
@@ -176,9 +236,9 @@ public class Relation extends OwnedModelItem<Model> implements
         Index thePrimaryKey = importingTable.getPrimarykey();
         if (thePrimaryKey != null) {
             int thePrimaryKeyLength = thePrimaryKey.getExpressions().size();
-            if (thePrimaryKeyLength == mapping.size()) {
+            if (thePrimaryKeyLength == getMapping().size()) {
                 isOneToOne = true;
-                for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : mapping.entrySet()) {
+                for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : getMapping().entrySet()) {
                     if (!theEntry.getValue().isPrimaryKey()) {
                         isOneToOne = false;
                     }
@@ -200,7 +260,7 @@ public class Relation extends OwnedModelItem<Model> implements
      */
     public boolean isIdentifying() {
         boolean isIdentifying = true;
-        for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : mapping.entrySet()) {
+        for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : getMapping().entrySet()) {
             if (theEntry.getValue().isNullable()) {
                 isIdentifying = false;
             }
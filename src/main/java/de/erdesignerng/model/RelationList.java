@@ -20,6 +20,7 @@ package de.erdesignerng.model;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,18 +37,27 @@ public class RelationList extends ModelItemVector<Relation> {
 	// Just a cache for all foreign keys in the model
 	private final Set<Attribute<Table>> foreignKeyCache = new HashSet<>();
 
+	// Partially read relations, their foreign keys are added to the cache
+	// when they are needed
+	private final Set<Relation> pendingForeignKeys = new HashSet<>();
+
 	private final Map<Table, List<Relation>> relationsByImportingTable = new HashMap<>();
 	private final Map<Table, List<Relation>> relationsByExportingTable = new HashMap<>();
 
 	private void updateForeignKeyCache() {
 		synchronized (foreignKeyCache) {
 			foreignKeyCache.clear();
+			pendingForeignKeys.clear();
             this.forEach(this::addToForeignKeyCache);
 		}
 	}
 
 	private void addToForeignKeyCache(Relation theRelation) {
 		synchronized (foreignKeyCache) {
+			if (!theRelation.isDetailsLoaded()) {
+				pendingForeignKeys.add(theRelation);
+				return;
+			}
 			Map<IndexExpression, Attribute<Table>> theMap = theRelation.getMapping();
 			foreignKeyCache.addAll(theMap.values());
 		}
@@ -61,6 +71,17 @@ public class RelationList extends ModelItemVector<Relation> {
 	 */
 	public boolean isForeignKeyAttribute(Attribute<Table> aAttribute) {
 		synchronized (foreignKeyCache) {
+			if (!pendingForeignKeys.isEmpty()) {
+
+				// Foreign keys are attributes of the importing table
+				for (Iterator<Relation> theIt = pendingForeignKeys.iterator(); theIt.hasNext();) {
+					Relation theRelation = theIt.next();
+					if (theRelation.getImportingTable() == aAttribute.getOwner()) {
+						foreignKeyCache.addAll(theRelation.getMapping().values());
+						theIt.remove();
+					}
+				}
+			}
 			return foreignKeyCache.contains(aAttribute);
 		}
 	}
@@ -33,6 +33,17 @@ public class Table extends OwnedModelItem<Model> implements AttributeProvider<Ta
 
     private String schema;
 
+    /**
+     * Loads the attributes and indexes of a table which was read partially.
+     */
+    private volatile DetailsLoader<Table> detailsLoader;
+
+    /**
+     * The thread running the details loader. Other threads wait on the
+     * monitor of the table until the loading is finished.
+     */
+    private Thread loadingThread;
+
     /**
      * Add an attribute to the table.
      *
@@ -44,10 +55,10 @@ public class Table extends OwnedModelItem<Model> implements AttributeProvider<Ta
     public void addAttribute(Model aModel, Attribute<Table> aAttribute) throws ElementAlreadyExistsException,
             ElementInvalidNameException {
 
-        ModelUtilities.checkNameAndExistence(attributes, aAttribute, aModel.getDialect());
+        ModelUtilities.checkNameAndExistence(getAttributes(), aAttribute, aModel.getDialect());
 
         aAttribute.setOwner(this);
-        attributes.add(aAttribute);
+        getAttributes().add(aAttribute);
     }
 
     /**
@@ -60,13 +71,14 @@ public class Table extends OwnedModelItem<Model> implements AttributeProvider<Ta
      */
     public void addIndex(Model aModel, Index aIndex) throws ElementAlreadyExistsException, ElementInvalidNameException {
 
-        ModelUtilities.checkNameAndExistence(indexes, aIndex, aModel.getDialect());
+        ModelUtilities.checkNameAndExistence(getIndexes(), aIndex, aModel.getDialect());
         aIndex.setOwner(this);
 
-        indexes.add(aIndex);
+        getIndexes().add(aIndex);
     }
 
     public AttributeList<Table> getAttributes() {
+        loadDetails();
         return attributes;
     }
 
@@ -80,9 +92,58 @@ public class Table extends OwnedModelItem<Model> implements AttributeProvider<Ta
     }
 
     public IndexList getIndexes() {
+        loadDetails();
         return indexes;
     }
 
+    /**
+     * Set the loader for the attributes and indexes of a partially read
+     * table. They are loaded the first time they are accessed.
+     *
+     * @param aLoader the loader
+     */
+    public void setDetailsLoader(DetailsLoader<Table> aLoader) {
+        detailsLoader = aLoader;
+    }
+
+    /**
+     * Test if the attributes and indexes of the table are loaded.
+     *
+     * @return true if yes, else false
+     */
+    public boolean isDetailsLoaded() {
+        return detailsLoader == null;
+    }
+
+    private void loadDetails() {
+        if (detailsLoader == null) {
+            return;
+        }
+        synchronized (this) {
+            DetailsLoader<Table> theLoader = detailsLoader;
+
+            // The loader itself adds to the attributes and indexes
+            if (theLoader == null || loadingThread == Thread.currentThread()) {
+                return;
+            }
+
+            loadingThread = Thread.currentThread();
+            try {
+                theLoader.loadDetails(this);
+
+                // Only published when complete, as the check above is done
+                // without the monitor
+                detailsLoader = null;
+            } catch (RuntimeException e) {
+                attributes.clear();
+                indexes.clear();
+                throw e;
+            } finally {
+                loadingThread = null;
+            }
+        }
+    }
+
     public Index getPrimarykey() {
         for (Index theIndex : getIndexes()) {
             if (IndexType.PRIMARYKEY == theIndex.getIndexType()) {
@@ -153,13 +214,13 @@ public class Table extends OwnedModelItem<Model> implements AttributeProvider<Ta
         theCopy.setName(getName() + "_CLONE");
         theCopy.setOriginalName(getOriginalName());
         theCopy.getProperties().copyFrom(getProperties());
-        for (Attribute<Table> theAttribute : attributes) {
+        for (Attribute<Table> theAttribute : getAttributes()) {
             Attribute<Table> theClone = theAttribute.clone();
             theClone.setSystemId(ModelUtilities.createSystemIdFor());
             theClone.setOwner(theCopy);
             theCopy.getAttributes().add(theClone);
         }
-        for (Index theIndex : indexes) {
+        for (Index theIndex : getIndexes()) {
             Index theClone = theIndex.clone();
             theClone.setName(theClone.getName() + "_CLONE");
             theClone.setOwner(theCopy);
@@ -179,7 +240,7 @@ public class Table extends OwnedModelItem<Model> implements AttributeProvider<Ta
     public Attribute<Table> createNewAttribute() {
         Attribute<Table> theNewAttribute = new Attribute<>();
         theNewAttribute.setOwner(this);
-        attributes.add(theNewAttribute);
+        getAttributes().add(theNewAttribute);
         return theNewAttribute;
     }
 }
\ No newline at end of file
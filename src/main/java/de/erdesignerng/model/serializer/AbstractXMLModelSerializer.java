@@ -21,10 +21,18 @@ import de.erdesignerng.model.Model;
 import de.erdesignerng.model.OwnedModelItem;
 import de.erdesignerng.util.XMLUtils;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.validation.Schema;
@@ -57,23 +65,44 @@ public abstract class AbstractXMLModelSerializer extends CommonAbstractXMLSerial
 
     protected static final String COMMENTS = "Comments";
 
-    private AbstractXMLAttributeSerializer xmlAttributeSerializer = null;
+    /**
+     * Number of bytes that may be read to detect the version of a document.
+     */
+    private static final int VERSION_LOOKAHEAD_LIMIT = 1024 * 1024;
+
+    /**
+     * Compiled schemas by schema resource. A Schema is immutable and can be
+     * shared by all threads, only its validators must not be shared.
+     */
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final XMLInputFactory VERSION_INPUT_FACTORY = XMLInputFactory.newInstance();
 
-    private AbstractXMLCommentSerializer xmlCommentSerializer = null;
+    static {
+        VERSION_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        VERSION_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    }
+
+    // The item serializers are created lazily and may be requested by several
+    // threads loading models in parallel, they are stateless, so creating one
+    // twice does no harm as long as it is safely published
+    private volatile AbstractXMLAttributeSerializer xmlAttributeSerializer = null;
+
+    private volatile AbstractXMLCommentSerializer xmlCommentSerializer = null;
 
-    private AbstractXMLDomainSerializer xmlDomainSerializer = null;
+    private volatile AbstractXMLDomainSerializer xmlDomainSerializer = null;
 
-    private AbstractXMLCustomTypeSerializer xmlCustomTypeSerializer = null;
+    private volatile AbstractXMLCustomTypeSerializer xmlCustomTypeSerializer = null;
 
-    private AbstractXMLIndexSerializer xmlIndexSerializer = null;
+    private volatile AbstractXMLIndexSerializer xmlIndexSerializer = null;
 
-    private AbstractXMLRelationSerializer xmlRelationSerializer = null;
+    private volatile AbstractXMLRelationSerializer xmlRelationSerializer = null;
 
-    private AbstractXMLSubjectAreaSerializer xmlSubjectAreaSerializer = null;
+    private volatile AbstractXMLSubjectAreaSerializer xmlSubjectAreaSerializer = null;
 
-    private AbstractXMLTableSerializer xmlTableSerializer = null;
+    private volatile AbstractXMLTableSerializer xmlTableSerializer = null;
 
-	private AbstractXMLViewSerializer xmlViewSerializer = null;
+	private volatile AbstractXMLViewSerializer xmlViewSerializer = null;
 
     private XMLUtils utils = null;
 
@@ -97,53 +126,134 @@ public abstract class AbstractXMLModelSerializer extends CommonAbstractXMLSerial
     }
 
     public Model deserializeModelFromXML(Document aDocument) throws SAXException, IOException {
+        return deserializeModelFromXML(aDocument, true);
+    }
+
+    /**
+     * Deserialize a model from a document.
+     *
+     * @param aDocument the document
+     * @param aValidate true if the document shall be validated against the schema first
+     * @return the model
+     * @throws SAXException will be thrown in case of an error
+     * @throws IOException  will be thrown in case of an error
+     */
+    public Model deserializeModelFromXML(Document aDocument, boolean aValidate) throws SAXException, IOException {
 
         if (!supportsDocument(aDocument)) {
             throw new IOException("Unsupported model version");
         }
 
-        final List<SAXParseException> theExceptions = new ArrayList<>();
+        if (aValidate) {
+            List<SAXParseException> theExceptions = validate(new DOMSource(aDocument));
+            if (theExceptions.size() > 0) {
+                throw new IOException("Failed to validate document against schema", theExceptions.get(0));
+            }
+        }
+
+        return deserialize(aDocument);
+    }
+
+    /**
+     * Validate a document against the schema of this format.
+     *
+     * @param aSource the document
+     * @return the problems found, empty if the document is valid
+     * @throws SAXException will be thrown in case of an error
+     * @throws IOException  will be thrown in case of an error
+     */
+    public List<SAXParseException> validate(Source aSource) throws SAXException, IOException {
+
+        // Validators are not thread safe, so every validation gets its own
+        Validator theValidator = getSchema().newValidator();
+        List<SAXParseException> theExceptions = new ArrayList<>();
+        theValidator.setErrorHandler(createCollectingErrorHandler(theExceptions));
+        theValidator.validate(aSource);
 
-        // Validate the document
-        SchemaFactory theSchemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        return theExceptions;
+    }
 
-        // hook up org.XML.sax.ErrorHandler implementation.
-        ErrorHandler theHandler = new ErrorHandler() {
+    /**
+     * Get the compiled schema of this format. The schema is compiled only
+     * once and shared.
+     *
+     * @return the schema
+     * @throws SAXException will be thrown in case of an error
+     */
+    public Schema getSchema() throws SAXException {
+        String theResource = getSchemaResource();
+        Schema theSchema = SCHEMAS.get(theResource);
+        if (theSchema == null) {
+            synchronized (SCHEMAS) {
+                theSchema = SCHEMAS.get(theResource);
+                if (theSchema == null) {
+                    SchemaFactory theSchemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+                    theSchema = theSchemaFactory.newSchema(getClass().getResource(theResource));
+                    SCHEMAS.put(theResource, theSchema);
+                }
+            }
+        }
+        return theSchema;
+    }
+
+    /**
+     * Create an error handler collecting all problems instead of failing.
+     *
+     * @param aExceptions the list the problems are added to
+     * @return the handler
+     */
+    public static ErrorHandler createCollectingErrorHandler(final List<SAXParseException> aExceptions) {
+        return new ErrorHandler() {
 
             @Override
             public void error(SAXParseException aException) {
-                theExceptions.add(aException);
+                aExceptions.add(aException);
             }
 
             @Override
             public void fatalError(SAXParseException aException) {
-                theExceptions.add(aException);
+                aExceptions.add(aException);
             }
 
             @Override
             public void warning(SAXParseException aException) {
-                theExceptions.add(aException);
+                aExceptions.add(aException);
             }
         };
-        theSchemaFactory.setErrorHandler(theHandler);
-
-        // get the custom xsd schema describing the required format for my XML
-        // files.
-        Schema theSchema = theSchemaFactory.newSchema(getClass().getResource(getSchemaResource()));
-
-        // Create a Validator capable of validating XML files according to my
-        // custom schema.
-        Validator validator = theSchema.newValidator();
-        validator.setErrorHandler(theHandler);
-
-        // parse the XML DOM tree against the stricter XSD schema
-        validator.validate(new DOMSource(aDocument));
+    }
 
-        if (theExceptions.size() > 0) {
-            throw new IOException("Failed to validate document against schema", theExceptions.get(0));
+    /**
+     * Read the model version from the root element of a document.
+     * <p>
+     * Only the beginning of the document is read, the stream is reset to its
+     * current position afterwards. The stream must support mark and reset.
+     *
+     * @param aStream the stream
+     * @return the version, or null if the document is not a model
+     * @throws IOException will be thrown in case of an error
+     */
+    public static String readVersion(InputStream aStream) throws IOException {
+        aStream.mark(VERSION_LOOKAHEAD_LIMIT);
+        try {
+            XMLStreamReader theReader = VERSION_INPUT_FACTORY.createXMLStreamReader(aStream);
+            try {
+                while (theReader.hasNext()) {
+                    if (theReader.next() == XMLStreamConstants.START_ELEMENT) {
+                        if (MODEL.equals(theReader.getLocalName())) {
+                            return theReader.getAttributeValue(null, VERSION);
+                        }
+                        return null;
+                    }
+                }
+                return null;
+            } finally {
+                theReader.close();
+            }
+        } catch (XMLStreamException e) {
+            return null;
+        } finally {
+            aStream.reset();
         }
-
-        return deserialize(aDocument);
     }
 
     public void serializeModelToXML(Model aModel, Writer aWriter) throws IOException, TransformerException {
@@ -173,7 +283,7 @@ public abstract class AbstractXMLModelSerializer extends CommonAbstractXMLSerial
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
-    protected abstract String getVersion();
+    public abstract String getVersion();
 
     protected abstract String getSchemaResource();
 
@@ -0,0 +1,529 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.serializer;
+
+import de.erdesignerng.PlatformConfig;
+import de.erdesignerng.dialect.DataTypeList;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelChangeListener;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Stores a model as a directory with one file per table, view and subject
+ * area.
+ * <p>
+ * The index file of the directory is a model document of the current format.
+ * Instead of the tables, views and subject areas it contains include elements
+ * with the names of their files. Every other file is a document with a single
+ * item as root element, named after the system id of the item.
+ * <p>
+ * A save only rewrites the files whose content changed, and files of deleted
+ * items are removed. So a small change of a large model is fast and gives a
+ * small diff in version control. The serializer listens to the changes of the
+ * models it saved or loaded, so only the items changed since are serialized
+ * again.
+ * <p>
+ * While loading, the table and view files are parsed concurrently. Relations
+ * and subject areas are resolved afterwards. The whole model is validated
+ * against the schema in the background, with the included files in place of
+ * the include elements of the index.
+ *
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-15 14:28:52 $
+ */
+public class ModelDirectorySerializer {
+
+	public static final String INDEX = "model.mxm";
+
+	static final String INCLUDE = "Include";
+
+	static final String FILE = "file";
+
+	private static final String TABLES = "tables";
+
+	private static final String VIEWS = "views";
+
+	private static final String SUBJECTAREAS = "subjectareas";
+
+	private static final String FILE_EXTENSION = ".mxm";
+
+	private final StreamingXMLModelReader reader;
+
+	private final StreamingXMLModelWriter writer;
+
+	/**
+	 * The state of the files written or checked by the last saves, so that
+	 * unchanged files do not have to be read again.
+	 */
+	private final Map<File, FileState> fileStates = new ConcurrentHashMap<>();
+
+	/**
+	 * The model last saved to or loaded from a directory.
+	 */
+	private final Map<File, TrackedModel> trackedModels = new ConcurrentHashMap<>();
+
+	public ModelDirectorySerializer(StreamingXMLModelReader aReader, StreamingXMLModelWriter aWriter) {
+		reader = aReader;
+		writer = aWriter;
+	}
+
+	/**
+	 * Test if a file is a model directory.
+	 *
+	 * @param aFile the file
+	 * @return true if yes, else false
+	 */
+	public static boolean isModelDirectory(File aFile) {
+		return aFile != null && aFile.isDirectory() && new File(aFile, INDEX).isFile();
+	}
+
+	/**
+	 * Save a model to a directory. Only files with a changed content are
+	 * written. If the model was saved to or loaded from the directory before,
+	 * only the items changed since are serialized.
+	 *
+	 * @param aModel	 the model
+	 * @param aDirectory the directory, it is created if it does not exist
+	 * @return the number of files written
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public int serialize(Model aModel, File aDirectory) throws IOException {
+
+		Map<ModelItem, String> theFiles = new IdentityHashMap<>();
+		Set<String> theUsedNames = new HashSet<>();
+		for (Table theTable : aModel.getTables()) {
+			theFiles.put(theTable, createFileName(TABLES, theTable, theUsedNames));
+		}
+		for (View theView : aModel.getViews()) {
+			theFiles.put(theView, createFileName(VIEWS, theView, theUsedNames));
+		}
+		for (SubjectArea theSubjectArea : aModel.getSubjectAreas()) {
+			theFiles.put(theSubjectArea, createFileName(SUBJECTAREAS, theSubjectArea, theUsedNames));
+		}
+
+		for (String theSubdirectory : new String[] { TABLES, VIEWS, SUBJECTAREAS }) {
+			File theDirectory = new File(aDirectory, theSubdirectory);
+			if (!theDirectory.isDirectory() && !theDirectory.mkdirs()) {
+				throw new IOException("Cannot create directory " + theDirectory);
+			}
+		}
+
+		// All items are serialized if the model was not saved to or loaded
+		// from the directory before
+		Set<String> theChangedItems = null;
+		TrackedModel theTrackedModel = trackedModels.get(aDirectory.getAbsoluteFile());
+		if (theTrackedModel != null && theTrackedModel.model == aModel) {
+			theChangedItems = theTrackedModel.takeChangedItems();
+		} else {
+			theTrackedModel = track(aModel, aDirectory);
+		}
+
+		int theWritten = 0;
+		try {
+			for (Map.Entry<ModelItem, String> theEntry : theFiles.entrySet()) {
+				File theFile = new File(aDirectory, theEntry.getValue());
+				if (theChangedItems != null && !theChangedItems.contains(theEntry.getKey().getSystemId())
+						&& theFile.isFile()) {
+					continue;
+				}
+				StringWriter theContent = new StringWriter();
+				writer.writeFragment(theEntry.getKey(), theContent);
+				if (writeIfChanged(theFile, theContent.toString())) {
+					theWritten++;
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// The next save serializes all items again
+			untrack(theTrackedModel, aDirectory);
+			throw e;
+		}
+
+		// The index is written last, it only references complete files
+		StringWriter theIndex = new StringWriter();
+		writer.write(aModel, theIndex, theFiles);
+		if (writeIfChanged(new File(aDirectory, INDEX), theIndex.toString())) {
+			theWritten++;
+		}
+
+		// Remove the files of deleted items
+		for (String theSubdirectory : new String[] { TABLES, VIEWS, SUBJECTAREAS }) {
+			File[] theExisting = new File(aDirectory, theSubdirectory).listFiles();
+			if (theExisting == null) {
+				continue;
+			}
+			for (File theFile : theExisting) {
+				if (theFile.getName().endsWith(FILE_EXTENSION)
+						&& !theUsedNames.contains(theSubdirectory + "/" + theFile.getName())) {
+					fileStates.remove(theFile);
+					Files.delete(theFile.toPath());
+				}
+			}
+		}
+
+		return theWritten;
+	}
+
+	private static String createFileName(String aSubdirectory, ModelItem aItem, Set<String> aUsedNames) {
+		StringBuilder theName = new StringBuilder();
+		String theSystemId = aItem.getSystemId() != null ? aItem.getSystemId() : aItem.getName();
+		for (int i = 0; i < theSystemId.length(); i++) {
+			char theChar = theSystemId.charAt(i);
+			if (Character.isLetterOrDigit(theChar) || theChar == '-' || theChar == '_') {
+				theName.append(theChar);
+			} else {
+				theName.append('_');
+			}
+		}
+
+		String theFileName = aSubdirectory + "/" + theName + FILE_EXTENSION;
+		for (int i = 2; !aUsedNames.add(theFileName); i++) {
+			theFileName = aSubdirectory + "/" + theName + "_" + i + FILE_EXTENSION;
+		}
+		return theFileName;
+	}
+
+	private boolean writeIfChanged(File aFile, String aContent) throws IOException {
+		byte[] theBytes = aContent.getBytes(PlatformConfig.getXMLEncoding());
+		byte[] theDigest = digest(theBytes);
+
+		if (aFile.isFile() && aFile.length() == theBytes.length) {
+			FileState theState = fileStates.get(aFile);
+			boolean theUnchanged;
+			if (theState != null && theState.lastModified == aFile.lastModified()) {
+				theUnchanged = Arrays.equals(theState.digest, theDigest);
+			} else {
+				theUnchanged = Arrays.equals(Files.readAllBytes(aFile.toPath()), theBytes);
+			}
+			if (theUnchanged) {
+				fileStates.put(aFile, new FileState(aFile.lastModified(), theDigest));
+				return false;
+			}
+		}
+
+		// Replace the file in one step, so it is never left half written
+		File theTempFile = new File(aFile.getParentFile(), aFile.getName() + ".tmp");
+		Files.write(theTempFile.toPath(), theBytes);
+		Files.move(theTempFile.toPath(), aFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		fileStates.put(aFile, new FileState(aFile.lastModified(), theDigest));
+		return true;
+	}
+
+	private static byte[] digest(byte[] aContent) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(aContent);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Validate a model directory against the schema.
+	 *
+	 * @param aDirectory the directory
+	 * @return the problems found, empty if the model is valid
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public List<SAXParseException> validate(File aDirectory) throws SAXException, IOException {
+		return reader.validate(new File(aDirectory, INDEX));
+	}
+
+	/**
+	 * Load and validate a model from a directory. The table and view files
+	 * are parsed concurrently.
+	 *
+	 * @param aDirectory the directory
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserialize(File aDirectory) throws SAXException, IOException {
+		return deserialize(aDirectory, true, false);
+	}
+
+	/**
+	 * Load a model from a directory. The table and view files are parsed
+	 * concurrently.
+	 * <p>
+	 * In partial mode only the beginning of every table file is read, up to
+	 * the first attribute or index. The rest of the file is read when the
+	 * attributes or indexes of the table are accessed for the first time.
+	 * The mappings of the relations are also resolved on demand.
+	 *
+	 * @param aDirectory the directory
+	 * @param aValidate  true if the files shall be validated against the schema
+	 *				   while reading
+	 * @param aPartial   true to read the table details on demand
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model deserialize(File aDirectory, boolean aValidate, boolean aPartial) throws SAXException,
+			IOException {
+
+		// The validation reads all files, so it runs next to the loading
+		Future<List<SAXParseException>> theValidation = null;
+		if (aValidate) {
+			theValidation = ForkJoinPool.commonPool().submit(() -> validate(aDirectory));
+		}
+
+		Model theModel;
+		try {
+			theModel = read(aDirectory, aPartial);
+		} catch (SAXException | IOException | RuntimeException e) {
+			// An invalid file might break the model building before the
+			// validator had a chance to report it
+			checkValidation(theValidation);
+			throw e;
+		}
+		checkValidation(theValidation);
+
+		track(theModel, aDirectory);
+		return theModel;
+	}
+
+	private static void checkValidation(Future<List<SAXParseException>> aValidation) throws SAXException,
+			IOException {
+		if (aValidation == null) {
+			return;
+		}
+		List<SAXParseException> theExceptions;
+		try {
+			theExceptions = aValidation.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while validating model directory", e);
+		} catch (ExecutionException e) {
+			throw rethrow(e);
+		}
+		if (!theExceptions.isEmpty()) {
+			throw new IOException("Failed to validate document against schema", theExceptions.get(0));
+		}
+	}
+
+	/**
+	 * Get the exception to be thrown for a failed task, SAX and runtime
+	 * exceptions are thrown directly.
+	 */
+	private static IOException rethrow(ExecutionException aException) throws SAXException {
+		Throwable theCause = aException.getCause();
+		if (theCause instanceof SAXException) {
+			throw (SAXException) theCause;
+		}
+		if (theCause instanceof RuntimeException) {
+			throw (RuntimeException) theCause;
+		}
+		if (theCause instanceof IOException) {
+			return (IOException) theCause;
+		}
+		return new IOException(theCause);
+	}
+
+	private Model read(File aDirectory, boolean aPartial) throws SAXException, IOException {
+
+		StreamingXMLModelReader.ReadContext theContext = reader.new ReadContext(null);
+		theContext.setPartial(aPartial);
+		parse(new File(aDirectory, INDEX), theContext);
+		Model theModel = theContext.getModel();
+
+		DataTypeList theDataTypes = theContext.getAvailableDataTypes();
+		List<Callable<Model>> theTasks = new ArrayList<>();
+		for (final String theFile : theContext.getIncludes(AbstractXMLModelSerializer.TABLES)) {
+			theTasks.add(() -> {
+				StreamingXMLModelReader.ReadContext theFileContext = reader.new ReadContext(theDataTypes);
+				theFileContext.setHeaderOnly(aPartial);
+				parse(new File(aDirectory, theFile), theFileContext);
+				if (aPartial) {
+					for (Table theTable : theFileContext.getModel().getTables()) {
+						theTable.setDetailsLoader(aTable -> loadDetails(aTable, new File(aDirectory, theFile),
+								theDataTypes));
+					}
+				}
+				return theFileContext.getModel();
+			});
+		}
+		for (final String theFile : theContext.getIncludes(AbstractXMLModelSerializer.VIEWS)) {
+			theTasks.add(() -> {
+				StreamingXMLModelReader.ReadContext theFileContext = reader.new ReadContext(theDataTypes);
+				parse(new File(aDirectory, theFile), theFileContext);
+				return theFileContext.getModel();
+			});
+		}
+
+		try {
+			for (Future<Model> theFuture : ForkJoinPool.commonPool().invokeAll(theTasks)) {
+				Model theFileModel = theFuture.get();
+				for (Table theTable : theFileModel.getTables()) {
+					theTable.setOwner(theModel);
+					theModel.getTables().add(theTable);
+				}
+				for (View theView : theFileModel.getViews()) {
+					theView.setOwner(theModel);
+					theModel.getViews().add(theView);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading model directory", e);
+		} catch (ExecutionException e) {
+			throw rethrow(e);
+		}
+
+		// Subject areas reference tables and views, they are resolved
+		// together with the relations of the index
+		for (String theFile : theContext.getIncludes(AbstractXMLModelSerializer.SUBJECTAREAS)) {
+			parse(new File(aDirectory, theFile), theContext);
+		}
+
+		return theContext.resolveReferences();
+	}
+
+	private TrackedModel track(Model aModel, File aDirectory) {
+		TrackedModel theTrackedModel = new TrackedModel(aModel);
+		aModel.addChangeListener(theTrackedModel);
+		TrackedModel thePrevious = trackedModels.put(aDirectory.getAbsoluteFile(), theTrackedModel);
+		if (thePrevious != null) {
+			thePrevious.model.removeChangeListener(thePrevious);
+		}
+		return theTrackedModel;
+	}
+
+	private void untrack(TrackedModel aTrackedModel, File aDirectory) {
+		aTrackedModel.model.removeChangeListener(aTrackedModel);
+		trackedModels.remove(aDirectory.getAbsoluteFile(), aTrackedModel);
+	}
+
+	private void loadDetails(Table aTable, File aFile, DataTypeList aDataTypes) {
+		StreamingXMLModelReader.ReadContext theContext = reader.new ReadContext(aDataTypes);
+		try {
+			parse(aFile, theContext);
+		} catch (SAXException | IOException e) {
+			throw new IllegalStateException("Cannot load table " + aTable.getName(), e);
+		}
+
+		// The header might have been changed since it was read, so only the
+		// details are taken from the file
+		Table theTable = theContext.getModel().getTables().get(0);
+		for (Attribute<Table> theAttribute : theTable.getAttributes()) {
+			theAttribute.setOwner(aTable);
+			aTable.getAttributes().add(theAttribute);
+		}
+		for (Index theIndex : theTable.getIndexes()) {
+			theIndex.setOwner(aTable);
+			aTable.getIndexes().add(theIndex);
+		}
+
+		// Like the other loaders, the properties of the indexes also apply to
+		// the table
+		for (Map.Entry<String, String> theEntry : theTable.getProperties().getProperties().entrySet()) {
+			if (aTable.getProperties().getProperty(theEntry.getKey()) == null) {
+				aTable.getProperties().setProperty(theEntry.getKey(), theEntry.getValue());
+			}
+		}
+	}
+
+	private void parse(File aFile, StreamingXMLModelReader.ReadContext aContext) throws SAXException, IOException {
+		try (InputStream theStream = new BufferedInputStream(new FileInputStream(aFile))) {
+			reader.parse(theStream, aContext);
+		}
+	}
+
+	/**
+	 * Collects the system ids of the items of a model changed since it was
+	 * last saved or loaded. Changes of attributes and indexes change their
+	 * table.
+	 */
+	private static final class TrackedModel implements ModelChangeListener {
+
+		private final Model model;
+
+		private final Set<String> changedItems = ConcurrentHashMap.newKeySet();
+
+		private TrackedModel(Model aModel) {
+			model = aModel;
+		}
+
+		private Set<String> takeChangedItems() {
+			Set<String> theResult = new HashSet<>(changedItems);
+			changedItems.removeAll(theResult);
+			return theResult;
+		}
+
+		@Override
+		public void itemChanged(ModelItem aItem) {
+			ModelItem theItem = aItem;
+			if (theItem instanceof Attribute) {
+				theItem = ((Attribute<?>) theItem).getOwner();
+			} else if (theItem instanceof Index) {
+				theItem = ((Index) theItem).getOwner();
+			}
+			if (theItem != null) {
+				changedItems.add(theItem.getSystemId());
+			}
+		}
+
+		@Override
+		public void itemRemoved(ModelItem aItem) {
+			itemChanged(aItem);
+		}
+	}
+
+	/**
+	 * The content of a file as it was last written or checked.
+	 */
+	private static final class FileState {
+
+		private final long lastModified;
+
+		private final byte[] digest;
+
+		private FileState(long aLastModified, byte[] aDigest) {
+			lastModified = aLastModified;
+			digest = aDigest;
+		}
+	}
+}
@@ -0,0 +1,657 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.serializer;
+
+import de.erdesignerng.PlatformConfig;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Comment;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelChangeListener;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.modificationtracker.ChangeJournal;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.xml.sax.SAXException;
+
+/**
+ * An append only journal of the changes of a model, used to recover the
+ * changes not saved after a crash.
+ * <p>
+ * The journal starts with the file the model was loaded from or saved to.
+ * Changes are only collected while they are reported. A flush writes the
+ * current state of every changed table, view, relation, comment, subject area,
+ * domain and custom type as a document of its own, plus the ids of the
+ * removed items, so its cost depends on the size of the changes and not on the
+ * size of the model. The records are written and synced to disk by a
+ * background thread. Every flush ends with a marker, records after the last
+ * marker were not written completely and are ignored.
+ * <p>
+ * Saving the model starts the journal again. The file of an open journal is
+ * locked, so only journals of ended sessions are recovered.
+ *
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-15 14:28:52 $
+ */
+public class ModelJournal implements ModelChangeListener {
+
+	public static final String FILE_EXTENSION = ".mxj";
+
+	private static final String MODELFILE_PREFIX = "M ";
+
+	private static final String CHANGED_PREFIX = "P ";
+
+	private static final String REMOVED_PREFIX = "R ";
+
+	private static final String FLUSHED_MARKER = "--flushed";
+
+	/**
+	 * The order the changed items are read back in, items are read after the
+	 * items they refer to.
+	 */
+	private static final List<String> ELEMENTS = Arrays.asList(AbstractXMLModelSerializer.CONFIGURATION,
+			AbstractXMLCustomTypeSerializer.CUSTOMTYPE, AbstractXMLDomainSerializer.DOMAIN,
+			AbstractXMLTableSerializer.TABLE, AbstractXMLViewSerializer.VIEW, AbstractXMLCommentSerializer.COMMENT,
+			AbstractXMLRelationSerializer.RELATION, AbstractXMLSubjectAreaSerializer.SUBJECTAREA);
+
+	private final File file;
+
+	private final StreamingXMLModelReader reader;
+
+	private final StreamingXMLModelWriter writer;
+
+	private final Map<String, ModelItem> changedItems = new LinkedHashMap<>();
+
+	private final Map<String, ModelItem> removedItems = new LinkedHashMap<>();
+
+	private Model model;
+
+	/**
+	 * The configuration of the model as known to the journal.
+	 */
+	private Map<String, String> configuration;
+
+	private ExecutorService executor;
+
+	private FileChannel channel;
+
+	private FileLock lock;
+
+	private Future<?> lastWrite;
+
+	private volatile IOException writeError;
+
+	public ModelJournal(File aFile, StreamingXMLModelReader aReader, StreamingXMLModelWriter aWriter) {
+		file = aFile;
+		reader = aReader;
+		writer = aWriter;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Find the journals of ended sessions containing changes. Journals of
+	 * ended sessions without changes are deleted.
+	 *
+	 * @param aDirectory the directory of the journals
+	 * @return the journals
+	 */
+	public static List<File> findRecoverableJournals(File aDirectory) {
+		List<File> theResult = new ArrayList<>();
+		File[] theFiles = aDirectory.listFiles((aDir, aName) -> aName.endsWith(FILE_EXTENSION));
+		if (theFiles == null) {
+			return theResult;
+		}
+		for (File theFile : theFiles) {
+			try (FileChannel theChannel = FileChannel.open(theFile.toPath(), StandardOpenOption.WRITE)) {
+				FileLock theLock = theChannel.tryLock();
+				if (theLock == null) {
+					continue;
+				}
+				try {
+					if (!read(theFile).records.isEmpty()) {
+						theResult.add(theFile);
+						continue;
+					}
+				} finally {
+					theLock.release();
+				}
+			} catch (OverlappingFileLockException | IOException e) {
+				// Locked by this session or not accessible, so not recoverable
+				continue;
+			}
+			theFile.delete();
+		}
+		return theResult;
+	}
+
+	/**
+	 * Start the journal for a model. The records written so far are dropped.
+	 *
+	 * @param aModel	 the model, the journal is registered as a change
+	 *				   listener
+	 * @param aModelFile the file the model was loaded from or saved to, null
+	 *				   for a model not stored in a file
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public synchronized void start(Model aModel, File aModelFile) throws IOException {
+		if (model != null) {
+			model.removeChangeListener(this);
+		}
+		model = aModel;
+		model.addChangeListener(this);
+		changedItems.clear();
+		removedItems.clear();
+		configuration = aModelFile != null ? configurationOf(aModel) : null;
+
+		open();
+		final byte[] theHeader = (MODELFILE_PREFIX
+				+ ChangeJournal.escape(aModelFile != null ? aModelFile.getAbsolutePath() : "") + "\n")
+				.getBytes(StandardCharsets.UTF_8);
+		submit(() -> {
+			channel.truncate(0);
+			write(theHeader);
+		});
+	}
+
+	/**
+	 * Append the changes of another journal, for instance of a recovered one.
+	 * The other journal is deleted afterwards.
+	 *
+	 * @param aJournal the journal
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public synchronized void takeOver(ModelJournal aJournal) throws IOException {
+		JournalContent theContent = read(aJournal.file);
+		StringBuilder theBatch = new StringBuilder();
+		for (JournalRecord theRecord : theContent.records.values()) {
+			theRecord.appendTo(theBatch);
+		}
+		if (theBatch.length() > 0) {
+			theBatch.append(FLUSHED_MARKER).append("\n");
+			final byte[] theData = theBatch.toString().getBytes(StandardCharsets.UTF_8);
+			submit(() -> write(theData));
+			sync();
+		}
+		aJournal.file.delete();
+	}
+
+	@Override
+	public synchronized void itemChanged(ModelItem aItem) {
+		ModelItem theItem = journaledItemOf(aItem);
+		if (theItem != null) {
+			removedItems.remove(theItem.getSystemId());
+			changedItems.put(theItem.getSystemId(), theItem);
+		}
+	}
+
+	@Override
+	public synchronized void itemRemoved(ModelItem aItem) {
+		if (aItem instanceof Attribute || aItem instanceof Index) {
+			// The table or custom type is changed
+			itemChanged(aItem);
+			return;
+		}
+		if (elementOf(aItem) != null) {
+			changedItems.remove(aItem.getSystemId());
+			removedItems.put(aItem.getSystemId(), aItem);
+		}
+	}
+
+	/**
+	 * Write the changes reported since the last flush. The changed items are
+	 * serialized in the calling thread, as they must not be modified
+	 * meanwhile, the records are written in the background.
+	 *
+	 * @throws IOException will be thrown if a previous write failed
+	 */
+	public synchronized void flush() throws IOException {
+		if (writeError != null) {
+			throw writeError;
+		}
+		if (model == null) {
+			return;
+		}
+
+		StringBuilder theBatch = new StringBuilder();
+		Map<String, String> theConfiguration = configurationOf(model);
+		if (theConfiguration != null && !theConfiguration.equals(configuration)) {
+			createRecord(model).appendTo(theBatch);
+			configuration = theConfiguration;
+		}
+		for (ModelItem theItem : removedItems.values()) {
+			new JournalRecord(elementOf(theItem), theItem.getSystemId(), null).appendTo(theBatch);
+		}
+		for (ModelItem theItem : changedItems.values()) {
+			createRecord(theItem).appendTo(theBatch);
+		}
+		removedItems.clear();
+		changedItems.clear();
+
+		if (theBatch.length() > 0) {
+			theBatch.append(FLUSHED_MARKER).append("\n");
+			final byte[] theData = theBatch.toString().getBytes(StandardCharsets.UTF_8);
+			submit(() -> write(theData));
+		}
+	}
+
+	/**
+	 * Wait until all records flushed so far are on disk.
+	 *
+	 * @throws IOException will be thrown if a write failed
+	 */
+	public void sync() throws IOException {
+		Future<?> theLastWrite;
+		synchronized (this) {
+			theLastWrite = lastWrite;
+		}
+		if (theLastWrite != null) {
+			try {
+				theLastWrite.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while writing journal " + file);
+			} catch (ExecutionException e) {
+				throw new IOException("Cannot write journal " + file, e.getCause());
+			}
+		}
+		if (writeError != null) {
+			throw writeError;
+		}
+	}
+
+	/**
+	 * Close the journal of a regularly ended session. The journal file is
+	 * deleted.
+	 *
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public synchronized void close() throws IOException {
+		if (model != null) {
+			model.removeChangeListener(this);
+		}
+		model = null;
+		changedItems.clear();
+		removedItems.clear();
+		if (executor != null) {
+			try {
+				sync();
+			} finally {
+				executor.shutdown();
+				executor = null;
+				lastWrite = null;
+				lock.release();
+				channel.close();
+				channel = null;
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Get the file the journaled model was loaded from or saved to.
+	 *
+	 * @return the file or null for a model not stored in a file
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public File getModelFile() throws IOException {
+		String theModelFile = read(file).modelFile;
+		if (theModelFile == null || theModelFile.isEmpty()) {
+			return null;
+		}
+		return new File(theModelFile);
+	}
+
+	/**
+	 * Apply the changes of the journal to a model.
+	 *
+	 * @param aModel the model read from the journaled model file, or a new
+	 *			   model
+	 * @return the model with all changes
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model replay(Model aModel) throws SAXException, IOException {
+
+		JournalContent theContent = read(file);
+
+		// Removed items are dropped, changed items are kept until their new
+		// state is read, so they can be replaced in place
+		Map<String, ModelItem> theReplacedItems = new LinkedHashMap<>();
+		for (JournalRecord theRecord : theContent.records.values()) {
+			if (theRecord.document == null) {
+				remove(aModel, theRecord);
+			} else if (AbstractXMLModelSerializer.CONFIGURATION.equals(theRecord.element)) {
+				aModel.getProperties().getProperties().clear();
+			} else {
+				ModelItem theItem = findItem(itemsOf(aModel, theRecord.element), theRecord.systemId, null);
+				if (theItem != null) {
+					theReplacedItems.put(theRecord.systemId, theItem);
+				}
+			}
+		}
+
+		StreamingXMLModelReader.ReadContext theContext = reader.new ReadContext(aModel, null);
+		for (String theElement : ELEMENTS) {
+			for (JournalRecord theRecord : theContent.records.values()) {
+				if (theRecord.document != null && theElement.equals(theRecord.element)) {
+					reader.parse(new ByteArrayInputStream(theRecord.document.getBytes(PlatformConfig
+							.getXMLEncoding())), theContext);
+				}
+			}
+		}
+		theContext.resolveReferences();
+
+		for (Map.Entry<String, ModelItem> theEntry : theReplacedItems.entrySet()) {
+			ModelItem theItem = theEntry.getValue();
+			List<ModelItem> theItems = itemsOf(aModel, theContent.records.get(theEntry.getKey()).element);
+			ModelItem theNewItem = findItem(theItems, theEntry.getKey(), theItem);
+			// Both items have the same system id and are equal, so they are
+			// looked up by identity
+			theItems.remove(indexOf(theItems, theNewItem));
+			theItems.set(indexOf(theItems, theItem), theNewItem);
+		}
+
+		if (aModel.getDialect() == null) {
+			return aModel;
+		}
+
+		// Unchanged items still refer to the replaced ones, so the model is
+		// read again to get a consistent object graph
+		StringWriter theWriter = new StringWriter();
+		writer.write(aModel, theWriter);
+		return reader.read(new ByteArrayInputStream(theWriter.toString().getBytes(PlatformConfig.getXMLEncoding())),
+				false);
+	}
+
+	private static void remove(Model aModel, JournalRecord aRecord) {
+		ModelItem theItem = findItem(itemsOf(aModel, aRecord.element), aRecord.systemId, null);
+		if (theItem instanceof Table) {
+			aModel.getTables().remove(theItem);
+			aModel.getRelations().removeByTable((Table) theItem);
+			aModel.getSubjectAreas().removeTable((Table) theItem);
+		} else if (theItem instanceof View) {
+			aModel.getViews().remove(theItem);
+			aModel.getSubjectAreas().removeView((View) theItem);
+		} else if (theItem instanceof Comment) {
+			aModel.removeComment((Comment) theItem);
+		} else if (theItem != null) {
+			itemsOf(aModel, aRecord.element).remove(theItem);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<ModelItem> itemsOf(Model aModel, String aElement) {
+		if (AbstractXMLCustomTypeSerializer.CUSTOMTYPE.equals(aElement)) {
+			return (List) aModel.getCustomTypes();
+		}
+		if (AbstractXMLDomainSerializer.DOMAIN.equals(aElement)) {
+			return (List) aModel.getDomains();
+		}
+		if (AbstractXMLTableSerializer.TABLE.equals(aElement)) {
+			return (List) aModel.getTables();
+		}
+		if (AbstractXMLViewSerializer.VIEW.equals(aElement)) {
+			return (List) aModel.getViews();
+		}
+		if (AbstractXMLCommentSerializer.COMMENT.equals(aElement)) {
+			return (List) aModel.getComments();
+		}
+		if (AbstractXMLRelationSerializer.RELATION.equals(aElement)) {
+			return (List) aModel.getRelations();
+		}
+		if (AbstractXMLSubjectAreaSerializer.SUBJECTAREA.equals(aElement)) {
+			return (List) aModel.getSubjectAreas();
+		}
+		return new ArrayList<>();
+	}
+
+	private static ModelItem findItem(List<ModelItem> aItems, String aSystemId, ModelItem aExcluded) {
+		for (ModelItem theItem : aItems) {
+			if (theItem != aExcluded && aSystemId.equals(theItem.getSystemId())) {
+				return theItem;
+			}
+		}
+		return null;
+	}
+
+	private static int indexOf(List<ModelItem> aItems, ModelItem aItem) {
+		for (int i = 0; i < aItems.size(); i++) {
+			if (aItems.get(i) == aItem) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Attributes and indexes are journaled as part of their owner.
+	 */
+	private static ModelItem journaledItemOf(ModelItem aItem) {
+		ModelItem theItem = aItem;
+		if (theItem instanceof Attribute) {
+			theItem = ((Attribute<?>) theItem).getOwner();
+		} else if (theItem instanceof Index) {
+			theItem = ((Index) theItem).getOwner();
+		}
+		if (theItem == null || elementOf(theItem) == null) {
+			return null;
+		}
+		return theItem;
+	}
+
+	private static String elementOf(ModelItem aItem) {
+		if (aItem instanceof Table) {
+			return AbstractXMLTableSerializer.TABLE;
+		}
+		if (aItem instanceof View) {
+			return AbstractXMLViewSerializer.VIEW;
+		}
+		if (aItem instanceof Relation) {
+			return AbstractXMLRelationSerializer.RELATION;
+		}
+		if (aItem instanceof Comment) {
+			return AbstractXMLCommentSerializer.COMMENT;
+		}
+		if (aItem instanceof SubjectArea) {
+			return AbstractXMLSubjectAreaSerializer.SUBJECTAREA;
+		}
+		if (aItem instanceof Domain) {
+			return AbstractXMLDomainSerializer.DOMAIN;
+		}
+		if (aItem instanceof CustomType) {
+			return AbstractXMLCustomTypeSerializer.CUSTOMTYPE;
+		}
+		if (aItem instanceof Model) {
+			return AbstractXMLModelSerializer.CONFIGURATION;
+		}
+		return null;
+	}
+
+	/**
+	 * The dialect and the properties of a model, null if there is no dialect
+	 * yet.
+	 */
+	private static Map<String, String> configurationOf(Model aModel) {
+		if (aModel.getDialect() == null) {
+			return null;
+		}
+		Map<String, String> theResult = new TreeMap<>(aModel.getProperties().getProperties());
+		theResult.put(AbstractXMLModelSerializer.DIALECT, aModel.getDialect().getUniqueName());
+		return theResult;
+	}
+
+	private JournalRecord createRecord(ModelItem aItem) throws IOException {
+		StringWriter theWriter = new StringWriter();
+		writer.writeFragment(aItem, theWriter);
+		return new JournalRecord(elementOf(aItem), aItem.getSystemId(), theWriter.toString());
+	}
+
+	private void open() throws IOException {
+		if (channel != null) {
+			return;
+		}
+		File theDirectory = file.getAbsoluteFile().getParentFile();
+		if (theDirectory != null && !theDirectory.exists() && !theDirectory.mkdirs()) {
+			throw new IOException("Cannot create directory " + theDirectory);
+		}
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			lock = channel.tryLock();
+			if (lock == null) {
+				throw new IOException("The journal " + file + " is in use");
+			}
+		} catch (IOException | OverlappingFileLockException e) {
+			channel.close();
+			channel = null;
+			throw e;
+		}
+		channel.position(channel.size());
+		executor = Executors.newSingleThreadExecutor(aRunnable -> {
+			Thread theThread = new Thread(aRunnable, "Model journal");
+			theThread.setDaemon(true);
+			return theThread;
+		});
+	}
+
+	private void submit(JournalWrite aWrite) {
+		lastWrite = executor.submit(() -> {
+			// After a failed write the end of the file is undefined, so
+			// nothing must be appended anymore
+			if (writeError == null) {
+				try {
+					aWrite.run();
+				} catch (IOException e) {
+					writeError = e;
+				}
+			}
+		});
+	}
+
+	private void write(byte[] aData) throws IOException {
+		ByteBuffer theBuffer = ByteBuffer.wrap(aData);
+		while (theBuffer.hasRemaining()) {
+			channel.write(theBuffer);
+		}
+		channel.force(false);
+	}
+
+	/**
+	 * Read the records of a journal, only the latest record of every item is
+	 * kept.
+	 */
+	private static JournalContent read(File aFile) throws IOException {
+		JournalContent theResult = new JournalContent();
+		List<JournalRecord> theBatch = new ArrayList<>();
+		try (BufferedReader theReader = new BufferedReader(new InputStreamReader(new FileInputStream(aFile),
+				StandardCharsets.UTF_8))) {
+			String theLine;
+			while ((theLine = theReader.readLine()) != null) {
+				if (theLine.startsWith(MODELFILE_PREFIX)) {
+					theResult.modelFile = ChangeJournal.unescape(theLine.substring(MODELFILE_PREFIX.length()));
+				} else if (theLine.startsWith(CHANGED_PREFIX) || theLine.startsWith(REMOVED_PREFIX)) {
+					String[] theParts = theLine.substring(CHANGED_PREFIX.length()).split(" ", 3);
+					if (theParts.length < 2) {
+						// Written incompletely, so the batch has no marker
+						continue;
+					}
+					theBatch.add(new JournalRecord(theParts[0], theParts[1], theLine.startsWith(CHANGED_PREFIX)
+							&& theParts.length == 3 ? ChangeJournal.unescape(theParts[2]) : null));
+				} else if (FLUSHED_MARKER.equals(theLine)) {
+					// Items keep their first position, so new items are read
+					// back in the order they were added
+					for (JournalRecord theRecord : theBatch) {
+						theResult.records.put(theRecord.systemId, theRecord);
+					}
+					theBatch.clear();
+				}
+			}
+		}
+		return theResult;
+	}
+
+	private interface JournalWrite {
+
+		void run() throws IOException;
+	}
+
+	private static final class JournalContent {
+
+		private String modelFile;
+
+		private final Map<String, JournalRecord> records = new LinkedHashMap<>();
+	}
+
+	/**
+	 * The state of an item, the document is null if the item was removed.
+	 */
+	private static final class JournalRecord {
+
+		private final String element;
+
+		private final String systemId;
+
+		private final String document;
+
+		private JournalRecord(String aElement, String aSystemId, String aDocument) {
+			element = aElement;
+			systemId = aSystemId;
+			document = aDocument;
+		}
+
+		private void appendTo(StringBuilder aBatch) {
+			if (document != null) {
+				aBatch.append(CHANGED_PREFIX).append(element).append(' ').append(systemId).append(' ')
+						.append(ChangeJournal.escape(document));
+			} else {
+				aBatch.append(REMOVED_PREFIX).append(element).append(' ').append(systemId);
+			}
+			aBatch.append("\n");
+		}
+	}
+}
@@ -0,0 +1,910 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.serializer;
+
+import de.erdesignerng.dialect.DataTypeList;
+import de.erdesignerng.dialect.DialectFactory;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CascadeType;
+import de.erdesignerng.model.Comment;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.CustomTypeType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexExpression;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.ValidatorHandler;
+import org.apache.commons.lang.StringUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Streaming reader for the XML model format.
+ * <p>
+ * Instead of parsing the whole file into a DOM tree, validating the tree and
+ * walking it again, this reader builds the model items directly from StAX
+ * parser events. The events are passed to a schema validator at the same time,
+ * so the document is read exactly once. Relations and subject area items
+ * reference model items by id and are resolved after the document end, in
+ * document order.
+ * <p>
+ * When a whole model is read, the parser events of tables and views are only
+ * recorded while the document is scanned. The items are built from the
+ * recorded events after the document end, concurrently for larger models, and
+ * added to the model in document order before the references are resolved.
+ * <p>
+ * The result is the same model the DOM based loader of the given format
+ * produces. The compiled schema is shared with the format, see
+ * {@link AbstractXMLModelSerializer#getSchema()}.
+ *
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-15 14:28:52 $
+ */
+public class StreamingXMLModelReader implements CommonXMLElementsAndAttributes {
+
+	/**
+	 * Models with less tables and views are built on the calling thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	private final AbstractXMLModelSerializer format;
+
+	private final XMLInputFactory inputFactory;
+
+	public StreamingXMLModelReader(AbstractXMLModelSerializer aFormat) {
+		format = aFormat;
+		inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+	}
+
+	/**
+	 * Test if the reader supports the document in the given stream.
+	 * <p>
+	 * Only the beginning of the document is read, the stream is reset to its
+	 * current position afterwards. The stream must support mark and reset.
+	 *
+	 * @param aStream the stream
+	 * @return true if yes, else false
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public boolean supportsDocument(InputStream aStream) throws IOException {
+		return format.getVersion().equals(AbstractXMLModelSerializer.readVersion(aStream));
+	}
+
+	/**
+	 * Read and validate a model from a stream.
+	 *
+	 * @param aStream the stream
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model read(InputStream aStream) throws SAXException, IOException {
+		return read(aStream, true);
+	}
+
+	/**
+	 * Read a model from a stream.
+	 *
+	 * @param aStream   the stream
+	 * @param aValidate true if the document shall be validated against the schema while reading
+	 * @return the model
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	public Model read(InputStream aStream, boolean aValidate) throws SAXException, IOException {
+
+		List<SAXParseException> theExceptions = new ArrayList<>();
+
+		ValidatorHandler theValidator = null;
+		if (aValidate) {
+			theValidator = format.getSchema().newValidatorHandler();
+			theValidator.setErrorHandler(AbstractXMLModelSerializer.createCollectingErrorHandler(theExceptions));
+		}
+
+		ReadContext theContext = new ReadContext(null);
+		theContext.setDeferred(true);
+		try {
+			parse(aStream, theContext, theValidator);
+
+			if (theExceptions.size() > 0) {
+				throw new IOException("Failed to validate document against schema", theExceptions.get(0));
+			}
+			if (theContext.hasIncludes()) {
+				throw new IOException("The document is the index of a model directory");
+			}
+
+			return theContext.resolveReferences();
+
+		} catch (RuntimeException e) {
+			// An invalid document might break the model building before the
+			// validator had a chance to report it
+			if (theExceptions.size() > 0) {
+				throw new IOException("Failed to validate document against schema", theExceptions.get(0));
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Read a document into an existing context without validation. Used to
+	 * read the files of a model directory and the records of a model journal.
+	 *
+	 * @param aStream  the stream
+	 * @param aContext the context
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	void parse(InputStream aStream, ReadContext aContext) throws SAXException, IOException {
+		parse(aStream, aContext, null);
+	}
+
+	private void parse(InputStream aStream, ReadContext aContext, ValidatorHandler aValidator) throws SAXException,
+			IOException {
+		try {
+			XMLStreamReader theReader = inputFactory.createXMLStreamReader(aStream);
+			try {
+				if (aValidator != null) {
+					aValidator.startDocument();
+				}
+				while (!aContext.complete && theReader.hasNext()) {
+					switch (theReader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						AttributesImpl theAttributes = attributes(theReader);
+						if (aValidator != null) {
+							validateStartElement(aValidator, theReader, theAttributes);
+						}
+						aContext.startElement(theReader.getLocalName(), theAttributes);
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						if (aValidator != null) {
+							validateEndElement(aValidator, theReader);
+						}
+						aContext.endElement(theReader.getLocalName());
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						if (aValidator != null) {
+							aValidator.characters(theReader.getTextCharacters(), theReader.getTextStart(),
+									theReader.getTextLength());
+						}
+						aContext.characters(theReader.getTextCharacters(), theReader.getTextStart(), theReader
+								.getTextLength());
+						break;
+					default:
+					}
+				}
+				if (aValidator != null) {
+					aValidator.endDocument();
+				}
+			} finally {
+				theReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	/**
+	 * Validate a document against the schema. Include elements are replaced
+	 * by the content of the included files, so the index of a model directory
+	 * is validated as if the whole model was a single document.
+	 *
+	 * @param aFile the document, included files are relative to its directory
+	 * @return the problems found, empty if the document is valid
+	 * @throws SAXException will be thrown in case of an error
+	 * @throws IOException  will be thrown in case of an error
+	 */
+	List<SAXParseException> validate(File aFile) throws SAXException, IOException {
+		List<SAXParseException> theExceptions = new ArrayList<>();
+		ValidatorHandler theValidator = format.getSchema().newValidatorHandler();
+		theValidator.setErrorHandler(AbstractXMLModelSerializer.createCollectingErrorHandler(theExceptions));
+
+		theValidator.startDocument();
+		validate(aFile, aFile.getAbsoluteFile().getParentFile(), theValidator);
+		theValidator.endDocument();
+		return theExceptions;
+	}
+
+	private void validate(File aFile, File aDirectory, ValidatorHandler aValidator) throws SAXException,
+			IOException {
+		try (InputStream theStream = new BufferedInputStream(new FileInputStream(aFile))) {
+			XMLStreamReader theReader = inputFactory.createXMLStreamReader(theStream);
+			try {
+				while (theReader.hasNext()) {
+					switch (theReader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						if (ModelDirectorySerializer.INCLUDE.equals(theReader.getLocalName())) {
+							validate(new File(aDirectory, attribute(attributes(theReader),
+									ModelDirectorySerializer.FILE)), aDirectory, aValidator);
+						} else {
+							validateStartElement(aValidator, theReader, attributes(theReader));
+						}
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						if (!ModelDirectorySerializer.INCLUDE.equals(theReader.getLocalName())) {
+							validateEndElement(aValidator, theReader);
+						}
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						aValidator.characters(theReader.getTextCharacters(), theReader.getTextStart(), theReader
+								.getTextLength());
+						break;
+					default:
+					}
+				}
+			} finally {
+				theReader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	private static AttributesImpl attributes(XMLStreamReader aReader) {
+		AttributesImpl theAttributes = new AttributesImpl();
+		for (int i = 0; i < aReader.getAttributeCount(); i++) {
+			theAttributes.addAttribute(StringUtils.defaultString(aReader.getAttributeNamespace(i)), aReader
+					.getAttributeLocalName(i), qualifiedName(aReader.getAttributePrefix(i), aReader
+					.getAttributeLocalName(i)), "CDATA", aReader.getAttributeValue(i));
+		}
+		return theAttributes;
+	}
+
+	private static void validateStartElement(ValidatorHandler aValidator, XMLStreamReader aReader,
+			Attributes aAttributes) throws SAXException {
+		for (int i = 0; i < aReader.getNamespaceCount(); i++) {
+			aValidator.startPrefixMapping(StringUtils.defaultString(aReader.getNamespacePrefix(i)), aReader
+					.getNamespaceURI(i));
+		}
+
+		aValidator.startElement(StringUtils.defaultString(aReader.getNamespaceURI()), aReader.getLocalName(),
+				qualifiedName(aReader.getPrefix(), aReader.getLocalName()), aAttributes);
+	}
+
+	private static void validateEndElement(ValidatorHandler aValidator, XMLStreamReader aReader)
+			throws SAXException {
+		aValidator.endElement(StringUtils.defaultString(aReader.getNamespaceURI()), aReader.getLocalName(),
+				qualifiedName(aReader.getPrefix(), aReader.getLocalName()));
+
+		for (int i = 0; i < aReader.getNamespaceCount(); i++) {
+			aValidator.endPrefixMapping(StringUtils.defaultString(aReader.getNamespacePrefix(i)));
+		}
+	}
+
+	private static String qualifiedName(String aPrefix, String aLocalName) {
+		if (StringUtils.isEmpty(aPrefix)) {
+			return aLocalName;
+		}
+		return aPrefix + ":" + aLocalName;
+	}
+
+	/**
+	 * Get an attribute value, a missing attribute is returned as an empty
+	 * string like the DOM does.
+	 */
+	private static String attribute(Attributes aAttributes, String aName) {
+		return StringUtils.defaultString(aAttributes.getValue("", aName));
+	}
+
+	private static Integer safeInteger(String aValue) {
+		if (StringUtils.isEmpty(aValue) || "null".equals(aValue)) {
+			return null;
+		}
+		return Integer.parseInt(aValue);
+	}
+
+	/**
+	 * A relation waiting for its tables and mappings to be resolved.
+	 */
+	private static final class PendingRelation {
+
+		private final Relation relation;
+
+		private final String importingTableId;
+
+		private final String exportingTableId;
+
+		private final List<String[]> mappings = new ArrayList<>();
+
+		private PendingRelation(Relation aRelation, String aImportingTableId, String aExportingTableId) {
+			relation = aRelation;
+			importingTableId = aImportingTableId;
+			exportingTableId = aExportingTableId;
+		}
+	}
+
+	/**
+	 * A subject area waiting for its items to be resolved.
+	 */
+	private static final class PendingSubjectArea {
+
+		private final SubjectArea subjectArea;
+
+		private final List<String[]> items = new ArrayList<>();
+
+		private PendingSubjectArea(SubjectArea aSubjectArea) {
+			subjectArea = aSubjectArea;
+		}
+	}
+
+	/**
+	 * A recorded parser event of a table or view. Start events have
+	 * attributes, character events have a text and end events neither.
+	 */
+	private static final class RecordedEvent {
+
+		private final String name;
+
+		private final Attributes attributes;
+
+		private final char[] text;
+
+		private RecordedEvent(String aName, Attributes aAttributes, char[] aText) {
+			name = aName;
+			attributes = aAttributes;
+			text = aText;
+		}
+
+		private void replay(ReadContext aContext) throws IOException {
+			if (attributes != null) {
+				aContext.startElement(name, attributes);
+			} else if (text != null) {
+				aContext.characters(text, 0, text.length);
+			} else {
+				aContext.endElement(name);
+			}
+		}
+	}
+
+	/**
+	 * The state of a single read operation.
+	 */
+	final class ReadContext {
+
+		private final Model model;
+
+		/**
+		 * The currently open model items. Properties are applied to all of
+		 * them, as the DOM loader reads all nested properties of an item.
+		 */
+		private final Deque<ModelItem> openItems = new ArrayDeque<>();
+
+		private final List<PendingRelation> pendingRelations = new ArrayList<>();
+
+		private final List<PendingSubjectArea> pendingSubjectAreas = new ArrayList<>();
+
+		private DataTypeList availableDataTypes;
+
+		/**
+		 * The files included by the index of a model directory, by section.
+		 */
+		private final Map<String, List<String>> includes = new HashMap<>();
+
+		private String section;
+
+		private boolean inConfiguration;
+
+		private StringBuilder text;
+
+		/**
+		 * True if only the header of a table shall be read, the document is
+		 * complete at the first attribute or index.
+		 */
+		private boolean headerOnly;
+
+		private boolean complete;
+
+		/**
+		 * True if the mappings of relations shall be resolved on demand.
+		 */
+		private boolean partial;
+
+		/**
+		 * The recorded events of the tables and views to be built after the
+		 * document end, null if the items are built while reading.
+		 */
+		private List<List<RecordedEvent>> deferredItems;
+
+		/**
+		 * The events of the table or view currently recorded.
+		 */
+		private List<RecordedEvent> recording;
+
+		private int recordingDepth;
+
+		private boolean recordingText;
+
+		/**
+		 * The items built from recorded events, null if the items are added
+		 * to the model directly.
+		 */
+		private List<ModelItem> builtItems;
+
+		/**
+		 * Create a context.
+		 *
+		 * @param aDataTypes the data types to be used for attributes, null to
+		 *				   use the data types of the model being read
+		 */
+		ReadContext(DataTypeList aDataTypes) {
+			this(new Model(), aDataTypes);
+		}
+
+		/**
+		 * Create a context adding the items read to an existing model.
+		 *
+		 * @param aModel	 the model
+		 * @param aDataTypes the data types to be used for attributes, null to
+		 *				   use the data types of the model
+		 */
+		ReadContext(Model aModel, DataTypeList aDataTypes) {
+			model = aModel;
+			availableDataTypes = aDataTypes;
+		}
+
+		Model getModel() {
+			return model;
+		}
+
+		void setHeaderOnly(boolean aHeaderOnly) {
+			headerOnly = aHeaderOnly;
+		}
+
+		void setPartial(boolean aPartial) {
+			partial = aPartial;
+		}
+
+		void setDeferred(boolean aDeferred) {
+			deferredItems = aDeferred ? new ArrayList<>() : null;
+		}
+
+		DataTypeList getAvailableDataTypes() {
+			if (availableDataTypes == null) {
+				availableDataTypes = model.getAvailableDataTypes();
+			}
+			return availableDataTypes;
+		}
+
+		boolean hasIncludes() {
+			return !includes.isEmpty();
+		}
+
+		List<String> getIncludes(String aSection) {
+			List<String> theFiles = includes.get(aSection);
+			if (theFiles == null) {
+				return new ArrayList<>();
+			}
+			return theFiles;
+		}
+
+		private void startElement(String aName, Attributes aAttributes) throws IOException {
+
+			if (recording != null || (deferredItems != null && !headerOnly && (AbstractXMLTableSerializer.TABLE
+					.equals(aName) || AbstractXMLViewSerializer.VIEW.equals(aName)))) {
+				if (recording == null) {
+					recording = new ArrayList<>();
+				}
+				recording.add(new RecordedEvent(aName, aAttributes, null));
+				recordingDepth++;
+				recordingText = COMMENT.equals(aName) || AbstractXMLViewSerializer.SQL.equals(aName);
+				return;
+			}
+
+			if (headerOnly && openItems.peek() instanceof Table
+					&& (AbstractXMLAttributeSerializer.ATTRIBUTE.equals(aName) || AbstractXMLIndexSerializer.INDEX
+							.equals(aName))) {
+				model.getTables().add((Table) openItems.pop());
+				complete = true;
+				return;
+			}
+
+			if (AbstractXMLModelSerializer.TABLES.equals(aName) || AbstractXMLModelSerializer.VIEWS.equals(aName)
+					|| AbstractXMLModelSerializer.SUBJECTAREAS.equals(aName)) {
+				section = aName;
+			} else if (ModelDirectorySerializer.INCLUDE.equals(aName)) {
+				includes.computeIfAbsent(section, aKey -> new ArrayList<>()).add(
+						attribute(aAttributes, ModelDirectorySerializer.FILE));
+			} else if (MODEL.equals(aName)) {
+				if (!format.getVersion().equals(attribute(aAttributes, VERSION))) {
+					throw new IOException("Unsupported model version");
+				}
+			} else if (AbstractXMLModelSerializer.CONFIGURATION.equals(aName)) {
+				inConfiguration = true;
+			} else if (PROPERTY.equals(aName)) {
+				readProperty(aAttributes);
+			} else if (COMMENT.equals(aName) || AbstractXMLViewSerializer.SQL.equals(aName)) {
+				text = new StringBuilder();
+			} else if (AbstractXMLCustomTypeSerializer.CUSTOMTYPE.equals(aName)) {
+				CustomType theCustomType = new CustomType();
+				theCustomType.setOwner(model);
+				readProperties(aAttributes, theCustomType);
+				theCustomType.setSchema(attribute(aAttributes, AbstractXMLCustomTypeSerializer.SCHEMA));
+				theCustomType.setType(CustomTypeType.fromString(attribute(aAttributes,
+						AbstractXMLCustomTypeSerializer.TYPE)));
+				theCustomType.setAlias(attribute(aAttributes, AbstractXMLCustomTypeSerializer.ALIAS));
+				openItems.push(theCustomType);
+			} else if (AbstractXMLDomainSerializer.DOMAIN.equals(aName)) {
+				Domain theDomain = new Domain();
+				readProperties(aAttributes, theDomain);
+				theDomain.setConcreteType(model.getDomainDataTypes().findByName(attribute(aAttributes, DATATYPE)));
+				theDomain.setSize(safeInteger(attribute(aAttributes, AbstractXMLDomainSerializer.SIZE)));
+				theDomain.setFraction(safeInteger(attribute(aAttributes, AbstractXMLDomainSerializer.FRACTION)));
+				theDomain.setScale(safeInteger(attribute(aAttributes, AbstractXMLDomainSerializer.SCALE)));
+				String theNullable = attribute(aAttributes, AbstractXMLDomainSerializer.NULLABLE);
+				if (!StringUtils.isEmpty(theNullable)) {
+					theDomain.setNullable(Boolean.parseBoolean(theNullable));
+				}
+				openItems.push(theDomain);
+			} else if (AbstractXMLTableSerializer.TABLE.equals(aName)) {
+				Table theTable = new Table();
+				theTable.setOwner(model);
+				readProperties(aAttributes, theTable);
+				theTable.setSchema(attribute(aAttributes, AbstractXMLTableSerializer.SCHEMA));
+				openItems.push(theTable);
+			} else if (AbstractXMLAttributeSerializer.ATTRIBUTE.equals(aName)) {
+				openItems.push(readAttribute(aAttributes));
+			} else if (AbstractXMLIndexSerializer.INDEX.equals(aName)) {
+				Index theIndex = new Index();
+				theIndex.setOwner((Table) openItems.peek());
+				readProperties(aAttributes, theIndex);
+				theIndex.setIndexType(IndexType.fromString(attribute(aAttributes, AbstractXMLIndexSerializer.INDEXTYPE)));
+				openItems.push(theIndex);
+			} else if (AbstractXMLIndexSerializer.INDEXATTRIBUTE.equals(aName)) {
+				Index theIndex = (Index) openItems.peek();
+				IndexExpression theExpression = new IndexExpression();
+				theExpression.setSystemId(attribute(aAttributes, ID));
+				String theAttributeRefId = attribute(aAttributes, ATTRIBUTEREFID);
+				if (!StringUtils.isEmpty(theAttributeRefId)) {
+					theExpression.setAttributeRef(theIndex.getOwner().getAttributes().findBySystemId(
+							theAttributeRefId));
+				} else {
+					theExpression.setExpression(attribute(aAttributes, AbstractXMLIndexSerializer.ATTRIBUTEEXPRESSION));
+				}
+				theIndex.getExpressions().add(theExpression);
+			} else if (AbstractXMLRelationSerializer.RELATION.equals(aName)) {
+				Relation theRelation = new Relation();
+				theRelation.setOwner(model);
+				readProperties(aAttributes, theRelation);
+				theRelation.setOnDelete(CascadeType.fromString(attribute(aAttributes,
+						AbstractXMLRelationSerializer.ONDELETE)));
+				theRelation.setOnUpdate(CascadeType.fromString(attribute(aAttributes,
+						AbstractXMLRelationSerializer.ONUPDATE)));
+				pendingRelations.add(new PendingRelation(theRelation, attribute(aAttributes,
+						AbstractXMLRelationSerializer.IMPORTINGTABLEREFID), attribute(aAttributes,
+						AbstractXMLRelationSerializer.EXPORTINGTABLEREFID)));
+				openItems.push(theRelation);
+			} else if (AbstractXMLRelationSerializer.MAPPING.equals(aName)) {
+				pendingRelations.get(pendingRelations.size() - 1).mappings.add(new String[] {
+						attribute(aAttributes, AbstractXMLRelationSerializer.IMPORTINGATTRIBUTEREFID),
+						attribute(aAttributes, AbstractXMLRelationSerializer.EXPORTINGEXPRESSIONREFID) });
+			} else if (AbstractXMLViewSerializer.VIEW.equals(aName)) {
+				View theView = new View();
+				theView.setOwner(model);
+				readProperties(aAttributes, theView);
+				openItems.push(theView);
+			} else if (AbstractXMLCommentSerializer.COMMENT.equals(aName)) {
+				Comment theComment = new Comment();
+				theComment.setOwner(model);
+				readProperties(aAttributes, theComment);
+				openItems.push(theComment);
+			} else if (AbstractXMLSubjectAreaSerializer.SUBJECTAREA.equals(aName)) {
+				SubjectArea theSubjectArea = new SubjectArea();
+				readProperties(aAttributes, theSubjectArea);
+				theSubjectArea.setColor(new Color(Integer.parseInt(attribute(aAttributes,
+						AbstractXMLSubjectAreaSerializer.COLOR))));
+				String theVisible = aAttributes.getValue("", AbstractXMLSubjectAreaSerializer.VISIBLE);
+				if (theVisible != null) {
+					theSubjectArea.setVisible(TRUE.equals(theVisible));
+				}
+				String theExpanded = aAttributes.getValue("", AbstractXMLSubjectAreaSerializer.EXPANDED);
+				if (theExpanded != null) {
+					theSubjectArea.setExpanded(TRUE.equals(theExpanded));
+				}
+				pendingSubjectAreas.add(new PendingSubjectArea(theSubjectArea));
+				openItems.push(theSubjectArea);
+			} else if (AbstractXMLSubjectAreaSerializer.ITEM.equals(aName)) {
+				pendingSubjectAreas.get(pendingSubjectAreas.size() - 1).items.add(new String[] {
+						attribute(aAttributes, AbstractXMLSubjectAreaSerializer.TABLEREFID),
+						attribute(aAttributes, AbstractXMLSubjectAreaSerializer.VIEWREFID),
+						attribute(aAttributes, AbstractXMLSubjectAreaSerializer.COMMENTREFID) });
+			}
+		}
+
+		private void characters(char[] aText, int aStart, int aLength) {
+			if (recording != null) {
+				if (recordingText) {
+					recording.add(new RecordedEvent(null, null, Arrays.copyOfRange(aText, aStart, aStart + aLength)));
+				}
+			} else if (text != null) {
+				text.append(aText, aStart, aLength);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void endElement(String aName) {
+
+			if (recording != null) {
+				recording.add(new RecordedEvent(aName, null, null));
+				recordingText = false;
+				if (--recordingDepth == 0) {
+					deferredItems.add(recording);
+					recording = null;
+				}
+				return;
+			}
+
+			if (AbstractXMLModelSerializer.CONFIGURATION.equals(aName)) {
+				inConfiguration = false;
+			} else if (COMMENT.equals(aName)) {
+				if (text.length() > 0) {
+					openItems.peek().setComment(text.toString());
+				}
+				text = null;
+			} else if (AbstractXMLViewSerializer.SQL.equals(aName)) {
+				((View) openItems.peek()).setSql(text.toString());
+				text = null;
+			} else if (AbstractXMLCustomTypeSerializer.CUSTOMTYPE.equals(aName)) {
+				model.getCustomTypes().add((CustomType) openItems.pop());
+				availableDataTypes = null;
+			} else if (AbstractXMLDomainSerializer.DOMAIN.equals(aName)) {
+				model.getDomains().add((Domain) openItems.pop());
+				availableDataTypes = null;
+			} else if (AbstractXMLTableSerializer.TABLE.equals(aName)) {
+				if (builtItems != null) {
+					builtItems.add(openItems.pop());
+				} else {
+					model.getTables().add((Table) openItems.pop());
+				}
+			} else if (AbstractXMLAttributeSerializer.ATTRIBUTE.equals(aName)) {
+				Attribute theAttribute = (Attribute) openItems.pop();
+				ModelItem theOwner = openItems.peek();
+				if (theOwner instanceof Table) {
+					((Table) theOwner).getAttributes().add(theAttribute);
+				} else {
+					((CustomType) theOwner).getAttributes().add(theAttribute);
+				}
+			} else if (AbstractXMLIndexSerializer.INDEX.equals(aName)) {
+				Index theIndex = (Index) openItems.pop();
+				theIndex.getOwner().getIndexes().add(theIndex);
+			} else if (AbstractXMLViewSerializer.VIEW.equals(aName)) {
+				if (builtItems != null) {
+					builtItems.add(openItems.pop());
+				} else {
+					model.getViews().add((View) openItems.pop());
+				}
+			} else if (AbstractXMLCommentSerializer.COMMENT.equals(aName)) {
+				model.getComments().add((Comment) openItems.pop());
+			} else if (AbstractXMLRelationSerializer.RELATION.equals(aName)
+					|| AbstractXMLSubjectAreaSerializer.SUBJECTAREA.equals(aName)) {
+				openItems.pop();
+			}
+		}
+
+		private void readProperty(Attributes aAttributes) {
+			String theName = attribute(aAttributes, NAME);
+			String theValue = attribute(aAttributes, VALUE);
+
+			if (inConfiguration) {
+				if (AbstractXMLModelSerializer.DIALECT.equals(theName)) {
+					model.setDialect(DialectFactory.getInstance().getDialect(theValue));
+				} else {
+					model.getProperties().setProperty(theName, theValue);
+				}
+				return;
+			}
+
+			// The DOM loader reads all nested properties of an item, so
+			// index properties also end up in the owning table
+			for (ModelItem theItem : openItems) {
+				theItem.getProperties().setProperty(theName, theValue);
+			}
+		}
+
+		private void readProperties(Attributes aAttributes, ModelItem aItem) {
+			aItem.setSystemId(attribute(aAttributes, ID));
+			aItem.setName(attribute(aAttributes, NAME));
+		}
+
+		@SuppressWarnings("unchecked")
+		private Attribute readAttribute(Attributes aAttributes) {
+			Attribute theAttribute = new Attribute();
+			theAttribute.setOwner(openItems.peek());
+			readProperties(aAttributes, theAttribute);
+
+			String theDatatypeName = attribute(aAttributes, DATATYPE);
+			if (!StringUtils.isEmpty(theDatatypeName)) {
+				theAttribute.setDatatype(getAvailableDataTypes().findByName(theDatatypeName));
+			}
+			theAttribute.setDefaultValue(attribute(aAttributes, AbstractXMLAttributeSerializer.DEFAULTVALUE));
+			theAttribute.setSize(safeInteger(attribute(aAttributes, AbstractXMLAttributeSerializer.SIZE)));
+
+			String theFraction = attribute(aAttributes, AbstractXMLAttributeSerializer.FRACTION);
+			if (!StringUtils.isEmpty(theFraction) && !"null".equals(theFraction)) {
+				theAttribute.setFraction(Integer.parseInt(theFraction));
+			}
+			theAttribute.setScale(Integer.parseInt(attribute(aAttributes, AbstractXMLAttributeSerializer.SCALE)));
+			theAttribute.setNullable(TRUE.equals(attribute(aAttributes, AbstractXMLAttributeSerializer.NULLABLE)));
+			theAttribute.setExtra(attribute(aAttributes, AbstractXMLAttributeSerializer.EXTRA));
+			return theAttribute;
+		}
+
+		Model resolveReferences() throws IOException {
+			buildDeferredItems();
+
+			for (PendingRelation thePending : pendingRelations) {
+				Relation theRelation = thePending.relation;
+
+				theRelation.setImportingTable(findTable(thePending.importingTableId));
+				theRelation.setExportingTable(findTable(thePending.exportingTableId));
+
+				if (partial) {
+					final List<String[]> theMappings = thePending.mappings;
+					theRelation.setDetailsLoader(aRelation -> resolveMapping(aRelation, theMappings));
+				} else {
+					resolveMapping(theRelation, thePending.mappings);
+				}
+
+				model.getRelations().add(theRelation);
+			}
+
+			for (PendingSubjectArea thePending : pendingSubjectAreas) {
+				SubjectArea theSubjectArea = thePending.subjectArea;
+
+				for (String[] theItem : thePending.items) {
+					if (!StringUtils.isEmpty(theItem[0])) {
+						theSubjectArea.getTables().add(findTable(theItem[0]));
+					}
+
+					if (!StringUtils.isEmpty(theItem[1])) {
+						View theView = model.getViews().findBySystemId(theItem[1]);
+						if (theView == null) {
+							throw new IllegalArgumentException("Cannot find view with id " + theItem[1]);
+						}
+						theSubjectArea.getViews().add(theView);
+					}
+
+					if (!StringUtils.isEmpty(theItem[2])) {
+						Comment theComment = model.getComments().findBySystemId(theItem[2]);
+						if (theComment == null) {
+							throw new IllegalArgumentException("Cannot find comment with id " + theItem[2]);
+						}
+						theSubjectArea.getComments().add(theComment);
+					}
+				}
+
+				model.getSubjectAreas().add(theSubjectArea);
+			}
+
+			return model;
+		}
+
+		/**
+		 * Build the recorded tables and views. Every item is built by its own
+		 * context, the contexts only share the model and the data types.
+		 */
+		private void buildDeferredItems() throws IOException {
+			if (deferredItems == null || deferredItems.isEmpty()) {
+				return;
+			}
+
+			DataTypeList theDataTypes = getAvailableDataTypes();
+			Stream<List<RecordedEvent>> theStream = deferredItems.size() >= PARALLEL_THRESHOLD ? deferredItems
+					.parallelStream() : deferredItems.stream();
+			List<ModelItem> theItems;
+			try {
+				theItems = theStream.map(aEvents -> buildItem(aEvents, theDataTypes)).collect(Collectors.toList());
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			deferredItems.clear();
+
+			for (ModelItem theItem : theItems) {
+				if (theItem instanceof Table) {
+					model.getTables().add((Table) theItem);
+				} else {
+					model.getViews().add((View) theItem);
+				}
+			}
+		}
+
+		private ModelItem buildItem(List<RecordedEvent> aEvents, DataTypeList aDataTypes) {
+			ReadContext theContext = new ReadContext(model, aDataTypes);
+			theContext.builtItems = new ArrayList<>(1);
+			try {
+				for (RecordedEvent theEvent : aEvents) {
+					theEvent.replay(theContext);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return theContext.builtItems.get(0);
+		}
+
+		private void resolveMapping(Relation aRelation, List<String[]> aMappings) {
+			Index thePrimaryKey = aRelation.getExportingTable().getPrimarykey();
+			for (String[] theMapping : aMappings) {
+				Attribute<Table> theImportingAttribute = findAttribute(aRelation, theMapping[0]);
+				if (theImportingAttribute == null) {
+					throw new IllegalArgumentException("Cannot find attribute with id " + theMapping[0]);
+				}
+
+				IndexExpression theExpression = thePrimaryKey.getExpressions().findBySystemId(theMapping[1]);
+				if (theExpression == null) {
+					throw new IllegalArgumentException("Cannot find expression with id " + theMapping[1]);
+				}
+				aRelation.getMapping().put(theExpression, theImportingAttribute);
+			}
+		}
+
+		private Attribute<Table> findAttribute(Relation aRelation, String aSystemId) {
+			if (!partial) {
+				return model.getTables().findAttributeBySystemId(aSystemId);
+			}
+
+			// Look into the importing table first, so other tables are only
+			// loaded for broken models
+			Attribute<Table> theAttribute = aRelation.getImportingTable().getAttributes().findBySystemId(aSystemId);
+			if (theAttribute == null) {
+				theAttribute = model.getTables().findAttributeBySystemId(aSystemId);
+			}
+			return theAttribute;
+		}
+
+		private Table findTable(String aSystemId) {
+			Table theTable = model.getTables().findBySystemId(aSystemId);
+			if (theTable == null) {
+				throw new IllegalArgumentException("Cannot find table with id " + aSystemId);
+			}
+			return theTable;
+		}
+	}
+}
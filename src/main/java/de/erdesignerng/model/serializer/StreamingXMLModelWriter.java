@@ -0,0 +1,543 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.serializer;
+
+import de.erdesignerng.PlatformConfig;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Comment;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexExpression;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.util.ApplicationPreferences;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Streaming writer for the XML model format.
+ * <p>
+ * The DOM based serializers build a complete document of the model and pass
+ * it through a transformer. This writer produces the same bytes as that
+ * transformer, but writes every element as soon as it is known, so the memory
+ * needed does not grow with the size of the model.
+ *
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-15 14:28:52 $
+ */
+public class StreamingXMLModelWriter implements CommonXMLElementsAndAttributes {
+
+	private final AbstractXMLModelSerializer format;
+
+	public StreamingXMLModelWriter(AbstractXMLModelSerializer aFormat) {
+		format = aFormat;
+	}
+
+	/**
+	 * Write a model. The writer is closed afterwards.
+	 *
+	 * @param aModel  the model
+	 * @param aWriter the writer
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void write(Model aModel, Writer aWriter) throws IOException {
+		write(aModel, aWriter, null);
+	}
+
+	/**
+	 * Write a model. The writer is closed afterwards.
+	 *
+	 * @param aModel	the model
+	 * @param aWriter   the writer
+	 * @param aIncludes null to write all items, otherwise the files of the
+	 *				  tables, views and subject areas, which are only
+	 *				  referenced by the document
+	 * @throws IOException will be thrown in case of an error
+	 */
+	void write(Model aModel, Writer aWriter, Map<ModelItem, String> aIncludes) throws IOException {
+
+		ElementWriter theWriter = new ElementWriter(new BufferedWriter(aWriter), ApplicationPreferences
+				.getInstance().getXmlIndentation());
+		try {
+			theWriter.startDocument();
+
+			theWriter.startElement(MODEL);
+			theWriter.attribute(VERSION, format.getVersion());
+
+			writeConfiguration(theWriter, aModel);
+
+			theWriter.startElement(AbstractXMLModelSerializer.CUSTOMTYPES);
+			for (CustomType theCustomType : aModel.getCustomTypes()) {
+				writeCustomType(theWriter, theCustomType);
+			}
+			theWriter.endElement();
+
+			theWriter.startElement(AbstractXMLModelSerializer.DOMAINS);
+			for (Domain theDomain : aModel.getDomains()) {
+				writeDomain(theWriter, theDomain);
+			}
+			theWriter.endElement();
+
+			theWriter.startElement(AbstractXMLModelSerializer.TABLES);
+			for (Table theTable : aModel.getTables()) {
+				if (aIncludes != null) {
+					writeInclude(theWriter, aIncludes.get(theTable));
+				} else {
+					writeTable(theWriter, theTable);
+				}
+			}
+			theWriter.endElement();
+
+			theWriter.startElement(AbstractXMLModelSerializer.RELATIONS);
+			for (Relation theRelation : aModel.getRelations()) {
+				writeRelation(theWriter, theRelation);
+			}
+			theWriter.endElement();
+
+			theWriter.startElement(AbstractXMLModelSerializer.VIEWS);
+			for (View theView : aModel.getViews()) {
+				if (aIncludes != null) {
+					writeInclude(theWriter, aIncludes.get(theView));
+				} else {
+					writeView(theWriter, theView);
+				}
+			}
+			theWriter.endElement();
+
+			theWriter.startElement(AbstractXMLModelSerializer.SUBJECTAREAS);
+			for (SubjectArea theSubjectArea : aModel.getSubjectAreas()) {
+				if (aIncludes != null) {
+					writeInclude(theWriter, aIncludes.get(theSubjectArea));
+				} else {
+					writeSubjectArea(theWriter, theSubjectArea);
+				}
+			}
+			theWriter.endElement();
+
+			theWriter.startElement(AbstractXMLModelSerializer.COMMENTS);
+			for (Comment theComment : aModel.getComments()) {
+				writeComment(theWriter, theComment);
+			}
+			theWriter.endElement();
+
+			theWriter.endElement();
+			theWriter.endDocument();
+		} finally {
+			theWriter.close();
+		}
+	}
+
+	/**
+	 * Write a single item as a document of its own. The writer is closed
+	 * afterwards. For the model itself, its configuration is written.
+	 *
+	 * @param aItem   the item
+	 * @param aWriter the writer
+	 * @throws IOException will be thrown in case of an error
+	 */
+	void writeFragment(ModelItem aItem, Writer aWriter) throws IOException {
+
+		ElementWriter theWriter = new ElementWriter(new BufferedWriter(aWriter), ApplicationPreferences
+				.getInstance().getXmlIndentation());
+		try {
+			theWriter.startDocument();
+			if (aItem instanceof Table) {
+				writeTable(theWriter, (Table) aItem);
+			} else if (aItem instanceof View) {
+				writeView(theWriter, (View) aItem);
+			} else if (aItem instanceof Relation) {
+				writeRelation(theWriter, (Relation) aItem);
+			} else if (aItem instanceof Comment) {
+				writeComment(theWriter, (Comment) aItem);
+			} else if (aItem instanceof Domain) {
+				writeDomain(theWriter, (Domain) aItem);
+			} else if (aItem instanceof CustomType) {
+				writeCustomType(theWriter, (CustomType) aItem);
+			} else if (aItem instanceof Model) {
+				writeConfiguration(theWriter, (Model) aItem);
+			} else {
+				writeSubjectArea(theWriter, (SubjectArea) aItem);
+			}
+			theWriter.endDocument();
+		} finally {
+			theWriter.close();
+		}
+	}
+
+	private void writeConfiguration(ElementWriter aWriter, Model aModel) throws IOException {
+		aWriter.startElement(AbstractXMLModelSerializer.CONFIGURATION);
+		aWriter.startElement(PROPERTY);
+		aWriter.attribute(NAME, AbstractXMLModelSerializer.DIALECT);
+		aWriter.attribute(VALUE, aModel.getDialect().getUniqueName());
+		aWriter.endElement();
+		for (Map.Entry<String, String> theEntry : aModel.getProperties().getProperties().entrySet()) {
+			aWriter.startElement(PROPERTY);
+			aWriter.attribute(NAME, theEntry.getKey());
+			aWriter.attribute(VALUE, theEntry.getValue());
+			aWriter.endElement();
+		}
+		aWriter.endElement();
+	}
+
+	private void writeComment(ElementWriter aWriter, Comment aComment) throws IOException {
+		aWriter.startElement(AbstractXMLCommentSerializer.COMMENT);
+		writeProperties(aWriter, aComment);
+		writeCommentElement(aWriter, aComment);
+		aWriter.endElement();
+	}
+
+	private void writeInclude(ElementWriter aWriter, String aFile) throws IOException {
+		aWriter.startElement(ModelDirectorySerializer.INCLUDE);
+		aWriter.attribute(ModelDirectorySerializer.FILE, aFile);
+		aWriter.endElement();
+	}
+
+	private void writeCustomType(ElementWriter aWriter, CustomType aCustomType) throws IOException {
+		aWriter.startElement(AbstractXMLCustomTypeSerializer.CUSTOMTYPE);
+		aWriter.attribute(AbstractXMLCustomTypeSerializer.SCHEMA, aCustomType.getSchema());
+		aWriter.attribute(AbstractXMLCustomTypeSerializer.TYPE, aCustomType.getType().toString());
+		aWriter.attribute(AbstractXMLCustomTypeSerializer.ALIAS, aCustomType.getAlias());
+		writeProperties(aWriter, aCustomType);
+		writeCommentElement(aWriter, aCustomType);
+
+		for (Attribute<CustomType> theAttribute : aCustomType.getAttributes()) {
+			writeAttribute(aWriter, theAttribute);
+		}
+		aWriter.endElement();
+	}
+
+	private void writeDomain(ElementWriter aWriter, Domain aDomain) throws IOException {
+		aWriter.startElement(AbstractXMLDomainSerializer.DOMAIN);
+		aWriter.attribute(DATATYPE, aDomain.getConcreteType().getName());
+		aWriter.attribute(AbstractXMLDomainSerializer.SIZE, safeString(aDomain.getSize()));
+		aWriter.attribute(AbstractXMLDomainSerializer.FRACTION, safeString(aDomain.getFraction()));
+		aWriter.attribute(AbstractXMLDomainSerializer.SCALE, safeString(aDomain.getScale()));
+		aWriter.attribute(AbstractXMLDomainSerializer.NULLABLE, safeString(aDomain.isNullable()));
+		writeProperties(aWriter, aDomain);
+		writeCommentElement(aWriter, aDomain);
+		aWriter.endElement();
+	}
+
+	private void writeTable(ElementWriter aWriter, Table aTable) throws IOException {
+		aWriter.startElement(AbstractXMLTableSerializer.TABLE);
+		aWriter.attribute(AbstractXMLTableSerializer.SCHEMA, aTable.getSchema());
+		writeProperties(aWriter, aTable);
+		writeCommentElement(aWriter, aTable);
+
+		for (Attribute<Table> theAttribute : aTable.getAttributes()) {
+			writeAttribute(aWriter, theAttribute);
+		}
+
+		for (Index theIndex : aTable.getIndexes()) {
+			aWriter.startElement(AbstractXMLIndexSerializer.INDEX);
+			aWriter.attribute(AbstractXMLIndexSerializer.INDEXTYPE, theIndex.getIndexType().toString());
+			writeProperties(aWriter, theIndex);
+
+			for (IndexExpression theExpression : theIndex.getExpressions()) {
+				aWriter.startElement(AbstractXMLIndexSerializer.INDEXATTRIBUTE);
+				aWriter.attribute(ID, theExpression.getSystemId());
+				if (!StringUtils.isEmpty(theExpression.getExpression())) {
+					aWriter.attribute(AbstractXMLIndexSerializer.ATTRIBUTEEXPRESSION, theExpression.getExpression());
+				} else {
+					aWriter.attribute(ATTRIBUTEREFID, theExpression.getAttributeRef().getSystemId());
+				}
+				aWriter.endElement();
+			}
+			aWriter.endElement();
+		}
+		aWriter.endElement();
+	}
+
+	private void writeAttribute(ElementWriter aWriter, Attribute<?> aAttribute) throws IOException {
+		aWriter.startElement(AbstractXMLAttributeSerializer.ATTRIBUTE);
+		aWriter.attribute(DATATYPE, aAttribute.getDatatype() != null ? aAttribute.getDatatype().getName() : "");
+		aWriter.attribute(AbstractXMLAttributeSerializer.SIZE, safeString(aAttribute.getSize()));
+		aWriter.attribute(AbstractXMLAttributeSerializer.FRACTION, "" + aAttribute.getFraction());
+		aWriter.attribute(AbstractXMLAttributeSerializer.SCALE, "" + aAttribute.getScale());
+		aWriter.attribute(AbstractXMLAttributeSerializer.DEFAULTVALUE, aAttribute.getDefaultValue());
+		aWriter.attribute(AbstractXMLAttributeSerializer.EXTRA, aAttribute.getExtra());
+		aWriter.attribute(AbstractXMLAttributeSerializer.NULLABLE, aAttribute.isNullable() ? TRUE : FALSE);
+		writeProperties(aWriter, aAttribute);
+		writeCommentElement(aWriter, aAttribute);
+		aWriter.endElement();
+	}
+
+	private void writeRelation(ElementWriter aWriter, Relation aRelation) throws IOException {
+		aWriter.startElement(AbstractXMLRelationSerializer.RELATION);
+		aWriter.attribute(AbstractXMLRelationSerializer.IMPORTINGTABLEREFID, aRelation.getImportingTable()
+				.getSystemId());
+		aWriter.attribute(AbstractXMLRelationSerializer.EXPORTINGTABLEREFID, aRelation.getExportingTable()
+				.getSystemId());
+		aWriter.attribute(AbstractXMLRelationSerializer.ONDELETE, aRelation.getOnDelete().toString());
+		aWriter.attribute(AbstractXMLRelationSerializer.ONUPDATE, aRelation.getOnUpdate().toString());
+		writeProperties(aWriter, aRelation);
+		writeCommentElement(aWriter, aRelation);
+
+		for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : aRelation.getMapping().entrySet()) {
+			aWriter.startElement(AbstractXMLRelationSerializer.MAPPING);
+			aWriter.attribute(AbstractXMLRelationSerializer.EXPORTINGEXPRESSIONREFID, theEntry.getKey()
+					.getSystemId());
+			aWriter.attribute(AbstractXMLRelationSerializer.IMPORTINGATTRIBUTEREFID, theEntry.getValue()
+					.getSystemId());
+			aWriter.endElement();
+		}
+		aWriter.endElement();
+	}
+
+	private void writeView(ElementWriter aWriter, View aView) throws IOException {
+		aWriter.startElement(AbstractXMLViewSerializer.VIEW);
+		writeProperties(aWriter, aView);
+		writeCommentElement(aWriter, aView);
+
+		aWriter.startElement(AbstractXMLViewSerializer.SQL);
+		aWriter.text(aView.getSql());
+		aWriter.endElement();
+		aWriter.endElement();
+	}
+
+	private void writeSubjectArea(ElementWriter aWriter, SubjectArea aArea) throws IOException {
+		aWriter.startElement(AbstractXMLSubjectAreaSerializer.SUBJECTAREA);
+		aWriter.attribute(AbstractXMLSubjectAreaSerializer.COLOR, "" + aArea.getColor().getRGB());
+		aWriter.attribute(AbstractXMLSubjectAreaSerializer.VISIBLE, aArea.isVisible() ? TRUE : FALSE);
+		aWriter.attribute(AbstractXMLSubjectAreaSerializer.EXPANDED, aArea.isExpanded() ? TRUE : FALSE);
+		writeProperties(aWriter, aArea);
+
+		for (Table theTable : aArea.getTables()) {
+			writeItem(aWriter, AbstractXMLSubjectAreaSerializer.TABLEREFID, theTable);
+		}
+		for (View theView : aArea.getViews()) {
+			writeItem(aWriter, AbstractXMLSubjectAreaSerializer.VIEWREFID, theView);
+		}
+		for (Comment theComment : aArea.getComments()) {
+			writeItem(aWriter, AbstractXMLSubjectAreaSerializer.COMMENTREFID, theComment);
+		}
+		aWriter.endElement();
+	}
+
+	private void writeItem(ElementWriter aWriter, String aReferenceAttribute, ModelItem aItem) throws IOException {
+		aWriter.startElement(AbstractXMLSubjectAreaSerializer.ITEM);
+		aWriter.attribute(aReferenceAttribute, aItem.getSystemId());
+		aWriter.endElement();
+	}
+
+	private void writeProperties(ElementWriter aWriter, ModelItem aItem) throws IOException {
+		aWriter.attribute(ID, aItem.getSystemId());
+		aWriter.attribute(NAME, aItem.getName());
+
+		for (Map.Entry<String, String> theEntry : aItem.getProperties().getProperties().entrySet()) {
+			if (theEntry.getValue() != null) {
+				aWriter.startElement(PROPERTY);
+				aWriter.attribute(NAME, theEntry.getKey());
+				aWriter.attribute(VALUE, theEntry.getValue());
+				aWriter.endElement();
+			}
+		}
+	}
+
+	private void writeCommentElement(ElementWriter aWriter, ModelItem aItem) throws IOException {
+		if (!StringUtils.isEmpty(aItem.getComment())) {
+			aWriter.startElement(COMMENT);
+			aWriter.text(aItem.getComment());
+			aWriter.endElement();
+		}
+	}
+
+	private static String safeString(Object aValue) {
+		if (aValue == null) {
+			return "";
+		}
+		return aValue.toString();
+	}
+
+	/**
+	 * Minimal indenting XML writer, following the output rules of the
+	 * transformer used by XMLUtils. All attributes of an element have to be
+	 * added before its first child, they are written in name order like a DOM
+	 * element does.
+	 */
+	private static final class ElementWriter {
+
+		private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+		private final Writer writer;
+
+		private final int indentation;
+
+		private final Deque<OpenElement> openElements = new ArrayDeque<>();
+
+		private ElementWriter(Writer aWriter, int aIndentation) {
+			writer = aWriter;
+			indentation = aIndentation;
+		}
+
+		private void startDocument() throws IOException {
+			writer.write("<?xml version=\"1.0\" encoding=\"");
+			writer.write(PlatformConfig.getXMLEncoding());
+			writer.write("\"?>");
+		}
+
+		private void startElement(String aName) throws IOException {
+			OpenElement theParent = openElements.peek();
+			if (theParent != null) {
+				flushStartTag(theParent);
+				if (!theParent.hasText) {
+					newLine(openElements.size());
+				}
+				theParent.hasElements = true;
+			}
+			openElements.push(new OpenElement(aName));
+		}
+
+		private void attribute(String aName, String aValue) {
+			openElements.peek().attributes.put(aName, StringUtils.defaultString(aValue));
+		}
+
+		private void text(String aText) throws IOException {
+			if (StringUtils.isEmpty(aText)) {
+				return;
+			}
+			OpenElement theElement = openElements.peek();
+			flushStartTag(theElement);
+			theElement.hasText = true;
+			escape(aText, false);
+		}
+
+		private void endElement() throws IOException {
+			OpenElement theElement = openElements.pop();
+			if (theElement.attributes != null) {
+				writeStartTag(theElement);
+				writer.write("/>");
+				return;
+			}
+			if (theElement.hasElements && !theElement.hasText) {
+				newLine(openElements.size());
+			}
+			writer.write("</");
+			writer.write(theElement.name);
+			writer.write('>');
+		}
+
+		private void endDocument() throws IOException {
+			writer.write(LINE_SEPARATOR);
+		}
+
+		private void close() throws IOException {
+			writer.close();
+		}
+
+		private void flushStartTag(OpenElement aElement) throws IOException {
+			if (aElement.attributes != null) {
+				writeStartTag(aElement);
+				writer.write('>');
+			}
+		}
+
+		private void writeStartTag(OpenElement aElement) throws IOException {
+			writer.write('<');
+			writer.write(aElement.name);
+			for (Map.Entry<String, String> theEntry : aElement.attributes.entrySet()) {
+				writer.write(' ');
+				writer.write(theEntry.getKey());
+				writer.write("=\"");
+				escape(theEntry.getValue(), true);
+				writer.write('"');
+			}
+			aElement.attributes = null;
+		}
+
+		private void newLine(int aDepth) throws IOException {
+			writer.write(LINE_SEPARATOR);
+			for (int i = 0; i < aDepth * indentation; i++) {
+				writer.write(' ');
+			}
+		}
+
+		private void escape(String aValue, boolean aAttribute) throws IOException {
+			for (int i = 0; i < aValue.length(); i++) {
+				char theChar = aValue.charAt(i);
+				switch (theChar) {
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '>':
+					writer.write("&gt;");
+					break;
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '"':
+					writer.write(aAttribute ? "&quot;" : "\"");
+					break;
+				case '\n':
+					if (aAttribute) {
+						writer.write("&#10;");
+					} else {
+						writer.write(LINE_SEPARATOR);
+					}
+					break;
+				case '\t':
+					if (aAttribute) {
+						writer.write("&#9;");
+					} else {
+						writer.write(theChar);
+					}
+					break;
+				default:
+					if (theChar < 0x20 || (theChar >= 0x7f && theChar <= 0x9f) || theChar == 0x2028
+							|| Character.isSurrogate(theChar)) {
+						writer.write("&#");
+						writer.write(Integer.toString(theChar));
+						writer.write(';');
+					} else {
+						writer.write(theChar);
+					}
+				}
+			}
+		}
+	}
+
+	private static final class OpenElement {
+
+		private final String name;
+
+		/**
+		 * The attributes of the element, null as soon as the start tag was
+		 * written.
+		 */
+		private Map<String, String> attributes = new TreeMap<>();
+
+		private boolean hasElements;
+
+		private boolean hasText;
+
+		private OpenElement(String aName) {
+			this.name = aName;
+		}
+	}
+}
@@ -0,0 +1,1015 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.serializer.binary;
+
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.dialect.DataTypeList;
+import de.erdesignerng.dialect.DialectFactory;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CascadeType;
+import de.erdesignerng.model.Comment;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.CustomTypeType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexExpression;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Compact binary snapshot format of a model.
+ * <p>
+ * A snapshot starts with a magic number and the format version, followed by
+ * length prefixed sections. The first section is a string table, all names,
+ * ids and type names are written as index into this table. Numbers are
+ * written with a fixed width. Unknown sections are skipped, so newer writers
+ * may add sections without breaking older readers.
+ * <p>
+ * The snapshot contains exactly the information of the XML format, so a model
+ * can be converted between both formats without losing anything. Loading a
+ * snapshot gives the same model as loading the XML file.
+ * <p>
+ * Every table and view is written as a length prefixed block. The blocks are
+ * independent of each other, so they are parsed concurrently while loading.
+ * Relations and subject areas refer to them and are resolved afterwards on a
+ * single thread.
+ *
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-15 14:28:52 $
+ */
+public class BinaryModelSerializer {
+
+	/**
+	 * "MXMB", the first bytes of every snapshot.
+	 */
+	public static final int MAGIC = 0x4d584d42;
+
+	public static final short FORMAT_VERSION = 2;
+
+	/**
+	 * The first version, without blocks for tables and views.
+	 */
+	private static final short FORMAT_VERSION_1 = 1;
+
+	private static final byte SECTION_END = 0;
+
+	private static final byte SECTION_STRINGS = 1;
+
+	private static final byte SECTION_CONFIGURATION = 2;
+
+	private static final byte SECTION_CUSTOMTYPES = 3;
+
+	private static final byte SECTION_DOMAINS = 4;
+
+	private static final byte SECTION_TABLES = 5;
+
+	private static final byte SECTION_RELATIONS = 6;
+
+	private static final byte SECTION_VIEWS = 7;
+
+	private static final byte SECTION_COMMENTS = 8;
+
+	private static final byte SECTION_SUBJECTAREAS = 9;
+
+	private static final int NULL_STRING = -1;
+
+	/**
+	 * Sections with less blocks are parsed on the calling thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * Test if a stream contains a binary snapshot. The stream is reset to its
+	 * current position afterwards, so it must support mark and reset.
+	 *
+	 * @param aStream the stream
+	 * @return true if yes, else false
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public static boolean isSnapshot(InputStream aStream) throws IOException {
+		aStream.mark(4);
+		try {
+			int theMagic = 0;
+			for (int i = 0; i < 4; i++) {
+				int theByte = aStream.read();
+				if (theByte < 0) {
+					return false;
+				}
+				theMagic = (theMagic << 8) | theByte;
+			}
+			return theMagic == MAGIC;
+		} finally {
+			aStream.reset();
+		}
+	}
+
+	/**
+	 * Write a snapshot of a model. The stream is closed afterwards.
+	 *
+	 * @param aModel  the model
+	 * @param aStream the stream
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void serialize(Model aModel, OutputStream aStream) throws IOException {
+
+		// The string table has to be written first, but is only complete
+		// after all other sections are known
+		SnapshotWriter theWriter = new SnapshotWriter();
+		List<byte[]> theSections = new ArrayList<>();
+		List<Byte> theSectionIds = new ArrayList<>();
+
+		theWriter.beginSection();
+		writeConfiguration(theWriter, aModel);
+		theSectionIds.add(SECTION_CONFIGURATION);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getCustomTypes().size());
+		for (CustomType theCustomType : aModel.getCustomTypes()) {
+			writeItem(theWriter, theCustomType);
+			theWriter.writeString(theCustomType.getSchema());
+			theWriter.writeString(theCustomType.getType().toString());
+			theWriter.writeString(theCustomType.getAlias());
+			theWriter.writeInt(theCustomType.getAttributes().size());
+			for (Attribute<CustomType> theAttribute : theCustomType.getAttributes()) {
+				writeAttribute(theWriter, theAttribute);
+			}
+		}
+		theSectionIds.add(SECTION_CUSTOMTYPES);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getDomains().size());
+		for (Domain theDomain : aModel.getDomains()) {
+			writeItem(theWriter, theDomain);
+			theWriter.writeString(theDomain.getConcreteType().getName());
+			theWriter.writeInteger(theDomain.getSize());
+			theWriter.writeInteger(theDomain.getFraction());
+			theWriter.writeInt(theDomain.getScale());
+			theWriter.writeBoolean(theDomain.isNullable());
+		}
+		theSectionIds.add(SECTION_DOMAINS);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getTables().size());
+		for (Table theTable : aModel.getTables()) {
+			theWriter.beginBlock();
+			writeTable(theWriter, theTable);
+			theWriter.endBlock();
+		}
+		theSectionIds.add(SECTION_TABLES);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getRelations().size());
+		for (Relation theRelation : aModel.getRelations()) {
+			writeItem(theWriter, theRelation);
+			theWriter.writeString(theRelation.getImportingTable().getSystemId());
+			theWriter.writeString(theRelation.getExportingTable().getSystemId());
+			theWriter.writeString(theRelation.getOnDelete().toString());
+			theWriter.writeString(theRelation.getOnUpdate().toString());
+			theWriter.writeInt(theRelation.getMapping().size());
+			for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : theRelation.getMapping().entrySet()) {
+				theWriter.writeString(theEntry.getKey().getSystemId());
+				theWriter.writeString(theEntry.getValue().getSystemId());
+			}
+		}
+		theSectionIds.add(SECTION_RELATIONS);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getViews().size());
+		for (View theView : aModel.getViews()) {
+			theWriter.beginBlock();
+			writeItem(theWriter, theView);
+			theWriter.writeString(theView.getSql());
+			theWriter.endBlock();
+		}
+		theSectionIds.add(SECTION_VIEWS);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getComments().size());
+		for (Comment theComment : aModel.getComments()) {
+			writeItem(theWriter, theComment);
+		}
+		theSectionIds.add(SECTION_COMMENTS);
+		theSections.add(theWriter.endSection());
+
+		theWriter.beginSection();
+		theWriter.writeInt(aModel.getSubjectAreas().size());
+		for (SubjectArea theSubjectArea : aModel.getSubjectAreas()) {
+			writeItem(theWriter, theSubjectArea);
+			theWriter.writeInt(theSubjectArea.getColor().getRGB());
+			theWriter.writeBoolean(theSubjectArea.isVisible());
+			theWriter.writeBoolean(theSubjectArea.isExpanded());
+			writeReferences(theWriter, theSubjectArea.getTables());
+			writeReferences(theWriter, theSubjectArea.getViews());
+			writeReferences(theWriter, theSubjectArea.getComments());
+		}
+		theSectionIds.add(SECTION_SUBJECTAREAS);
+		theSections.add(theWriter.endSection());
+
+		try (DataOutputStream theOutput = new DataOutputStream(new BufferedOutputStream(aStream))) {
+			theOutput.writeInt(MAGIC);
+			theOutput.writeShort(FORMAT_VERSION);
+
+			writeSection(theOutput, SECTION_STRINGS, theWriter.stringTable());
+			for (int i = 0; i < theSections.size(); i++) {
+				writeSection(theOutput, theSectionIds.get(i), theSections.get(i));
+			}
+			theOutput.writeByte(SECTION_END);
+		}
+	}
+
+	private static void writeSection(DataOutputStream aOutput, byte aId, byte[] aData) throws IOException {
+		aOutput.writeByte(aId);
+		aOutput.writeInt(aData.length);
+		aOutput.write(aData);
+	}
+
+	private void writeConfiguration(SnapshotWriter aWriter, Model aModel) throws IOException {
+		aWriter.writeString(aModel.getDialect() != null ? aModel.getDialect().getUniqueName() : null);
+
+		Map<String, String> theProperties = aModel.getProperties().getProperties();
+		aWriter.writeInt(theProperties.size());
+		for (Map.Entry<String, String> theEntry : theProperties.entrySet()) {
+			aWriter.writeString(theEntry.getKey());
+			aWriter.writeString(StringUtils.defaultString(theEntry.getValue()));
+		}
+	}
+
+	private void writeItem(SnapshotWriter aWriter, ModelItem aItem) throws IOException {
+		aWriter.writeString(aItem.getSystemId());
+		aWriter.writeString(aItem.getName());
+		aWriter.writeString(aItem.getComment());
+		writeProperties(aWriter, aItem);
+	}
+
+	private void writeTable(SnapshotWriter aWriter, Table aTable) throws IOException {
+		writeItem(aWriter, aTable);
+		aWriter.writeString(aTable.getSchema());
+
+		aWriter.writeInt(aTable.getAttributes().size());
+		for (Attribute<Table> theAttribute : aTable.getAttributes()) {
+			writeAttribute(aWriter, theAttribute);
+		}
+
+		aWriter.writeInt(aTable.getIndexes().size());
+		for (Index theIndex : aTable.getIndexes()) {
+			aWriter.writeString(theIndex.getSystemId());
+			aWriter.writeString(theIndex.getName());
+			writeProperties(aWriter, theIndex);
+			aWriter.writeString(theIndex.getIndexType().toString());
+
+			aWriter.writeInt(theIndex.getExpressions().size());
+			for (IndexExpression theExpression : theIndex.getExpressions()) {
+				aWriter.writeString(theExpression.getSystemId());
+				if (!StringUtils.isEmpty(theExpression.getExpression())) {
+					aWriter.writeBoolean(true);
+					aWriter.writeString(theExpression.getExpression());
+				} else {
+					aWriter.writeBoolean(false);
+					aWriter.writeString(theExpression.getAttributeRef().getSystemId());
+				}
+			}
+		}
+	}
+
+	private void writeProperties(SnapshotWriter aWriter, ModelItem aItem) throws IOException {
+
+		// Like the XML format, properties without value are not written
+		Map<String, String> theProperties = new LinkedHashMap<>(aItem.getProperties().getProperties());
+		theProperties.values().removeIf(aValue -> aValue == null);
+		aWriter.writeInt(theProperties.size());
+		for (Map.Entry<String, String> theEntry : theProperties.entrySet()) {
+			aWriter.writeString(theEntry.getKey());
+			aWriter.writeString(theEntry.getValue());
+		}
+	}
+
+	private void writeAttribute(SnapshotWriter aWriter, Attribute<?> aAttribute) throws IOException {
+		writeItem(aWriter, aAttribute);
+		aWriter.writeString(aAttribute.getDatatype() != null ? aAttribute.getDatatype().getName() : null);
+		aWriter.writeInteger(aAttribute.getSize());
+		aWriter.writeInteger(aAttribute.getFraction());
+		aWriter.writeInt(aAttribute.getScale());
+		aWriter.writeString(aAttribute.getDefaultValue());
+		aWriter.writeString(aAttribute.getExtra());
+		aWriter.writeBoolean(aAttribute.isNullable());
+	}
+
+	private void writeReferences(SnapshotWriter aWriter, List<? extends ModelItem> aItems) throws IOException {
+		aWriter.writeInt(aItems.size());
+		for (ModelItem theItem : aItems) {
+			aWriter.writeString(theItem.getSystemId());
+		}
+	}
+
+	/**
+	 * Read a snapshot. The stream is closed afterwards.
+	 *
+	 * @param aStream the stream
+	 * @return the model
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public Model deserialize(InputStream aStream) throws IOException {
+		return deserialize(aStream, false);
+	}
+
+	/**
+	 * Read a snapshot. The stream is closed afterwards.
+	 * <p>
+	 * In partial mode only the headers of the tables are read. Their
+	 * attributes and indexes, and the mappings of the relations, are loaded
+	 * when they are accessed for the first time. Snapshots of the first
+	 * version are always read completely.
+	 *
+	 * @param aStream  the stream
+	 * @param aPartial true to read the table details on demand
+	 * @return the model
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public Model deserialize(InputStream aStream, boolean aPartial) throws IOException {
+		try (DataInputStream theInput = new DataInputStream(new BufferedInputStream(aStream))) {
+			if (theInput.readInt() != MAGIC) {
+				throw new IOException("Not a model snapshot");
+			}
+			short theVersion = theInput.readShort();
+			if (theVersion != FORMAT_VERSION && theVersion != FORMAT_VERSION_1) {
+				throw new IOException("Unsupported snapshot version " + theVersion);
+			}
+			boolean theBlocks = theVersion != FORMAT_VERSION_1;
+
+			SnapshotReader theReader = new SnapshotReader(theInput, aPartial && theBlocks);
+			while (true) {
+				byte theSection = theInput.readByte();
+				if (theSection == SECTION_END) {
+					return theReader.model;
+				}
+				int theLength = theInput.readInt();
+				switch (theSection) {
+				case SECTION_STRINGS:
+					theReader.readStringTable();
+					break;
+				case SECTION_CONFIGURATION:
+					theReader.readConfiguration();
+					break;
+				case SECTION_CUSTOMTYPES:
+					theReader.readCustomTypes();
+					break;
+				case SECTION_DOMAINS:
+					theReader.readDomains();
+					break;
+				case SECTION_TABLES:
+					if (theBlocks) {
+						byte[] theData = readSection(theInput, theLength);
+						if (theReader.partial) {
+							theReader.addTables(theReader.readTableHeaders(theData));
+						} else {
+							theReader.addTables(theReader.readBlocks(theData, Table.class));
+						}
+					} else {
+						theReader.readTables();
+					}
+					break;
+				case SECTION_RELATIONS:
+					theReader.readRelations();
+					break;
+				case SECTION_VIEWS:
+					if (theBlocks) {
+						theReader.addViews(theReader.readBlocks(readSection(theInput, theLength), View.class));
+					} else {
+						theReader.readViews();
+					}
+					break;
+				case SECTION_COMMENTS:
+					theReader.readComments();
+					break;
+				case SECTION_SUBJECTAREAS:
+					theReader.readSubjectAreas();
+					break;
+				default:
+					theInput.skipNBytes(theLength);
+				}
+			}
+		}
+	}
+
+	private static byte[] readSection(DataInputStream aInput, int aLength) throws IOException {
+		byte[] theData = new byte[aLength];
+		aInput.readFully(theData);
+		return theData;
+	}
+
+	/**
+	 * Collects the string table while the sections are written.
+	 */
+	private static final class SnapshotWriter {
+
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		private final List<String> stringList = new ArrayList<>();
+
+		private ByteArrayOutputStream buffer;
+
+		private DataOutputStream output;
+
+		private ByteArrayOutputStream blockBuffer;
+
+		private DataOutputStream sectionOutput;
+
+		private void beginSection() {
+			buffer = new ByteArrayOutputStream();
+			output = new DataOutputStream(buffer);
+		}
+
+		private byte[] endSection() throws IOException {
+			output.flush();
+			return buffer.toByteArray();
+		}
+
+		private void beginBlock() {
+			sectionOutput = output;
+			blockBuffer = new ByteArrayOutputStream();
+			output = new DataOutputStream(blockBuffer);
+		}
+
+		private void endBlock() throws IOException {
+			output.flush();
+			output = sectionOutput;
+			output.writeInt(blockBuffer.size());
+			blockBuffer.writeTo(output);
+		}
+
+		private byte[] stringTable() throws IOException {
+			beginSection();
+			output.writeInt(stringList.size());
+			for (String theString : stringList) {
+				byte[] theBytes = theString.getBytes(StandardCharsets.UTF_8);
+				output.writeInt(theBytes.length);
+				output.write(theBytes);
+			}
+			return endSection();
+		}
+
+		private void writeString(String aValue) throws IOException {
+			if (aValue == null) {
+				output.writeInt(NULL_STRING);
+				return;
+			}
+			Integer theIndex = strings.get(aValue);
+			if (theIndex == null) {
+				theIndex = stringList.size();
+				strings.put(aValue, theIndex);
+				stringList.add(aValue);
+			}
+			output.writeInt(theIndex);
+		}
+
+		private void writeInt(int aValue) throws IOException {
+			output.writeInt(aValue);
+		}
+
+		private void writeInteger(Integer aValue) throws IOException {
+			output.writeBoolean(aValue != null);
+			output.writeInt(aValue != null ? aValue : 0);
+		}
+
+		private void writeBoolean(boolean aValue) throws IOException {
+			output.writeBoolean(aValue);
+		}
+	}
+
+	/**
+	 * The state of a single read operation.
+	 */
+	private static final class SnapshotReader {
+
+		private final DataInputStream input;
+
+		private final Model model;
+
+		private final boolean partial;
+
+		private String[] strings = new String[0];
+
+		private final Map<String, Table> tablesById = new HashMap<>();
+
+		private final Map<String, Attribute<Table>> attributesById = new HashMap<>();
+
+		private final Map<String, View> viewsById = new HashMap<>();
+
+		private final Map<String, Comment> commentsById = new HashMap<>();
+
+		private DataTypeList availableDataTypes;
+
+		private SnapshotReader(DataInputStream aInput, boolean aPartial) {
+			input = aInput;
+			model = new Model();
+			partial = aPartial;
+		}
+
+		/**
+		 * Create a reader for some blocks of a section. It shares the string
+		 * table and the data types with its parent, but nothing else.
+		 */
+		private SnapshotReader(SnapshotReader aParent, byte[] aData, int aOffset, int aLength) {
+			input = new DataInputStream(new ByteArrayInputStream(aData, aOffset, aLength));
+			model = aParent.model;
+			partial = aParent.partial;
+			strings = aParent.strings;
+			availableDataTypes = aParent.availableDataTypes;
+		}
+
+		/**
+		 * Parse the blocks of a section. Large sections are split into ranges
+		 * of blocks, which are parsed concurrently.
+		 *
+		 * @param aData the section
+		 * @param aType the type of the items in the blocks
+		 * @return the items in the order of the section
+		 * @throws IOException will be thrown in case of an error
+		 */
+		private <T extends ModelItem> List<T> readBlocks(byte[] aData, final Class<T> aType) throws IOException {
+
+			// The data types are only looked up by the parsing threads
+			if (availableDataTypes == null) {
+				availableDataTypes = model.getAvailableDataTypes();
+			}
+
+			DataInputStream theInput = new DataInputStream(new ByteArrayInputStream(aData));
+			int theCount = theInput.readInt();
+			int[] theOffsets = new int[theCount + 1];
+			theOffsets[0] = 4;
+			for (int i = 0; i < theCount; i++) {
+				int theLength = theInput.readInt();
+				theInput.skipNBytes(theLength);
+				theOffsets[i + 1] = theOffsets[i] + 4 + theLength;
+			}
+
+			int theRanges = 1;
+			if (theCount >= PARALLEL_THRESHOLD) {
+				theRanges = Math.min(theCount, ForkJoinPool.getCommonPoolParallelism() * 4);
+			}
+
+			List<Callable<List<T>>> theTasks = new ArrayList<>();
+			for (int i = 0; i < theRanges; i++) {
+				final int theFirst = (int) ((long) theCount * i / theRanges);
+				final int theLast = (int) ((long) theCount * (i + 1) / theRanges);
+				final SnapshotReader theReader = new SnapshotReader(this, aData, theOffsets[theFirst],
+						theOffsets[theLast] - theOffsets[theFirst]);
+				theTasks.add(() -> theReader.readBlockRange(theLast - theFirst, aType));
+			}
+
+			List<T> theResult = new ArrayList<>(theCount);
+			if (theTasks.size() == 1) {
+				try {
+					theResult.addAll(theTasks.get(0).call());
+				} catch (IOException | RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IOException(e);
+				}
+				return theResult;
+			}
+
+			try {
+				for (Future<List<T>> theFuture : ForkJoinPool.commonPool().invokeAll(theTasks)) {
+					theResult.addAll(theFuture.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while reading snapshot", e);
+			} catch (ExecutionException e) {
+				Throwable theCause = e.getCause();
+				if (theCause instanceof IOException) {
+					throw (IOException) theCause;
+				}
+				if (theCause instanceof RuntimeException) {
+					throw (RuntimeException) theCause;
+				}
+				throw new IOException(theCause);
+			}
+			return theResult;
+		}
+
+		/**
+		 * Read only the headers of the tables in a section. Each table gets a
+		 * loader reading its block again when the details are needed.
+		 *
+		 * @param aData the section
+		 * @return the tables in the order of the section
+		 * @throws IOException will be thrown in case of an error
+		 */
+		private List<Table> readTableHeaders(final byte[] aData) throws IOException {
+			if (availableDataTypes == null) {
+				availableDataTypes = model.getAvailableDataTypes();
+			}
+
+			DataInputStream theInput = new DataInputStream(new ByteArrayInputStream(aData));
+			int theCount = theInput.readInt();
+			List<Table> theResult = new ArrayList<>(theCount);
+			int theOffset = 4;
+			for (int i = 0; i < theCount; i++) {
+				final int theLength = theInput.readInt();
+				final int theBlockOffset = theOffset + 4;
+				theInput.skipNBytes(theLength);
+				theOffset = theBlockOffset + theLength;
+
+				Table theTable = new Table();
+				theTable.setOwner(model);
+				new SnapshotReader(this, aData, theBlockOffset, theLength).readTableHeader(theTable);
+				theTable.setDetailsLoader(aTable -> {
+					try {
+						SnapshotReader theReader = new SnapshotReader(this, aData, theBlockOffset, theLength);
+
+						// The header is already known, it might even have
+						// been changed in the meantime
+						theReader.readTableHeader(new Table());
+						theReader.readTableDetails(aTable);
+					} catch (IOException e) {
+						throw new IllegalStateException("Cannot load table " + aTable.getName(), e);
+					}
+				});
+				theResult.add(theTable);
+			}
+			return theResult;
+		}
+
+		private <T extends ModelItem> List<T> readBlockRange(int aCount, Class<T> aType) throws IOException {
+			List<T> theResult = new ArrayList<>(aCount);
+			for (int i = 0; i < aCount; i++) {
+
+				// The block length is only needed to find the ranges
+				input.readInt();
+				if (aType == Table.class) {
+					theResult.add(aType.cast(readTable()));
+				} else {
+					theResult.add(aType.cast(readView()));
+				}
+			}
+			return theResult;
+		}
+
+		private void readStringTable() throws IOException {
+			strings = new String[input.readInt()];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] theBytes = new byte[input.readInt()];
+				input.readFully(theBytes);
+				strings[i] = new String(theBytes, StandardCharsets.UTF_8);
+			}
+		}
+
+		private String readString() throws IOException {
+			int theIndex = input.readInt();
+			if (theIndex == NULL_STRING) {
+				return null;
+			}
+			return strings[theIndex];
+		}
+
+		private Integer readInteger() throws IOException {
+			boolean thePresent = input.readBoolean();
+			int theValue = input.readInt();
+			return thePresent ? theValue : null;
+		}
+
+		private void readConfiguration() throws IOException {
+			String theDialect = readString();
+			if (theDialect != null) {
+				model.setDialect(DialectFactory.getInstance().getDialect(theDialect));
+			}
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				model.getProperties().setProperty(readString(), readString());
+			}
+		}
+
+		private void readItem(ModelItem aItem) throws IOException {
+			aItem.setSystemId(readString());
+			aItem.setName(readString());
+			String theComment = readString();
+			if (!StringUtils.isEmpty(theComment)) {
+				aItem.setComment(theComment);
+			}
+			readProperties(aItem);
+		}
+
+		private void readProperties(ModelItem aItem) throws IOException {
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				aItem.getProperties().setProperty(readString(), readString());
+			}
+		}
+
+		private void readCustomTypes() throws IOException {
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				CustomType theCustomType = new CustomType();
+				theCustomType.setOwner(model);
+				readItem(theCustomType);
+				theCustomType.setSchema(readString());
+				theCustomType.setType(CustomTypeType.fromString(readString()));
+				theCustomType.setAlias(readString());
+
+				int theAttributeCount = input.readInt();
+				for (int j = 0; j < theAttributeCount; j++) {
+					theCustomType.getAttributes().add(readAttribute(theCustomType));
+				}
+
+				model.getCustomTypes().add(theCustomType);
+				availableDataTypes = null;
+			}
+		}
+
+		private void readDomains() throws IOException {
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				Domain theDomain = new Domain();
+				readItem(theDomain);
+				theDomain.setConcreteType(model.getDomainDataTypes().findByName(readString()));
+				theDomain.setSize(readInteger());
+				theDomain.setFraction(readInteger());
+				theDomain.setScale(input.readInt());
+				theDomain.setNullable(input.readBoolean());
+
+				model.getDomains().add(theDomain);
+				availableDataTypes = null;
+			}
+		}
+
+		private void readTables() throws IOException {
+			int theCount = input.readInt();
+			List<Table> theTables = new ArrayList<>(theCount);
+			for (int i = 0; i < theCount; i++) {
+				theTables.add(readTable());
+			}
+			addTables(theTables);
+		}
+
+		private void addTables(List<Table> aTables) {
+			for (Table theTable : aTables) {
+				model.getTables().add(theTable);
+				tablesById.putIfAbsent(theTable.getSystemId(), theTable);
+				if (!theTable.isDetailsLoaded()) {
+					continue;
+				}
+				for (Attribute<Table> theAttribute : theTable.getAttributes()) {
+					attributesById.putIfAbsent(theAttribute.getSystemId(), theAttribute);
+				}
+			}
+		}
+
+		private Table readTable() throws IOException {
+			Table theTable = new Table();
+			theTable.setOwner(model);
+			readTableHeader(theTable);
+			readTableDetails(theTable);
+			return theTable;
+		}
+
+		private void readTableHeader(Table aTable) throws IOException {
+			readItem(aTable);
+			aTable.setSchema(readString());
+		}
+
+		private void readTableDetails(Table aTable) throws IOException {
+			int theAttributeCount = input.readInt();
+			for (int j = 0; j < theAttributeCount; j++) {
+				aTable.getAttributes().add(readAttribute(aTable));
+			}
+
+			int theIndexCount = input.readInt();
+			for (int j = 0; j < theIndexCount; j++) {
+				Index theIndex = new Index();
+				theIndex.setOwner(aTable);
+				theIndex.setSystemId(readString());
+				theIndex.setName(readString());
+				readProperties(theIndex);
+				theIndex.setIndexType(IndexType.fromString(readString()));
+
+				int theExpressionCount = input.readInt();
+				for (int k = 0; k < theExpressionCount; k++) {
+					IndexExpression theExpression = new IndexExpression();
+					theExpression.setSystemId(readString());
+					if (input.readBoolean()) {
+						theExpression.setExpression(readString());
+					} else {
+						theExpression.setAttributeRef(aTable.getAttributes().findBySystemId(readString()));
+					}
+					theIndex.getExpressions().add(theExpression);
+				}
+				aTable.getIndexes().add(theIndex);
+			}
+		}
+
+		private <T extends ModelItem> Attribute<T> readAttribute(T aOwner) throws IOException {
+			Attribute<T> theAttribute = new Attribute<>();
+			theAttribute.setOwner(aOwner);
+			readItem(theAttribute);
+
+			String theDatatypeName = readString();
+			if (theDatatypeName != null) {
+				theAttribute.setDatatype(findDataType(theDatatypeName));
+			}
+			theAttribute.setSize(readInteger());
+			Integer theFraction = readInteger();
+			if (theFraction != null) {
+				theAttribute.setFraction(theFraction);
+			}
+			theAttribute.setScale(input.readInt());
+			theAttribute.setDefaultValue(readString());
+			theAttribute.setExtra(readString());
+			theAttribute.setNullable(input.readBoolean());
+			return theAttribute;
+		}
+
+		private DataType findDataType(String aName) {
+			if (availableDataTypes == null) {
+				availableDataTypes = model.getAvailableDataTypes();
+			}
+			return availableDataTypes.findByName(aName);
+		}
+
+		private void readRelations() throws IOException {
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				Relation theRelation = new Relation();
+				theRelation.setOwner(model);
+				readItem(theRelation);
+				theRelation.setImportingTable(findTable(readString()));
+				theRelation.setExportingTable(findTable(readString()));
+				theRelation.setOnDelete(CascadeType.fromString(readString()));
+				theRelation.setOnUpdate(CascadeType.fromString(readString()));
+
+				int theMappingCount = input.readInt();
+				final String[] theMappings = new String[theMappingCount * 2];
+				for (int j = 0; j < theMappings.length; j++) {
+					theMappings[j] = readString();
+				}
+				if (partial) {
+					theRelation.setDetailsLoader(aRelation -> resolveMapping(aRelation, theMappings));
+				} else {
+					resolveMapping(theRelation, theMappings);
+				}
+
+				model.getRelations().add(theRelation);
+			}
+		}
+
+		private void resolveMapping(Relation aRelation, String[] aMappings) {
+			Index thePrimaryKey = aRelation.getExportingTable().getPrimarykey();
+			for (int i = 0; i < aMappings.length; i += 2) {
+				String theExpressionId = aMappings[i];
+				String theAttributeId = aMappings[i + 1];
+
+				IndexExpression theExpression = thePrimaryKey.getExpressions().findBySystemId(theExpressionId);
+				if (theExpression == null) {
+					throw new IllegalArgumentException("Cannot find expression with id " + theExpressionId);
+				}
+				Attribute<Table> theAttribute = findAttribute(aRelation, theAttributeId);
+				if (theAttribute == null) {
+					throw new IllegalArgumentException("Cannot find attribute with id " + theAttributeId);
+				}
+				aRelation.getMapping().put(theExpression, theAttribute);
+			}
+		}
+
+		private Attribute<Table> findAttribute(Relation aRelation, String aSystemId) {
+			if (!partial) {
+				return attributesById.get(aSystemId);
+			}
+
+			// Look into the importing table first, so other tables are only
+			// loaded for broken models
+			Attribute<Table> theAttribute = aRelation.getImportingTable().getAttributes().findBySystemId(aSystemId);
+			if (theAttribute == null) {
+				theAttribute = model.getTables().findAttributeBySystemId(aSystemId);
+			}
+			return theAttribute;
+		}
+
+		private void readViews() throws IOException {
+			int theCount = input.readInt();
+			List<View> theViews = new ArrayList<>(theCount);
+			for (int i = 0; i < theCount; i++) {
+				theViews.add(readView());
+			}
+			addViews(theViews);
+		}
+
+		private void addViews(List<View> aViews) {
+			for (View theView : aViews) {
+				model.getViews().add(theView);
+				viewsById.putIfAbsent(theView.getSystemId(), theView);
+			}
+		}
+
+		private View readView() throws IOException {
+			View theView = new View();
+			theView.setOwner(model);
+			readItem(theView);
+			theView.setSql(readString());
+			return theView;
+		}
+
+		private void readComments() throws IOException {
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				Comment theComment = new Comment();
+				theComment.setOwner(model);
+				readItem(theComment);
+
+				model.getComments().add(theComment);
+				commentsById.putIfAbsent(theComment.getSystemId(), theComment);
+			}
+		}
+
+		private void readSubjectAreas() throws IOException {
+			int theCount = input.readInt();
+			for (int i = 0; i < theCount; i++) {
+				SubjectArea theSubjectArea = new SubjectArea();
+				readItem(theSubjectArea);
+				theSubjectArea.setColor(new Color(input.readInt()));
+				theSubjectArea.setVisible(input.readBoolean());
+				theSubjectArea.setExpanded(input.readBoolean());
+
+				int theTableCount = input.readInt();
+				for (int j = 0; j < theTableCount; j++) {
+					theSubjectArea.getTables().add(findTable(readString()));
+				}
+				int theViewCount = input.readInt();
+				for (int j = 0; j < theViewCount; j++) {
+					String theId = readString();
+					View theView = viewsById.get(theId);
+					if (theView == null) {
+						throw new IllegalArgumentException("Cannot find view with id " + theId);
+					}
+					theSubjectArea.getViews().add(theView);
+				}
+				int theCommentCount = input.readInt();
+				for (int j = 0; j < theCommentCount; j++) {
+					String theId = readString();
+					Comment theComment = commentsById.get(theId);
+					if (theComment == null) {
+						throw new IllegalArgumentException("Cannot find comment with id " + theId);
+					}
+					theSubjectArea.getComments().add(theComment);
+				}
+
+				model.getSubjectAreas().add(theSubjectArea);
+			}
+		}
+
+		private Table findTable(String aSystemId) {
+			Table theTable = tablesById.get(aSystemId);
+			if (theTable == null) {
+				throw new IllegalArgumentException("Cannot find table with id " + aSystemId);
+			}
+			return theTable;
+		}
+	}
+}
@@ -49,7 +49,8 @@ public class DictionaryModelSerializer extends DictionaryBaseSerializer {
 	public RepositoryEntryDescriptor serialize(final RepositoryEntryDescriptor aDesc, final Model aModel,
 											   Connection aConnection, Class aHibernateDialectClass) throws Exception {
 
-		return (RepositoryEntryDescriptor) new HibernateTemplate(aHibernateDialectClass, aConnection) {
+		final StatementList theSavedStatements = new StatementList();
+		RepositoryEntryDescriptor theResult = (RepositoryEntryDescriptor) new HibernateTemplate(aHibernateDialectClass, aConnection) {
 
 			@Override
 			public Object doInSession(Session aSession) {
@@ -98,8 +99,8 @@ public class DictionaryModelSerializer extends DictionaryBaseSerializer {
 						theChange.setSystemId(ModelUtilities.createSystemIdFor());
 						for (Statement theStatement : theList) {
 							theChange.getStatements().add(theStatement.getSql());
-							theStatement.setSaved(true);
 						}
+						theSavedStatements.addAll(theList);
 
 						theEntity.getChanges().add(theChange);
 					}
@@ -113,6 +114,11 @@ public class DictionaryModelSerializer extends DictionaryBaseSerializer {
 			}
 
 		}.execute();
+
+		if (!theSavedStatements.isEmpty()) {
+			((HistoryModificationTracker) aModel.getModificationTracker()).markAsSaved(theSavedStatements);
+		}
+		return theResult;
 	}
 
 	public Model deserialize(final RepositoryEntryDescriptor aDescriptor, Connection aConnection,
@@ -135,7 +135,7 @@ public class XMLModel10Serializer extends AbstractXMLModelSerializer {
 	}
 
 	@Override
-	protected String getVersion() {
+	public String getVersion() {
 		return CURRENT_VERSION;
 	}
 
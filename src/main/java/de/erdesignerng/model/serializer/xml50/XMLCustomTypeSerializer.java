@@ -70,7 +70,7 @@ public class XMLCustomTypeSerializer extends de.erdesignerng.model.serializer.xm
 
 			theCustomType.setSchema(theElement.getAttribute(SCHEMA));
 			theCustomType.setType(CustomTypeType.fromString(theElement.getAttribute(TYPE)));
-			theCustomType.setSchema(theElement.getAttribute(ALIAS));
+			theCustomType.setAlias(theElement.getAttribute(ALIAS));
 
 			getXMLModelSerializer().getXMLAttributeSerializer().deserialize(aModel, theCustomType, theElement);
 
@@ -0,0 +1,85 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.utils;
+
+import de.erdesignerng.model.ModelItem;
+
+/**
+ * A single conflict detected during a three way merge. The base, our and their
+ * version of the item are kept, a missing version is null.
+ */
+public class MergeConflict {
+
+	private final MergeConflictType type;
+
+	private final String systemId;
+
+	private final ModelItem base;
+
+	private final ModelItem ours;
+
+	private final ModelItem theirs;
+
+	public MergeConflict(MergeConflictType aType, String aSystemId, ModelItem aBase, ModelItem aOurs, ModelItem aTheirs) {
+		type = aType;
+		systemId = aSystemId;
+		base = aBase;
+		ours = aOurs;
+		theirs = aTheirs;
+	}
+
+	public MergeConflictType getType() {
+		return type;
+	}
+
+	public String getSystemId() {
+		return systemId;
+	}
+
+	public ModelItem getBase() {
+		return base;
+	}
+
+	public ModelItem getOurs() {
+		return ours;
+	}
+
+	public ModelItem getTheirs() {
+		return theirs;
+	}
+
+	/**
+	 * Get the name of the conflicting item, preferring our version.
+	 *
+	 * @return the name
+	 */
+	public String getItemName() {
+		if (ours != null) {
+			return ours.getName();
+		}
+		if (theirs != null) {
+			return theirs.getName();
+		}
+		return base != null ? base.getName() : systemId;
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + getItemName();
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.utils;
+
+/**
+ * The kind of a conflict found during a three way merge.
+ */
+public enum MergeConflictType {
+
+	/**
+	 * Both sides changed the item in different ways.
+	 */
+	MODIFIED_IN_BOTH,
+
+	/**
+	 * Both sides added an item with the same system id but different content.
+	 */
+	ADDED_IN_BOTH,
+
+	/**
+	 * Our side deleted the item, their side modified it.
+	 */
+	DELETED_IN_OURS,
+
+	/**
+	 * Their side deleted the item, our side modified it.
+	 */
+	DELETED_IN_THEIRS,
+
+	/**
+	 * A change from their side references an item that does not exist on our
+	 * side after merging.
+	 */
+	UNRESOLVED_REFERENCE
+}
@@ -0,0 +1,548 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.utils;
+
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.StatementList;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexExpression;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Generates an incremental migration script from one model version to another.
+ * <p>
+ * Items are matched by system id first and by name second, so renamed tables
+ * and attributes are migrated with rename statements instead of drop and
+ * create. All statements are created by the change methods of the dialect
+ * SQLGenerator, in an order the database can execute:
+ * <ol>
+ * <li>drop removed or changed relations, and relations around altered keys</li>
+ * <li>drop removed or changed views, and views selecting from removed or
+ * renamed tables or from tables with changed, removed or renamed columns</li>
+ * <li>drop removed or changed indexes</li>
+ * <li>drop removed tables</li>
+ * <li>create new schemas, domains and custom types</li>
+ * <li>create new tables</li>
+ * <li>change, drop, add and rename attributes, then rename tables</li>
+ * <li>create new or changed indexes</li>
+ * <li>create new, changed or dropped relations</li>
+ * <li>create new, changed or dropped views</li>
+ * <li>drop removed domains and custom types</li>
+ * </ol>
+ * The tables and views a view depends on are found by their names in its SQL.
+ */
+public class MigrationScriptGenerator {
+
+	private final SQLGenerator generator;
+
+	private boolean combineAlterTableStatements;
+
+	public MigrationScriptGenerator(SQLGenerator aGenerator) {
+		generator = aGenerator;
+	}
+
+	public boolean isCombineAlterTableStatements() {
+		return combineAlterTableStatements;
+	}
+
+	/**
+	 * Combine consecutive alterations of the same table into a single ALTER
+	 * TABLE statement where the dialect supports it.
+	 *
+	 * @param aCombineAlterTableStatements true to combine the statements
+	 */
+	public void setCombineAlterTableStatements(boolean aCombineAlterTableStatements) {
+		combineAlterTableStatements = aCombineAlterTableStatements;
+	}
+
+	/**
+	 * Create the statements to migrate a database from the source model to the
+	 * target model.
+	 *
+	 * @param aSource the model describing the current database
+	 * @param aTarget the model describing the desired database
+	 * @return the ordered list of statements
+	 */
+	public StatementList createMigrationStatements(Model aSource, Model aTarget) {
+		Migration theMigration = new Migration(aSource, aTarget);
+		theMigration.match();
+		StatementList theStatements = theMigration.createStatements();
+		if (combineAlterTableStatements) {
+			return generator.createCombinedAlterTableStatements(theStatements);
+		}
+		return theStatements;
+	}
+
+	private static <T extends ModelItem> Map<T, T> matchItems(List<T> aSource, List<T> aTarget) {
+		Map<String, T> theTargetById = new HashMap<>();
+		Map<String, T> theTargetByName = new HashMap<>();
+		for (T theItem : aTarget) {
+			theTargetById.put(theItem.getSystemId(), theItem);
+			theTargetByName.putIfAbsent(theItem.getUniqueName(), theItem);
+		}
+
+		Map<T, T> theResult = new LinkedHashMap<>();
+		Set<T> theMatchedTargets = new HashSet<>();
+		List<T> theUnmatched = new ArrayList<>();
+		for (T theItem : aSource) {
+			T theTarget = theTargetById.get(theItem.getSystemId());
+			if (theTarget != null) {
+				theResult.put(theItem, theTarget);
+				theMatchedTargets.add(theTarget);
+			} else {
+				theUnmatched.add(theItem);
+			}
+		}
+		// Items without a matching system id, for instance from a reverse
+		// engineered model, are matched by name
+		for (T theItem : theUnmatched) {
+			T theTarget = theTargetByName.get(theItem.getUniqueName());
+			if (theTarget != null && theMatchedTargets.add(theTarget)) {
+				theResult.put(theItem, theTarget);
+			}
+		}
+		return theResult;
+	}
+
+	private static boolean isAttributeChanged(Attribute<Table> aSource, Attribute<Table> aTarget) {
+		if (aSource.getDatatype() == null || aTarget.getDatatype() == null) {
+			return aSource.getDatatype() != aTarget.getDatatype();
+		}
+		if (!aSource.getPhysicalDeclaration().equals(aTarget.getPhysicalDeclaration())) {
+			return true;
+		}
+		if (aSource.isNullable() != aTarget.isNullable()) {
+			return true;
+		}
+		return !StringUtils.equals(StringUtils.defaultString(aSource.getDefaultValue()), StringUtils
+				.defaultString(aTarget.getDefaultValue()))
+				|| !StringUtils.equals(StringUtils.defaultString(aSource.getExtra()), StringUtils
+				.defaultString(aTarget.getExtra()));
+	}
+
+	/**
+	 * Test if the SQL of a view names one of the items, with or without
+	 * schema.
+	 */
+	private static boolean referencesAny(View aView, List<ModelItem> aItems) {
+		if (StringUtils.isEmpty(aView.getSql())) {
+			return false;
+		}
+		for (ModelItem theItem : aItems) {
+			Pattern thePattern = Pattern.compile("(?<![\\w$])" + Pattern.quote(theItem.getName()) + "(?![\\w$])",
+					Pattern.CASE_INSENSITIVE);
+			if (thePattern.matcher(aView.getSql()).find()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The state of a single migration run.
+	 */
+	private final class Migration {
+
+		private final Model source;
+
+		private final Model target;
+
+		private final Map<Table, Table> tables;
+
+		private final Map<View, View> views;
+
+		private final Map<Relation, Relation> relations;
+
+		private final Map<Attribute<Table>, Attribute<Table>> attributes = new HashMap<>();
+
+		private final Map<Index, Index> indexes = new HashMap<>();
+
+		private final Set<Attribute<Table>> alteredAttributes = new HashSet<>();
+
+		private final Set<Index> droppedIndexes = new HashSet<>();
+
+		private final Set<Relation> droppedRelations = new HashSet<>();
+
+		private final Set<View> droppedViews = new HashSet<>();
+
+		private Migration(Model aSource, Model aTarget) {
+			source = aSource;
+			target = aTarget;
+			tables = matchItems(aSource.getTables(), aTarget.getTables());
+			views = matchItems(aSource.getViews(), aTarget.getViews());
+			relations = matchItems(aSource.getRelations(), aTarget.getRelations());
+		}
+
+		private void match() {
+			for (Map.Entry<Table, Table> theEntry : tables.entrySet()) {
+				Map<Attribute<Table>, Attribute<Table>> theAttributes = matchItems(theEntry.getKey().getAttributes(),
+						theEntry.getValue().getAttributes());
+				attributes.putAll(theAttributes);
+				for (Attribute<Table> theAttribute : theEntry.getKey().getAttributes()) {
+					Attribute<Table> theTarget = theAttributes.get(theAttribute);
+					if (theTarget == null || isAttributeChanged(theAttribute, theTarget)) {
+						alteredAttributes.add(theAttribute);
+					}
+				}
+				indexes.putAll(matchItems(theEntry.getKey().getIndexes(), theEntry.getValue().getIndexes()));
+			}
+
+			for (Table theTable : source.getTables()) {
+				for (Index theIndex : theTable.getIndexes()) {
+					Index theTarget = indexes.get(theIndex);
+					if (theTarget == null || isIndexChanged(theIndex, theTarget) || isOnAlteredAttribute(theIndex)) {
+						droppedIndexes.add(theIndex);
+					}
+				}
+			}
+
+			for (Relation theRelation : source.getRelations()) {
+				Relation theTarget = relations.get(theRelation);
+				if (theTarget == null || isRelationChanged(theRelation, theTarget) || isAroundAlteredKey(theRelation)) {
+					droppedRelations.add(theRelation);
+				}
+			}
+
+			// Most databases refuse to alter or drop what a view depends on, or
+			// leave the view invalid, so the views are recreated
+			List<ModelItem> theAlteredItems = new ArrayList<>();
+			for (Table theTable : source.getTables()) {
+				Table theTarget = tables.get(theTable);
+				if (theTarget == null || theTable.isRenamed(theTarget.getName()) || hasAlteredAttributes(theTable)) {
+					theAlteredItems.add(theTable);
+				}
+			}
+			boolean theDropped = true;
+			while (theDropped) {
+				theDropped = false;
+				for (View theView : source.getViews()) {
+					View theTarget = views.get(theView);
+					if (!droppedViews.contains(theView) && (theTarget == null || theView.isModified(theTarget)
+							|| theView.isRenamed(theTarget.getName()) || referencesAny(theView, theAlteredItems))) {
+						droppedViews.add(theView);
+						theAlteredItems.add(theView);
+						theDropped = true;
+					}
+				}
+			}
+		}
+
+		private boolean hasAlteredAttributes(Table aTable) {
+			for (Attribute<Table> theAttribute : aTable.getAttributes()) {
+				Attribute<Table> theTarget = attributes.get(theAttribute);
+				if (alteredAttributes.contains(theAttribute) || (theTarget != null && theAttribute.isRenamed(
+						theTarget))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isSameAttribute(Attribute<Table> aSource, Attribute<Table> aTarget) {
+			if (aSource == null || aTarget == null) {
+				return aSource == aTarget;
+			}
+			return attributes.get(aSource) == aTarget;
+		}
+
+		private boolean isSameExpression(IndexExpression aSource, IndexExpression aTarget) {
+			if (!StringUtils.equals(aSource.getExpression(), aTarget.getExpression())) {
+				return false;
+			}
+			return isSameAttribute(aSource.getAttributeRef(), aTarget.getAttributeRef());
+		}
+
+		private boolean isIndexChanged(Index aSource, Index aTarget) {
+			if (!aSource.getName().equals(aTarget.getName()) || aSource.getIndexType() != aTarget.getIndexType()) {
+				return true;
+			}
+			if (aSource.getProperties().isModified(aTarget.getProperties())) {
+				return true;
+			}
+			if (aSource.getExpressions().size() != aTarget.getExpressions().size()) {
+				return true;
+			}
+			for (int i = 0; i < aSource.getExpressions().size(); i++) {
+				if (!isSameExpression(aSource.getExpressions().get(i), aTarget.getExpressions().get(i))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Test if an index covers an attribute whose definition is changed. Not
+		 * every database can alter an indexed column, so the index is recreated.
+		 */
+		private boolean isOnAlteredAttribute(Index aIndex) {
+			for (IndexExpression theExpression : aIndex.getExpressions()) {
+				if (theExpression.getAttributeRef() != null && alteredAttributes.contains(theExpression
+						.getAttributeRef())) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isRelationChanged(Relation aSource, Relation aTarget) {
+			if (!StringUtils.equals(aSource.getName(), aTarget.getName())) {
+				return true;
+			}
+			if (aSource.getOnDelete() != aTarget.getOnDelete() || aSource.getOnUpdate() != aTarget.getOnUpdate()) {
+				return true;
+			}
+			if (tables.get(aSource.getImportingTable()) != aTarget.getImportingTable()
+					|| tables.get(aSource.getExportingTable()) != aTarget.getExportingTable()) {
+				return true;
+			}
+			List<Map.Entry<IndexExpression, Attribute<Table>>> theSourceMapping = new ArrayList<>(aSource.getMapping()
+					.entrySet());
+			List<Map.Entry<IndexExpression, Attribute<Table>>> theTargetMapping = new ArrayList<>(aTarget.getMapping()
+					.entrySet());
+			if (theSourceMapping.size() != theTargetMapping.size()) {
+				return true;
+			}
+			for (int i = 0; i < theSourceMapping.size(); i++) {
+				if (!isSameExpression(theSourceMapping.get(i).getKey(), theTargetMapping.get(i).getKey())) {
+					return true;
+				}
+				if (!isSameAttribute(theSourceMapping.get(i).getValue(), theTargetMapping.get(i).getValue())) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Test if a relation must be recreated because one of the columns or the
+		 * referenced key it is built on is changed or dropped.
+		 */
+		private boolean isAroundAlteredKey(Relation aRelation) {
+			for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : aRelation.getMapping().entrySet()) {
+				if (alteredAttributes.contains(theEntry.getValue())) {
+					return true;
+				}
+				Attribute<Table> theReferenced = theEntry.getKey().getAttributeRef();
+				if (theReferenced != null && alteredAttributes.contains(theReferenced)) {
+					return true;
+				}
+			}
+			for (Index theIndex : aRelation.getExportingTable().getIndexes()) {
+				if (droppedIndexes.contains(theIndex)) {
+					for (IndexExpression theExpression : aRelation.getMapping().keySet()) {
+						if (theIndex.getExpressions().contains(theExpression)) {
+							return true;
+						}
+					}
+				}
+			}
+			return false;
+		}
+
+		private StatementList createStatements() {
+			StatementList theResult = new StatementList();
+
+			// Drop everything depending on changed structures, using the old names
+			for (Relation theRelation : source.getRelations()) {
+				if (droppedRelations.contains(theRelation)) {
+					theResult.addAll(generator.createRemoveRelationStatement(theRelation));
+				}
+			}
+			// Views are dropped in reverse order, so views on other views go
+			// first
+			List<View> theSourceViews = source.getViews();
+			for (int i = theSourceViews.size() - 1; i >= 0; i--) {
+				if (droppedViews.contains(theSourceViews.get(i))) {
+					theResult.addAll(generator.createDropViewStatement(theSourceViews.get(i)));
+				}
+			}
+			for (Table theTable : source.getTables()) {
+				if (tables.containsKey(theTable)) {
+					for (Index theIndex : theTable.getIndexes()) {
+						if (droppedIndexes.contains(theIndex)) {
+							if (IndexType.PRIMARYKEY == theIndex.getIndexType()) {
+								theResult.addAll(generator.createRemovePrimaryKeyStatement(theTable, theIndex));
+							} else {
+								theResult.addAll(generator.createRemoveIndexFromTableStatement(theTable, theIndex));
+							}
+						}
+					}
+				}
+			}
+			for (Table theTable : source.getTables()) {
+				if (!tables.containsKey(theTable)) {
+					theResult.addAll(generator.createRemoveTableStatement(theTable));
+				}
+			}
+
+			// Create the new global objects
+			List<String> theExistingSchemas = source.getUsedSchemas();
+			List<String> theSystemSchemas = generator.getDialect().getSystemSchemas();
+			for (String theSchema : target.getUsedSchemas()) {
+				if (!theExistingSchemas.contains(theSchema) && (theSystemSchemas == null || !theSystemSchemas
+						.contains(theSchema))) {
+					theResult.addAll(generator.createAddSchemaStatement(theSchema));
+				}
+			}
+			for (Domain theDomain : target.getDomains()) {
+				if (source.getDomains().findByName(theDomain.getName()) == null) {
+					theResult.addAll(generator.createAddDomainStatement(theDomain));
+				}
+			}
+			for (CustomType theType : target.getCustomTypes()) {
+				if (source.getCustomTypes().findByName(theType.getName()) == null) {
+					theResult.addAll(generator.createAddCustomTypeStatement(theType));
+				}
+			}
+
+			// New tables come with their indexes
+			Set<Table> theMatchedTargetTables = new HashSet<>(tables.values());
+			for (Table theTable : target.getTables()) {
+				if (!theMatchedTargetTables.contains(theTable)) {
+					theResult.addAll(generator.createAddTableStatement(theTable));
+				}
+			}
+
+			for (Map.Entry<Table, Table> theEntry : tables.entrySet()) {
+				theResult.addAll(createTableChanges(theEntry.getKey(), theEntry.getValue()));
+			}
+
+			// Recreate everything depending on the new structures
+			Set<Index> theMatchedTargetIndexes = new HashSet<>();
+			for (Map.Entry<Index, Index> theEntry : indexes.entrySet()) {
+				if (!droppedIndexes.contains(theEntry.getKey())) {
+					theMatchedTargetIndexes.add(theEntry.getValue());
+				}
+			}
+			for (Table theTable : target.getTables()) {
+				if (theMatchedTargetTables.contains(theTable)) {
+					for (Index theIndex : theTable.getIndexes()) {
+						if (!theMatchedTargetIndexes.contains(theIndex)) {
+							if (IndexType.PRIMARYKEY == theIndex.getIndexType()) {
+								theResult.addAll(generator.createAddPrimaryKeyToTable(theTable, theIndex));
+							} else {
+								theResult.addAll(generator.createAddIndexToTableStatement(theTable, theIndex));
+							}
+						}
+					}
+				}
+			}
+
+			Set<Relation> theKeptTargetRelations = new HashSet<>();
+			for (Map.Entry<Relation, Relation> theEntry : relations.entrySet()) {
+				if (!droppedRelations.contains(theEntry.getKey())) {
+					theKeptTargetRelations.add(theEntry.getValue());
+				}
+			}
+			for (Relation theRelation : target.getRelations()) {
+				if (!theKeptTargetRelations.contains(theRelation)) {
+					theResult.addAll(generator.createAddRelationStatement(theRelation));
+				}
+			}
+
+			Set<View> theKeptTargetViews = new HashSet<>();
+			for (Map.Entry<View, View> theEntry : views.entrySet()) {
+				if (!droppedViews.contains(theEntry.getKey())) {
+					theKeptTargetViews.add(theEntry.getValue());
+				}
+			}
+			for (View theView : target.getViews()) {
+				if (!theKeptTargetViews.contains(theView)) {
+					theResult.addAll(generator.createAddViewStatement(theView));
+				}
+			}
+
+			// Finally drop the global objects no longer used
+			for (Domain theDomain : source.getDomains()) {
+				if (target.getDomains().findByName(theDomain.getName()) == null) {
+					theResult.addAll(generator.createDropDomainStatement(theDomain));
+				}
+			}
+			for (CustomType theType : source.getCustomTypes()) {
+				if (target.getCustomTypes().findByName(theType.getName()) == null) {
+					theResult.addAll(generator.createDropCustomTypeStatement(theType));
+				}
+			}
+
+			return theResult;
+		}
+
+		/**
+		 * Create the statements for a table existing in both models. The change
+		 * statements reference the table and columns by their old names, so all
+		 * renames are done last.
+		 */
+		private StatementList createTableChanges(Table aSource, Table aTarget) {
+			StatementList theResult = new StatementList();
+
+			Set<Attribute<Table>> theMatchedTargetAttributes = new HashSet<>();
+			for (Attribute<Table> theAttribute : aSource.getAttributes()) {
+				Attribute<Table> theTarget = attributes.get(theAttribute);
+				if (theTarget != null) {
+					theMatchedTargetAttributes.add(theTarget);
+					if (isAttributeChanged(theAttribute, theTarget)) {
+						theResult.addAll(generator.createChangeAttributeStatement(theAttribute, theTarget));
+					}
+				}
+			}
+			for (Attribute<Table> theAttribute : aSource.getAttributes()) {
+				if (!attributes.containsKey(theAttribute)) {
+					theResult.addAll(generator.createRemoveAttributeFromTableStatement(aSource, theAttribute));
+				}
+			}
+			for (Attribute<Table> theAttribute : aTarget.getAttributes()) {
+				if (!theMatchedTargetAttributes.contains(theAttribute)) {
+					theResult.addAll(generator.createAddAttributeToTableStatement(aSource, theAttribute));
+				}
+			}
+			for (Attribute<Table> theAttribute : aSource.getAttributes()) {
+				Attribute<Table> theTarget = attributes.get(theAttribute);
+				if (theTarget != null && theAttribute.isRenamed(theTarget)) {
+					theResult.addAll(generator.createRenameAttributeStatement(theAttribute, theTarget.getName()));
+				}
+			}
+
+			if (aSource.isRenamed(aTarget.getName())) {
+				theResult.addAll(generator.createRenameTableStatement(aSource, aTarget.getName()));
+			}
+			if (aSource.isCommentChanged(aTarget.getComment())) {
+				theResult.addAll(generator.createChangeTableCommentStatement(aTarget, aTarget.getComment()));
+			}
+
+			return theResult;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.utils;
+
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexExpression;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Content hashes for model items.
+ * <p>
+ * A hash covers everything that is persisted for an item, but references to
+ * other items are hashed by their system id. Two items with the same hash are
+ * considered unchanged during a merge.
+ */
+public final class ModelItemHashes {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private ModelItemHashes() {
+	}
+
+	private static long hash(long aHash, String aValue) {
+		long theHash = aHash;
+		if (aValue != null) {
+			for (int i = 0; i < aValue.length(); i++) {
+				theHash ^= aValue.charAt(i);
+				theHash *= FNV_PRIME;
+			}
+		}
+		// Field separator, so "ab","c" differs from "a","bc"
+		theHash ^= 0x1f;
+		theHash *= FNV_PRIME;
+		return theHash;
+	}
+
+	private static long hash(long aHash, Object aValue) {
+		return hash(aHash, aValue != null ? aValue.toString() : null);
+	}
+
+	private static long hashCommon(ModelItem aItem) {
+		long theHash = hash(FNV_OFFSET, aItem.getName());
+		theHash = hash(theHash, aItem.getComment());
+		// Sorted, the property map has no stable iteration order
+		for (Map.Entry<String, String> theEntry : new TreeMap<>(aItem.getProperties().getProperties()).entrySet()) {
+			theHash = hash(theHash, theEntry.getKey());
+			theHash = hash(theHash, theEntry.getValue());
+		}
+		return theHash;
+	}
+
+	/**
+	 * Hash of the table header, that is everything except attributes and indexes.
+	 *
+	 * @param aTable the table
+	 * @return the hash
+	 */
+	public static long hashTableHeader(Table aTable) {
+		return hash(hashCommon(aTable), aTable.getSchema());
+	}
+
+	/**
+	 * Hash of the complete table including all attributes and indexes.
+	 *
+	 * @param aTable the table
+	 * @return the hash
+	 */
+	public static long hashTable(Table aTable) {
+		long theHash = hashTableHeader(aTable);
+		for (Attribute<Table> theAttribute : aTable.getAttributes()) {
+			theHash = hash(theHash, theAttribute.getSystemId());
+			theHash = hash(theHash, hashAttribute(theAttribute));
+		}
+		for (Index theIndex : aTable.getIndexes()) {
+			theHash = hash(theHash, theIndex.getSystemId());
+			theHash = hash(theHash, hashIndex(theIndex));
+		}
+		return theHash;
+	}
+
+	public static long hashAttribute(Attribute<Table> aAttribute) {
+		long theHash = hashCommon(aAttribute);
+		DataType theType = aAttribute.getDatatype();
+		theHash = hash(theHash, theType != null ? theType.getName() : null);
+		theHash = hash(theHash, aAttribute.getSize());
+		theHash = hash(theHash, aAttribute.getFraction());
+		theHash = hash(theHash, aAttribute.getScale());
+		theHash = hash(theHash, aAttribute.isNullable());
+		theHash = hash(theHash, aAttribute.getDefaultValue());
+		return hash(theHash, aAttribute.getExtra());
+	}
+
+	public static long hashIndex(Index aIndex) {
+		long theHash = hash(hashCommon(aIndex), aIndex.getIndexType());
+		for (IndexExpression theExpression : aIndex.getExpressions()) {
+			theHash = hash(theHash, theExpression.getExpression());
+			theHash = hash(theHash, theExpression.getAttributeRef() != null ? theExpression.getAttributeRef()
+					.getSystemId() : null);
+		}
+		return theHash;
+	}
+
+	public static long hashRelation(Relation aRelation) {
+		long theHash = hashCommon(aRelation);
+		theHash = hash(theHash, aRelation.getImportingTable() != null ? aRelation.getImportingTable().getSystemId() : null);
+		theHash = hash(theHash, aRelation.getExportingTable() != null ? aRelation.getExportingTable().getSystemId() : null);
+		theHash = hash(theHash, aRelation.getOnDelete());
+		theHash = hash(theHash, aRelation.getOnUpdate());
+		for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : aRelation.getMapping().entrySet()) {
+			IndexExpression theExpression = theEntry.getKey();
+			theHash = hash(theHash, theExpression.getExpression());
+			theHash = hash(theHash, theExpression.getAttributeRef() != null ? theExpression.getAttributeRef()
+					.getSystemId() : null);
+			theHash = hash(theHash, theEntry.getValue().getSystemId());
+		}
+		return theHash;
+	}
+
+	public static long hashView(View aView) {
+		long theHash = hash(hashCommon(aView), aView.getSchema());
+		return hash(theHash, aView.getSql());
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.utils;
+
+import de.erdesignerng.model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a three way merge. The merged model is our model with all non
+ * conflicting changes from their side applied.
+ */
+public class ModelMergeResult {
+
+	private final Model model;
+
+	private final List<MergeConflict> conflicts = new ArrayList<>();
+
+	private int appliedChanges;
+
+	public ModelMergeResult(Model aModel) {
+		model = aModel;
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
+	public List<MergeConflict> getConflicts() {
+		return conflicts;
+	}
+
+	public boolean hasConflicts() {
+		return !conflicts.isEmpty();
+	}
+
+	/**
+	 * Get the number of changes taken over from their side.
+	 *
+	 * @return the number of changes
+	 */
+	public int getAppliedChanges() {
+		return appliedChanges;
+	}
+
+	void addConflict(MergeConflict aConflict) {
+		conflicts.add(aConflict);
+	}
+
+	void changeApplied() {
+		appliedChanges++;
+	}
+}
@@ -0,0 +1,527 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.model.utils;
+
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexExpression;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.model.ViewAttribute;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Three way merge of models.
+ * <p>
+ * Items are matched by their system id and compared by content hash, so the
+ * merge runs in linear time of the model size. Changes made only on their side
+ * are applied to our model, changes made on both sides are reported as
+ * conflicts and our version is kept.
+ * <p>
+ * Tables are merged on attribute and index level, views and relations as a
+ * whole. Domains, custom types, subject areas and comments are taken from our
+ * side, but tables and views added by their side are put into their subject
+ * areas where these exist on our side. A table deleted by their side is kept
+ * and reported as conflict if our side added or changed a relation on it.
+ */
+public class ModelMerger {
+
+	private enum Resolution {
+		KEEP, TAKE_THEIRS, CONFLICT
+	}
+
+	/**
+	 * Merge the changes from base to their model into our model.
+	 *
+	 * @param aBase   the common ancestor
+	 * @param aOurs   our model, will be modified
+	 * @param aTheirs their model
+	 * @return the merge result
+	 */
+	public ModelMergeResult merge(Model aBase, Model aOurs, Model aTheirs) {
+		ModelMergeResult theResult = new ModelMergeResult(aOurs);
+
+		mergeTables(aBase, aOurs, aTheirs, theResult);
+		mergeViews(aBase, aOurs, aTheirs, theResult);
+		mergeRelations(aBase, aOurs, aTheirs, theResult);
+
+		aOurs.getRelations().clearCache();
+
+		return theResult;
+	}
+
+	private static Resolution resolve(Long aBase, Long aOurs, Long aTheirs) {
+		if (Objects.equals(aOurs, aTheirs)) {
+			// Same change on both sides, or no change at all
+			return Resolution.KEEP;
+		}
+		if (Objects.equals(aBase, aOurs)) {
+			return Resolution.TAKE_THEIRS;
+		}
+		if (Objects.equals(aBase, aTheirs)) {
+			return Resolution.KEEP;
+		}
+		return Resolution.CONFLICT;
+	}
+
+	private static MergeConflictType conflictTypeFor(Object aBase, Object aOurs, Object aTheirs) {
+		if (aBase == null) {
+			return MergeConflictType.ADDED_IN_BOTH;
+		}
+		if (aOurs == null) {
+			return MergeConflictType.DELETED_IN_OURS;
+		}
+		if (aTheirs == null) {
+			return MergeConflictType.DELETED_IN_THEIRS;
+		}
+		return MergeConflictType.MODIFIED_IN_BOTH;
+	}
+
+	private static <T extends ModelItem> Map<String, T> bySystemId(List<T> aItems) {
+		Map<String, T> theResult = new LinkedHashMap<>(aItems.size() * 2);
+		for (T theItem : aItems) {
+			theResult.put(theItem.getSystemId(), theItem);
+		}
+		return theResult;
+	}
+
+	private static <T extends ModelItem> Set<String> allSystemIds(Map<String, T> aOurs, Map<String, T> aTheirs) {
+		Set<String> theResult = new LinkedHashSet<>(aOurs.keySet());
+		theResult.addAll(aTheirs.keySet());
+		return theResult;
+	}
+
+	private static <T> Long hashOf(T aItem, ToLongFunction<T> aHashFunction) {
+		return aItem != null ? aHashFunction.applyAsLong(aItem) : null;
+	}
+
+	private void mergeTables(Model aBase, Model aOurs, Model aTheirs, ModelMergeResult aResult) {
+		Map<String, Table> theBaseTables = bySystemId(aBase.getTables());
+		Map<String, Table> theOurTables = bySystemId(aOurs.getTables());
+		Map<String, Table> theTheirTables = bySystemId(aTheirs.getTables());
+		Map<String, Relation> theBaseRelations = bySystemId(aBase.getRelations());
+
+		for (String theSystemId : allSystemIds(theOurTables, theTheirTables)) {
+			Table theBase = theBaseTables.get(theSystemId);
+			Table theOurs = theOurTables.get(theSystemId);
+			Table theTheirs = theTheirTables.get(theSystemId);
+
+			if (theBase != null && theOurs != null && theTheirs != null) {
+				mergeTableContent(aOurs, theBase, theOurs, theTheirs, aResult);
+				continue;
+			}
+
+			switch (resolve(hashOf(theBase, ModelItemHashes::hashTable), hashOf(theOurs, ModelItemHashes::hashTable),
+					hashOf(theTheirs, ModelItemHashes::hashTable))) {
+			case TAKE_THEIRS:
+				if (theTheirs == null) {
+					if (hasChangedRelations(aOurs, theOurs, theBaseRelations)) {
+						aResult.addConflict(new MergeConflict(MergeConflictType.DELETED_IN_THEIRS, theSystemId, theBase,
+								theOurs, null));
+						break;
+					}
+					aOurs.getTables().remove(theOurs);
+					aOurs.getRelations().removeByTable(theOurs);
+					aOurs.getSubjectAreas().removeTable(theOurs);
+				} else {
+					Table theCopy = copyTable(aOurs, theTheirs, aResult);
+					aOurs.getTables().add(theCopy);
+					addToSubjectAreas(aOurs, aTheirs, theTheirs, theCopy, SubjectArea::getTables);
+				}
+				aResult.changeApplied();
+				break;
+			case CONFLICT:
+				aResult.addConflict(new MergeConflict(conflictTypeFor(theBase, theOurs, theTheirs), theSystemId,
+						theBase, theOurs, theTheirs));
+				break;
+			default:
+			}
+		}
+	}
+
+	/**
+	 * Test if our side added or changed a relation on a table.
+	 */
+	private static boolean hasChangedRelations(Model aOurs, Table aTable, Map<String, Relation> aBaseRelations) {
+		for (Relation theRelation : aOurs.getRelations()) {
+			if (aTable.equals(theRelation.getImportingTable()) || aTable.equals(theRelation.getExportingTable())) {
+				Relation theBase = aBaseRelations.get(theRelation.getSystemId());
+				if (theBase == null || ModelItemHashes.hashRelation(theBase) != ModelItemHashes.hashRelation(
+						theRelation)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add an item merged from their side to the subject areas it belongs to on
+	 * their side, as far as these exist on our side.
+	 */
+	private static <T extends ModelItem> void addToSubjectAreas(Model aOurs, Model aTheirs, T aTheirItem, T aCopy,
+			Function<SubjectArea, List<T>> aItems) {
+		Map<String, SubjectArea> theOurAreas = bySystemId(aOurs.getSubjectAreas());
+		for (SubjectArea theArea : aTheirs.getSubjectAreas()) {
+			SubjectArea theOurArea = theOurAreas.get(theArea.getSystemId());
+			if (theOurArea != null && aItems.apply(theArea).contains(aTheirItem)) {
+				aItems.apply(theOurArea).add(aCopy);
+			}
+		}
+	}
+
+	private void mergeTableContent(Model aOurModel, Table aBase, Table aOurs, Table aTheirs, ModelMergeResult aResult) {
+		switch (resolve(ModelItemHashes.hashTableHeader(aBase), ModelItemHashes.hashTableHeader(aOurs),
+				ModelItemHashes.hashTableHeader(aTheirs))) {
+		case TAKE_THEIRS:
+			aOurs.setName(aTheirs.getName());
+			aOurs.setSchema(aTheirs.getSchema());
+			aOurs.setComment(aTheirs.getComment());
+			replaceProperties(aOurs, aTheirs);
+			aResult.changeApplied();
+			break;
+		case CONFLICT:
+			aResult.addConflict(new MergeConflict(MergeConflictType.MODIFIED_IN_BOTH, aOurs.getSystemId(), aBase, aOurs,
+					aTheirs));
+			break;
+		default:
+		}
+
+		Map<String, Attribute<Table>> theBaseAttributes = bySystemId(aBase.getAttributes());
+		Map<String, Attribute<Table>> theOurAttributes = bySystemId(aOurs.getAttributes());
+		Map<String, Attribute<Table>> theTheirAttributes = bySystemId(aTheirs.getAttributes());
+
+		for (String theSystemId : allSystemIds(theOurAttributes, theTheirAttributes)) {
+			Attribute<Table> theBase = theBaseAttributes.get(theSystemId);
+			Attribute<Table> theOurs = theOurAttributes.get(theSystemId);
+			Attribute<Table> theTheirs = theTheirAttributes.get(theSystemId);
+
+			switch (resolve(hashOf(theBase, ModelItemHashes::hashAttribute),
+					hashOf(theOurs, ModelItemHashes::hashAttribute), hashOf(theTheirs, ModelItemHashes::hashAttribute))) {
+			case TAKE_THEIRS:
+				if (theTheirs == null) {
+					aOurs.getAttributes().remove(theOurs);
+				} else if (theOurs == null) {
+					aOurs.getAttributes().add(copyAttribute(aOurModel, aOurs, theTheirs));
+				} else {
+					theOurs.restoreFrom(copyAttribute(aOurModel, aOurs, theTheirs));
+					replaceProperties(theOurs, theTheirs);
+				}
+				aResult.changeApplied();
+				break;
+			case CONFLICT:
+				aResult.addConflict(new MergeConflict(conflictTypeFor(theBase, theOurs, theTheirs), theSystemId,
+						theBase, theOurs, theTheirs));
+				break;
+			default:
+			}
+		}
+
+		Map<String, Index> theBaseIndexes = bySystemId(aBase.getIndexes());
+		Map<String, Index> theOurIndexes = bySystemId(aOurs.getIndexes());
+		Map<String, Index> theTheirIndexes = bySystemId(aTheirs.getIndexes());
+
+		for (String theSystemId : allSystemIds(theOurIndexes, theTheirIndexes)) {
+			Index theBase = theBaseIndexes.get(theSystemId);
+			Index theOurs = theOurIndexes.get(theSystemId);
+			Index theTheirs = theTheirIndexes.get(theSystemId);
+
+			switch (resolve(hashOf(theBase, ModelItemHashes::hashIndex), hashOf(theOurs, ModelItemHashes::hashIndex),
+					hashOf(theTheirs, ModelItemHashes::hashIndex))) {
+			case TAKE_THEIRS:
+				if (theTheirs == null) {
+					aOurs.getIndexes().remove(theOurs);
+				} else {
+					Index theCopy = copyIndex(aOurs, theTheirs);
+					if (theCopy == null) {
+						aResult.addConflict(new MergeConflict(MergeConflictType.UNRESOLVED_REFERENCE, theSystemId,
+								theBase, theOurs, theTheirs));
+						break;
+					}
+					if (theOurs == null) {
+						aOurs.getIndexes().add(theCopy);
+					} else {
+						aOurs.getIndexes().set(aOurs.getIndexes().indexOf(theOurs), theCopy);
+					}
+				}
+				aResult.changeApplied();
+				break;
+			case CONFLICT:
+				aResult.addConflict(new MergeConflict(conflictTypeFor(theBase, theOurs, theTheirs), theSystemId,
+						theBase, theOurs, theTheirs));
+				break;
+			default:
+			}
+		}
+	}
+
+	private void mergeViews(Model aBase, Model aOurs, Model aTheirs, ModelMergeResult aResult) {
+		Map<String, View> theBaseViews = bySystemId(aBase.getViews());
+		Map<String, View> theOurViews = bySystemId(aOurs.getViews());
+		Map<String, View> theTheirViews = bySystemId(aTheirs.getViews());
+
+		for (String theSystemId : allSystemIds(theOurViews, theTheirViews)) {
+			View theBase = theBaseViews.get(theSystemId);
+			View theOurs = theOurViews.get(theSystemId);
+			View theTheirs = theTheirViews.get(theSystemId);
+
+			switch (resolve(hashOf(theBase, ModelItemHashes::hashView), hashOf(theOurs, ModelItemHashes::hashView),
+					hashOf(theTheirs, ModelItemHashes::hashView))) {
+			case TAKE_THEIRS:
+				if (theTheirs == null) {
+					aOurs.getViews().remove(theOurs);
+					aOurs.getSubjectAreas().removeView(theOurs);
+				} else if (theOurs == null) {
+					View theCopy = new View();
+					theCopy.setSystemId(theTheirs.getSystemId());
+					theCopy.setOwner(aOurs);
+					copyViewContent(theCopy, theTheirs);
+					aOurs.getViews().add(theCopy);
+					addToSubjectAreas(aOurs, aTheirs, theTheirs, theCopy, SubjectArea::getViews);
+				} else {
+					copyViewContent(theOurs, theTheirs);
+				}
+				aResult.changeApplied();
+				break;
+			case CONFLICT:
+				aResult.addConflict(new MergeConflict(conflictTypeFor(theBase, theOurs, theTheirs), theSystemId,
+						theBase, theOurs, theTheirs));
+				break;
+			default:
+			}
+		}
+	}
+
+	private void mergeRelations(Model aBase, Model aOurs, Model aTheirs, ModelMergeResult aResult) {
+		Map<String, Relation> theBaseRelations = bySystemId(aBase.getRelations());
+		Map<String, Relation> theOurRelations = bySystemId(aOurs.getRelations());
+		Map<String, Relation> theTheirRelations = bySystemId(aTheirs.getRelations());
+		Map<String, Table> theOurTables = bySystemId(aOurs.getTables());
+
+		for (String theSystemId : allSystemIds(theOurRelations, theTheirRelations)) {
+			Relation theBase = theBaseRelations.get(theSystemId);
+			Relation theOurs = theOurRelations.get(theSystemId);
+			Relation theTheirs = theTheirRelations.get(theSystemId);
+
+			switch (resolve(hashOf(theBase, ModelItemHashes::hashRelation),
+					hashOf(theOurs, ModelItemHashes::hashRelation), hashOf(theTheirs, ModelItemHashes::hashRelation))) {
+			case TAKE_THEIRS:
+				if (theTheirs == null) {
+					aOurs.getRelations().remove(theOurs);
+				} else {
+					Relation theTarget = theOurs != null ? theOurs : new Relation();
+					if (!copyRelationContent(theTarget, theTheirs, theOurTables)) {
+						aResult.addConflict(new MergeConflict(MergeConflictType.UNRESOLVED_REFERENCE, theSystemId,
+								theBase, theOurs, theTheirs));
+						break;
+					}
+					if (theOurs == null) {
+						theTarget.setSystemId(theTheirs.getSystemId());
+						theTarget.setOwner(aOurs);
+						aOurs.getRelations().add(theTarget);
+					}
+				}
+				aResult.changeApplied();
+				break;
+			case CONFLICT:
+				aResult.addConflict(new MergeConflict(conflictTypeFor(theBase, theOurs, theTheirs), theSystemId,
+						theBase, theOurs, theTheirs));
+				break;
+			default:
+			}
+		}
+	}
+
+	private static void replaceProperties(ModelItem aTarget, ModelItem aSource) {
+		aTarget.getProperties().getProperties().clear();
+		aTarget.getProperties().copyFrom(aSource.getProperties());
+	}
+
+	/**
+	 * Find the data type of our model matching a data type of their model.
+	 */
+	private static DataType resolveDataType(Model aOurModel, DataType aType) {
+		if (aType == null) {
+			return null;
+		}
+		if (aType.isDomain()) {
+			Domain theDomain = aOurModel.getDomains().findByName(aType.getName());
+			return theDomain != null ? theDomain : aType;
+		}
+		if (aType instanceof CustomType) {
+			CustomType theType = aOurModel.getCustomTypes().findByName(aType.getName());
+			return theType != null ? theType : aType;
+		}
+		if (aOurModel.getDialect() != null) {
+			DataType theType = aOurModel.getDialect().getDataTypes().findByName(aType.getName());
+			if (theType != null) {
+				return theType;
+			}
+		}
+		return aType;
+	}
+
+	private static Attribute<Table> copyAttribute(Model aOurModel, Table aOwner, Attribute<Table> aAttribute) {
+		Attribute<Table> theCopy = aAttribute.clone();
+		theCopy.setDatatype(resolveDataType(aOurModel, aAttribute.getDatatype()));
+		// Setting the data type resets the size information
+		theCopy.setSize(aAttribute.getSize());
+		theCopy.setFraction(aAttribute.getFraction());
+		theCopy.setScale(aAttribute.getScale());
+		theCopy.setOwner(aOwner);
+		theCopy.getProperties().copyFrom(aAttribute.getProperties());
+		return theCopy;
+	}
+
+	/**
+	 * Copy an index of their model to a table of our model, resolving all
+	 * attribute references by system id.
+	 * 
+	 * @param aOwner
+	 *            the table of our model
+	 * @param aIndex
+	 *            the index of their model
+	 * @return the copy or null if an attribute reference cannot be resolved
+	 */
+	private static Index copyIndex(Table aOwner, Index aIndex) {
+		Map<String, Attribute<Table>> theAttributes = bySystemId(aOwner.getAttributes());
+
+		Index theCopy = new Index();
+		theCopy.setSystemId(aIndex.getSystemId());
+		theCopy.setName(aIndex.getName());
+		theCopy.setIndexType(aIndex.getIndexType());
+		theCopy.setOwner(aOwner);
+		theCopy.getProperties().copyFrom(aIndex.getProperties());
+
+		for (IndexExpression theExpression : aIndex.getExpressions()) {
+			IndexExpression theExpressionCopy = new IndexExpression();
+			theExpressionCopy.setSystemId(theExpression.getSystemId());
+			theExpressionCopy.setExpression(theExpression.getExpression());
+			if (theExpression.getAttributeRef() != null) {
+				Attribute<Table> theAttribute = theAttributes.get(theExpression.getAttributeRef().getSystemId());
+				if (theAttribute == null) {
+					return null;
+				}
+				theExpressionCopy.setAttributeRef(theAttribute);
+			}
+			theCopy.getExpressions().add(theExpressionCopy);
+		}
+		return theCopy;
+	}
+
+	private static Table copyTable(Model aOurModel, Table aTable, ModelMergeResult aResult) {
+		Table theCopy = new Table();
+		theCopy.setSystemId(aTable.getSystemId());
+		theCopy.setName(aTable.getName());
+		theCopy.setOriginalName(aTable.getOriginalName());
+		theCopy.setSchema(aTable.getSchema());
+		theCopy.setComment(aTable.getComment());
+		theCopy.setOwner(aOurModel);
+		theCopy.getProperties().copyFrom(aTable.getProperties());
+
+		for (Attribute<Table> theAttribute : aTable.getAttributes()) {
+			theCopy.getAttributes().add(copyAttribute(aOurModel, theCopy, theAttribute));
+		}
+		for (Index theIndex : aTable.getIndexes()) {
+			Index theIndexCopy = copyIndex(theCopy, theIndex);
+			if (theIndexCopy == null) {
+				aResult.addConflict(new MergeConflict(MergeConflictType.UNRESOLVED_REFERENCE, theIndex.getSystemId(),
+						null, null, theIndex));
+				continue;
+			}
+			theCopy.getIndexes().add(theIndexCopy);
+		}
+		return theCopy;
+	}
+
+	private static void copyViewContent(View aTarget, View aSource) {
+		aTarget.setName(aSource.getName());
+		aTarget.setSchema(aSource.getSchema());
+		aTarget.setSql(aSource.getSql());
+		aTarget.setComment(aSource.getComment());
+		replaceProperties(aTarget, aSource);
+		aTarget.getAttributes().clear();
+		for (ViewAttribute theAttribute : aSource.getAttributes()) {
+			ViewAttribute theClone = theAttribute.clone();
+			aTarget.getAttributes().add(theClone);
+		}
+	}
+
+	/**
+	 * Copy a relation of their model to a relation of our model, resolving all
+	 * table and attribute references by system id.
+	 *
+	 * @return false if a reference could not be resolved, the target is unchanged then
+	 */
+	private static boolean copyRelationContent(Relation aTarget, Relation aSource, Map<String, Table> aOurTables) {
+		Table theImporting = aOurTables.get(aSource.getImportingTable().getSystemId());
+		Table theExporting = aOurTables.get(aSource.getExportingTable().getSystemId());
+		if (theImporting == null || theExporting == null) {
+			return false;
+		}
+
+		Map<String, IndexExpression> theExportingExpressions = new LinkedHashMap<>();
+		for (Index theIndex : theExporting.getIndexes()) {
+			for (IndexExpression theExpression : theIndex.getExpressions()) {
+				theExportingExpressions.put(theExpression.getSystemId(), theExpression);
+			}
+		}
+		Map<String, Attribute<Table>> theImportingAttributes = bySystemId(theImporting.getAttributes());
+
+		List<IndexExpression> theKeys = new ArrayList<>();
+		List<Attribute<Table>> theValues = new ArrayList<>();
+		for (Map.Entry<IndexExpression, Attribute<Table>> theEntry : aSource.getMapping().entrySet()) {
+			IndexExpression theKey = theExportingExpressions.get(theEntry.getKey().getSystemId());
+			Attribute<Table> theValue = theImportingAttributes.get(theEntry.getValue().getSystemId());
+			if (theKey == null || theValue == null) {
+				return false;
+			}
+			theKeys.add(theKey);
+			theValues.add(theValue);
+		}
+
+		aTarget.setName(aSource.getName());
+		aTarget.setComment(aSource.getComment());
+		aTarget.setImportingTable(theImporting);
+		aTarget.setExportingTable(theExporting);
+		aTarget.setOnDelete(aSource.getOnDelete());
+		aTarget.setOnUpdate(aSource.getOnUpdate());
+		replaceProperties(aTarget, aSource);
+		aTarget.getMapping().clear();
+		for (int i = 0; i < theKeys.size(); i++) {
+			aTarget.getMapping().put(theKeys.get(i), theValues.get(i));
+		}
+		return true;
+	}
+}
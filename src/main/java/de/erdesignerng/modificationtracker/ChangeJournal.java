@@ -0,0 +1,183 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.modificationtracker;
+
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * An append only file holding the saved part of a change log.
+ *
+ * Every save appends the statements saved and a marker line. Statements
+ * following the last marker were not saved completely, for instance after a
+ * crash, and are read back as not saved.
+ * <p>
+ * The journal only moves the saved change log of the current editing session
+ * out of memory, it does not keep the history across sessions. The saved
+ * statements are part of the saved model already, so the file is created
+ * with the first save and deleted when the application exits.
+ */
+public class ChangeJournal {
+
+	private static final String STATEMENT_PREFIX = "S ";
+
+	private static final String SAVED_MARKER = "--saved";
+
+	private final File file;
+
+	private long savedCount;
+
+	public ChangeJournal(File aFile) {
+		file = aFile;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the number of statements saved to the journal so far
+	 */
+	public long getSavedCount() {
+		return savedCount;
+	}
+
+	/**
+	 * Append saved statements to the journal, followed by the saved marker.
+	 *
+	 * @param aStatements the statements
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public void append(List<Statement> aStatements) throws IOException {
+		if (!file.exists()) {
+			File theDirectory = file.getAbsoluteFile().getParentFile();
+			if (theDirectory != null && !theDirectory.exists() && !theDirectory.mkdirs()) {
+				throw new IOException("Cannot create directory " + theDirectory);
+			}
+			file.deleteOnExit();
+		}
+		try (Writer theWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true),
+				StandardCharsets.UTF_8))) {
+			for (Statement theStatement : aStatements) {
+				theWriter.write(STATEMENT_PREFIX);
+				theWriter.write(escape(theStatement.getSql()));
+				theWriter.write("\n");
+			}
+			theWriter.write(SAVED_MARKER);
+			theWriter.write("\n");
+		}
+		savedCount += aStatements.size();
+	}
+
+	/**
+	 * Read all statements from the journal.
+	 *
+	 * @return the statements, flagged as saved up to the last marker
+	 * @throws IOException will be thrown in case of an error
+	 */
+	public StatementList readStatements() throws IOException {
+		StatementList theResult = new StatementList();
+		if (!file.exists()) {
+			return theResult;
+		}
+		int theSavedPosition = 0;
+		try (BufferedReader theReader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+				StandardCharsets.UTF_8))) {
+			String theLine;
+			while ((theLine = theReader.readLine()) != null) {
+				if (theLine.startsWith(STATEMENT_PREFIX)) {
+					theResult.add(new Statement(unescape(theLine.substring(STATEMENT_PREFIX.length()))));
+				} else if (SAVED_MARKER.equals(theLine)) {
+					theSavedPosition = theResult.size();
+				}
+			}
+		}
+		for (int i = 0; i < theSavedPosition; i++) {
+			theResult.get(i).setSaved(true);
+		}
+		return theResult;
+	}
+
+	/**
+	 * Escape a value to be written as a single line.
+	 *
+	 * @param aValue the value
+	 * @return the escaped value
+	 */
+	public static String escape(String aValue) {
+		StringBuilder theResult = new StringBuilder(aValue.length());
+		for (int i = 0; i < aValue.length(); i++) {
+			char theChar = aValue.charAt(i);
+			switch (theChar) {
+			case '\\':
+				theResult.append("\\\\");
+				break;
+			case '\n':
+				theResult.append("\\n");
+				break;
+			case '\r':
+				theResult.append("\\r");
+				break;
+			default:
+				theResult.append(theChar);
+			}
+		}
+		return theResult.toString();
+	}
+
+	/**
+	 * Restore a value written by {@link #escape(String)}.
+	 *
+	 * @param aValue the escaped value
+	 * @return the value
+	 */
+	public static String unescape(String aValue) {
+		StringBuilder theResult = new StringBuilder(aValue.length());
+		for (int i = 0; i < aValue.length(); i++) {
+			char theChar = aValue.charAt(i);
+			if (theChar == '\\' && i + 1 < aValue.length()) {
+				char theNext = aValue.charAt(++i);
+				switch (theNext) {
+				case 'n':
+					theResult.append('\n');
+					break;
+				case 'r':
+					theResult.append('\r');
+					break;
+				default:
+					theResult.append(theNext);
+				}
+			} else {
+				theResult.append(theChar);
+			}
+		}
+		return theResult.toString();
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.modificationtracker;
+
+import de.erdesignerng.dialect.StatementList;
+
+import java.util.Set;
+
+/**
+ * A single model modification recorded by the {@link HistoryModificationTracker}
+ * together with the statements generated for it.
+ */
+class ChangeLogEntry {
+
+	enum Kind {
+		ATTRIBUTE, INDEX, RELATION, TABLE, VIEW, DOMAIN, CUSTOMTYPE
+	}
+
+	enum Operation {
+		ADD, CHANGE, RENAME, COMMENT, REMOVE
+	}
+
+	private final Kind kind;
+
+	private final Operation operation;
+
+	private final String objectId;
+
+	private final Set<String> scopes;
+
+	private final StatementList statements;
+
+	private final Object original;
+
+	private final long sequence;
+
+	/**
+	 * @param aKind the kind of the modified object
+	 * @param anOperation the kind of modification
+	 * @param anObjectId the system id of the modified object
+	 * @param aScopes the system ids of the tables or objects affected by the modification
+	 * @param aStatements the generated statements
+	 * @param anOriginal the state of the object before the first modification covered by this entry, or null
+	 * @param aSequence the position of this entry in the change log
+	 */
+	ChangeLogEntry(Kind aKind, Operation anOperation, String anObjectId, Set<String> aScopes, StatementList aStatements,
+			Object anOriginal, long aSequence) {
+		kind = aKind;
+		operation = anOperation;
+		objectId = anObjectId;
+		scopes = aScopes;
+		statements = aStatements;
+		original = anOriginal;
+		sequence = aSequence;
+	}
+
+	Kind getKind() {
+		return kind;
+	}
+
+	Operation getOperation() {
+		return operation;
+	}
+
+	Set<String> getScopes() {
+		return scopes;
+	}
+
+	StatementList getStatements() {
+		return statements;
+	}
+
+	Object getOriginal() {
+		return original;
+	}
+
+	long getSequence() {
+		return sequence;
+	}
+
+	boolean isAbout(Kind aKind, String anObjectId) {
+		return kind == aKind && objectId.equals(anObjectId);
+	}
+}
@@ -17,158 +17,663 @@
  */
 package de.erdesignerng.modificationtracker;
 
+import de.erdesignerng.dialect.Dialect;
 import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.Statement;
 import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.model.Attribute;
 import de.erdesignerng.model.CustomType;
 import de.erdesignerng.model.Domain;
 import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexType;
 import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelItem;
 import de.erdesignerng.model.Relation;
 import de.erdesignerng.model.Table;
 import de.erdesignerng.model.View;
+import de.erdesignerng.modificationtracker.ChangeLogEntry.Kind;
+import de.erdesignerng.modificationtracker.ChangeLogEntry.Operation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import java.util.stream.Collectors;
-
+/**
+ * Records the SQL statements required to apply the model modifications to a
+ * database.
+ * <p>
+ * By default the change log is coalesced while it is recorded. Modifications
+ * of the same object are folded into a single one as long as their statements
+ * were neither saved nor executed, e.g. a column added and dropped again
+ * vanishes from the log, a chain of renames becomes a single rename and a
+ * column added and changed afterwards is added with its final definition.
+ * The coalesced statements keep the position of the first modification, so
+ * the statements recorded in between still see the object they depend on.
+ * <p>
+ * If a {@link ChangeJournal} is attached, saved statements are moved from
+ * memory to the journal, so only the statements not saved yet are kept in
+ * memory during long editing sessions. The complete change log is read back
+ * from the journal on request.
+ */
 public class HistoryModificationTracker implements ModelModificationTracker {
 
 	private final Model model;
 
 	private final StatementList statements = new StatementList();
 
+	private final Map<String, List<ChangeLogEntry>> entriesByScope = new HashMap<>();
+
+	private ChangeLogEntry lastEntry;
+
+	private long sequence;
+
+	private boolean coalescing = true;
+
+	private ChangeJournal journal;
+
+	private Dialect generatorDialect;
+
+	private SQLGenerator sqlGenerator;
+
 	public HistoryModificationTracker(Model aModel) {
 		model = aModel;
 	}
 
 	protected SQLGenerator getSQLGenerator() {
-		return model.getDialect().createSQLGenerator();
+		Dialect theDialect = model.getDialect();
+		if (sqlGenerator == null || generatorDialect != theDialect) {
+			sqlGenerator = theDialect.createSQLGenerator();
+			generatorDialect = theDialect;
+		}
+		return sqlGenerator;
 	}
 
 	protected void addStatementsToHistory(StatementList aStatement) {
 		statements.addAll(aStatement);
 	}
 
+	/**
+	 * Enable or disable the coalescing of modifications. Disabling it records
+	 * every modification as it happens.
+	 *
+	 * @param aCoalescing true to coalesce the change log
+	 */
+	public void setCoalescing(boolean aCoalescing) {
+		coalescing = aCoalescing;
+		if (!coalescing) {
+			entriesByScope.clear();
+			lastEntry = null;
+		}
+	}
+
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	private static Set<String> scopeOf(ModelItem... aItems) {
+		Set<String> theResult = new HashSet<>();
+		for (ModelItem theItem : aItems) {
+			if (theItem != null) {
+				theResult.add(theItem.getSystemId());
+			}
+		}
+		return theResult;
+	}
+
+	private void record(Kind aKind, Operation anOperation, ModelItem anObject, Set<String> aScopes,
+			StatementList aStatements, Object anOriginal) {
+		ChangeLogEntry theEntry = new ChangeLogEntry(aKind, anOperation, anObject.getSystemId(), aScopes, aStatements,
+				anOriginal, sequence++);
+		addStatementsToHistory(aStatements);
+		if (coalescing) {
+			for (String theScope : aScopes) {
+				entriesByScope.computeIfAbsent(theScope, k -> new ArrayList<>()).add(theEntry);
+			}
+			lastEntry = theEntry;
+		}
+	}
+
+	/**
+	 * Replace an open entry by the coalesced modification. The new statements
+	 * take the place of the replaced ones in the change log, so the statements
+	 * recorded in between, for instance a view using an added column, still
+	 * run after them.
+	 */
+	private void replace(ChangeLogEntry aPrevious, Kind aKind, Operation anOperation, ModelItem anObject,
+			Set<String> aScopes, StatementList aStatements, Object anOriginal) {
+		int thePosition = -1;
+		if (!aPrevious.getStatements().isEmpty()) {
+			thePosition = statements.indexOf(aPrevious.getStatements().get(0));
+		}
+		boolean theLast = lastEntry == aPrevious;
+		discard(aPrevious);
+
+		ChangeLogEntry theEntry = new ChangeLogEntry(aKind, anOperation, anObject.getSystemId(), aScopes, aStatements,
+				anOriginal, aPrevious.getSequence());
+		if (thePosition < 0) {
+			statements.addAll(aStatements);
+		} else {
+			statements.addAll(thePosition, aStatements);
+		}
+		for (String theScope : aScopes) {
+			List<ChangeLogEntry> theEntries = entriesByScope.computeIfAbsent(theScope, k -> new ArrayList<>());
+			int theIndex = theEntries.size();
+			while (theIndex > 0 && theEntries.get(theIndex - 1).getSequence() > theEntry.getSequence()) {
+				theIndex--;
+			}
+			theEntries.add(theIndex, theEntry);
+		}
+		if (theLast) {
+			lastEntry = theEntry;
+		}
+	}
+
+	private void discard(ChangeLogEntry aEntry) {
+		statements.removeAll(aEntry.getStatements());
+		for (String theScope : aEntry.getScopes()) {
+			List<ChangeLogEntry> theEntries = entriesByScope.get(theScope);
+			if (theEntries != null) {
+				theEntries.remove(aEntry);
+				if (theEntries.isEmpty()) {
+					entriesByScope.remove(theScope);
+				}
+			}
+		}
+		if (lastEntry == aEntry) {
+			lastEntry = null;
+		}
+	}
+
+	/**
+	 * An entry can only be coalesced as long as none of its statements was
+	 * saved, executed or removed from the change log.
+	 */
+	private boolean isOpen(ChangeLogEntry aEntry) {
+		for (Statement theStatement : aEntry.getStatements()) {
+			if (theStatement.isSaved() || theStatement.isExecuted() || !statements.contains(theStatement)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the recorded entries affecting one of the given scopes, latest first.
+	 */
+	private List<ChangeLogEntry> entriesFor(Set<String> aScopes) {
+		Set<ChangeLogEntry> theResult = new LinkedHashSet<>();
+		for (String theScope : aScopes) {
+			List<ChangeLogEntry> theEntries = entriesByScope.get(theScope);
+			if (theEntries != null) {
+				theResult.addAll(theEntries);
+			}
+		}
+		List<ChangeLogEntry> theSorted = new ArrayList<>(theResult);
+		theSorted.sort(Comparator.comparingLong(ChangeLogEntry::getSequence).reversed());
+		return theSorted;
+	}
+
+	/**
+	 * Get the latest entry affecting the given scopes if it is an open
+	 * modification of the given object.
+	 */
+	private ChangeLogEntry latestOpenEntryAbout(Kind aKind, ModelItem anObject, Set<String> aScopes) {
+		if (!coalescing) {
+			return null;
+		}
+		ChangeLogEntry theLatest = null;
+		for (String theScope : aScopes) {
+			List<ChangeLogEntry> theEntries = entriesByScope.get(theScope);
+			if (theEntries != null) {
+				ChangeLogEntry theEntry = theEntries.get(theEntries.size() - 1);
+				if (theLatest == null || theEntry.getSequence() > theLatest.getSequence()) {
+					theLatest = theEntry;
+				}
+			}
+		}
+		if (theLatest != null && theLatest.isAbout(aKind, anObject.getSystemId()) && isOpen(theLatest)) {
+			return theLatest;
+		}
+		return null;
+	}
+
+	/**
+	 * Check if an entry recorded between the addition and the removal of an
+	 * object of the given kind does not depend on its existence.
+	 */
+	private static boolean isIndependent(Kind aKind, ChangeLogEntry aEntry) {
+		if (aEntry.getKind() == Kind.TABLE) {
+			return aKind != Kind.TABLE
+					&& (aEntry.getOperation() == Operation.RENAME || aEntry.getOperation() == Operation.COMMENT);
+		}
+		switch (aKind) {
+		case ATTRIBUTE:
+			return aEntry.getKind() == Kind.ATTRIBUTE;
+		case INDEX:
+			return aEntry.getKind() == Kind.ATTRIBUTE || aEntry.getKind() == Kind.INDEX;
+		case RELATION:
+			return aEntry.getKind() == Kind.ATTRIBUTE || aEntry.getKind() == Kind.RELATION;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Try to cancel the removal of an object against its open addition. All
+	 * open modifications of the object, and for tables all modifications of
+	 * the table content, are discarded from the change log.
+	 *
+	 * @return true if the removal was cancelled and must not be recorded
+	 */
+	private boolean cancelAddition(Kind aKind, ModelItem anObject, Set<String> aScopes) {
+		if (!coalescing) {
+			return false;
+		}
+		String theObjectId = anObject.getSystemId();
+		if (aKind == Kind.DOMAIN || aKind == Kind.CUSTOMTYPE) {
+			// Tables might use the domain or type, so only an immediate removal is cancelled
+			if (lastEntry != null && lastEntry.isAbout(aKind, theObjectId)
+					&& lastEntry.getOperation() == Operation.ADD && isOpen(lastEntry)) {
+				discard(lastEntry);
+				return true;
+			}
+			return false;
+		}
+
+		List<ChangeLogEntry> theObsolete = new ArrayList<>();
+		for (ChangeLogEntry theEntry : entriesFor(aScopes)) {
+			boolean isAbout = theEntry.isAbout(aKind, theObjectId);
+			if (isAbout || (aKind == Kind.TABLE && aScopes.containsAll(theEntry.getScopes()))) {
+				if (!isOpen(theEntry)) {
+					return false;
+				}
+				theObsolete.add(theEntry);
+				if (isAbout && theEntry.getOperation() == Operation.ADD) {
+					theObsolete.forEach(this::discard);
+					return true;
+				}
+			} else if (!isIndependent(aKind, theEntry)) {
+				return false;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void addAttributeToTable(Table aTable, Attribute<Table> aAttribute) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddAttributeToTableStatement(aTable, aAttribute));
+		record(Kind.ATTRIBUTE, Operation.ADD, aAttribute, scopeOf(aTable),
+				getSQLGenerator().createAddAttributeToTableStatement(aTable, aAttribute), null);
 	}
 
 	@Override
 	public void addIndexToTable(Table aTable, Index aIndex) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddIndexToTableStatement(aTable, aIndex));
+		record(Kind.INDEX, Operation.ADD, aIndex, scopeOf(aTable),
+				getSQLGenerator().createAddIndexToTableStatement(aTable, aIndex), null);
 	}
 
 	@Override
 	public void addRelation(Relation aRelation) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddRelationStatement(aRelation));
+		record(Kind.RELATION, Operation.ADD, aRelation,
+				scopeOf(aRelation.getImportingTable(), aRelation.getExportingTable()),
+				getSQLGenerator().createAddRelationStatement(aRelation), null);
 	}
 
 	@Override
 	public void addTable(Table aTable) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddTableStatement(aTable));
+		record(Kind.TABLE, Operation.ADD, aTable, scopeOf(aTable), getSQLGenerator().createAddTableStatement(aTable),
+				null);
 	}
 
 	@Override
 	public void changeAttribute(Attribute<Table> anExistingAttribute, Attribute<Table> aNewAttribute) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createChangeAttributeStatement(anExistingAttribute, aNewAttribute));
+		Table theTable = anExistingAttribute.getOwner();
+		Set<String> theScope = scopeOf(theTable);
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.ATTRIBUTE, anExistingAttribute, theScope);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.ADD) {
+			replace(thePrevious, Kind.ATTRIBUTE, Operation.ADD, anExistingAttribute, theScope,
+					getSQLGenerator().createAddAttributeToTableStatement(theTable, aNewAttribute), null);
+			return;
+		}
+		if (thePrevious != null && thePrevious.getOperation() == Operation.CHANGE) {
+			Attribute<Table> theOriginal = (Attribute<Table>) thePrevious.getOriginal();
+			if (theOriginal.isModified(aNewAttribute, true)) {
+				replace(thePrevious, Kind.ATTRIBUTE, Operation.CHANGE, anExistingAttribute, theScope,
+						getSQLGenerator().createChangeAttributeStatement(theOriginal, aNewAttribute), theOriginal);
+			} else {
+				discard(thePrevious);
+			}
+			return;
+		}
+		record(Kind.ATTRIBUTE, Operation.CHANGE, anExistingAttribute, theScope,
+				getSQLGenerator().createChangeAttributeStatement(anExistingAttribute, aNewAttribute),
+				anExistingAttribute.clone());
 	}
 
 	@Override
 	public void changeIndex(Index anExistingIndex, Index aNewIndex) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createChangeIndexStatement(anExistingIndex, aNewIndex));
+		Table theTable = anExistingIndex.getOwner();
+		Set<String> theScope = scopeOf(theTable);
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.INDEX, anExistingIndex, theScope);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.ADD) {
+			SQLGenerator theGenerator = getSQLGenerator();
+			replace(thePrevious, Kind.INDEX, Operation.ADD, anExistingIndex, theScope,
+					aNewIndex.getIndexType() == IndexType.PRIMARYKEY ? theGenerator.createAddPrimaryKeyToTable(
+							theTable, aNewIndex) : theGenerator.createAddIndexToTableStatement(theTable, aNewIndex), null);
+			return;
+		}
+		if (thePrevious != null && thePrevious.getOperation() == Operation.CHANGE) {
+			Index theOriginal = (Index) thePrevious.getOriginal();
+			if (theOriginal.isModified(aNewIndex, true)) {
+				replace(thePrevious, Kind.INDEX, Operation.CHANGE, anExistingIndex, theScope,
+						getSQLGenerator().createChangeIndexStatement(theOriginal, aNewIndex), theOriginal);
+			} else {
+				discard(thePrevious);
+			}
+			return;
+		}
+		record(Kind.INDEX, Operation.CHANGE, anExistingIndex, theScope,
+				getSQLGenerator().createChangeIndexStatement(anExistingIndex, aNewIndex), anExistingIndex.clone());
 	}
 
 	@Override
 	public void changeRelation(Relation aRelation, Relation aTempRelation) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createChangeRelationStatement(aRelation, aTempRelation));
+		Set<String> theScope = scopeOf(aRelation.getImportingTable(), aRelation.getExportingTable(),
+				aTempRelation.getImportingTable(), aTempRelation.getExportingTable());
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.RELATION, aRelation, theScope);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.ADD) {
+			replace(thePrevious, Kind.RELATION, Operation.ADD, aRelation, theScope,
+					getSQLGenerator().createAddRelationStatement(aTempRelation), null);
+			return;
+		}
+		if (thePrevious != null && thePrevious.getOperation() == Operation.CHANGE) {
+			Relation theOriginal = (Relation) thePrevious.getOriginal();
+			if (theOriginal.isModified(aTempRelation, true)) {
+				replace(thePrevious, Kind.RELATION, Operation.CHANGE, aRelation, theScope,
+						getSQLGenerator().createChangeRelationStatement(theOriginal, aTempRelation), theOriginal);
+			} else {
+				discard(thePrevious);
+			}
+			return;
+		}
+		Relation theOriginal = aRelation.clone();
+		theOriginal.setSystemId(aRelation.getSystemId());
+		theOriginal.setName(aRelation.getName());
+		record(Kind.RELATION, Operation.CHANGE, aRelation, theScope,
+				getSQLGenerator().createChangeRelationStatement(aRelation, aTempRelation), theOriginal);
 	}
 
 	@Override
 	public void changeTableComment(Table aTable, String aNewComment) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createChangeTableCommentStatement(aTable, aNewComment));
+		Set<String> theScope = scopeOf(aTable);
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.TABLE, aTable, theScope);
+		StatementList theStatements = getSQLGenerator().createChangeTableCommentStatement(aTable, aNewComment);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.COMMENT) {
+			replace(thePrevious, Kind.TABLE, Operation.COMMENT, aTable, theScope, theStatements, null);
+			return;
+		}
+		record(Kind.TABLE, Operation.COMMENT, aTable, theScope, theStatements, null);
 	}
 
 	@Override
 	public void removeAttributeFromTable(Table aTable, Attribute<Table> aAttribute) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRemoveAttributeFromTableStatement(aTable, aAttribute));
+		Set<String> theScope = scopeOf(aTable);
+		if (!cancelAddition(Kind.ATTRIBUTE, aAttribute, theScope)) {
+			record(Kind.ATTRIBUTE, Operation.REMOVE, aAttribute, theScope,
+					getSQLGenerator().createRemoveAttributeFromTableStatement(aTable, aAttribute), null);
+		}
 	}
 
 	@Override
 	public void removeIndexFromTable(Table aTable, Index aIndex) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRemoveIndexFromTableStatement(aTable, aIndex));
+		Set<String> theScope = scopeOf(aTable);
+		if (!cancelAddition(Kind.INDEX, aIndex, theScope)) {
+			record(Kind.INDEX, Operation.REMOVE, aIndex, theScope,
+					getSQLGenerator().createRemoveIndexFromTableStatement(aTable, aIndex), null);
+		}
 	}
 
 	@Override
 	public void removeRelation(Relation aRelation) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRemoveRelationStatement(aRelation));
+		Set<String> theScope = scopeOf(aRelation.getImportingTable(), aRelation.getExportingTable());
+		if (!cancelAddition(Kind.RELATION, aRelation, theScope)) {
+			record(Kind.RELATION, Operation.REMOVE, aRelation, theScope,
+					getSQLGenerator().createRemoveRelationStatement(aRelation), null);
+		}
 	}
 
 	@Override
 	public void removeTable(Table aTable) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRemoveTableStatement(aTable));
+		Set<String> theScope = scopeOf(aTable);
+		if (!cancelAddition(Kind.TABLE, aTable, theScope)) {
+			record(Kind.TABLE, Operation.REMOVE, aTable, theScope, getSQLGenerator().createRemoveTableStatement(aTable),
+					null);
+		}
 	}
 
 	@Override
 	public void renameAttribute(Attribute<Table> anExistingAttribute, String aNewName) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRenameAttributeStatement(anExistingAttribute, aNewName));
+		Set<String> theScope = scopeOf(anExistingAttribute.getOwner());
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.ATTRIBUTE, anExistingAttribute, theScope);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.ADD) {
+			Attribute<Table> theAttribute = anExistingAttribute.clone();
+			theAttribute.setName(aNewName);
+			replace(thePrevious, Kind.ATTRIBUTE, Operation.ADD, anExistingAttribute, theScope,
+					getSQLGenerator().createAddAttributeToTableStatement(anExistingAttribute.getOwner(), theAttribute),
+					null);
+			return;
+		}
+		if (thePrevious != null && thePrevious.getOperation() == Operation.RENAME) {
+			String theOriginalName = (String) thePrevious.getOriginal();
+			if (!theOriginalName.equals(aNewName)) {
+				Attribute<Table> theAttribute = anExistingAttribute.clone();
+				theAttribute.setName(theOriginalName);
+				replace(thePrevious, Kind.ATTRIBUTE, Operation.RENAME, anExistingAttribute, theScope,
+						getSQLGenerator().createRenameAttributeStatement(theAttribute, aNewName), theOriginalName);
+			} else {
+				discard(thePrevious);
+			}
+			return;
+		}
+		record(Kind.ATTRIBUTE, Operation.RENAME, anExistingAttribute, theScope,
+				getSQLGenerator().createRenameAttributeStatement(anExistingAttribute, aNewName),
+				anExistingAttribute.getName());
 	}
 
 	@Override
 	public void renameTable(Table aTable, String aNewName) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRenameTableStatement(aTable, aNewName));
+		Set<String> theScope = scopeOf(aTable);
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.TABLE, aTable, theScope);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.RENAME) {
+			String theOriginalName = (String) thePrevious.getOriginal();
+			if (!theOriginalName.equals(aNewName)) {
+				Table theTable = new Table();
+				theTable.setSystemId(aTable.getSystemId());
+				theTable.setSchema(aTable.getSchema());
+				theTable.setName(theOriginalName);
+				replace(thePrevious, Kind.TABLE, Operation.RENAME, aTable, theScope,
+						getSQLGenerator().createRenameTableStatement(theTable, aNewName), theOriginalName);
+			} else {
+				discard(thePrevious);
+			}
+			return;
+		}
+		record(Kind.TABLE, Operation.RENAME, aTable, theScope,
+				getSQLGenerator().createRenameTableStatement(aTable, aNewName), aTable.getName());
 	}
 
 	@Override
 	public void removePrimaryKeyFromTable(Table aTable, Index aIndex) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createRemovePrimaryKeyStatement(aTable, aIndex));
+		Set<String> theScope = scopeOf(aTable);
+		if (!cancelAddition(Kind.INDEX, aIndex, theScope)) {
+			record(Kind.INDEX, Operation.REMOVE, aIndex, theScope,
+					getSQLGenerator().createRemovePrimaryKeyStatement(aTable, aIndex), null);
+		}
 	}
 
 	@Override
 	public void addPrimaryKeyToTable(Table aTable, Index aIndex) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddPrimaryKeyToTable(aTable, aIndex));
+		record(Kind.INDEX, Operation.ADD, aIndex, scopeOf(aTable),
+				getSQLGenerator().createAddPrimaryKeyToTable(aTable, aIndex), null);
 	}
 
+	/**
+	 * Get the complete change log. With a journal attached, the saved
+	 * statements are read from the journal, followed by the statements kept
+	 * in memory.
+	 *
+	 * @return the statements
+	 */
 	public StatementList getStatements() {
-		return statements;
+		if (journal == null) {
+			return statements;
+		}
+		try {
+			StatementList theResult = journal.readStatements();
+			theResult.addAll(statements);
+			return theResult;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
+	/**
+	 * Remove statements from the change log. Statements already moved to the
+	 * journal cannot be removed.
+	 *
+	 * @param aStatements the statements to remove
+	 */
+	public void removeStatements(Collection<Statement> aStatements) {
+		statements.removeAll(aStatements);
+	}
+
+	/**
+	 * Get the statements not saved yet.
+	 *
+	 * Saved statements always form the head of the change log, so only its
+	 * tail is inspected.
+	 *
+	 * @return the statements
+	 */
 	public StatementList getNotSavedStatements() {
-		StatementList theResult = statements.stream().filter(theStatement -> !theStatement.isSaved()).collect(Collectors.toCollection(() -> new StatementList()));
-        return theResult;
+		int theStart = statements.size();
+		while (theStart > 0 && !statements.get(theStart - 1).isSaved()) {
+			theStart--;
+		}
+		StatementList theResult = new StatementList();
+		theResult.addAll(statements.subList(theStart, statements.size()));
+		return theResult;
+	}
+
+	/**
+	 * Mark statements as saved. With a journal attached, all saved statements
+	 * are appended to the journal and removed from memory.
+	 *
+	 * @param aStatements the saved statements
+	 * @throws IOException will be thrown if the journal cannot be written
+	 */
+	public void markAsSaved(List<Statement> aStatements) throws IOException {
+		for (Statement theStatement : aStatements) {
+			theStatement.setSaved(true);
+		}
+
+		for (List<ChangeLogEntry> theEntries : entriesByScope.values()) {
+			theEntries.removeIf(theEntry -> theEntry.getStatements().stream().allMatch(Statement::isSaved));
+		}
+		entriesByScope.values().removeIf(List::isEmpty);
+		if (lastEntry != null && lastEntry.getStatements().stream().allMatch(Statement::isSaved)) {
+			lastEntry = null;
+		}
+
+		if (journal != null) {
+			StatementList theSaved = new StatementList();
+			for (Statement theStatement : statements) {
+				if (theStatement.isSaved()) {
+					theSaved.add(theStatement);
+				}
+			}
+			if (!theSaved.isEmpty()) {
+				journal.append(theSaved);
+				statements.removeIf(Statement::isSaved);
+			}
+		}
+	}
+
+	public ChangeJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Attach a journal for the saved statements.
+	 *
+	 * @param aJournal the journal or null to keep all statements in memory
+	 */
+	public void setJournal(ChangeJournal aJournal) {
+		journal = aJournal;
 	}
 
 	@Override
 	public void addView(View aView) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddViewStatement(aView));
+		record(Kind.VIEW, Operation.ADD, aView, scopeOf(aView), getSQLGenerator().createAddViewStatement(aView), null);
 	}
 
 	@Override
 	public void changeView(View aView) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createChangeViewStatement(aView));
+		Set<String> theScope = scopeOf(aView);
+		ChangeLogEntry thePrevious = latestOpenEntryAbout(Kind.VIEW, aView, theScope);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.ADD) {
+			replace(thePrevious, Kind.VIEW, Operation.ADD, aView, theScope, getSQLGenerator().createAddViewStatement(aView),
+					null);
+			return;
+		}
+		StatementList theStatements = getSQLGenerator().createChangeViewStatement(aView);
+		if (thePrevious != null && thePrevious.getOperation() == Operation.CHANGE) {
+			replace(thePrevious, Kind.VIEW, Operation.CHANGE, aView, theScope, theStatements, null);
+			return;
+		}
+		record(Kind.VIEW, Operation.CHANGE, aView, theScope, theStatements, null);
 	}
 
 	@Override
 	public void removeView(View aView) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createDropViewStatement(aView));
+		Set<String> theScope = scopeOf(aView);
+		if (!cancelAddition(Kind.VIEW, aView, theScope)) {
+			record(Kind.VIEW, Operation.REMOVE, aView, theScope, getSQLGenerator().createDropViewStatement(aView), null);
+		}
 	}
 
 	@Override
 	public void addDomain(Domain aDomain) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddDomainStatement(aDomain));
+		record(Kind.DOMAIN, Operation.ADD, aDomain, scopeOf(aDomain), getSQLGenerator().createAddDomainStatement(aDomain),
+				null);
 	}
 
 	@Override
 	public void removeDomain(Domain aDomain) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createDropDomainStatement(aDomain));
+		if (!cancelAddition(Kind.DOMAIN, aDomain, scopeOf(aDomain))) {
+			record(Kind.DOMAIN, Operation.REMOVE, aDomain, scopeOf(aDomain),
+					getSQLGenerator().createDropDomainStatement(aDomain), null);
+		}
 	}
 
 	@Override
 	public void addCustomType(CustomType aCustomType) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createAddCustomTypeStatement(aCustomType));
+		record(Kind.CUSTOMTYPE, Operation.ADD, aCustomType, scopeOf(aCustomType),
+				getSQLGenerator().createAddCustomTypeStatement(aCustomType), null);
 	}
 
 	@Override
 	public void removeCustomType(CustomType aCustomType) throws VetoException {
-		addStatementsToHistory(getSQLGenerator().createDropCustomTypeStatement(aCustomType));
+		if (!cancelAddition(Kind.CUSTOMTYPE, aCustomType, scopeOf(aCustomType))) {
+			record(Kind.CUSTOMTYPE, Operation.REMOVE, aCustomType, scopeOf(aCustomType),
+					getSQLGenerator().createDropCustomTypeStatement(aCustomType), null);
+		}
 	}
-}
\ No newline at end of file
+}
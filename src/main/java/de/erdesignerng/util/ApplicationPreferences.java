@@ -84,6 +84,14 @@ public class ApplicationPreferences {
 
 	private static final String EDITORMODE = "editormode";
 
+	private static final String SCRIPTBATCHSIZE = "scriptbatchsize";
+
+	private static final String SCRIPTTRANSACTIONSIZE = "scripttransactionsize";
+
+	private static final String VALIDATEINBACKGROUND = "validateinbackground";
+
+	private static final String LOADPARTIALLY = "loadpartially";
+
 	private final int size;
 
 	private final List<File> recentlyUsedFiles = new ArrayList<>();
@@ -118,9 +126,17 @@ public class ApplicationPreferences {
 
 	private EditorMode editorMode;
 
+	private int scriptBatchSize;
+
+	private int scriptTransactionSize;
+
+	private boolean validateInBackground;
+
+	private boolean loadPartially;
+
 	private static ApplicationPreferences me;
 
-	public static ApplicationPreferences getInstance() {
+	public static synchronized ApplicationPreferences getInstance() {
 
 		if (me == null) {
 			try {
@@ -205,6 +221,10 @@ public class ApplicationPreferences {
 		gridWidthAfterReverseEngineering = preferences.getInt(
 				TABLEGRIDWIDTHAFTERREVERSEENGINEERING, 8);
 		xmlIndentation = preferences.getInt(XMLINDENTATION, 4);
+		scriptBatchSize = preferences.getInt(SCRIPTBATCHSIZE, 100);
+		scriptTransactionSize = preferences.getInt(SCRIPTTRANSACTIONSIZE, 0);
+		validateInBackground = preferences.getBoolean(VALIDATEINBACKGROUND, false);
+		loadPartially = preferences.getBoolean(LOADPARTIALLY, false);
 
 		onUpdateDefault = CascadeType.fromString(preferences.get(ONUPDATEDEFAULT, CascadeType.NOTHING.toString()));
 		onDeleteDefault = CascadeType.fromString(preferences.get(ONDELETEDEFAULT, CascadeType.NOTHING.toString()));
@@ -332,6 +352,10 @@ public class ApplicationPreferences {
 
 		preferences.putInt(GRIDSIZE, gridSize);
 		preferences.putInt(XMLINDENTATION, xmlIndentation);
+		preferences.putInt(SCRIPTBATCHSIZE, scriptBatchSize);
+		preferences.putInt(SCRIPTTRANSACTIONSIZE, scriptTransactionSize);
+		preferences.putBoolean(VALIDATEINBACKGROUND, validateInBackground);
+		preferences.putBoolean(LOADPARTIALLY, loadPartially);
 		preferences.put(AUTOMATICRELATIONATTRIBUTEPATTERN,
 				automaticRelationAttributePattern);
 		preferences.putBoolean(INTELLIGENTLAYOUT, intelligentLayout);
@@ -566,6 +590,34 @@ public class ApplicationPreferences {
 		return new URL("http://mogwai.sourceforge.net/userdoc/MogwaiERDesignerNG.pdf").toURI();
 	}
 
+	/**
+	 * Get the directory where the checkpoint logs of executed scripts are
+	 * located.
+	 *
+	 * @return the directory
+	 */
+	public File getCheckpointDirectory() {
+		File theUserHomeFile = SystemUtils.getUserHome();
+		if (theUserHomeFile == null) {
+			return getRelativeFile("checkpoints");
+		}
+		return new File(new File(theUserHomeFile, ".mogwai"), "checkpoints");
+	}
+
+	/**
+	 * Get the directory where the change journals of the opened models are
+	 * located.
+	 *
+	 * @return the directory
+	 */
+	public File getJournalDirectory() {
+		File theUserHomeFile = SystemUtils.getUserHome();
+		if (theUserHomeFile == null) {
+			return getRelativeFile("journals");
+		}
+		return new File(new File(theUserHomeFile, ".mogwai"), "journals");
+	}
+
 	public String getAutomaticRelationAttributePattern() {
 		return automaticRelationAttributePattern;
 	}
@@ -623,4 +675,44 @@ public class ApplicationPreferences {
 	public void setEditorMode(EditorMode editorMode) {
 		this.editorMode = editorMode;
 	}
+
+	public int getScriptBatchSize() {
+		return scriptBatchSize;
+	}
+
+	public void setScriptBatchSize(int scriptBatchSize) {
+		this.scriptBatchSize = scriptBatchSize;
+	}
+
+	public int getScriptTransactionSize() {
+		return scriptTransactionSize;
+	}
+
+	public void setScriptTransactionSize(int scriptTransactionSize) {
+		this.scriptTransactionSize = scriptTransactionSize;
+	}
+
+	/**
+	 * @return true if model files are opened first and validated against
+	 *		 their schema in the background afterwards
+	 */
+	public boolean isValidateInBackground() {
+		return validateInBackground;
+	}
+
+	public void setValidateInBackground(boolean validateInBackground) {
+		this.validateInBackground = validateInBackground;
+	}
+
+	/**
+	 * @return true if the details of the tables shall be loaded on demand,
+	 *		 for models stored in formats with separate table sections
+	 */
+	public boolean isLoadPartially() {
+		return loadPartially;
+	}
+
+	public void setLoadPartially(boolean loadPartially) {
+		this.loadPartially = loadPartially;
+	}
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -36,6 +37,10 @@ import java.io.Writer;
 
 /**
  * Utility class to deal with XML io.
+ * <p>
+ * Neither DocumentBuilder nor Transformer instances are thread safe, so every
+ * thread gets its own instances, created once from the shared factories and
+ * reused afterwards. This way models can be loaded and saved in parallel.
  * 
  * @author mirkosertic
  */
@@ -43,18 +48,24 @@ public final class XMLUtils {
 
 	private static XMLUtils me;
 
-	private final DocumentBuilder documentBuilder;
+	private final DocumentBuilderFactory documentBuilderFactory;
 
 	private final TransformerFactory transformerFactory;
 
+	private final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(this::newDocumentBuilder);
+
+	private final ThreadLocal<Transformer> transformers = ThreadLocal.withInitial(this::newTransformer);
+
 	private XMLUtils() throws ParserConfigurationException {
-		DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory
-				.newInstance();
-		documentBuilder = documentBuilderFactory.newDocumentBuilder();
+		documentBuilderFactory = DocumentBuilderFactory.newInstance();
 		transformerFactory = TransformerFactory.newInstance();
+
+		// Fail early on a broken configuration, the builders of the
+		// threads are created lazily
+		documentBuilders.set(documentBuilderFactory.newDocumentBuilder());
 	}
 
-	public static XMLUtils getInstance() throws ParserConfigurationException {
+	public static synchronized XMLUtils getInstance() throws ParserConfigurationException {
 
 		if (me == null) {
 			me = new XMLUtils();
@@ -62,12 +73,38 @@ public final class XMLUtils {
 		return me;
 	}
 
+	private DocumentBuilder newDocumentBuilder() {
+		// The factories are not thread safe either
+		synchronized (documentBuilderFactory) {
+			try {
+				return documentBuilderFactory.newDocumentBuilder();
+			} catch (ParserConfigurationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private Transformer newTransformer() {
+		synchronized (transformerFactory) {
+			try {
+				return transformerFactory.newTransformer();
+			} catch (TransformerConfigurationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
 	public Document parse(InputStream aStream) throws SAXException, IOException {
-		return documentBuilder.parse(aStream);
+		DocumentBuilder theBuilder = documentBuilders.get();
+		try {
+			return theBuilder.parse(aStream);
+		} finally {
+			theBuilder.reset();
+		}
 	}
 
 	public Document newDocument() {
-		return documentBuilder.newDocument();
+		return documentBuilders.get().newDocument();
 	}
 
 	public void transform(Document aDocument, Writer aWriter)
@@ -76,7 +113,8 @@ public final class XMLUtils {
 		ApplicationPreferences thePreferences = ApplicationPreferences
 				.getInstance();
 
-		Transformer theTransformer = transformerFactory.newTransformer();
+		Transformer theTransformer = transformers.get();
+		theTransformer.reset();
 		theTransformer.setOutputProperty(OutputKeys.INDENT, "yes");
 		theTransformer.setOutputProperty(OutputKeys.METHOD, "xml");
 		theTransformer.setOutputProperty(OutputKeys.ENCODING, PlatformConfig
@@ -75,6 +75,7 @@ public final class ERDesigner {
 
 		final ERDesignerMainFrame frame = new ERDesignerMainFrame();
 		frame.setModel(frame.createNewModel());
+		frame.initializeModelJournal();
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
 		try {
@@ -85,6 +86,7 @@ public final class ERDesigner {
 
 		theScreen.setVisible(false);
 		frame.setVisible(true);
+		frame.commandRecoverModels();
 
 		if (StringUtils.isNotEmpty(theFilenameToOpen)) {
 			frame.commandOpenFile(new File(theFilenameToOpen));
@@ -19,6 +19,9 @@ package de.erdesignerng.visual;
 
 import de.erdesignerng.ERDesignerBundle;
 import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.serializer.ModelJournal;
+import de.erdesignerng.modificationtracker.ChangeJournal;
 import de.erdesignerng.modificationtracker.HistoryModificationTracker;
 import de.erdesignerng.util.ApplicationPreferences;
 import de.erdesignerng.util.MavenPropertiesLocator;
@@ -33,6 +36,7 @@ import org.apache.log4j.Logger;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.util.UUID;
 
 /**
  * @author $Author: mirkosertic $
@@ -142,11 +146,17 @@ public class ERDesignerMainFrame extends DefaultFrame implements
     @Override
     public Model createNewModel() {
         Model theModel = new Model();
-        theModel
-                .setModificationTracker(new HistoryModificationTracker(theModel));
+        theModel.setModificationTracker(createModificationTracker(theModel));
         return theModel;
     }
 
+    private HistoryModificationTracker createModificationTracker(Model aModel) {
+        HistoryModificationTracker theTracker = new HistoryModificationTracker(aModel);
+        theTracker.setJournal(new ChangeJournal(new File(ApplicationPreferences.getInstance()
+                .getJournalDirectory(), UUID.randomUUID() + ".journal")));
+        return theTracker;
+    }
+
     @Override
     public boolean supportsPreferences() {
         return true;
@@ -154,7 +164,7 @@ public class ERDesignerMainFrame extends DefaultFrame implements
 
     @Override
     public void initializeLoadedModel(Model aModel) {
-        aModel.setModificationTracker(new HistoryModificationTracker(aModel));
+        aModel.setModificationTracker(createModificationTracker(aModel));
     }
 
     @Override
@@ -181,6 +191,7 @@ public class ERDesignerMainFrame extends DefaultFrame implements
             ApplicationPreferences.getInstance().setWindowState(WINDOW_ALIAS,
                     this);
         } else {
+            component.closeModelJournal();
             component.savePreferences();
             System.exit(0);
         }
@@ -201,6 +212,27 @@ public class ERDesignerMainFrame extends DefaultFrame implements
         return true;
     }
 
+    /**
+     * Journal the changes of the edited models, so they can be recovered
+     * after a crash.
+     */
+    public void initializeModelJournal() {
+        try {
+            component.setModelJournal(ModelIOUtilities.getInstance().createModelJournal(
+                    new File(ApplicationPreferences.getInstance().getJournalDirectory(), UUID.randomUUID()
+                            + ModelJournal.FILE_EXTENSION)));
+        } catch (Exception e) {
+            notifyAboutException(e);
+        }
+    }
+
+    /**
+     * Offer to recover the unsaved changes of crashed sessions.
+     */
+    public void commandRecoverModels() {
+        component.commandRecoverModels();
+    }
+
     /**
      * Open a specific file in the editor.
      *
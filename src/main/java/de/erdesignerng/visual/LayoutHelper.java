@@ -92,7 +92,9 @@ public class LayoutHelper {
         long theDuration = System.currentTimeMillis();
 
         // Destroy all subject areas in the model
-        aModel.getSubjectAreas().clear();
+        for (SubjectArea theArea : new ArrayList<>(aModel.getSubjectAreas())) {
+            aModel.removeSubjectArea(theArea);
+        }
 
         boolean continueRun = true;
 
@@ -211,7 +213,7 @@ public class LayoutHelper {
                         maxHeight = 0;
                     }
 
-                    aModel.getSubjectAreas().add(theArea);
+                    aModel.addSubjectArea(theArea);
 
                     // We continue as long as we find new subject areas
                     continueRun = true;
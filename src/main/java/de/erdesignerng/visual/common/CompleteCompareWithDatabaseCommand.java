@@ -100,7 +100,8 @@ public class CompleteCompareWithDatabaseCommand extends UICommand {
 
                         CompleteCompareEditor theCompare = new CompleteCompareEditor(
                                 getDetailComponent(), theModel, aResultModel,
-                                ERDesignerBundle.COMPLETECOMPAREWITHDATABASE);
+                                ERDesignerBundle.COMPLETECOMPAREWITHDATABASE,
+                                getWorldConnector());
                         theCompare.showModal();
                     }
 
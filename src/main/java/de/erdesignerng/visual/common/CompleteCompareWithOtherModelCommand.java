@@ -18,7 +18,9 @@
 package de.erdesignerng.visual.common;
 
 import de.erdesignerng.ERDesignerBundle;
+import de.erdesignerng.io.CompressedModelFileFilter;
 import de.erdesignerng.io.ModelFileFilter;
+import de.erdesignerng.io.ModelSnapshotFileFilter;
 import de.erdesignerng.model.Model;
 import de.erdesignerng.model.ModelIOUtilities;
 import de.erdesignerng.visual.MessagesHelper;
@@ -43,26 +45,40 @@ public class CompleteCompareWithOtherModelCommand extends UICommand {
         Model theCurrentModel = component.getModel();
 
         ModelFileFilter theFiler = new ModelFileFilter();
+        CompressedModelFileFilter theCompressedFiler = new CompressedModelFileFilter();
+        ModelSnapshotFileFilter theSnapshotFiler = new ModelSnapshotFileFilter();
 
         JFileChooser theChooser = new JFileChooser();
         theChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        theChooser.addChoosableFileFilter(theCompressedFiler);
+        theChooser.addChoosableFileFilter(theSnapshotFiler);
         theChooser.setFileFilter(theFiler);
         if (theChooser.showOpenDialog(getDetailComponent()) == JFileChooser.APPROVE_OPTION) {
 
-            File theFile = theFiler.getCompletedFile(theChooser
-                    .getSelectedFile());
+            File theFile = theChooser.getSelectedFile();
+            if (!theCompressedFiler.accept(theFile)
+                    && !theSnapshotFiler.accept(theFile)) {
+                theFile = theFiler.getCompletedFile(theFile);
+            }
 
             InputStream theStream = null;
             try {
 
-                theStream = new FileInputStream(theFile);
-
-                Model theNewModel = ModelIOUtilities.getInstance()
-                        .deserializeModelFromXML(theStream);
+                Model theNewModel;
+                File theDirectory = ModelIOUtilities.getModelDirectory(theFile);
+                if (theDirectory != null) {
+                    theNewModel = ModelIOUtilities.getInstance()
+                            .deserializeModelFromDirectory(theDirectory);
+                } else {
+                    theStream = new FileInputStream(theFile);
+                    theNewModel = ModelIOUtilities.getInstance()
+                            .deserializeModel(theStream, true);
+                }
 
                 CompleteCompareEditor theCompare = new CompleteCompareEditor(
                         getDetailComponent(), theCurrentModel, theNewModel,
-                        ERDesignerBundle.COMPLETECOMPAREWITHOTHERMODEL);
+                        ERDesignerBundle.COMPLETECOMPAREWITHOTHERMODEL,
+                        getWorldConnector());
                 theCompare.showModal();
 
             } catch (Exception e) {
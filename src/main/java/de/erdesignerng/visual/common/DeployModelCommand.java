@@ -0,0 +1,80 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.visual.common;
+
+import de.erdesignerng.ERDesignerBundle;
+import de.erdesignerng.dialect.DeploymentFailure;
+import de.erdesignerng.dialect.ModelDeployer;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelBasedConnectionProvider;
+import de.erdesignerng.visual.LongRunningTask;
+import de.erdesignerng.visual.MessagesHelper;
+
+import java.util.List;
+
+public class DeployModelCommand extends UICommand {
+
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    public DeployModelCommand() {
+    }
+
+    @Override
+    public void execute() {
+
+        ERDesignerComponent component = ERDesignerComponent.getDefault();
+
+        if (!component.checkForValidConnection()) {
+            return;
+        }
+
+        if (!MessagesHelper.displayQuestionMessage(getDetailComponent(), ERDesignerBundle.DOYOUREALLYWANTTODEPLOY)) {
+            return;
+        }
+
+        Model theModel = component.getModel();
+        ModelDeployer theDeployer = new ModelDeployer(new ModelBasedConnectionProvider(theModel), theModel
+                .getDialect().createSQLGenerator(), Runtime.getRuntime().availableProcessors());
+
+        LongRunningTask<List<DeploymentFailure>> theTask = new LongRunningTask<List<DeploymentFailure>>(
+                getWorldConnector()) {
+
+            @Override
+            public List<DeploymentFailure> doWork(MessagePublisher aMessagePublisher) throws Exception {
+                return theDeployer.deploy(theModel);
+            }
+
+            @Override
+            public void handleResult(List<DeploymentFailure> aResult) {
+                if (aResult.isEmpty()) {
+                    MessagesHelper.displayInfoMessage(getDetailComponent(), component.getResourceHelper().getText(
+                            ERDesignerBundle.MODELDEPLOYED));
+                    return;
+                }
+
+                StringBuilder theMessage = new StringBuilder(component.getResourceHelper().getFormattedText(
+                        ERDesignerBundle.MODELDEPLOYEDWITHERRORS, aResult.size()));
+                for (int i = 0; i < aResult.size() && i < MAX_REPORTED_FAILURES; i++) {
+                    theMessage.append("\n").append(aResult.get(i));
+                }
+                MessagesHelper.displayErrorMessage(getDetailComponent(), theMessage.toString());
+            }
+        };
+        theTask.start();
+    }
+}
@@ -19,6 +19,8 @@ package de.erdesignerng.visual.common;
 
 import de.erdesignerng.ERDesignerBundle;
 import de.erdesignerng.model.*;
+import de.erdesignerng.model.serializer.ModelJournal;
+import de.erdesignerng.model.serializer.binary.BinaryModelSerializer;
 import de.erdesignerng.model.serializer.repository.RepositoryEntryDescriptor;
 import de.erdesignerng.util.ApplicationPreferences;
 import de.erdesignerng.util.ConnectionDescriptor;
@@ -38,6 +40,7 @@ import de.mogwai.common.client.looks.components.menu.DefaultMenuItem;
 import de.mogwai.common.client.looks.components.menu.DefaultRadioButtonMenuItem;
 import de.mogwai.common.i18n.ResourceHelper;
 import de.mogwai.common.i18n.ResourceHelperProvider;
+import org.xml.sax.SAXParseException;
 
 import javax.swing.*;
 import java.awt.*;
@@ -45,11 +48,15 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -149,6 +156,15 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
 
     private final JPanel editorPanel;
 
+    /**
+     * The interval in milliseconds the model changes are journaled in.
+     */
+    private static final int JOURNAL_FLUSH_INTERVAL = 2000;
+
+    private ModelJournal modelJournal;
+
+    private Timer modelJournalTimer;
+
     private static ERDesignerComponent DEFAULT;
 
     public static ERDesignerComponent initializeComponent(
@@ -446,6 +462,22 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
                 new GenerateSQLCommand(), this,
                 ERDesignerBundle.GENERATECREATEDBDDL);
 
+        DefaultAction theGenerateSQLForBulkLoad = new DefaultAction(
+                new GenerateSQLCommand(true), this,
+                ERDesignerBundle.GENERATECREATEDBDDLFORBULKLOAD);
+
+        DefaultAction theSaveSQLToFile = new DefaultAction(
+                new SaveSQLToFileCommand(), this,
+                ERDesignerBundle.SAVECREATEDBDDLTOFILE);
+
+        DefaultAction theDeployModel = new DefaultAction(
+                new DeployModelCommand(), this,
+                ERDesignerBundle.DEPLOYMODEL);
+
+        DefaultAction theExecuteSQLFile = new DefaultAction(
+                new ExecuteSQLFileCommand(), this,
+                ERDesignerBundle.EXECUTESQLFILE);
+
         DefaultAction theGenerateChangelog = new DefaultAction(
                 new GenerateChangeLogSQLCommand(), this,
                 ERDesignerBundle.GENERATECHANGELOG);
@@ -565,6 +597,10 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
         theDBMenu.add(new DefaultMenuItem(theReverseEngineerAction));
         theDBMenu.addSeparator();
         theDBMenu.add(new DefaultMenuItem(theGenerateSQL));
+        theDBMenu.add(new DefaultMenuItem(theGenerateSQLForBulkLoad));
+        theDBMenu.add(new DefaultMenuItem(theSaveSQLToFile));
+        theDBMenu.add(new DefaultMenuItem(theDeployModel));
+        theDBMenu.add(new DefaultMenuItem(theExecuteSQLFile));
         theDBMenu.addSeparator();
         theDBMenu.add(new DefaultMenuItem(theGenerateChangelog));
         theDBMenu.addSeparator();
@@ -969,6 +1005,7 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
         if (worldConnector.supportsRepositories()) {
             repositoryUtilsMenu.setEnabled(true);
         }
+        startModelJournal();
     }
 
     /**
@@ -984,6 +1021,7 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
         if (worldConnector.supportsRepositories()) {
             repositoryUtilsMenu.setEnabled(false);
         }
+        startModelJournal();
     }
 
     /**
@@ -997,6 +1035,115 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
             repositoryUtilsMenu.setEnabled(false);
         }
         worldConnector.initTitle();
+        startModelJournal();
+    }
+
+    /**
+     * Journal the changes of the edited models in the background, so they
+     * can be recovered after a crash.
+     *
+     * @param aJournal the journal
+     */
+    public void setModelJournal(ModelJournal aJournal) {
+        modelJournal = aJournal;
+        startModelJournal();
+        if (modelJournalTimer == null) {
+            modelJournalTimer = new Timer(JOURNAL_FLUSH_INTERVAL, e -> flushModelJournal());
+            modelJournalTimer.start();
+        }
+    }
+
+    /**
+     * Start the journal for the current model. This is done whenever the
+     * model was loaded or saved, so the journal only contains the changes not
+     * saved yet. Models of a repository are not journaled.
+     */
+    private void startModelJournal() {
+        if (modelJournal == null || model == null) {
+            return;
+        }
+        try {
+            if (currentRepositoryEntry != null) {
+                modelJournal.close();
+            } else {
+                modelJournal.start(model, currentEditingFile);
+            }
+        } catch (IOException e) {
+            stopModelJournal(e);
+        }
+    }
+
+    private void flushModelJournal() {
+        if (modelJournal == null) {
+            return;
+        }
+        try {
+            modelJournal.flush();
+        } catch (IOException e) {
+            stopModelJournal(e);
+        }
+    }
+
+    private void stopModelJournal(IOException aException) {
+        // Keep on working without a journal instead of failing on every
+        // change
+        modelJournal = null;
+        worldConnector.notifyAboutException(aException);
+    }
+
+    /**
+     * Close the journal of the current session, the changes not saved so far
+     * are not recoverable afterwards.
+     */
+    public void closeModelJournal() {
+        if (modelJournal == null) {
+            return;
+        }
+        try {
+            modelJournal.close();
+        } catch (IOException e) {
+            worldConnector.notifyAboutException(e);
+        }
+    }
+
+    /**
+     * Offer to recover the unsaved changes of sessions that ended without
+     * closing their journal. The changes of a recovered session are taken
+     * over into the journal of this session.
+     */
+    public void commandRecoverModels() {
+        if (modelJournal == null) {
+            return;
+        }
+        for (File theFile : ModelJournal.findRecoverableJournals(modelJournal.getFile().getAbsoluteFile()
+                .getParentFile())) {
+            String theEnded = DateFormat.getDateTimeInstance().format(new Date(theFile.lastModified()));
+            if (!MessagesHelper.displayQuestionMessage(getDetailComponent(), ERDesignerBundle.RECOVERMODELJOURNAL,
+                    theEnded)) {
+                theFile.delete();
+                continue;
+            }
+            try {
+                ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+                ModelJournal theJournal = theUtilities.createModelJournal(theFile);
+                File theModelFile = theJournal.getModelFile();
+                Model theModel = theUtilities.recoverModel(theJournal);
+                worldConnector.initializeLoadedModel(theModel);
+
+                setModel(theModel);
+                if (theModelFile != null) {
+                    setupViewFor(theModelFile);
+                } else {
+                    setupViewForNothing();
+                }
+                if (modelJournal != null) {
+                    modelJournal.takeOver(theJournal);
+                }
+            } catch (Exception e) {
+                worldConnector.notifyAboutException(e);
+            }
+            return;
+        }
     }
 
     /**
@@ -1143,13 +1290,39 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
     }
 
     public void commandOpenFile(File aFile) {
-        FileInputStream theStream = null;
+        InputStream theStream = null;
 
         try {
-            theStream = new FileInputStream(aFile);
-
-            Model theModel = ModelIOUtilities.getInstance()
-                    .deserializeModelFromXML(theStream);
+            boolean theValidateInBackground = false;
+            Model theModel;
+
+            // Table details are read on demand for formats with separate
+            // table sections
+            boolean theLoadPartially = ApplicationPreferences.getInstance()
+                    .isLoadPartially();
+
+            File theDirectory = ModelIOUtilities.getModelDirectory(aFile);
+            if (theDirectory != null) {
+
+                // The index of a model directory opens the whole directory
+                aFile = theDirectory;
+                theValidateInBackground = ApplicationPreferences
+                        .getInstance().isValidateInBackground();
+                theModel = ModelIOUtilities.getInstance()
+                        .deserializeModelFromDirectory(aFile,
+                                !theValidateInBackground, theLoadPartially);
+            } else {
+                theStream = new BufferedInputStream(new FileInputStream(aFile));
+
+                // The schema validation can be deferred to open big models faster,
+                // binary snapshots have no schema at all
+                theValidateInBackground = ApplicationPreferences
+                        .getInstance().isValidateInBackground()
+                        && !BinaryModelSerializer.isSnapshot(theStream);
+                theModel = ModelIOUtilities.getInstance()
+                        .deserializeModel(theStream, !theValidateInBackground,
+                                theLoadPartially);
+            }
             getWorldConnector().initializeLoadedModel(theModel);
 
             setModel(theModel);
@@ -1163,6 +1336,10 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
                     getResourceHelper().getText(
                             ERDesignerBundle.FILELOADED));
 
+            if (theValidateInBackground) {
+                validateInBackground(aFile);
+            }
+
         } catch (Exception e) {
 
             MessagesHelper.displayErrorMessage(getDetailComponent(), getResourceHelper().getText(
@@ -1179,4 +1356,25 @@ public final class ERDesignerComponent implements ResourceHelperProvider {
             }
         }
     }
+
+    private void validateInBackground(final File aFile) {
+        new LongRunningTask<List<SAXParseException>>(getWorldConnector()) {
+
+            @Override
+            public List<SAXParseException> doWork(MessagePublisher aMessagePublisher) throws Exception {
+                return ModelIOUtilities.getInstance().validateModelXML(aFile);
+            }
+
+            @Override
+            public void handleResult(List<SAXParseException> aResult) {
+                if (!aResult.isEmpty()) {
+                    getWorldConnector().setStatusText(
+                            getResourceHelper().getText(
+                                    ERDesignerBundle.MODELVALIDATIONFAILED));
+                    getWorldConnector().notifyAboutException(
+                            new IOException("Failed to validate " + aFile + " against schema", aResult.get(0)));
+                }
+            }
+        }.start();
+    }
 }
\ No newline at end of file
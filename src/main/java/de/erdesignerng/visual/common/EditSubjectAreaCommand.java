@@ -37,6 +37,7 @@ public class EditSubjectAreaCommand extends UICommand {
         if (theEditor.showModal() == DialogConstants.MODAL_RESULT_OK) {
             try {
                 theEditor.applyValues();
+                ERDesignerComponent.getDefault().getModel().notifyAboutChange(area);
 
                 refreshDisplayAndOutline();
             } catch (Exception e) {
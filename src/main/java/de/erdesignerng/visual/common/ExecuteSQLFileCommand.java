@@ -0,0 +1,132 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.visual.common;
+
+import de.erdesignerng.ERDesignerBundle;
+import de.erdesignerng.dialect.ExecutionCheckpointLog;
+import de.erdesignerng.dialect.ScriptFileExecutor;
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.StatementExecutor;
+import de.erdesignerng.io.SQLFileFilter;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.util.ApplicationPreferences;
+import de.erdesignerng.util.JDBCUtils;
+import de.erdesignerng.visual.LongRunningTask;
+import de.erdesignerng.visual.MessagesHelper;
+
+import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.Collections;
+
+/**
+ * Execute a SQL script file directly from disk, without loading it into the
+ * sql editor. A failed statement stops the execution, the error message
+ * contains the number of the failed statement. The executed statements are
+ * recorded in a checkpoint log of the file, so when the same file is executed
+ * again, also after a restart, the user can skip the statements executed
+ * before.
+ */
+public class ExecuteSQLFileCommand extends UICommand {
+
+    public ExecuteSQLFileCommand() {
+    }
+
+    @Override
+    public void execute() {
+
+        ERDesignerComponent component = ERDesignerComponent.getDefault();
+
+        if (!component.checkForValidConnection()) {
+            return;
+        }
+
+        SQLFileFilter theFiler = new SQLFileFilter();
+
+        JFileChooser theChooser = new JFileChooser();
+        theChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        theChooser.setFileFilter(theFiler);
+        if (theChooser.showOpenDialog(getDetailComponent()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File theFile = theFiler.getCompletedFile(theChooser.getSelectedFile()).getAbsoluteFile();
+        Model theModel = component.getModel();
+
+        LongRunningTask<Long> theTask = new LongRunningTask<Long>(getWorldConnector()) {
+
+            @Override
+            public Long doWork(MessagePublisher aMessagePublisher) throws Exception {
+                Connection theConnection = theModel.createConnection();
+                try {
+                    ApplicationPreferences thePreferences = ApplicationPreferences.getInstance();
+                    StatementExecutor theExecutor = new StatementExecutor(theConnection);
+                    theExecutor.setBatchSize(thePreferences.getScriptBatchSize());
+                    theExecutor.setTransactionSize(thePreferences.getScriptTransactionSize());
+                    SQLGenerator theGenerator = theModel.getDialect().createSQLGenerator();
+                    theExecutor.setAutoCommitRequired(theGenerator::requiresAutoCommit);
+
+                    ScriptFileExecutor theFileExecutor = new ScriptFileExecutor(theExecutor,
+                            theGenerator.createScriptStatementSeparator(), Charset.defaultCharset());
+
+                    DatabaseMetaData theMetaData = theConnection.getMetaData();
+                    try (ExecutionCheckpointLog theLog = ExecutionCheckpointLog.open(thePreferences
+                            .getCheckpointDirectory(), theMetaData.getURL() + " " + theMetaData.getUserName(),
+                            theFile.getPath(), Collections.emptyList())) {
+                        restoreCheckpoints(theLog);
+                        return theFileExecutor.execute(theFile, theLog,
+                                (aBytesRead, aTotalBytes, aStatementCount) -> aMessagePublisher.publishMessage(
+                                        component.getResourceHelper().getFormattedText(
+                                                ERDesignerBundle.SCRIPTEXECUTIONPROGRESS, aBytesRead / 1024,
+                                                aTotalBytes / 1024, aStatementCount)));
+                    }
+                } finally {
+                    if (!theModel.getDialect().generatesManagedConnection()) {
+                        JDBCUtils.closeQuietly(theConnection);
+                    }
+                }
+            }
+
+            @Override
+            public void handleResult(Long aResult) {
+                MessagesHelper.displayInfoMessage(getDetailComponent(), component.getResourceHelper()
+                        .getFormattedText(ERDesignerBundle.SCRIPTEXECUTED, aResult));
+            }
+        };
+        theTask.start();
+    }
+
+    /**
+     * Ask whether the statements recorded in a former run of the same file
+     * are skipped. They are only skipped if their text is unchanged.
+     */
+    private void restoreCheckpoints(ExecutionCheckpointLog aLog) throws Exception {
+        long theRecorded = aLog.getEntryCount();
+        if (theRecorded > 0) {
+            boolean[] theSkip = new boolean[1];
+            SwingUtilities.invokeAndWait(() -> theSkip[0] = MessagesHelper.displayQuestionMessage(
+                    getDetailComponent(), ERDesignerBundle.SKIPEXECUTEDSTATEMENTS, theRecorded));
+            if (!theSkip[0]) {
+                aLog.reset();
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package de.erdesignerng.visual.common;
 
 import de.erdesignerng.dialect.StatementList;
+import de.erdesignerng.model.Model;
 import de.erdesignerng.model.ModelBasedConnectionProvider;
 import de.erdesignerng.modificationtracker.HistoryModificationTracker;
 import de.erdesignerng.visual.editor.sql.SQLEditor;
@@ -40,12 +41,21 @@ public class GenerateChangeLogSQLCommand extends UICommand {
             return;
         }
 
-        StatementList theStatements = ((HistoryModificationTracker) component
-                .getModel().getModificationTracker()).getStatements();
+        Model theModel = component.getModel();
+        HistoryModificationTracker theTracker = (HistoryModificationTracker) theModel
+                .getModificationTracker();
+        StatementList theStatements = theTracker.getStatements();
+        StatementList theDeleted = new StatementList();
+        theDeleted.addAll(theStatements);
         SQLEditor theEditor = new SQLEditor(getDetailComponent(),
-                new ModelBasedConnectionProvider(component.getModel()),
+                new ModelBasedConnectionProvider(theModel),
                 theStatements, component.currentEditingFile,
-                generateChangelogSQLFileName(), getWorldConnector());
+                generateChangelogSQLFileName(), getWorldConnector(),
+                theModel.getDialect().createSQLGenerator());
         theEditor.showModal();
+
+        // Statements deleted in the editor are removed from the change log
+        theDeleted.removeAll(theStatements);
+        theTracker.removeStatements(theDeleted);
     }
 }
\ No newline at end of file
@@ -25,7 +25,18 @@ import de.erdesignerng.visual.editor.sql.SQLEditor;
 
 public class GenerateSQLCommand extends UICommand {
 
+    private final boolean bulkLoad;
+
     public GenerateSQLCommand() {
+        this(false);
+    }
+
+    /**
+     * @param aBulkLoad true to create the indexes and constraints after
+     *                  the tables were loaded
+     */
+    public GenerateSQLCommand(boolean aBulkLoad) {
+        bulkLoad = aBulkLoad;
     }
 
     @Override
@@ -40,11 +51,13 @@ public class GenerateSQLCommand extends UICommand {
         Model theModel = component.getModel();
 
         SQLGenerator theGenerator = theModel.getDialect().createSQLGenerator();
-        StatementList theStatements = theGenerator
-                .createCreateAllObjects(theModel);
+        StatementList theStatements = bulkLoad ? theGenerator
+                .createCreateAllObjectsForBulkLoad(theModel) : theGenerator
+                .createCreateAllObjectsInParallel(theModel);
         SQLEditor theEditor = new SQLEditor(getDetailComponent(),
                 new ModelBasedConnectionProvider(theModel), theStatements,
-                component.currentEditingFile, "schema.sql", getWorldConnector());
+                component.currentEditingFile, "schema.sql", getWorldConnector(),
+                theGenerator);
         theEditor.showModal();
     }
 }
\ No newline at end of file
@@ -17,7 +17,9 @@
  */
 package de.erdesignerng.visual.common;
 
+import de.erdesignerng.io.CompressedModelFileFilter;
 import de.erdesignerng.io.ModelFileFilter;
+import de.erdesignerng.io.ModelSnapshotFileFilter;
 import java.io.File;
 import javax.swing.JFileChooser;
 
@@ -30,14 +32,21 @@ public class OpenFromFileCommand extends UICommand {
     public void execute() {
 
         ModelFileFilter theFiler = new ModelFileFilter();
+        CompressedModelFileFilter theCompressedFiler = new CompressedModelFileFilter();
+        ModelSnapshotFileFilter theSnapshotFiler = new ModelSnapshotFileFilter();
 
         JFileChooser theChooser = new JFileChooser();
         theChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        theChooser.addChoosableFileFilter(theCompressedFiler);
+        theChooser.addChoosableFileFilter(theSnapshotFiler);
         theChooser.setFileFilter(theFiler);
         if (theChooser.showOpenDialog(getDetailComponent()) == JFileChooser.APPROVE_OPTION) {
 
-            File theFile = theFiler.getCompletedFile(theChooser
-                    .getSelectedFile());
+            File theFile = theChooser.getSelectedFile();
+            if (!theCompressedFiler.accept(theFile)
+                    && !theSnapshotFiler.accept(theFile)) {
+                theFile = theFiler.getCompletedFile(theFile);
+            }
 
             ERDesignerComponent component = ERDesignerComponent.getDefault();
             component.commandOpenFile(theFile);
@@ -158,6 +158,7 @@ public class ReverseEngineerCommand extends UICommand {
 						if (theItem.getProperties().getProperty(ModelItem.PROPERTY_LOCATION) == null) {
 							String theLocation = xoffset + ":" + yoffset;
 							theItem.getProperties().setProperty(ModelItem.PROPERTY_LOCATION, theLocation);
+							aModel.notifyAboutChange(theItem);
 						} else {
 							LOGGER.info("graph layout properties for item '" + theItem.getName() + "' taken from previous model.");
 						}
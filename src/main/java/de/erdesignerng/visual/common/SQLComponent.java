@@ -21,7 +21,6 @@ import de.erdesignerng.ERDesignerBundle;
 import de.erdesignerng.dialect.Dialect;
 import de.erdesignerng.dialect.SQLGenerator;
 import de.erdesignerng.dialect.Statement;
-import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.model.Attribute;
 import de.erdesignerng.model.CustomType;
 import de.erdesignerng.model.Domain;
@@ -40,14 +39,26 @@ import de.mogwai.common.i18n.ResourceHelper;
 import de.mogwai.common.i18n.ResourceHelperProvider;
 import org.apache.commons.lang.ArrayUtils;
 
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import javax.swing.text.EditorKit;
 import java.awt.*;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.util.function.Consumer;
 
 public class SQLComponent extends DefaultPanel implements
 		ResourceHelperProvider {
 
+	/**
+	 * The preview stops after this number of characters. The complete script
+	 * is written by the save DDL to file command.
+	 */
+	private static final int MAX_PREVIEW_LENGTH = 1024 * 1024;
+
+	/**
+	 * The statements are appended to the document in chunks of this size.
+	 */
+	private static final int CHUNK_SIZE = 16 * 1024;
+
 	private DefaultEditorPane sql;
 
 	private static SQLComponent DEFAULT;
@@ -102,72 +113,59 @@ public class SQLComponent extends DefaultPanel implements
 		Model theModel = ERDesignerComponent.getDefault().getModel();
 		Dialect theDialect = theModel.getDialect();
 		if (theDialect != null && !ArrayUtils.isEmpty(aModelItems)) {
-			StatementList theStatementList = new StatementList();
 			SQLGenerator theGenerator = theDialect.createSQLGenerator();
+			String theSeparator = theGenerator.createScriptStatementSeparator();
+
+			// The statements are written while they are generated
+			PreviewWriter theConsumer = new PreviewWriter(theSeparator);
 			for (ModelItem aItem : aModelItems) {
 				if (aItem instanceof Table) {
 					Table theTable = (Table) aItem;
-					theStatementList.addAll(theGenerator
-							.createAddTableStatement(theTable));
+					theGenerator.createAddTableStatement(theTable).forEach(theConsumer);
 					for (Relation theRelation : theModel.getRelations()
 							.getForeignKeysFor(theTable)) {
-						theStatementList.addAll(theGenerator
-								.createAddRelationStatement(theRelation));
+						theGenerator.createAddRelationStatement(theRelation).forEach(theConsumer);
 
 					}
 				}
 				if (aItem instanceof View) {
-					theStatementList.addAll(theGenerator
-							.createAddViewStatement((View) aItem));
+					theGenerator.createAddViewStatement((View) aItem).forEach(theConsumer);
 				}
 				if (aItem instanceof Relation) {
-					theStatementList.addAll(theGenerator
-							.createAddRelationStatement((Relation) aItem));
+					theGenerator.createAddRelationStatement((Relation) aItem).forEach(theConsumer);
 				}
 				if (aItem instanceof Attribute) {
 					Attribute theAttribute = (Attribute) aItem;
 
 					ModelItem theOwner = theAttribute.getOwner();
 					if (theOwner instanceof Table) {
-						theStatementList.addAll(theGenerator.createAddAttributeToTableStatement((Table) theOwner, theAttribute));
+						theGenerator.createAddAttributeToTableStatement((Table) theOwner, theAttribute).forEach(theConsumer);
 					}
 				}
 				if (aItem instanceof Index) {
 					Index theIndex = (Index) aItem;
 					if (theIndex.getIndexType() == IndexType.PRIMARYKEY) {
-						theStatementList.addAll(theGenerator
-								.createAddPrimaryKeyToTable(
-										theIndex.getOwner(), theIndex));
+						theGenerator.createAddPrimaryKeyToTable(theIndex.getOwner(),
+								theIndex).forEach(theConsumer);
 					} else {
-						theStatementList.addAll(theGenerator
-								.createAddIndexToTableStatement(theIndex
-										.getOwner(), theIndex));
+						theGenerator.createAddIndexToTableStatement(
+								theIndex.getOwner(), theIndex).forEach(theConsumer);
 					}
 				}
 				if (aItem instanceof CustomType) {
 					CustomType theCustomType = (CustomType) aItem;
-					theStatementList.addAll(theGenerator
-							.createAddCustomTypeStatement(theCustomType));
+					theGenerator.createAddCustomTypeStatement(theCustomType).forEach(theConsumer);
 				}
 				if (aItem instanceof Domain) {
 					Domain theDomain = (Domain) aItem;
-					theStatementList.addAll(theGenerator
-							.createAddDomainStatement(theDomain));
+					theGenerator.createAddDomainStatement(theDomain).forEach(theConsumer);
 				}
 			}
 
-			if (theStatementList.size() > 0) {
-				StringWriter theWriter = new StringWriter();
-				PrintWriter thePW = new PrintWriter(theWriter);
-				for (Statement theStatement : theStatementList) {
-					thePW.print(theStatement.getSql());
-					thePW
-							.println(theGenerator
-									.createScriptStatementSeparator());
-				}
-				thePW.flush();
-				thePW.close();
-				sql.setText(theWriter.toString());
+			theConsumer.flush();
+			if (theConsumer.truncated) {
+				append("-- " + getResourceHelper().getFormattedText(ERDesignerBundle.SQLPREVIEWTRUNCATED,
+						getResourceHelper().getText(ERDesignerBundle.SAVECREATEDBDDLTOFILE)) + "\n");
 			}
 		} else {
 			if (theDialect == null) {
@@ -177,6 +175,56 @@ public class SQLComponent extends DefaultPanel implements
 		}
 	}
 
+	private void append(String aText) {
+		Document theDocument = sql.getDocument();
+		try {
+			theDocument.insertString(theDocument.getLength(), aText, null);
+		} catch (BadLocationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Appends the generated statements to the preview until the maximum length
+	 * is reached.
+	 */
+	private class PreviewWriter implements Consumer<Statement> {
+
+		private final String separator;
+
+		private final StringBuilder buffer = new StringBuilder();
+
+		private int length;
+
+		private boolean truncated;
+
+		private PreviewWriter(String aSeparator) {
+			separator = aSeparator;
+		}
+
+		@Override
+		public void accept(Statement aStatement) {
+			if (truncated) {
+				return;
+			}
+			String theText = aStatement.getSql() + separator + "\n";
+			if (length + theText.length() > MAX_PREVIEW_LENGTH) {
+				truncated = true;
+				return;
+			}
+			buffer.append(theText);
+			length += theText.length();
+			if (buffer.length() >= CHUNK_SIZE) {
+				flush();
+			}
+		}
+
+		private void flush() {
+			append(buffer.toString());
+			buffer.setLength(0);
+		}
+	}
+
 	@Override
 	public ResourceHelper getResourceHelper() {
 		return ResourceHelper.getResourceHelper(ERDesignerBundle.BUNDLE_NAME);
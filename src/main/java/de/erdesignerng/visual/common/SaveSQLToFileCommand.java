@@ -0,0 +1,86 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.visual.common;
+
+import de.erdesignerng.ERDesignerBundle;
+import de.erdesignerng.io.SQLFileFilter;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.visual.LongRunningTask;
+import de.erdesignerng.visual.MessagesHelper;
+
+import javax.swing.JFileChooser;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+
+/**
+ * Write the create DDL script of the model directly to a file. The
+ * statements are written while they are generated, so the script is never
+ * held in memory as a whole.
+ */
+public class SaveSQLToFileCommand extends UICommand {
+
+    public SaveSQLToFileCommand() {
+    }
+
+    @Override
+    public void execute() {
+
+        ERDesignerComponent component = ERDesignerComponent.getDefault();
+
+        if (!component.checkForValidConnection()) {
+            return;
+        }
+
+        SQLFileFilter theFiler = new SQLFileFilter();
+
+        JFileChooser theChooser = new JFileChooser();
+        theChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        theChooser.setFileFilter(theFiler);
+        if (component.currentEditingFile != null) {
+            theChooser.setSelectedFile(new File(component.currentEditingFile.getParent(), "schema.sql"));
+        } else {
+            theChooser.setSelectedFile(new File("schema.sql"));
+        }
+        if (theChooser.showSaveDialog(getDetailComponent()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File theFile = theFiler.getCompletedFile(theChooser.getSelectedFile());
+        Model theModel = component.getModel();
+
+        LongRunningTask<File> theTask = new LongRunningTask<File>(getWorldConnector()) {
+
+            @Override
+            public File doWork(MessagePublisher aMessagePublisher) throws Exception {
+                try (Writer theWriter = new BufferedWriter(new FileWriter(theFile))) {
+                    theModel.getDialect().createSQLGenerator().writeCreateAllObjects(theModel, theWriter);
+                }
+                return theFile;
+            }
+
+            @Override
+            public void handleResult(File aResult) {
+                MessagesHelper.displayInfoMessage(getDetailComponent(), component.getResourceHelper()
+                        .getText(ERDesignerBundle.FILESAVED));
+            }
+        };
+        theTask.start();
+    }
+}
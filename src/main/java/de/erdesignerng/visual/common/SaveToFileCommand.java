@@ -22,7 +22,11 @@ import de.erdesignerng.PlatformConfig;
 import de.erdesignerng.dialect.SQLGenerator;
 import de.erdesignerng.dialect.Statement;
 import de.erdesignerng.dialect.StatementList;
+import de.erdesignerng.io.GenericFileFilter;
+import de.erdesignerng.io.ModelDirectoryFileFilter;
+import de.erdesignerng.io.CompressedModelFileFilter;
 import de.erdesignerng.io.ModelFileFilter;
+import de.erdesignerng.io.ModelSnapshotFileFilter;
 import de.erdesignerng.model.Model;
 import de.erdesignerng.model.ModelIOUtilities;
 import de.erdesignerng.modificationtracker.HistoryModificationTracker;
@@ -58,15 +62,32 @@ public class SaveToFileCommand extends UICommand {
 
         ERDesignerComponent component = ERDesignerComponent.getDefault();
         ModelFileFilter theFiler = new ModelFileFilter();
+        CompressedModelFileFilter theCompressedFiler = new CompressedModelFileFilter();
+        ModelSnapshotFileFilter theSnapshotFiler = new ModelSnapshotFileFilter();
+        ModelDirectoryFileFilter theDirectoryFiler = new ModelDirectoryFileFilter();
 
         JFileChooser theChooser = new JFileChooser();
         theChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        theChooser.addChoosableFileFilter(theCompressedFiler);
+        theChooser.addChoosableFileFilter(theSnapshotFiler);
+        theChooser.addChoosableFileFilter(theDirectoryFiler);
         theChooser.setFileFilter(theFiler);
         theChooser.setSelectedFile(component.currentEditingFile);
         if (theChooser.showSaveDialog(getDetailComponent()) == JFileChooser.APPROVE_OPTION) {
 
-            File theFile = theFiler.getCompletedFile(theChooser
-                    .getSelectedFile());
+            File theSelectedFile = theChooser.getSelectedFile();
+            GenericFileFilter theCompletingFiler = theFiler;
+            if (theCompressedFiler.accept(theSelectedFile)) {
+                theCompletingFiler = theCompressedFiler;
+            } else if (theSnapshotFiler.accept(theSelectedFile)) {
+                theCompletingFiler = theSnapshotFiler;
+            } else if (theDirectoryFiler.accept(theSelectedFile)) {
+                theCompletingFiler = theDirectoryFiler;
+            } else if (!theFiler.accept(theSelectedFile)
+                    && theChooser.getFileFilter() instanceof GenericFileFilter) {
+                theCompletingFiler = (GenericFileFilter) theChooser.getFileFilter();
+            }
+            File theFile = theCompletingFiler.getCompletedFile(theSelectedFile);
             executeSaveToFile(theFile);
 
         }
@@ -83,16 +104,31 @@ public class SaveToFileCommand extends UICommand {
 
             Model theModel = component.getModel();
 
-            if (aFile.exists()) {
+            // Model directories are updated in place, only changed files
+            // are written
+            boolean theDirectory = new ModelDirectoryFileFilter().accept(aFile);
+
+            if (aFile.exists() && !theDirectory) {
                 File theBakFile = new File(aFile.toString() + "_"
                         + theFormat.format(theNow));
                 aFile.renameTo(theBakFile);
             }
 
-            ModelIOUtilities.getInstance().serializeModelToXML(
-                    theModel,
-                    new OutputStreamWriter(new FileOutputStream(aFile),
-                            PlatformConfig.getXMLEncoding()));
+            if (theDirectory) {
+                ModelIOUtilities.getInstance().serializeModelToDirectory(
+                        theModel, aFile);
+            } else if (new ModelSnapshotFileFilter().accept(aFile)) {
+                ModelIOUtilities.getInstance().serializeModelToBinary(
+                        theModel, new FileOutputStream(aFile));
+            } else if (new CompressedModelFileFilter().accept(aFile)) {
+                ModelIOUtilities.getInstance().serializeModelToCompressedXML(
+                        theModel, new FileOutputStream(aFile));
+            } else {
+                ModelIOUtilities.getInstance().serializeModelToXML(
+                        theModel,
+                        new OutputStreamWriter(new FileOutputStream(aFile),
+                                PlatformConfig.getXMLEncoding()));
+            }
 
             getWorldConnector().initTitle();
 
@@ -126,9 +162,11 @@ public class SaveToFileCommand extends UICommand {
                             theWriter.print(theStatement.getSql());
                             theWriter.println(theGenerator
                                     .createScriptStatementSeparator());
-                            theStatement.setSaved(true);
-
                         }
+                        theWriter.close();
+                        theWriter = null;
+
+                        theTracker.markAsSaved(theStatements);
                     }
                 }
             }
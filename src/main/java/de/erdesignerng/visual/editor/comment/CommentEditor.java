@@ -97,6 +97,8 @@ public class CommentEditor extends BaseEditor {
 		bindingInfo.view2model();
 		if (!model.getComments().contains(theComment)) {
 			model.addComment(theComment);
+		} else {
+			model.notifyAboutChange(theComment);
 		}
 	}
 }
\ No newline at end of file
@@ -17,12 +17,20 @@
  */
 package de.erdesignerng.visual.editor.completecompare;
 
+import de.erdesignerng.ERDesignerBundle;
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelBasedConnectionProvider;
+import de.erdesignerng.model.utils.MigrationScriptGenerator;
 import de.erdesignerng.model.utils.ModelComparator;
 import de.erdesignerng.model.utils.ModelCompareResult;
 import de.erdesignerng.util.ApplicationPreferences;
+import de.erdesignerng.visual.common.ERDesignerWorldConnector;
 import de.erdesignerng.visual.editor.BaseEditor;
+import de.erdesignerng.visual.editor.sql.SQLEditor;
 import de.mogwai.common.client.looks.UIInitializer;
+import de.mogwai.common.client.looks.components.action.DefaultAction;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultTreeModel;
@@ -35,18 +43,26 @@ import java.awt.*;
  */
 public class CompleteCompareEditor extends BaseEditor {
 
+	private final DefaultAction migrationScriptAction = new DefaultAction(
+			e -> commandMigrationScript(), this,
+			ERDesignerBundle.CREATEMIGRATIONSCRIPT);
+
 	private CompleteCompareEditorView editingView;
 
 	private final Model currentModel;
 
 	private final Model databaseModel;
 
+	private final ERDesignerWorldConnector worldConnector;
+
 	public CompleteCompareEditor(Component aParent, Model aCurrentModel,
-			Model aDatabaseModel, String aCaption) {
+			Model aDatabaseModel, String aCaption,
+			ERDesignerWorldConnector aConnector) {
 		super(aParent, aCaption);
 
 		currentModel = aCurrentModel;
 		databaseModel = aDatabaseModel;
+		worldConnector = aConnector;
 
 		initialize();
 
@@ -55,6 +71,7 @@ public class CompleteCompareEditor extends BaseEditor {
 		editingView.getCurrentModelView().setCellRenderer(theRenderer);
 		editingView.getDatabaseView().setCellRenderer(theRenderer);
 		editingView.getOkButton().setAction(okAction);
+		editingView.getMigrationScriptButton().setAction(migrationScriptAction);
 
 		refreshView();
 
@@ -107,6 +124,27 @@ public class CompleteCompareEditor extends BaseEditor {
 				getClass().getSimpleName(), this);
 	}
 
+	/**
+	 * Show the statements migrating the compared model or database to the
+	 * current model.
+	 */
+	private void commandMigrationScript() {
+		SQLGenerator theGenerator = currentModel.getDialect()
+				.createSQLGenerator();
+		theGenerator.setOnlineDDL(editingView.getOnlineDDL().isSelected());
+		MigrationScriptGenerator theMigration = new MigrationScriptGenerator(
+				theGenerator);
+		theMigration.setCombineAlterTableStatements(editingView
+				.getCombineAlterTableStatements().isSelected());
+		StatementList theStatements = theMigration.createMigrationStatements(
+				databaseModel, currentModel);
+
+		SQLEditor theEditor = new SQLEditor(this,
+				new ModelBasedConnectionProvider(currentModel), theStatements,
+				null, "migration.sql", worldConnector, theGenerator);
+		theEditor.showModal();
+	}
+
 	@Override
 	protected void commandOk() {
 		ApplicationPreferences.getInstance().updateWindowSize(
@@ -21,6 +21,7 @@ import com.jgoodies.forms.layout.CellConstraints;
 import com.jgoodies.forms.layout.FormLayout;
 import de.erdesignerng.ERDesignerBundle;
 import de.mogwai.common.client.looks.components.DefaultButton;
+import de.mogwai.common.client.looks.components.DefaultCheckBox;
 import de.mogwai.common.client.looks.components.DefaultSeparator;
 import de.mogwai.common.client.looks.components.DefaultTree;
 
@@ -41,6 +42,12 @@ public class CompleteCompareEditorView extends JPanel {
 
     private DefaultButton okButton;
 
+    private DefaultButton migrationScriptButton;
+
+    private DefaultCheckBox combineAlterTableStatements;
+
+    private DefaultCheckBox onlineDDL;
+
     /**
      * Constructor.
      */
@@ -53,8 +60,8 @@ public class CompleteCompareEditorView extends JPanel {
      */
     private void initialize() {
 
-        String rowDef = "8dlu,fill:250dlu:grow,8dlu,p,2dlu";
-        String colDef = "2dlu,fill:60dlu,2dlu:grow,fill:60dlu,2dlu";
+        String rowDef = "8dlu,fill:250dlu:grow,8dlu,p,2dlu,p,2dlu,p,2dlu";
+        String colDef = "2dlu,fill:60dlu,2dlu:grow,fill:120dlu,2dlu";
 
         FormLayout layout = new FormLayout(colDef, rowDef);
         setLayout(layout);
@@ -62,7 +69,10 @@ public class CompleteCompareEditorView extends JPanel {
         CellConstraints cons = new CellConstraints();
 
         add(getContentPanel(), cons.xywh(2, 2, 3, 1));
-        add(getOkButton(), cons.xywh(2, 4, 1, 1));
+        add(getCombineAlterTableStatements(), cons.xywh(4, 4, 1, 1));
+        add(getOnlineDDL(), cons.xywh(4, 6, 1, 1));
+        add(getOkButton(), cons.xywh(2, 8, 1, 1));
+        add(getMigrationScriptButton(), cons.xywh(4, 8, 1, 1));
     }
 
     /**
@@ -133,4 +143,46 @@ public class CompleteCompareEditorView extends JPanel {
 
         return okButton;
     }
+
+    /**
+     * Getter method for component MigrationScriptButton.
+     *
+     * @return the initialized component
+     */
+    public DefaultButton getMigrationScriptButton() {
+
+        if (migrationScriptButton == null) {
+            migrationScriptButton = new DefaultButton();
+        }
+
+        return migrationScriptButton;
+    }
+
+    /**
+     * Getter method for component CombineAlterTableStatements.
+     *
+     * @return the initialized component
+     */
+    public DefaultCheckBox getCombineAlterTableStatements() {
+
+        if (combineAlterTableStatements == null) {
+            combineAlterTableStatements = new DefaultCheckBox(ERDesignerBundle.COMBINEALTERTABLESTATEMENTS);
+        }
+
+        return combineAlterTableStatements;
+    }
+
+    /**
+     * Getter method for component OnlineDDL.
+     *
+     * @return the initialized component
+     */
+    public DefaultCheckBox getOnlineDDL() {
+
+        if (onlineDDL == null) {
+            onlineDDL = new DefaultCheckBox(ERDesignerBundle.USEONLINEDDL);
+        }
+
+        return onlineDDL;
+    }
 }
@@ -212,6 +212,7 @@ public class CustomTypeEditor extends BaseEditor {
                 model.addCustomType(theType);
             } else {
                 theOriginalType.restoreFrom(theType);
+                model.notifyAboutChange(theOriginalType);
             }
         }
     }
@@ -45,6 +45,10 @@ public class PreferencesPanel extends DefaultPanel implements
 
     private final DefaultSpinner xmlIndentation = new DefaultSpinner();
 
+    private final DefaultSpinner scriptBatchSize = new DefaultSpinner();
+
+    private final DefaultSpinner scriptTransactionSize = new DefaultSpinner();
+
     private BindingInfo<ApplicationPreferences> bindinginfo;
 
     public PreferencesPanel() {
@@ -54,7 +58,7 @@ public class PreferencesPanel extends DefaultPanel implements
     private void initialize() {
 
         String theColDef = "2dlu,p,2dlu,p:grow,2dlu,20dlu,2";
-        String theRowDef = "2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,50dlu";
+        String theRowDef = "2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,2dlu,p,50dlu";
 
         FormLayout theLayout = new FormLayout(theColDef, theRowDef);
         setLayout(theLayout);
@@ -94,6 +98,12 @@ public class PreferencesPanel extends DefaultPanel implements
         add(new DefaultLabel(ERDesignerBundle.XMLINDENTATION), cons.xy(2, 12));
         add(xmlIndentation, cons.xywh(4, 12, 3, 1));
 
+        add(new DefaultLabel(ERDesignerBundle.SCRIPTBATCHSIZE), cons.xy(2, 14));
+        add(scriptBatchSize, cons.xywh(4, 14, 3, 1));
+
+        add(new DefaultLabel(ERDesignerBundle.SCRIPTTRANSACTIONSIZE), cons.xy(2, 16));
+        add(scriptTransactionSize, cons.xywh(4, 16, 3, 1));
+
         UIInitializer.getInstance().initialize(this);
 
         bindinginfo = new BindingInfo<>();
@@ -105,6 +115,8 @@ public class PreferencesPanel extends DefaultPanel implements
         bindinginfo.addBinding("gridWidthAfterReverseEngineering", gridWidth,
                 true);
         bindinginfo.addBinding("xmlIndentation", xmlIndentation, true);
+        bindinginfo.addBinding("scriptBatchSize", scriptBatchSize, true);
+        bindinginfo.addBinding("scriptTransactionSize", scriptTransactionSize, true);
 
         bindinginfo.configure();
     }
@@ -19,7 +19,11 @@ package de.erdesignerng.visual.editor.sql;
 
 import de.erdesignerng.ERDesignerBundle;
 import de.erdesignerng.dialect.ConnectionProvider;
+import de.erdesignerng.dialect.ExecutionCheckpointLog;
+import de.erdesignerng.dialect.MigrationCostEstimator;
+import de.erdesignerng.dialect.SQLGenerator;
 import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementExecutor;
 import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.io.SQLFileFilter;
 import de.erdesignerng.util.ApplicationPreferences;
@@ -34,13 +38,19 @@ import de.mogwai.common.client.looks.components.action.DefaultAction;
 import de.mogwai.common.client.looks.components.list.DefaultListModel;
 
 import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.Component;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -64,6 +74,9 @@ public class SQLEditor extends BaseEditor {
     private final DefaultAction deleteAction = new DefaultAction(
             e -> commandDeleteSelectedEntry(), this, ERDesignerBundle.DELETE);
 
+    private final DefaultAction estimateVolumeAction = new DefaultAction(
+            e -> commandEstimateVolume(), this, ERDesignerBundle.ESTIMATEVOLUME);
+
     private final File lastEditedFile;
 
     private final String filename;
@@ -76,9 +89,24 @@ public class SQLEditor extends BaseEditor {
 
     private final ERDesignerWorldConnector worldConnector;
 
+    private final SQLGenerator generator;
+
     public SQLEditor(Component aParent, ConnectionProvider aConnectionAdapter,
                      StatementList aStatements, File aLastEditedFile, String aFileName,
                      ERDesignerWorldConnector aConnector) {
+        this(aParent, aConnectionAdapter, aStatements, aLastEditedFile, aFileName, aConnector, null);
+    }
+
+    /**
+     * Create an editor that shows the estimated cost of every statement.
+     *
+     * @param aGenerator the generator of the statements dialect or null if
+     *                   no cost shall be estimated, it also tells which
+     *                   statements have to be executed with auto commit
+     */
+    public SQLEditor(Component aParent, ConnectionProvider aConnectionAdapter,
+                     StatementList aStatements, File aLastEditedFile, String aFileName,
+                     ERDesignerWorldConnector aConnector, SQLGenerator aGenerator) {
         super(aParent, ERDesignerBundle.SQLWINDOW);
 
         connectionAdapter = aConnectionAdapter;
@@ -86,6 +114,7 @@ public class SQLEditor extends BaseEditor {
         filename = aFileName;
         statements = aStatements;
         worldConnector = aConnector;
+        generator = aGenerator;
 
         initialize();
 
@@ -103,7 +132,17 @@ public class SQLEditor extends BaseEditor {
         view.getExecuteButton().setAction(executeAction);
         view.getSaveToFileButton().setAction(saveToFileAction);
         view.getDeleteButton().setAction(deleteAction);
+        view.getEstimateVolumeButton().setAction(estimateVolumeAction);
         deleteAction.setEnabled(false);
+        estimateVolumeAction.setEnabled(generator != null);
+
+        if (generator != null) {
+            try {
+                new MigrationCostEstimator(generator).estimate(aStatements);
+            } catch (SQLException e) {
+                logFatalError(e);
+            }
+        }
 
         DefaultListModel theModel = view.getSqlList().getModel();
         aStatements.forEach(theModel::add);
@@ -145,6 +184,7 @@ public class SQLEditor extends BaseEditor {
         executeAction.setEnabled(false);
         saveToFileAction.setEnabled(false);
         deleteAction.setEnabled(false);
+        estimateVolumeAction.setEnabled(false);
 
         LongRunningTask<String> theTask = new LongRunningTask<String>(
                 worldConnector) {
@@ -153,39 +193,54 @@ public class SQLEditor extends BaseEditor {
 
                 DefaultListModel theModel = view.getSqlList().getModel();
 
+                List<Statement> theStatements = new ArrayList<>();
+                for (int i = 0; i < theModel.getSize(); i++) {
+                    theStatements.add((Statement) theModel.get(i));
+                }
+
                 Connection theConnection = null;
                 try {
 
                     theConnection = connectionAdapter.createConnection();
 
-                    for (int i = 0; i < theModel.getSize(); i++) {
-                        Statement theStatement = (Statement) theModel.get(i);
-                        if (!theStatement.isExecuted()) {
+                    ApplicationPreferences thePreferences = ApplicationPreferences.getInstance();
+                    StatementExecutor theExecutor = new StatementExecutor(theConnection);
+                    theExecutor.setBatchSize(thePreferences.getScriptBatchSize());
+                    theExecutor.setTransactionSize(thePreferences.getScriptTransactionSize());
+                    if (generator != null) {
+                        theExecutor.setAutoCommitRequired(generator::requiresAutoCommit);
+                    }
 
-                            view.getSqlList().setSelectedIndex(i);
-                            view.getSqlList().ensureIndexIsVisible(i);
+                    DatabaseMetaData theMetaData = theConnection.getMetaData();
+                    ExecutionCheckpointLog theLog = ExecutionCheckpointLog.open(thePreferences
+                            .getCheckpointDirectory(), theMetaData.getURL() + " " + theMetaData.getUserName(),
+                            getScriptKey(), theStatements);
+                    try {
+                        restoreCheckpoints(theLog);
+                        aPublisher.publishMessage("OK");
 
-                            java.sql.Statement theJDBCStatement = null;
+                        theExecutor.execute(theStatements, theStatement -> {
                             try {
-                                theJDBCStatement = theConnection
-                                        .createStatement();
-                                theJDBCStatement.execute(theStatement.getSql());
-
-                                theStatement.setExecuted(true);
-                            } catch (Exception e) {
-                                logFatalError(e);
-                                return null;
-                            } finally {
-                                if (theJDBCStatement != null) {
-                                    try {
-                                        theJDBCStatement.close();
-                                    } catch (Exception e) {
-                                        // Do nothing here
-                                    }
-                                }
-                                aPublisher.publishMessage("OK");
+                                theLog.checkpoint(theStatement);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            aPublisher.publishMessage("OK");
+                        });
+                    } catch (SQLException e) {
+                        // Show the first statement not executed, this is the failed one
+                        for (int i = 0; i < theStatements.size(); i++) {
+                            if (!theStatements.get(i).isExecuted()) {
+                                view.getSqlList().setSelectedIndex(i);
+                                view.getSqlList().ensureIndexIsVisible(i);
+                                break;
                             }
                         }
+                        aPublisher.publishMessage("ERROR");
+                        logFatalError(e);
+                        return null;
+                    } finally {
+                        theLog.close();
                     }
                 } catch (Exception e) {
                     worldConnector.notifyAboutException(e);
@@ -209,11 +264,88 @@ public class SQLEditor extends BaseEditor {
                 closeAction.setEnabled(true);
                 executeAction.setEnabled(true);
                 saveToFileAction.setEnabled(true);
+                estimateVolumeAction.setEnabled(generator != null);
             }
         };
         theTask.start();
     }
 
+    /**
+     * Estimate the affected volume of the statements with the statistics of
+     * the connected database.
+     */
+    private void commandEstimateVolume() {
+        estimateVolumeAction.setEnabled(false);
+
+        LongRunningTask<String> theTask = new LongRunningTask<String>(
+                worldConnector) {
+            @Override
+            public String doWork(MessagePublisher aPublisher) throws Exception {
+
+                DefaultListModel theModel = view.getSqlList().getModel();
+
+                List<Statement> theStatements = new ArrayList<>();
+                for (int i = 0; i < theModel.getSize(); i++) {
+                    theStatements.add((Statement) theModel.get(i));
+                }
+
+                Connection theConnection = null;
+                try {
+                    theConnection = connectionAdapter.createConnection();
+                    new MigrationCostEstimator(generator, theConnection).estimate(theStatements);
+                    aPublisher.publishMessage("OK");
+                } catch (Exception e) {
+                    worldConnector.notifyAboutException(e);
+                } finally {
+                    if (!connectionAdapter.generatesManagedConnection()) {
+                        JDBCUtils.closeQuietly(theConnection);
+                    }
+                }
+
+                return null;
+            }
+
+            @Override
+            public void handleProcess(List<String> aValue) {
+                view.getSqlList().invalidate();
+                view.getSqlList().repaint();
+            }
+
+            @Override
+            public void handleResult(String aResult) {
+                estimateVolumeAction.setEnabled(true);
+            }
+        };
+        theTask.start();
+    }
+
+    /**
+     * The script is identified by its file name and the model it was created
+     * for, so it can be edited between two runs.
+     */
+    private String getScriptKey() {
+        if (lastEditedFile != null) {
+            return lastEditedFile.getAbsolutePath() + " " + filename;
+        }
+        return filename;
+    }
+
+    /**
+     * Restore the statements already executed in a former run of the same
+     * script. The user decides whether they are skipped.
+     */
+    private void restoreCheckpoints(ExecutionCheckpointLog aLog) throws Exception {
+        int theRestored = aLog.restore();
+        if (theRestored > 0) {
+            boolean[] theSkip = new boolean[1];
+            SwingUtilities.invokeAndWait(() -> theSkip[0] = MessagesHelper.displayQuestionMessage(this,
+                    ERDesignerBundle.SKIPEXECUTEDSTATEMENTS, theRestored));
+            if (!theSkip[0]) {
+                aLog.reset();
+            }
+        }
+    }
+
     private void commandSaveToFile() {
         SQLFileFilter theFiler = new SQLFileFilter();
 
@@ -238,6 +370,9 @@ public class SQLEditor extends BaseEditor {
                 for (int i = 0; i < theModel.getSize(); i++) {
                     Statement theStatement = (Statement) theModel.get(i);
 
+                    if (theStatement.getComment() != null) {
+                        thePW.println(theStatement.getComment());
+                    }
                     thePW.print(theStatement.getSql());
                     thePW.println(connectionAdapter
                             .createScriptStatementSeparator());
@@ -27,6 +27,8 @@ public class SQLEditorView extends JPanel {
 
     private DefaultButton saveToFileButton;
 
+    private DefaultButton estimateVolumeButton;
+
     /**
      * Constructor.
      */
@@ -88,6 +90,7 @@ public class SQLEditorView extends JPanel {
             buttonPanel.add(getExecuteButton(), cons.xywh(3, 1, 1, 1));
             buttonPanel.add(getSaveToFileButton(), cons.xywh(5, 1, 1, 1));
             buttonPanel.add(getCloseButton(), cons.xywh(1, 3, 1, 1));
+            buttonPanel.add(getEstimateVolumeButton(), cons.xywh(5, 3, 1, 1));
             buttonPanel.setName("buttonpanel");
         }
 
@@ -161,4 +164,21 @@ public class SQLEditorView extends JPanel {
 
         return saveToFileButton;
     }
+
+    /**
+     * Getter method for component estimateVolumeButton.
+     *
+     * @return the initialized component
+     */
+    public DefaultButton getEstimateVolumeButton() {
+
+        if (estimateVolumeButton == null) {
+            estimateVolumeButton = new DefaultButton();
+            estimateVolumeButton.setActionCommand("estimateVolume");
+            estimateVolumeButton.setName("estimateVolumeButton");
+            estimateVolumeButton.setText("estimateVolume");
+        }
+
+        return estimateVolumeButton;
+    }
 }
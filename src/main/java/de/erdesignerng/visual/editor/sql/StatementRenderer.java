@@ -17,8 +17,11 @@
  */
 package de.erdesignerng.visual.editor.sql;
 
+import de.erdesignerng.ERDesignerBundle;
+import de.erdesignerng.dialect.MigrationCostEstimate;
 import de.erdesignerng.dialect.Statement;
 import de.mogwai.common.client.looks.UIInitializer;
+import de.mogwai.common.i18n.ResourceHelper;
 import de.mogwai.common.client.looks.components.DefaultTextArea;
 
 import javax.swing.*;
@@ -30,6 +33,8 @@ public class StatementRenderer implements ListCellRenderer {
 
 	private final UIInitializer initializer = UIInitializer.getInstance();
 
+	private final ResourceHelper helper = ResourceHelper.getResourceHelper(ERDesignerBundle.BUNDLE_NAME);
+
 	@Override
 	public Component getListCellRendererComponent(JList aList, Object aValue, int aIndex, boolean isSelected,
 			boolean cellHasFocus) {
@@ -41,7 +46,14 @@ public class StatementRenderer implements ListCellRenderer {
 
 		}
 
-		component.setText(theStatement.getSql());
+		StringBuilder theText = new StringBuilder(theStatement.getSql());
+		if (theStatement.getCostEstimate() != null) {
+			theText.append("\n-- ").append(createCostText(theStatement.getCostEstimate()));
+		}
+		if (theStatement.isExecuted()) {
+			theText.append("\n-- ").append(theStatement.getExecutionTime()).append(" ms");
+		}
+		component.setText(theText.toString());
 		if (isSelected) {
 			component.setBackground(initializer.getConfiguration().getDefaultListSelectionBackground());
 		} else {
@@ -50,4 +62,40 @@ public class StatementRenderer implements ListCellRenderer {
 
 		return component;
 	}
+
+	private String createCostText(MigrationCostEstimate aEstimate) {
+		StringBuilder theResult = new StringBuilder();
+		switch (aEstimate.getCost()) {
+		case METADATA_ONLY:
+			theResult.append(helper.getText(ERDesignerBundle.METADATAONLY));
+			break;
+		case TABLE_SCAN:
+			theResult.append(helper.getText(ERDesignerBundle.TABLESCAN));
+			break;
+		case INDEX_BUILD:
+			theResult.append(helper.getText(ERDesignerBundle.INDEXBUILD));
+			break;
+		default:
+			theResult.append(helper.getText(ERDesignerBundle.TABLEREWRITE));
+		}
+		if (aEstimate.getRowCount() != MigrationCostEstimate.UNKNOWN) {
+			theResult.append(", ").append(helper.getFormattedText(ERDesignerBundle.ESTIMATEDROWS,
+					aEstimate.getRowCount()));
+		}
+		if (aEstimate.getSizeInBytes() != MigrationCostEstimate.UNKNOWN) {
+			theResult.append(", ").append(formatSize(aEstimate.getSizeInBytes()));
+		}
+		return theResult.toString();
+	}
+
+	private static String formatSize(long aSizeInBytes) {
+		String[] theUnits = {"bytes", "KB", "MB", "GB", "TB"};
+		double theSize = aSizeInBytes;
+		int theUnit = 0;
+		while (theSize >= 1024 && theUnit < theUnits.length - 1) {
+			theSize /= 1024;
+			theUnit++;
+		}
+		return theUnit == 0 ? aSizeInBytes + " " + theUnits[0] : String.format("%.1f %s", theSize, theUnits[theUnit]);
+	}
 }
\ No newline at end of file
@@ -671,6 +671,9 @@ public class TableEditor extends BaseEditor {
 					}
 				}
 			}
+
+			// The table properties are changed in place
+			model.notifyAboutChange(theTable);
 		}
 	}
 
@@ -371,6 +371,7 @@ public abstract class ERDesignerGraph extends JGraph {
 
         getGraphLayoutCache().expand(new Object[]{aCell});
         aCell.setExpanded(true);
+        model.notifyAboutChange((SubjectArea) aCell.getUserObject());
 
         toggleVisibilityOfRelationsInSubjectArea(aCell, true);
 
@@ -381,6 +382,7 @@ public abstract class ERDesignerGraph extends JGraph {
 
         getGraphLayoutCache().collapse(new Object[]{aCell});
         aCell.setExpanded(false);
+        model.notifyAboutChange((SubjectArea) aCell.getUserObject());
 
         toggleVisibilityOfRelationsInSubjectArea(aCell, false);
 
@@ -116,6 +116,8 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
                             if (theAttributes != null) {
                                 theCell
                                         .transferAttributesToProperties(theAttributes);
+                                ERDesignerComponent.getDefault().getModel().notifyAboutChange(
+                                        (ModelItem) theCell.getUserObject());
                             }
                         }
 
@@ -220,6 +222,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
                         (Comment) ((CommentCell) theObject).getUserObject());
             }
         }
+        ERDesignerComponent.getDefault().getModel().notifyAboutChange(theArea);
 
         ERDesignerComponent.getDefault().updateSubjectAreasMenu();
     }
@@ -258,6 +261,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
             SubjectAreaCell theCell = (SubjectAreaCell) theItem;
             if (theCell.getUserObject().equals(aArea)) {
                 aArea.setVisible(false);
+                ERDesignerComponent.getDefault().getModel().notifyAboutChange(aArea);
 
                 Object[] theCellObjects = new Object[]{theCell};
                 graph.getGraphLayoutCache().hideCells(theCellObjects, true);
@@ -276,6 +280,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
                 SubjectAreaCell theCell = (SubjectAreaCell) theItem;
                 if (theCell.getUserObject().equals(aArea)) {
                     aArea.setVisible(true);
+                    ERDesignerComponent.getDefault().getModel().notifyAboutChange(aArea);
 
                     Object[] theCellObjects = DefaultGraphModel.getDescendants(
                             graph.getModel(), new Object[]{theCell})
@@ -686,6 +691,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
             SubjectAreaCell theSACell = (SubjectAreaCell) theTargetCell;
             SubjectArea theArea = (SubjectArea) theSACell.getUserObject();
             theArea.getComments().add(aComment);
+            ERDesignerComponent.getDefault().getModel().notifyAboutChange(theArea);
 
             theSACell.add(theCell);
         }
@@ -695,6 +701,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
         graph.getGraphLayoutCache().insert(theCell);
 
         theCell.transferAttributesToProperties(theCell.getAttributes());
+        ERDesignerComponent.getDefault().getModel().notifyAboutChange(aComment);
 
         graph.doLayout();
     }
@@ -721,6 +728,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
             SubjectAreaCell theSACell = (SubjectAreaCell) theTargetCell;
             SubjectArea theArea = (SubjectArea) theSACell.getUserObject();
             theArea.getTables().add(aTable);
+            ERDesignerComponent.getDefault().getModel().notifyAboutChange(theArea);
 
             theSACell.add(theImportingCell);
         }
@@ -730,6 +738,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
         graph.getGraphLayoutCache().insert(theImportingCell);
 
         theImportingCell.transferAttributesToProperties(theImportingCell.getAttributes());
+        ERDesignerComponent.getDefault().getModel().notifyAboutChange(aTable);
 
         graph.doLayout();
     }
@@ -744,6 +753,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
             SubjectAreaCell theSACell = (SubjectAreaCell) theTargetCell;
             SubjectArea theArea = (SubjectArea) theSACell.getUserObject();
             theArea.getViews().add(aView);
+            ERDesignerComponent.getDefault().getModel().notifyAboutChange(theArea);
 
             theSACell.add(theCell);
         }
@@ -753,6 +763,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
         graph.getGraphLayoutCache().insert(theCell);
 
         theCell.transferAttributesToProperties(theCell.getAttributes());
+        ERDesignerComponent.getDefault().getModel().notifyAboutChange(aView);
 
         graph.doLayout();
 
@@ -1037,6 +1048,18 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
         }
     }
 
+    /**
+     * The layouts change the locations in the model directly.
+     */
+    private void notifyAboutLocations(Model aModel) {
+        for (Table theTable : aModel.getTables()) {
+            aModel.notifyAboutChange(theTable);
+        }
+        for (View theView : aModel.getViews()) {
+            aModel.notifyAboutChange(theView);
+        }
+    }
+
     private void performJGraphLayout(JGraphLayout aLayout) {
         JGraphFacade facade = new JGraphFacade(graph);
         facade.run(aLayout, true);
@@ -1100,6 +1123,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
 
         LayoutHelper theHelper = new LayoutHelper();
         theHelper.performClusterLayout(theModel);
+        notifyAboutLocations(theModel);
 
         ERDesignerComponent.getDefault().setModel(theModel);
     }
@@ -1112,6 +1136,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
 
         LayoutHelper theHelper = new LayoutHelper();
         theHelper.performTreeLayout(new Point(20, 20), theLayers, theModel.getViews());
+        notifyAboutLocations(theModel);
 
         updatePositions();
 
@@ -1170,6 +1195,7 @@ public class JGraphEditor extends DefaultScrollPane implements GenericModelEdito
                 theAngle += theIncrement;
             }
         }
+        notifyAboutLocations(theModel);
 
         updatePositions();
 
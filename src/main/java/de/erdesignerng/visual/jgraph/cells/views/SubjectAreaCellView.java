@@ -17,9 +17,11 @@
  */
 package de.erdesignerng.visual.jgraph.cells.views;
 
+import de.erdesignerng.model.Model;
 import de.erdesignerng.model.ModelItem;
 import de.erdesignerng.model.SubjectArea;
 import de.erdesignerng.visual.IconFactory;
+import de.erdesignerng.visual.common.ERDesignerComponent;
 import de.erdesignerng.visual.jgraph.CellEditorFactory;
 import de.erdesignerng.visual.jgraph.cells.SubjectAreaCell;
 import org.jgraph.JGraph;
@@ -164,13 +166,16 @@ public class SubjectAreaCellView extends VertexView {
         // Invisible childs are not automatically translated
         // if a collapsed subject area is moved, so we have to do that by hand.
         SubjectArea theArea = (SubjectArea) theCell.getUserObject();
+        Model theModel = ERDesignerComponent.getDefault().getModel();
         for (ModelItem theItem : theArea.getTables()) {
             Point2D theLocation = theItem.getProperties().getPoint2DProperty(ModelItem.PROPERTY_LOCATION);
             theItem.getProperties().setPointProperty(ModelItem.PROPERTY_LOCATION, (int) (theLocation.getX() + dx), (int) (theLocation.getY() + dy));
+            theModel.notifyAboutChange(theItem);
         }
         for (ModelItem theItem : theArea.getViews()) {
             Point2D theLocation = theItem.getProperties().getPoint2DProperty(ModelItem.PROPERTY_LOCATION);
             theItem.getProperties().setPointProperty(ModelItem.PROPERTY_LOCATION, (int) (theLocation.getX() + dx), (int) (theLocation.getY() + dy));
+            theModel.notifyAboutChange(theItem);
         }
         //}
     }
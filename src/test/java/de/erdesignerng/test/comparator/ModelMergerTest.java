@@ -0,0 +1,203 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.comparator;
+
+import java.io.IOException;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CascadeType;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.utils.MergeConflictType;
+import de.erdesignerng.model.utils.ModelMergeResult;
+import de.erdesignerng.model.utils.ModelMerger;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+/**
+ * Test for the three way model merge.
+ */
+public class ModelMergerTest extends BaseERDesignerTestCaseImpl {
+
+	private Model loadModel() throws SAXException, IOException, ParserConfigurationException {
+		return ModelIOUtilities.getInstance().deserializeModelFromXML(getClass().getResourceAsStream("examplemodel.mxm"));
+	}
+
+	public void testMergeUnchanged() throws SAXException, IOException, ParserConfigurationException {
+		Model theOurs = loadModel();
+
+		ModelMergeResult theResult = new ModelMerger().merge(loadModel(), theOurs, loadModel());
+
+		assertFalse(theResult.hasConflicts());
+		assertEquals(0, theResult.getAppliedChanges());
+		assertEquals(4, theOurs.getTables().size());
+		assertEquals(3, theOurs.getRelations().size());
+	}
+
+	public void testMergeNonConflictingChanges() throws Exception {
+		Model theBase = loadModel();
+		Model theOurs = loadModel();
+		Model theTheirs = loadModel();
+
+		// Our side changes a comment, their side adds an attribute and drops a table
+		theOurs.getTables().findByName("TABLE1").getAttributes().findByName("TB1_AT1").setComment("Ours");
+
+		Table theTheirTable = theTheirs.getTables().findByName("TABLE2");
+		Attribute<Table> theNewAttribute = new Attribute<>();
+		theNewAttribute.setName("TB2_AT3");
+		theNewAttribute.setDatatype(theTheirs.getDialect().getDataTypes().findByName("VARCHAR"));
+		theNewAttribute.setSize(42);
+		theTheirTable.addAttribute(theTheirs, theNewAttribute);
+
+		theTheirs.removeTable(theTheirs.getTables().findByName("TABLE4"));
+
+		ModelMergeResult theResult = new ModelMerger().merge(theBase, theOurs, theTheirs);
+
+		assertFalse(theResult.hasConflicts());
+		assertEquals(2, theResult.getAppliedChanges());
+
+		assertEquals("Ours", theOurs.getTables().findByName("TABLE1").getAttributes().findByName("TB1_AT1").getComment());
+
+		Attribute<Table> theMerged = theOurs.getTables().findByName("TABLE2").getAttributes().findByName("TB2_AT3");
+		assertNotNull(theMerged);
+		assertEquals(theNewAttribute.getSystemId(), theMerged.getSystemId());
+		assertEquals(Integer.valueOf(42), theMerged.getSize());
+		assertSame(theOurs.getTables().findByName("TABLE2"), theMerged.getOwner());
+
+		assertNull(theOurs.getTables().findByName("TABLE4"));
+		assertNull(theOurs.getRelations().findByName("TABLE4_FK1"));
+	}
+
+	public void testMergeConflictingChanges() throws Exception {
+		Model theBase = loadModel();
+		Model theOurs = loadModel();
+		Model theTheirs = loadModel();
+
+		theOurs.getTables().findByName("TABLE1").getAttributes().findByName("TB1_AT2").setComment("Ours");
+		theTheirs.getTables().findByName("TABLE1").getAttributes().findByName("TB1_AT2").setComment("Theirs");
+
+		// Deleted by us, modified by them
+		theOurs.removeTable(theOurs.getTables().findByName("TABLE3"));
+		theTheirs.getTables().findByName("TABLE3").setComment("Theirs");
+
+		ModelMergeResult theResult = new ModelMerger().merge(theBase, theOurs, theTheirs);
+
+		assertEquals(2, theResult.getConflicts().size());
+		assertEquals(MergeConflictType.MODIFIED_IN_BOTH, theResult.getConflicts().get(0).getType());
+		assertEquals("TB1_AT2", theResult.getConflicts().get(0).getItemName());
+		assertEquals(MergeConflictType.DELETED_IN_OURS, theResult.getConflicts().get(1).getType());
+
+		// Our version is kept
+		assertEquals("Ours", theOurs.getTables().findByName("TABLE1").getAttributes().findByName("TB1_AT2").getComment());
+		assertNull(theOurs.getTables().findByName("TABLE3"));
+	}
+
+	public void testMergeAddedRelation() throws Exception {
+		Model theBase = loadModel();
+		Model theOurs = loadModel();
+		Model theTheirs = loadModel();
+
+		theOurs.removeRelation(theOurs.getRelations().findByName("TABLE2_FK1"));
+		theBase.removeRelation(theBase.getRelations().findByName("TABLE2_FK1"));
+
+		ModelMergeResult theResult = new ModelMerger().merge(theBase, theOurs, theTheirs);
+
+		assertFalse(theResult.hasConflicts());
+		assertEquals(3, theOurs.getRelations().size());
+		assertSame(theOurs.getTables().findByName("TABLE1"), theOurs.getRelations().findByName("TABLE2_FK1")
+				.getExportingTable());
+		assertTrue(theOurs.getTables().findByName("TABLE2").isForeignKey(
+				theOurs.getTables().findByName("TABLE2").getAttributes().findByName("TB2_AT2")));
+	}
+
+	public void testMergeIndexWithUnresolvedAttribute() throws Exception {
+		Model theBase = loadModel();
+		Model theOurs = loadModel();
+		Model theTheirs = loadModel();
+
+		// Their side adds an index on an attribute that our side dropped
+		Table theOurTable = theOurs.getTables().findByName("TABLE1");
+		theOurTable.getAttributes().remove(theOurTable.getAttributes().findByName("TB1_AT2"));
+
+		Table theTheirTable = theTheirs.getTables().findByName("TABLE1");
+		Index theNewIndex = new Index();
+		theNewIndex.setName("TABLE1_IDX_MERGE");
+		theNewIndex.setIndexType(IndexType.NONUNIQUE);
+		theNewIndex.getExpressions().addExpressionFor(theTheirTable.getAttributes().findByName("TB1_AT1"));
+		theNewIndex.getExpressions().addExpressionFor(theTheirTable.getAttributes().findByName("TB1_AT2"));
+		theTheirTable.addIndex(theTheirs, theNewIndex);
+
+		ModelMergeResult theResult = new ModelMerger().merge(theBase, theOurs, theTheirs);
+
+		assertEquals(1, theResult.getConflicts().size());
+		assertEquals(MergeConflictType.UNRESOLVED_REFERENCE, theResult.getConflicts().get(0).getType());
+		assertEquals(theNewIndex.getSystemId(), theResult.getConflicts().get(0).getSystemId());
+
+		// The index is not merged with a narrower column list
+		assertNull(theOurTable.getIndexes().findByName("TABLE1_IDX_MERGE"));
+	}
+
+	public void testMergeDeletedTableWithChangedRelation() throws Exception {
+		Model theBase = loadModel();
+		Model theOurs = loadModel();
+		Model theTheirs = loadModel();
+
+		// Their side drops a table, our side changes a relation on it
+		theOurs.getRelations().findByName("TABLE4_FK1").setOnDelete(CascadeType.CASCADE);
+		Table theTheirTable = theTheirs.getTables().findByName("TABLE4");
+		theTheirs.removeTable(theTheirTable);
+
+		ModelMergeResult theResult = new ModelMerger().merge(theBase, theOurs, theTheirs);
+
+		assertEquals(MergeConflictType.DELETED_IN_THEIRS, theResult.getConflicts().get(0).getType());
+		assertEquals(theTheirTable.getSystemId(), theResult.getConflicts().get(0).getSystemId());
+
+		// Our version is kept
+		assertNotNull(theOurs.getTables().findByName("TABLE4"));
+		assertEquals(CascadeType.CASCADE, theOurs.getRelations().findByName("TABLE4_FK1").getOnDelete());
+	}
+
+	public void testMergeAddedTableIsInSubjectArea() throws Exception {
+		Model theBase = loadModel();
+		Model theOurs = loadModel();
+		Model theTheirs = loadModel();
+
+		Table theNewTable = new Table();
+		theNewTable.setName("TABLE5");
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setName("TB5_AT1");
+		theAttribute.setDatatype(theTheirs.getDialect().getDataTypes().findByName("VARCHAR"));
+		theAttribute.setSize(10);
+		theNewTable.addAttribute(theTheirs, theAttribute);
+		theTheirs.addTable(theNewTable);
+		theTheirs.getSubjectAreas().get(0).getTables().add(theNewTable);
+
+		ModelMergeResult theResult = new ModelMerger().merge(theBase, theOurs, theTheirs);
+
+		assertFalse(theResult.hasConflicts());
+		SubjectArea theArea = theOurs.getSubjectAreas().get(0);
+		assertSame(theOurs.getTables().findByName("TABLE5"), theArea.getTables().findByName("TABLE5"));
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.core;
+
+import de.erdesignerng.dialect.Dialect;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CustomType;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Table;
+import junit.framework.TestCase;
+
+public class AttributeTest extends TestCase {
+
+	private final Dialect dialect = new H2Dialect();
+
+	/**
+	 * Test that the cached physical declaration follows the attribute changes.
+	 */
+	public void testPhysicalDeclaration() {
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setDatatype(dialect.getDataTypes().findByName("varchar"));
+		theAttribute.setSize(20);
+
+		assertEquals("varchar(20)", theAttribute.getPhysicalDeclaration());
+		assertSame(theAttribute.getPhysicalDeclaration(), theAttribute.getPhysicalDeclaration());
+
+		theAttribute.setSize(30);
+		assertEquals("varchar(30)", theAttribute.getPhysicalDeclaration());
+
+		theAttribute.setDatatype(dialect.getDataTypes().findByName("decimal"));
+		theAttribute.setSize(12);
+		theAttribute.setFraction(3);
+		assertEquals("decimal(12, 3)", theAttribute.getPhysicalDeclaration());
+		assertEquals("decimal(12, 3)", theAttribute.getLogicalDeclaration());
+	}
+
+	/**
+	 * Test that changes to a domain are visible in the attributes using it.
+	 */
+	public void testPhysicalDeclarationOfDomain() {
+		Domain theDomain = new Domain();
+		theDomain.setName("NAME");
+		theDomain.setConcreteType(dialect.getDataTypes().findByName("varchar"));
+		theDomain.setSize(20);
+
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setDatatype(theDomain);
+
+		assertEquals("varchar(20)", theAttribute.getPhysicalDeclaration());
+		assertEquals("NAME", theAttribute.getLogicalDeclaration());
+
+		theDomain.setSize(40);
+		assertEquals("varchar(40)", theAttribute.getPhysicalDeclaration());
+	}
+
+	/**
+	 * Test that a renamed custom type is visible in the attributes using it.
+	 */
+	public void testPhysicalDeclarationOfCustomType() {
+		CustomType theType = new CustomType();
+		theType.setName("ADDRESS");
+
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setDatatype(theType);
+
+		assertEquals("ADDRESS", theAttribute.getPhysicalDeclaration());
+
+		theType.setName("POSTAL_ADDRESS");
+		assertEquals("POSTAL_ADDRESS", theAttribute.getPhysicalDeclaration());
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Table;
+
+public class TableTest extends TestCase {
+
+	private static final int ATTRIBUTE_COUNT = 50;
+
+	private static final int THREAD_COUNT = 8;
+
+	public void testConcurrentAccessWaitsForTheDetails() throws Exception {
+		CountDownLatch theLoadingStarted = new CountDownLatch(1);
+		AtomicInteger theLoadCount = new AtomicInteger();
+
+		Table theTable = new Table();
+		theTable.setName("TABLE1");
+		theTable.setDetailsLoader(aTable -> {
+			theLoadCount.incrementAndGet();
+			theLoadingStarted.countDown();
+			for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+				Attribute<Table> theAttribute = new Attribute<>();
+				theAttribute.setName("ATTRIBUTE" + i);
+				theAttribute.setOwner(aTable);
+
+				// Reentrant access of the loading thread
+				aTable.getAttributes().add(theAttribute);
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+
+		ExecutorService theExecutor = Executors.newFixedThreadPool(THREAD_COUNT + 1);
+		try {
+			Future<Integer> theLoading = theExecutor.submit(() -> theTable.getAttributes().size());
+			theLoadingStarted.await();
+			assertFalse(theTable.isDetailsLoaded());
+
+			List<Future<Integer>> theReaders = new ArrayList<>();
+			for (int i = 0; i < THREAD_COUNT; i++) {
+				theReaders.add(theExecutor.submit(() -> theTable.getAttributes().size()));
+			}
+
+			assertEquals(ATTRIBUTE_COUNT, theLoading.get().intValue());
+			for (Future<Integer> theReader : theReaders) {
+				assertEquals(ATTRIBUTE_COUNT, theReader.get().intValue());
+			}
+		} finally {
+			theExecutor.shutdown();
+		}
+
+		assertTrue(theTable.isDetailsLoaded());
+		assertEquals(1, theLoadCount.get());
+	}
+}
@@ -0,0 +1,154 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.io.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+
+import org.xml.sax.SAXException;
+
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.model.serializer.binary.BinaryModelSerializer;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+/**
+ * Test for binary model snapshots.
+ * 
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-14 21:10:04 $
+ */
+public class BinaryIOTest extends BaseERDesignerTestCaseImpl {
+
+	private static final String EXAMPLE_MODEL = "/de/erdesignerng/test/io/xml50/examplemodel.mxm";
+
+	private Model loadExampleModel() throws ParserConfigurationException, SAXException, IOException {
+		return ModelIOUtilities.getInstance().deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+	}
+
+	private String toXML(Model aModel) throws ParserConfigurationException, TransformerException, IOException {
+		StringWriter theWriter = new StringWriter();
+		ModelIOUtilities.getInstance().serializeModelToXML(aModel, theWriter);
+		return theWriter.toString();
+	}
+
+	private byte[] toBinary(Model aModel) throws ParserConfigurationException, IOException {
+		ByteArrayOutputStream theStream = new ByteArrayOutputStream();
+		ModelIOUtilities.getInstance().serializeModelToBinary(aModel, theStream);
+		return theStream.toByteArray();
+	}
+
+	public void testRoundTripMatchesXML() throws ParserConfigurationException, SAXException, IOException,
+			TransformerException {
+
+		Model theModel = loadExampleModel();
+		byte[] theSnapshot = toBinary(theModel);
+
+		Model theLoadedModel = ModelIOUtilities.getInstance().deserializeModelFromBinary(
+				new ByteArrayInputStream(theSnapshot));
+		assertEquals(toXML(theModel), toXML(theLoadedModel));
+
+		// Writing the loaded model again gives the same snapshot
+		assertTrue(Arrays.equals(theSnapshot, toBinary(theLoadedModel)));
+
+		Table theTable = theLoadedModel.getTables().findByName("TABLE1");
+		assertEquals("INDEXES", theTable.getIndexes().findByName("TABLE1_IDX1").getProperties().getProperty(
+				"TABLESPACE"));
+		assertSame(theLoadedModel.getComments().get(0), theLoadedModel.getSubjectAreas().get(0).getComments()
+				.get(0));
+	}
+
+	public void testFormatIsDetected() throws ParserConfigurationException, SAXException, IOException,
+			TransformerException {
+
+		Model theModel = loadExampleModel();
+		byte[] theSnapshot = toBinary(theModel);
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		assertTrue(BinaryModelSerializer.isSnapshot(new ByteArrayInputStream(theSnapshot)));
+		assertFalse(BinaryModelSerializer.isSnapshot(getClass().getResourceAsStream(EXAMPLE_MODEL)));
+
+		assertEquals(toXML(theModel), toXML(theUtilities.deserializeModel(new ByteArrayInputStream(theSnapshot),
+				true)));
+		assertEquals(toXML(theModel), toXML(theUtilities.deserializeModel(getClass().getResourceAsStream(
+				EXAMPLE_MODEL), true)));
+	}
+
+	public void testLargeModelIsReadConcurrently() throws ParserConfigurationException, SAXException,
+			IOException, TransformerException {
+
+		Model theModel = loadExampleModel();
+		Table theTemplate = theModel.getTables().findByName("TABLE1");
+		for (int i = 0; i < 500; i++) {
+			Table theTable = theTemplate.createCopy();
+			theTable.setSystemId("TABLE" + i);
+			theTable.setName("GENERATED_" + i);
+			theModel.getTables().add(theTable);
+
+			View theView = new View();
+			theView.setOwner(theModel);
+			theView.setName("VIEW_" + i);
+			theView.setSql("select * from GENERATED_" + i);
+			theModel.getViews().add(theView);
+		}
+
+		Model theLoadedModel = ModelIOUtilities.getInstance().deserializeModelFromBinary(
+				new ByteArrayInputStream(toBinary(theModel)));
+		assertEquals(toXML(theModel), toXML(theLoadedModel));
+		assertEquals("GENERATED_499", theLoadedModel.getTables().get(theLoadedModel.getTables().size() - 1)
+				.getName());
+	}
+
+	public void testPartialLoading() throws ParserConfigurationException, SAXException, IOException,
+			TransformerException {
+
+		Model theModel = loadExampleModel();
+		Model thePartialModel = ModelIOUtilities.getInstance().deserializeModelFromBinary(
+				new ByteArrayInputStream(toBinary(theModel)), true);
+
+		for (Table theTable : thePartialModel.getTables()) {
+			assertFalse(theTable.isDetailsLoaded());
+		}
+		Table theTable = thePartialModel.getTables().findByName("TABLE1");
+		theTable.setName("RENAMED");
+		assertEquals(theModel.getTables().findByName("TABLE1").getAttributes().size(), theTable.getAttributes()
+				.size());
+		assertTrue(theTable.isDetailsLoaded());
+		assertEquals("RENAMED", theTable.getName());
+		theTable.setName("TABLE1");
+
+		assertEquals(toXML(theModel), toXML(thePartialModel));
+	}
+
+	public void testInvalidSnapshotIsRejected() throws IOException {
+		try {
+			new BinaryModelSerializer().deserialize(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 }));
+			fail("Invalid snapshots must be rejected");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+}
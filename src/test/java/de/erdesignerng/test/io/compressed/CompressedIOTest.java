@@ -0,0 +1,96 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.io.compressed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+
+import org.xml.sax.SAXException;
+
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+/**
+ * Test for compressed model files.
+ * 
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-14 21:10:04 $
+ */
+public class CompressedIOTest extends BaseERDesignerTestCaseImpl {
+
+	private static final String EXAMPLE_MODEL = "/de/erdesignerng/test/io/xml50/examplemodel.mxm";
+
+	private String toXML(Model aModel) throws ParserConfigurationException, TransformerException, IOException {
+		StringWriter theWriter = new StringWriter();
+		ModelIOUtilities.getInstance().serializeModelToXML(aModel, theWriter);
+		return theWriter.toString();
+	}
+
+	public void testCompressedXMLIsReadTransparently() throws ParserConfigurationException, SAXException,
+			IOException, TransformerException {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+		String theXML = toXML(theModel);
+
+		ByteArrayOutputStream theStream = new ByteArrayOutputStream();
+		theUtilities.serializeModelToCompressedXML(theModel, theStream);
+		byte[] theCompressed = theStream.toByteArray();
+
+		assertTrue(ModelIOUtilities.isCompressed(new ByteArrayInputStream(theCompressed)));
+		assertTrue(theCompressed.length < theXML.length());
+
+		assertEquals(theXML, toXML(theUtilities.deserializeModelFromXML(new ByteArrayInputStream(theCompressed))));
+		assertEquals(theXML, toXML(theUtilities.deserializeModel(new ByteArrayInputStream(theCompressed), true)));
+	}
+
+	public void testCompressedSnapshotIsReadTransparently() throws ParserConfigurationException, SAXException,
+			IOException, TransformerException {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+
+		ByteArrayOutputStream theStream = new ByteArrayOutputStream();
+		theUtilities.serializeModelToBinary(theModel, new GZIPOutputStream(theStream));
+
+		assertEquals(toXML(theModel), toXML(theUtilities.deserializeModel(new ByteArrayInputStream(theStream
+				.toByteArray()), true)));
+	}
+
+	public void testCompressedFileIsValidated() throws ParserConfigurationException, SAXException, IOException,
+			TransformerException {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+
+		File theFile = File.createTempFile("compressed", ".mxz");
+		theFile.deleteOnExit();
+		theUtilities.serializeModelToCompressedXML(theModel, new FileOutputStream(theFile));
+
+		assertTrue(theUtilities.validateModelXML(theFile).isEmpty());
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.io.directory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+
+import org.xml.sax.SAXException;
+
+import de.erdesignerng.dialect.ConversionInfos;
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.dialect.DialectFactory;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.serializer.ModelDirectorySerializer;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+/**
+ * Test for models stored as directories.
+ * 
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-14 21:10:04 $
+ */
+public class ModelDirectoryIOTest extends BaseERDesignerTestCaseImpl {
+
+	private static final String EXAMPLE_MODEL = "/de/erdesignerng/test/io/xml50/examplemodel.mxm";
+
+	private File directory;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = new File(Files.createTempDirectory("modeldirectory").toFile(), "model.mxd");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(directory.getParentFile());
+		super.tearDown();
+	}
+
+	private static void delete(File aFile) {
+		File[] theChildren = aFile.listFiles();
+		if (theChildren != null) {
+			for (File theChild : theChildren) {
+				delete(theChild);
+			}
+		}
+		aFile.delete();
+	}
+
+	private String toXML(Model aModel) throws ParserConfigurationException, TransformerException, IOException {
+		StringWriter theWriter = new StringWriter();
+		ModelIOUtilities.getInstance().serializeModelToXML(aModel, theWriter);
+		return theWriter.toString();
+	}
+
+	public void testRoundTrip() throws ParserConfigurationException, SAXException, IOException,
+			TransformerException {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+
+		int theFiles = theModel.getTables().size() + theModel.getViews().size() + theModel.getSubjectAreas().size()
+				+ 1;
+		assertEquals(theFiles, theUtilities.serializeModelToDirectory(theModel, directory));
+		assertTrue(ModelDirectorySerializer.isModelDirectory(directory));
+
+		Model theLoadedModel = theUtilities.deserializeModelFromDirectory(directory);
+		assertEquals(toXML(theModel), toXML(theLoadedModel));
+		Table theAreaTable = theLoadedModel.getSubjectAreas().get(0).getTables().get(0);
+		assertSame(theLoadedModel.getTables().findBySystemId(theAreaTable.getSystemId()), theAreaTable);
+
+		File theIndex = new File(directory, ModelDirectorySerializer.INDEX);
+		assertEquals(directory, ModelIOUtilities.getModelDirectory(theIndex));
+		try {
+			theUtilities.deserializeModelFromXML(new FileInputStream(theIndex), false);
+			fail("The index must not be loaded as a model");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	public void testOnlyChangedFilesAreWritten() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+		theUtilities.serializeModelToDirectory(theModel, directory);
+
+		assertEquals(0, theUtilities.serializeModelToDirectory(theModel, directory));
+
+		Table theTable = theModel.getTables().findByName("TABLE1");
+		theModel.renameAttribute(theTable.getAttributes().get(0), "RENAMED");
+		assertEquals(1, theUtilities.serializeModelToDirectory(theModel, directory));
+
+		Table theNewTable = new Table();
+		theNewTable.setName("NEWTABLE");
+		theModel.addTable(theNewTable);
+		assertEquals(2, theUtilities.serializeModelToDirectory(theModel, directory));
+		assertEquals(theModel.getTables().size(), new File(directory, "tables").listFiles().length);
+
+		theModel.removeTable(theNewTable);
+		assertEquals(1, theUtilities.serializeModelToDirectory(theModel, directory));
+		assertEquals(theModel.getTables().size(), new File(directory, "tables").listFiles().length);
+
+		assertEquals(toXML(theModel), toXML(theUtilities.deserializeModelFromDirectory(directory)));
+	}
+
+	public void testOnlyChangedItemsAreSerialized() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+		theUtilities.serializeModelToDirectory(theModel, directory);
+
+		assertEquals(0, theUtilities.serializeModelToDirectory(theModel, directory));
+		Table theTable = theModel.getTables().findByName("TABLE1");
+		theTable.getAttributes().get(0).setName("RENAMED");
+		theModel.notifyAboutChange(theTable.getAttributes().get(0));
+		assertEquals(1, theUtilities.serializeModelToDirectory(theModel, directory));
+
+		// The details of an unchanged table of a partially loaded model are
+		// not loaded by a save, unless the relations in the index need them
+		Table theUnrelatedTable = new Table();
+		theUnrelatedTable.setName("UNRELATED");
+		theUnrelatedTable.getAttributes().add(theTable.getAttributes().get(1).clone());
+		theModel.addTable(theUnrelatedTable);
+		assertEquals(2, theUtilities.serializeModelToDirectory(theModel, directory));
+
+		Model thePartialModel = theUtilities.deserializeModelFromDirectory(directory, true);
+		thePartialModel.renameTable(thePartialModel.getTables().findByName("TABLE1"), "TABLE1_NEW");
+		assertEquals(1, theUtilities.serializeModelToDirectory(thePartialModel, directory));
+		assertFalse(thePartialModel.getTables().findByName("UNRELATED").isDetailsLoaded());
+
+		theModel.renameTable(theTable, "TABLE1_NEW");
+		assertEquals(toXML(theModel), toXML(theUtilities.deserializeModelFromDirectory(directory)));
+	}
+
+	public void testConvertedModelIsSerialized() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+		theUtilities.serializeModelToDirectory(theModel, directory);
+
+		ConversionInfos theInfos = new ConversionInfos();
+		theInfos.setTargetDialect(DialectFactory.getInstance().getDialect("PostgresDialect"));
+		DataType theText = theInfos.getTargetDialect().getDataTypes().findByName("text");
+		for (DataType theType : theModel.getDialect().getDataTypes()) {
+			theInfos.getTypeMapping().put(theType, theText);
+		}
+		for (Domain theDomain : theModel.getDomains()) {
+			theInfos.getTypeMapping().put(theDomain, theText);
+		}
+		theModel.convert(theInfos);
+		theUtilities.serializeModelToDirectory(theModel, directory);
+
+		assertEquals(toXML(theModel), toXML(theUtilities.deserializeModelFromDirectory(directory)));
+	}
+
+	public void testValidation() throws ParserConfigurationException, SAXException, IOException {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+		theUtilities.serializeModelToDirectory(theModel, directory);
+		assertEquals(0, theUtilities.validateModelXML(directory).size());
+
+		File theTableFile = new File(directory, "tables").listFiles()[0];
+		String theContent = new String(Files.readAllBytes(theTableFile.toPath()), "UTF-8");
+		Files.write(theTableFile.toPath(), theContent.replaceFirst("<Attribute ", "<Unknown/><Attribute ")
+				.getBytes("UTF-8"));
+
+		try {
+			theUtilities.deserializeModelFromDirectory(directory);
+			fail("Invalid directory was accepted");
+		} catch (IOException e) {
+			assertEquals("Failed to validate document against schema", e.getMessage());
+		}
+
+		// Without validation the unknown element is just skipped
+		assertEquals(theModel.getTables().size(), theUtilities.deserializeModelFromDirectory(directory, false,
+				false).getTables().size());
+		assertEquals(1, theUtilities.validateModelXML(new File(directory, ModelDirectorySerializer.INDEX)).size());
+	}
+
+	public void testPartialLoading() throws ParserConfigurationException, SAXException, IOException,
+			TransformerException {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		Model theModel = theUtilities.deserializeModelFromXML(getClass().getResourceAsStream(EXAMPLE_MODEL));
+		theUtilities.serializeModelToDirectory(theModel, directory);
+
+		Model thePartialModel = theUtilities.deserializeModelFromDirectory(directory, true);
+		for (Table theTable : thePartialModel.getTables()) {
+			assertFalse(theTable.isDetailsLoaded());
+		}
+		Table theTable = thePartialModel.getTables().findByName("TABLE1");
+		assertEquals(theModel.getTables().findByName("TABLE1").getProperties().getProperty("LOCATION"), theTable
+				.getProperties().getProperty("LOCATION"));
+		assertEquals(theModel.getTables().findByName("TABLE1").getAttributes().size(), theTable.getAttributes()
+				.size());
+		assertTrue(theTable.isDetailsLoaded());
+		assertSame(theTable, theTable.getAttributes().get(0).getOwner());
+
+		assertEquals(toXML(theModel), toXML(thePartialModel));
+	}
+}
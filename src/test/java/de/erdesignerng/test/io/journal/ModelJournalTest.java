@@ -0,0 +1,258 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.io.journal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+
+import org.xml.sax.SAXException;
+
+import de.erdesignerng.PlatformConfig;
+import de.erdesignerng.dialect.ConversionInfos;
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.dialect.DialectFactory;
+import de.erdesignerng.model.Domain;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.ModelItem;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.serializer.ModelJournal;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+/**
+ * Test for the recovery of unsaved changes from a model journal.
+ * 
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-14 21:10:04 $
+ */
+public class ModelJournalTest extends BaseERDesignerTestCaseImpl {
+
+	private static final String EXAMPLE_MODEL = "/de/erdesignerng/test/io/xml50/examplemodel.mxm";
+
+	private File directory;
+
+	private File modelFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = Files.createTempDirectory("modeljournal").toFile();
+		modelFile = new File(directory, "model.mxm");
+		Model theModel = ModelIOUtilities.getInstance().deserializeModelFromXML(
+				getClass().getResourceAsStream(EXAMPLE_MODEL));
+		save(theModel);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] theFiles = directory.listFiles();
+		if (theFiles != null) {
+			for (File theFile : theFiles) {
+				theFile.delete();
+			}
+		}
+		directory.delete();
+		super.tearDown();
+	}
+
+	private void save(Model aModel) throws ParserConfigurationException, TransformerException, IOException {
+		ModelIOUtilities.getInstance().serializeModelToXML(aModel,
+				new OutputStreamWriter(new FileOutputStream(modelFile), PlatformConfig.getXMLEncoding()));
+	}
+
+	private Model load() throws ParserConfigurationException, SAXException, IOException {
+		return ModelIOUtilities.getInstance().deserializeModelFromXML(Files.newInputStream(modelFile.toPath()));
+	}
+
+	private String toXML(Model aModel) throws ParserConfigurationException, TransformerException, IOException {
+		StringWriter theWriter = new StringWriter();
+		ModelIOUtilities.getInstance().serializeModelToXML(aModel, theWriter);
+		return theWriter.toString();
+	}
+
+	private Model recover(File aJournalFile) throws ParserConfigurationException, SAXException, IOException {
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		return theUtilities.recoverModel(theUtilities.createModelJournal(aJournalFile));
+	}
+
+	private void change(Model aModel) throws Exception {
+		aModel.renameTable(aModel.getTables().findByName("TABLE2"), "RENAMED");
+
+		Table theTable = aModel.getTables().findByName("TABLE3");
+		theTable.getProperties().setPointProperty(ModelItem.PROPERTY_LOCATION, 500, 600);
+		aModel.notifyAboutChange(theTable);
+
+		aModel.removeTable(aModel.getTables().findByName("TABLE4"));
+
+		Table theNewTable = new Table();
+		theNewTable.setName("NEWTABLE");
+		aModel.addTable(theNewTable);
+	}
+
+	public void testUnsavedChangesAreRecovered() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		File theJournalFile = new File(directory, "session" + ModelJournal.FILE_EXTENSION);
+		Model theModel = load();
+		ModelJournal theJournal = theUtilities.createModelJournal(theJournalFile);
+		theJournal.start(theModel, modelFile);
+
+		change(theModel);
+		theJournal.flush();
+		theModel.changeTableComment(theModel.getTables().findByName("RENAMED"), "Commented");
+		theJournal.flush();
+		theJournal.sync();
+
+		// A batch written incompletely is ignored
+		Files.write(theJournalFile.toPath(), "P Table 1234 <?xml".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+
+		assertEquals(modelFile.getAbsoluteFile(), theUtilities.createModelJournal(theJournalFile).getModelFile());
+		assertEquals(toXML(theModel), toXML(recover(theJournalFile)));
+
+		// The journal of a running session is never recovered
+		assertEquals(Collections.emptyList(), ModelJournal.findRecoverableJournals(directory));
+
+		theJournal.close();
+		assertFalse(theJournalFile.exists());
+	}
+
+	public void testSaveStartsTheJournalAgain() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		File theJournalFile = new File(directory, "session" + ModelJournal.FILE_EXTENSION);
+		Model theModel = load();
+		ModelJournal theJournal = theUtilities.createModelJournal(theJournalFile);
+		theJournal.start(theModel, modelFile);
+
+		change(theModel);
+		theJournal.flush();
+		save(theModel);
+		theJournal.start(theModel, modelFile);
+		theJournal.flush();
+		theJournal.sync();
+
+		assertEquals(toXML(theModel), toXML(recover(theJournalFile)));
+
+		File theCopy = new File(directory, "ended" + ModelJournal.FILE_EXTENSION);
+		Files.copy(theJournalFile.toPath(), theCopy.toPath());
+		assertEquals(Collections.emptyList(), ModelJournal.findRecoverableJournals(directory));
+		assertFalse(theCopy.exists());
+
+		theJournal.close();
+	}
+
+	public void testRenamedDomainIsRecovered() throws Exception {
+
+		Model theModel = load();
+		Domain theDomain = theModel.getDomains().findByName("DOMAIN1");
+		theModel.getTables().findByName("TABLE1").getAttributes().get(0).setDatatype(theDomain);
+		save(theModel);
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		File theJournalFile = new File(directory, "session" + ModelJournal.FILE_EXTENSION);
+		theModel = load();
+		ModelJournal theJournal = theUtilities.createModelJournal(theJournalFile);
+		theJournal.start(theModel, modelFile);
+
+		// Like the domain editor does
+		theDomain = theModel.getDomains().findByName("DOMAIN1");
+		Domain theChangedDomain = theDomain.clone();
+		theChangedDomain.setName("RENAMEDDOMAIN");
+		theDomain.restoreFrom(theChangedDomain);
+		theModel.notifyAboutChange(theDomain);
+		theJournal.flush();
+		theJournal.sync();
+
+		Model theRecoveredModel = recover(theJournalFile);
+		assertEquals(toXML(theModel), toXML(theRecoveredModel));
+		assertSame(theRecoveredModel.getDomains().findByName("RENAMEDDOMAIN"), theRecoveredModel.getTables()
+				.findByName("TABLE1").getAttributes().get(0).getDatatype());
+
+		theJournal.close();
+	}
+
+	public void testConvertedModelIsRecovered() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		File theJournalFile = new File(directory, "session" + ModelJournal.FILE_EXTENSION);
+		Model theModel = load();
+		ModelJournal theJournal = theUtilities.createModelJournal(theJournalFile);
+		theJournal.start(theModel, modelFile);
+
+		// The types are renamed, so unjournaled tables would not match
+		ConversionInfos theInfos = new ConversionInfos();
+		theInfos.setTargetDialect(DialectFactory.getInstance().getDialect("PostgresDialect"));
+		DataType theText = theInfos.getTargetDialect().getDataTypes().findByName("text");
+		for (DataType theType : theModel.getUsedDataTypes()) {
+			theInfos.getTypeMapping().put(theType, theText);
+		}
+		theModel.convert(theInfos);
+		theJournal.flush();
+		theJournal.sync();
+
+		assertEquals(toXML(theModel), toXML(recover(theJournalFile)));
+
+		theJournal.close();
+	}
+
+	public void testRecoveredChangesAreTakenOver() throws Exception {
+
+		ModelIOUtilities theUtilities = ModelIOUtilities.getInstance();
+		File theJournalFile = new File(directory, "session" + ModelJournal.FILE_EXTENSION);
+		Model theModel = load();
+		ModelJournal theJournal = theUtilities.createModelJournal(theJournalFile);
+		theJournal.start(theModel, modelFile);
+		change(theModel);
+		theJournal.flush();
+		theJournal.sync();
+
+		// A copy of the locked journal looks like the journal of a crashed
+		// session
+		File theCrashedFile = new File(directory, "crashed" + ModelJournal.FILE_EXTENSION);
+		Files.copy(theJournalFile.toPath(), theCrashedFile.toPath());
+		theJournal.close();
+		assertEquals(Collections.singletonList(theCrashedFile), ModelJournal.findRecoverableJournals(directory));
+
+		ModelJournal theCrashedJournal = theUtilities.createModelJournal(theCrashedFile);
+		Model theRecoveredModel = theUtilities.recoverModel(theCrashedJournal);
+		assertEquals(toXML(theModel), toXML(theRecoveredModel));
+
+		ModelJournal theNewJournal = theUtilities.createModelJournal(theJournalFile);
+		theNewJournal.start(theRecoveredModel, theCrashedJournal.getModelFile());
+		theNewJournal.takeOver(theCrashedJournal);
+		assertFalse(theCrashedFile.exists());
+
+		theRecoveredModel.removeTable(theRecoveredModel.getTables().findByName("NEWTABLE"));
+		theNewJournal.flush();
+		theNewJournal.sync();
+		assertEquals(toXML(theRecoveredModel), toXML(recover(theJournalFile)));
+
+		theNewJournal.close();
+	}
+}
@@ -0,0 +1,276 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.io.xml50;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.SubjectArea;
+import de.erdesignerng.model.View;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.serializer.AbstractXMLModelSerializer;
+import de.erdesignerng.model.serializer.StreamingXMLModelReader;
+import de.erdesignerng.model.serializer.StreamingXMLModelWriter;
+import de.erdesignerng.model.serializer.xml50.XMLModel50Serializer;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+import de.erdesignerng.util.XMLUtils;
+
+/**
+ * Test for XML based model io.
+ * 
+ * @author $Author: mirkosertic $
+ * @version $Date: 2008-11-14 21:10:04 $
+ */
+public class XML50IOTest extends BaseERDesignerTestCaseImpl {
+
+	private Model loadWithDOM(AbstractXMLModelSerializer aSerializer) throws ParserConfigurationException,
+			SAXException, IOException {
+		DocumentBuilderFactory theFactory = DocumentBuilderFactory.newInstance();
+		DocumentBuilder theBuilder = theFactory.newDocumentBuilder();
+		Document theDoc = theBuilder.parse(getClass().getResourceAsStream("examplemodel.mxm"));
+		return aSerializer.deserializeModelFromXML(theDoc);
+	}
+
+	private String serialize(AbstractXMLModelSerializer aSerializer, Model aModel) throws IOException,
+			TransformerException {
+		StringWriter theStringWriter = new StringWriter();
+		aSerializer.serializeModelToXML(aModel, theStringWriter);
+		return theStringWriter.toString();
+	}
+
+	public void testStreamingReaderMatchesDOMLoader() throws ParserConfigurationException, SAXException,
+			IOException, TransformerException {
+
+		AbstractXMLModelSerializer theSerializer = new XMLModel50Serializer(XMLUtils.getInstance());
+		Model theDOMModel = loadWithDOM(theSerializer);
+
+		StreamingXMLModelReader theReader = new StreamingXMLModelReader(theSerializer);
+		InputStream theStream = new BufferedInputStream(getClass().getResourceAsStream("examplemodel.mxm"));
+		assertTrue(theReader.supportsDocument(theStream));
+		Model theStreamedModel = theReader.read(theStream);
+		theStream.close();
+
+		assertEquals(serialize(theSerializer, theDOMModel), serialize(theSerializer, theStreamedModel));
+
+		assertEquals("ADDRESS_T", theStreamedModel.getCustomTypes().get(0).getAlias());
+		assertEquals("Domain & comment", theStreamedModel.getDomains().get(0).getComment());
+		assertEquals("A <model> comment", theStreamedModel.getComments().get(0).getComment());
+
+		Table theTable = theStreamedModel.getTables().findByName("TABLE1");
+		assertEquals("INDEXES", theTable.getIndexes().findByName("TABLE1_IDX1").getProperties().getProperty(
+				"TABLESPACE"));
+
+		SubjectArea theSubjectArea = theStreamedModel.getSubjectAreas().get(0);
+		assertEquals(1, theSubjectArea.getComments().size());
+		assertSame(theStreamedModel.getComments().get(0), theSubjectArea.getComments().get(0));
+	}
+
+	public void testLoadThroughModelIOUtilities() throws ParserConfigurationException, SAXException,
+			IOException, TransformerException {
+
+		AbstractXMLModelSerializer theSerializer = new XMLModel50Serializer(XMLUtils.getInstance());
+		Model theModel = ModelIOUtilities.getInstance().deserializeModelFromXML(
+				getClass().getResourceAsStream("examplemodel.mxm"));
+
+		assertEquals(serialize(theSerializer, loadWithDOM(theSerializer)), serialize(theSerializer, theModel));
+	}
+
+	public void testStreamingReaderRejectsOtherVersions() throws ParserConfigurationException, IOException {
+
+		StreamingXMLModelReader theReader = new StreamingXMLModelReader(new XMLModel50Serializer(XMLUtils
+				.getInstance()));
+		InputStream theStream = new BufferedInputStream(getClass().getResourceAsStream(
+				"/de/erdesignerng/test/io/xml40/examplemodel.mxm"));
+		assertFalse(theReader.supportsDocument(theStream));
+		theStream.close();
+	}
+
+	public void testStreamingReaderValidatesDocument() throws ParserConfigurationException, SAXException {
+
+		StreamingXMLModelReader theReader = new StreamingXMLModelReader(new XMLModel50Serializer(XMLUtils
+				.getInstance()));
+		String theDocument = "<Model version=\"5.0\"><Configuration/><Tables><Unknown/></Tables></Model>";
+		try {
+			theReader.read(new ByteArrayInputStream(theDocument.getBytes()));
+			fail("Invalid document was accepted");
+		} catch (IOException e) {
+			assertEquals("Failed to validate document against schema", e.getMessage());
+		}
+	}
+
+	public void testStreamingWriterMatchesDOMSerializer() throws ParserConfigurationException, SAXException,
+			IOException, TransformerException {
+
+		AbstractXMLModelSerializer theSerializer = new XMLModel50Serializer(XMLUtils.getInstance());
+		Model theModel = loadWithDOM(theSerializer);
+
+		// Characters the transformer escapes in a special way
+		String theSpecialText = "a<b & c>d \"q\" 'x'\n\tline\r\n\u00e4\u20ac";
+		theModel.getComments().get(0).setComment(theSpecialText);
+		theModel.getTables().get(0).setComment(theSpecialText);
+		theModel.getTables().get(0).getAttributes().get(0).setDefaultValue(theSpecialText);
+		theModel.getTables().get(0).getAttributes().get(1).setDefaultValue(null);
+		theModel.getTables().get(0).getProperties().setProperty("SPECIAL", theSpecialText);
+		View theView = theModel.getViews().get(0);
+		theView.setSql("select *\n  from TABLE1\n where A < 'x'");
+
+		StringWriter theWriter = new StringWriter();
+		new StreamingXMLModelWriter(theSerializer).write(theModel, theWriter);
+
+		assertEquals(serialize(theSerializer, theModel), theWriter.toString());
+
+		StreamingXMLModelReader theReader = new StreamingXMLModelReader(theSerializer);
+		Model theReloadedModel = theReader.read(new ByteArrayInputStream(theWriter.toString().getBytes("UTF-8")));
+		assertEquals(theWriter.toString(), serialize(theSerializer, theReloadedModel));
+
+		// Character references the transformer writes even if they cannot
+		// be read again
+		theModel.getTables().get(0).setComment("\ud83d\ude00\u0001\u0085\u2028");
+
+		theWriter = new StringWriter();
+		new StreamingXMLModelWriter(theSerializer).write(theModel, theWriter);
+
+		assertEquals(serialize(theSerializer, theModel), theWriter.toString());
+	}
+
+	public void testStreamingReaderBuildsLargeModelsConcurrently() throws ParserConfigurationException,
+			SAXException, IOException, TransformerException {
+
+		AbstractXMLModelSerializer theSerializer = new XMLModel50Serializer(XMLUtils.getInstance());
+		Model theModel = loadWithDOM(theSerializer);
+		Attribute<Table> theTemplate = theModel.getTables().get(0).getAttributes().get(0);
+		for (int i = 0; i < 100; i++) {
+			Table theTable = new Table();
+			theTable.setOwner(theModel);
+			theTable.setName("GENERATED" + i);
+			theTable.setComment("Table " + i);
+			Attribute<Table> theAttribute = theTemplate.clone();
+			theAttribute.setSystemId(theTable.getSystemId() + "_A");
+			theAttribute.setOwner(theTable);
+			theTable.getAttributes().add(theAttribute);
+			theModel.getTables().add(theTable);
+
+			View theView = new View();
+			theView.setOwner(theModel);
+			theView.setName("GENERATEDVIEW" + i);
+			theView.setSql("select * from GENERATED" + i);
+			theModel.getViews().add(theView);
+		}
+
+		StringWriter theWriter = new StringWriter();
+		new StreamingXMLModelWriter(theSerializer).write(theModel, theWriter);
+
+		Model theReloadedModel = new StreamingXMLModelReader(theSerializer).read(new ByteArrayInputStream(theWriter
+				.toString().getBytes("UTF-8")));
+		assertEquals(theWriter.toString(), serialize(theSerializer, theReloadedModel));
+		assertEquals("GENERATED99", theReloadedModel.getTables().get(theReloadedModel.getTables().size() - 1)
+				.getName());
+		for (Relation theRelation : theReloadedModel.getRelations()) {
+			assertTrue(theReloadedModel.getTables().contains(theRelation.getImportingTable()));
+			assertTrue(theReloadedModel.getTables().contains(theRelation.getExportingTable()));
+		}
+	}
+
+	public void testSchemaIsCompiledOnce() throws ParserConfigurationException, SAXException {
+
+		XMLUtils theUtils = XMLUtils.getInstance();
+		assertSame(new XMLModel50Serializer(theUtils).getSchema(), new XMLModel50Serializer(theUtils).getSchema());
+	}
+
+	public void testDeferredValidation() throws ParserConfigurationException, SAXException, IOException {
+
+		String theDocument = "<Model version=\"5.0\"><Configuration/><Tables><Unknown/></Tables></Model>";
+
+		// Without validation the unknown element is just skipped
+		Model theModel = ModelIOUtilities.getInstance().deserializeModelFromXML(
+				new ByteArrayInputStream(theDocument.getBytes()), false);
+		assertEquals(0, theModel.getTables().size());
+
+		File theFile = File.createTempFile("model", ".mxm");
+		try {
+			FileOutputStream theStream = new FileOutputStream(theFile);
+			theStream.write(theDocument.getBytes());
+			theStream.close();
+
+			List<SAXParseException> theProblems = ModelIOUtilities.getInstance().validateModelXML(theFile);
+			assertEquals(1, theProblems.size());
+		} finally {
+			theFile.delete();
+		}
+	}
+
+	public void testParallelLoadAndSave() throws Exception {
+
+		final XMLUtils theUtils = XMLUtils.getInstance();
+		final String theExpected = serialize(new XMLModel50Serializer(theUtils), loadWithDOM(new XMLModel50Serializer(
+				theUtils)));
+
+		ExecutorService theExecutor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> theResults = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				final boolean theUseDOM = i % 2 == 0;
+				theResults.add(theExecutor.submit(new Callable<String>() {
+
+					@Override
+					public String call() throws Exception {
+						AbstractXMLModelSerializer theSerializer = new XMLModel50Serializer(theUtils);
+						Model theModel;
+						if (theUseDOM) {
+							Document theDocument = theUtils.parse(getClass().getResourceAsStream("examplemodel.mxm"));
+							theModel = theSerializer.deserializeModelFromXML(theDocument);
+						} else {
+							theModel = ModelIOUtilities.getInstance().deserializeModelFromXML(
+									getClass().getResourceAsStream("examplemodel.mxm"));
+						}
+						return serialize(theSerializer, theModel);
+					}
+				}));
+			}
+			for (Future<String> theResult : theResults) {
+				assertEquals(theExpected, theResult.get());
+			}
+		} finally {
+			theExecutor.shutdown();
+		}
+	}
+}
@@ -28,6 +28,9 @@ import de.erdesignerng.modificationtracker.HistoryModificationTracker;
 import de.erdesignerng.modificationtracker.VetoException;
 import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Base test class for all sql generators.
@@ -119,6 +122,27 @@ public abstract class AbstractDialectTestCase extends BaseERDesignerTestCaseImpl
         return theTable;
     }
 
+    protected Relation createReferenceRelation(Model aModel) throws ElementAlreadyExistsException,
+            ElementInvalidNameException, VetoException {
+        Table theExporting = createReferenceTable(aModel, "TESTTABLE1", true);
+        Table theImporting = createReferenceTable(aModel, "TESTTABLE2", true);
+
+        aModel.addTable(theExporting);
+        aModel.addTable(theImporting);
+
+        Relation theRelation = new Relation();
+        theRelation.setExportingTable(theExporting);
+        theRelation.setImportingTable(theImporting);
+        theRelation.setName("REL_1");
+        theRelation.setOnDelete(CascadeType.CASCADE);
+        theRelation.setOnUpdate(CascadeType.CASCADE);
+
+        Index theExportingPrimaryKey = theExporting.getPrimarykey();
+        theRelation.getMapping().put(theExportingPrimaryKey.getExpressions().findByAttributeName("PK1"),
+                theImporting.getAttributes().findByName("PK1"));
+        return theRelation;
+    }
+
     public void testCreateTableWithPKAndIndex() throws ElementAlreadyExistsException, ElementInvalidNameException,
             VetoException, IOException {
 
@@ -142,6 +166,102 @@ public abstract class AbstractDialectTestCase extends BaseERDesignerTestCaseImpl
         assertTrue(theStatements.equals(theReference));
     }
 
+    public void testWriteCreateAllObjects() throws Exception {
+
+        Model theModel = new Model();
+        theModel.setDialect(dialect);
+
+        Table theExporting = createReferenceTable(theModel, "TESTTABLE1", true);
+        Table theImporting = createReferenceTable(theModel, "TESTTABLE2", true);
+
+        theModel.addTable(theExporting);
+        theModel.addTable(theImporting);
+
+        Relation theRelation = new Relation();
+        theRelation.setExportingTable(theExporting);
+        theRelation.setImportingTable(theImporting);
+        theRelation.setName("REL_1");
+        theRelation.setOnDelete(CascadeType.CASCADE);
+        theRelation.setOnUpdate(CascadeType.CASCADE);
+
+        Index theExportingPrimaryKey = theExporting.getPrimarykey();
+        theRelation.getMapping().put(theExportingPrimaryKey.getExpressions().findByAttributeName("PK1"),
+                theImporting.getAttributes().findByName("PK1"));
+        theModel.addRelation(theRelation);
+
+        SQLGenerator theGenerator = dialect.createSQLGenerator();
+        StringWriter theWriter = new StringWriter();
+        theGenerator.writeCreateAllObjects(theModel, theWriter);
+
+        String theStatements = statementListToString(theGenerator.createCreateAllObjects(theModel), theGenerator);
+
+        assertEquals(theStatements, theWriter.toString().trim());
+    }
+
+    public void testCreateAllObjectsInParallel() throws Exception {
+
+        Model theModel = new Model();
+        theModel.setDialect(dialect);
+
+        Table thePrevious = null;
+        for (int i = 0; i < 50; i++) {
+            Table theTable = createReferenceTable(theModel, "TESTTABLE" + i, true);
+            theModel.addTable(theTable);
+
+            if (thePrevious != null) {
+                Relation theRelation = new Relation();
+                theRelation.setExportingTable(thePrevious);
+                theRelation.setImportingTable(theTable);
+                theRelation.setName("REL_" + i);
+                theRelation.setOnDelete(CascadeType.CASCADE);
+                theRelation.setOnUpdate(CascadeType.CASCADE);
+                theRelation.getMapping().put(thePrevious.getPrimarykey().getExpressions().findByAttributeName("PK1"),
+                        theTable.getAttributes().findByName("PK1"));
+                theModel.addRelation(theRelation);
+            }
+            thePrevious = theTable;
+        }
+
+        SQLGenerator theGenerator = dialect.createSQLGenerator();
+        String theSequential = statementListToString(theGenerator.createCreateAllObjects(theModel), theGenerator);
+        String theParallel = statementListToString(theGenerator.createCreateAllObjectsInParallel(theModel),
+                theGenerator);
+
+        assertEquals(theSequential, theParallel);
+    }
+
+    public void testCreateAllObjectsForBulkLoad() throws Exception {
+        Model theModel = new Model();
+        theModel.setDialect(dialect);
+        theModel.addRelation(createReferenceRelation(theModel));
+
+        SQLGenerator theGenerator = dialect.createSQLGenerator();
+        StatementList theStatements = theGenerator.createCreateAllObjects(theModel);
+        StatementList theBulkLoadStatements = theGenerator.createCreateAllObjectsForBulkLoad(theModel);
+
+        assertEquals(theStatements.size(), theBulkLoadStatements.size());
+
+        List<String> theExpected = new ArrayList<>();
+        theStatements.forEach(theStatement -> theExpected.add(theStatement.getSql()));
+        int thePostLoadStart = -1;
+        int theLastCreateTable = -1;
+        for (int i = 0; i < theBulkLoadStatements.size(); i++) {
+            String theSql = theBulkLoadStatements.get(i).getSql();
+            assertFalse(theSql, theSql.startsWith("--"));
+            if (theBulkLoadStatements.get(i).getComment() != null) {
+                assertEquals(SQLGenerator.POST_LOAD_SECTION_COMMENT, theBulkLoadStatements.get(i).getComment());
+                assertEquals(-1, thePostLoadStart);
+                thePostLoadStart = i;
+            }
+            if (theSql.startsWith("CREATE TABLE")) {
+                theLastCreateTable = i;
+            }
+            assertTrue(theSql, theExpected.remove(theSql));
+        }
+        assertTrue(theExpected.isEmpty());
+        assertTrue(thePostLoadStart > theLastCreateTable);
+    }
+
     public void testRenameAttribute() throws ElementAlreadyExistsException, ElementInvalidNameException, VetoException,
             IOException {
 
@@ -0,0 +1,190 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql;
+
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementExecutor;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base test class for the script execution, run against every embedded database.
+ */
+public abstract class AbstractStatementExecutorTestImpl extends BaseERDesignerTestCaseImpl {
+
+	protected abstract Connection createConnection() throws Exception;
+
+	private List<Statement> createInserts(int aCount) {
+		List<Statement> theResult = new ArrayList<>();
+		for (int i = 0; i < aCount; i++) {
+			theResult.add(new Statement("INSERT INTO TESTTABLE (ID) VALUES (" + i + ")"));
+		}
+		return theResult;
+	}
+
+	private int countRows(Connection aConnection) throws SQLException {
+		try (java.sql.Statement theStatement = aConnection.createStatement();
+			 ResultSet theResult = theStatement.executeQuery("SELECT COUNT(*) FROM TESTTABLE")) {
+			theResult.next();
+			return theResult.getInt(1);
+		}
+	}
+
+	private void execute(Connection aConnection, int aBatchSize, int aTransactionSize, List<Statement> aStatements)
+			throws SQLException {
+		StatementExecutor theExecutor = new StatementExecutor(aConnection);
+		theExecutor.setBatchSize(aBatchSize);
+		theExecutor.setTransactionSize(aTransactionSize);
+		theExecutor.execute(aStatements, null);
+	}
+
+	public void testBatchExecution() throws Exception {
+		try (Connection theConnection = createConnection()) {
+			try {
+				List<Statement> theStatements = new ArrayList<>();
+				theStatements.add(new Statement("CREATE TABLE TESTTABLE (ID INTEGER NOT NULL PRIMARY KEY)"));
+				theStatements.addAll(createInserts(25));
+
+				List<Statement> theExecuted = new ArrayList<>();
+				StatementExecutor theExecutor = new StatementExecutor(theConnection);
+				theExecutor.setBatchSize(10);
+				theExecutor.execute(theStatements, theExecuted::add);
+
+				assertEquals(theStatements, theExecuted);
+				for (Statement theStatement : theStatements) {
+					assertTrue(theStatement.isExecuted());
+					assertTrue(theStatement.getExecutionTime() >= 0);
+				}
+				assertEquals(25, countRows(theConnection));
+
+				// Executed statements are skipped
+				theExecutor.execute(theStatements, null);
+				assertEquals(25, countRows(theConnection));
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+
+	public void testBatchExecutionWithQuery() throws Exception {
+		try (Connection theConnection = createConnection()) {
+			try {
+				// Queries in a script cannot be batched
+				List<Statement> theStatements = new ArrayList<>();
+				theStatements.add(new Statement("CREATE TABLE TESTTABLE (ID INTEGER NOT NULL PRIMARY KEY)"));
+				theStatements.addAll(createInserts(5));
+				theStatements.add(new Statement("SELECT COUNT(*) FROM TESTTABLE"));
+				theStatements.add(new Statement("INSERT INTO TESTTABLE (ID) VALUES (100)"));
+
+				List<Statement> theExecuted = new ArrayList<>();
+				StatementExecutor theExecutor = new StatementExecutor(theConnection);
+				theExecutor.setBatchSize(100);
+				theExecutor.execute(theStatements, theExecuted::add);
+
+				assertEquals(theStatements, theExecuted);
+				assertEquals(6, countRows(theConnection));
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+
+	public void testTransactionRollback() throws Exception {
+		try (Connection theConnection = createConnection()) {
+			try {
+				theConnection.createStatement().execute("CREATE TABLE TESTTABLE (ID INTEGER NOT NULL PRIMARY KEY)");
+
+				// The last insert fails, the second transaction is rolled back
+				List<Statement> theStatements = createInserts(5);
+				theStatements.add(new Statement("INSERT INTO TESTTABLE (ID) VALUES (0)"));
+
+				try {
+					execute(theConnection, 1, 3, theStatements);
+					fail("The duplicate key must fail");
+				} catch (SQLException e) {
+					// Expected
+				}
+
+				assertEquals(3, countRows(theConnection));
+				for (int i = 0; i < theStatements.size(); i++) {
+					assertEquals(i < 3, theStatements.get(i).isExecuted());
+				}
+				assertTrue(theConnection.getAutoCommit());
+
+				// The same with batches
+				theConnection.createStatement().execute("DELETE FROM TESTTABLE");
+				for (Statement theStatement : theStatements) {
+					theStatement.setExecuted(false);
+				}
+				try {
+					execute(theConnection, 2, 3, theStatements);
+					fail("The duplicate key must fail");
+				} catch (SQLException e) {
+					// Expected
+				}
+
+				assertEquals(3, countRows(theConnection));
+				for (int i = 0; i < theStatements.size(); i++) {
+					assertEquals(i < 3, theStatements.get(i).isExecuted());
+				}
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+
+	public void testAutoCommitStatement() throws Exception {
+		try (Connection theConnection = createConnection()) {
+			try {
+				theConnection.createStatement().execute("CREATE TABLE TESTTABLE (ID INTEGER NOT NULL PRIMARY KEY)");
+
+				// The statement requiring auto commit commits the open
+				// transaction, so the failing last insert only rolls back
+				// itself
+				List<Statement> theStatements = createInserts(4);
+				Statement theAutoCommitStatement = new Statement("INSERT INTO TESTTABLE (ID) VALUES (100)");
+				theStatements.add(theAutoCommitStatement);
+				theStatements.add(new Statement("INSERT INTO TESTTABLE (ID) VALUES (0)"));
+
+				List<Statement> theExecuted = new ArrayList<>();
+				StatementExecutor theExecutor = new StatementExecutor(theConnection);
+				theExecutor.setBatchSize(2);
+				theExecutor.setTransactionSize(3);
+				theExecutor.setAutoCommitRequired(aStatement -> aStatement == theAutoCommitStatement);
+				try {
+					theExecutor.execute(theStatements, theExecuted::add);
+					fail("The duplicate key must fail");
+				} catch (SQLException e) {
+					// Expected
+				}
+
+				assertEquals(5, countRows(theConnection));
+				assertEquals(theStatements.subList(0, 5), theExecuted);
+				assertFalse(theStatements.get(5).isExecuted());
+				assertTrue(theConnection.getAutoCommit());
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql;
+
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.dialect.Dialect;
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.db2.DB2Dialect;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.dialect.hsqldb.HSQLDBDialect;
+import de.erdesignerng.dialect.msaccess.MSAccessDialect;
+import de.erdesignerng.dialect.mssql.MSSQLDialect;
+import de.erdesignerng.dialect.mysql.MySQLDialect;
+import de.erdesignerng.dialect.mysql.MySQLInnoDBDialect;
+import de.erdesignerng.dialect.oracle.OracleDialect;
+import de.erdesignerng.dialect.postgres.PostgresDialect;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CascadeType;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+import org.apache.commons.lang.ArrayUtils;
+
+import java.sql.Types;
+
+/**
+ * Test the parallel DDL generation against the sequential one for every
+ * dialect, including the dialects without a dialect test of their own.
+ */
+public class ParallelSQLGeneratorTest extends BaseERDesignerTestCaseImpl {
+
+    private DataType findDataType(Dialect aDialect, int aJdbcType) {
+        for (DataType theType : aDialect.getDataTypes()) {
+            if (!theType.isIdentity() && ArrayUtils.contains(theType.getJDBCType(), aJdbcType)) {
+                return theType;
+            }
+        }
+        throw new IllegalArgumentException(aDialect.getUniqueName() + " has no type for " + aJdbcType);
+    }
+
+    private Model createModel(Dialect aDialect) throws Exception {
+        Model theModel = new Model();
+        theModel.setDialect(aDialect);
+
+        DataType theTextType = findDataType(aDialect, Types.VARCHAR);
+        DataType theIntType = findDataType(aDialect, Types.INTEGER);
+
+        Table thePrevious = null;
+        for (int i = 0; i < 50; i++) {
+            Table theTable = new Table();
+            theTable.setName("TESTTABLE" + i);
+
+            Attribute<Table> thePK = new Attribute<>();
+            thePK.setName("PK1");
+            thePK.setDatatype(theTextType);
+            thePK.setSize(10);
+            thePK.setNullable(false);
+            theTable.addAttribute(theModel, thePK);
+
+            Attribute<Table> theAt1 = new Attribute<>();
+            theAt1.setName("AT1");
+            theAt1.setDatatype(theIntType);
+            theAt1.setNullable(true);
+            theTable.addAttribute(theModel, theAt1);
+
+            Index thePrimaryKey = new Index();
+            thePrimaryKey.setName("TESTTABLE" + i + "_PK");
+            thePrimaryKey.setIndexType(IndexType.PRIMARYKEY);
+            thePrimaryKey.getExpressions().addExpressionFor(thePK);
+            theTable.addIndex(theModel, thePrimaryKey);
+
+            Index theIndex = new Index();
+            theIndex.setName("TESTTABLE" + i + "_IDX1");
+            theIndex.setIndexType(IndexType.NONUNIQUE);
+            theIndex.getExpressions().addExpressionFor(theAt1);
+            theTable.addIndex(theModel, theIndex);
+
+            theModel.addTable(theTable);
+
+            if (thePrevious != null) {
+                Relation theRelation = new Relation();
+                theRelation.setExportingTable(thePrevious);
+                theRelation.setImportingTable(theTable);
+                theRelation.setName("REL_" + i);
+                theRelation.setOnDelete(CascadeType.CASCADE);
+                theRelation.setOnUpdate(CascadeType.CASCADE);
+                theRelation.getMapping().put(thePrevious.getPrimarykey().getExpressions().findByAttributeName("PK1"),
+                        thePK);
+                theModel.addRelation(theRelation);
+            }
+            thePrevious = theTable;
+        }
+        return theModel;
+    }
+
+    public void testCreateAllObjectsInParallelForAllDialects() throws Exception {
+        Dialect[] theDialects = {new DB2Dialect(), new H2Dialect(), new HSQLDBDialect(), new MSAccessDialect(),
+                new MSSQLDialect(), new MySQLDialect(), new MySQLInnoDBDialect(), new OracleDialect(),
+                new PostgresDialect()};
+
+        for (Dialect theDialect : theDialects) {
+            Model theModel = createModel(theDialect);
+
+            SQLGenerator theGenerator = theDialect.createSQLGenerator();
+            String theSequential = statementListToString(theGenerator.createCreateAllObjects(theModel), theGenerator);
+            String theParallel = statementListToString(theGenerator.createCreateAllObjectsInParallel(theModel),
+                    theGenerator);
+
+            assertEquals(theDialect.getUniqueName(), theSequential, theParallel);
+        }
+    }
+}
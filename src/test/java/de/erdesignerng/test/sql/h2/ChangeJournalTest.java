@@ -0,0 +1,121 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.modificationtracker.ChangeJournal;
+import de.erdesignerng.modificationtracker.HistoryModificationTracker;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.io.File;
+
+/**
+ * Test for the journal of saved change log statements.
+ */
+public class ChangeJournalTest extends BaseERDesignerTestCaseImpl {
+
+	private File file;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = File.createTempFile("changes", ".journal");
+		file.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+	private Attribute<Table> createAttribute(DataType aDataType, String aName) {
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setName(aName);
+		theAttribute.setDatatype(aDataType);
+		theAttribute.setSize(10);
+		theAttribute.setNullable(true);
+		return theAttribute;
+	}
+
+	public void testReadStatements() throws Exception {
+		ChangeJournal theJournal = new ChangeJournal(file);
+
+		StatementList theStatements = new StatementList();
+		theStatements.add(new Statement("CREATE TABLE A (\n  ID INTEGER\r\n)"));
+		theStatements.add(new Statement("COMMENT ON TABLE A IS 'C:\\TEMP'"));
+		theJournal.append(theStatements);
+
+		StatementList theResult = theJournal.readStatements();
+		assertEquals(2, theResult.size());
+		assertEquals(2, theJournal.getSavedCount());
+		for (int i = 0; i < theStatements.size(); i++) {
+			assertEquals(theStatements.get(i).getSql(), theResult.get(i).getSql());
+			assertTrue(theResult.get(i).isSaved());
+		}
+	}
+
+	public void testSavedStatementsAreMovedToTheJournal() throws Exception {
+		H2Dialect theDialect = new H2Dialect();
+		DataType theDataType = theDialect.getDataTypes().findByName("varchar");
+
+		Model theModel = new Model();
+		theModel.setDialect(theDialect);
+
+		Table theTable = new Table();
+		theTable.setName("TABLE1");
+		theTable.addAttribute(theModel, createAttribute(theDataType, "ID"));
+		theModel.addTable(theTable);
+
+		HistoryModificationTracker theTracker = new HistoryModificationTracker(theModel);
+		theTracker.setJournal(new ChangeJournal(file));
+		theModel.setModificationTracker(theTracker);
+
+		theModel.addAttributeToTable(theTable, createAttribute(theDataType, "NAME"));
+		theModel.renameTable(theTable, "TABLE2");
+
+		StatementList theNotSaved = theTracker.getNotSavedStatements();
+		assertEquals(2, theNotSaved.size());
+		theTracker.markAsSaved(theNotSaved);
+
+		assertEquals(0, theTracker.getNotSavedStatements().size());
+
+		theModel.addAttributeToTable(theTable, createAttribute(theDataType, "TITLE"));
+		assertEquals(1, theTracker.getNotSavedStatements().size());
+
+		// The complete change log contains the saved statements too
+		StatementList theStatements = theTracker.getStatements();
+		assertEquals(3, theStatements.size());
+		assertEquals(theNotSaved.get(0).getSql(), theStatements.get(0).getSql());
+		assertEquals(theNotSaved.get(1).getSql(), theStatements.get(1).getSql());
+		assertTrue(theStatements.get(1).isSaved());
+		assertFalse(theStatements.get(2).isSaved());
+		assertTrue(theStatements.get(2).getSql().contains("TITLE"));
+
+		StatementList theJournalStatements = theTracker.getJournal().readStatements();
+		assertEquals(2, theJournalStatements.size());
+		assertEquals(theNotSaved.get(0).getSql(), theJournalStatements.get(0).getSql());
+		assertEquals(theNotSaved.get(1).getSql(), theJournalStatements.get(1).getSql());
+	}
+}
@@ -0,0 +1,211 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.DataType;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.modificationtracker.HistoryModificationTracker;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+/**
+ * Test for the coalescing of the change log.
+ */
+public class ChangeLogCoalescingTest extends BaseERDesignerTestCaseImpl {
+
+	private Model model;
+
+	private HistoryModificationTracker tracker;
+
+	private DataType textDataType;
+
+	private Table table;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		H2Dialect theDialect = new H2Dialect();
+		textDataType = theDialect.getDataTypes().findByName("varchar");
+
+		model = new Model();
+		model.setDialect(theDialect);
+
+		table = new Table();
+		table.setName("TABLE1");
+		table.addAttribute(model, createAttribute("ID", 10));
+		model.addTable(table);
+
+		tracker = new HistoryModificationTracker(model);
+		model.setModificationTracker(tracker);
+	}
+
+	private Attribute<Table> createAttribute(String aName, int aSize) {
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setName(aName);
+		theAttribute.setDatatype(textDataType);
+		theAttribute.setSize(aSize);
+		theAttribute.setNullable(true);
+		return theAttribute;
+	}
+
+	private Attribute<Table> createChangedAttribute(String aName, int aSize) {
+		Attribute<Table> theAttribute = createAttribute(aName, aSize);
+		theAttribute.setOwner(table);
+		return theAttribute;
+	}
+
+	private String changeLog() {
+		StringBuilder theResult = new StringBuilder();
+		for (Statement theStatement : tracker.getStatements()) {
+			theResult.append(theStatement.getSql()).append(";");
+		}
+		return theResult.toString();
+	}
+
+	public void testAddAndRemoveCancelOut() throws Exception {
+		Attribute<Table> theAttribute = createAttribute("NAME", 20);
+		model.addAttributeToTable(table, theAttribute);
+
+		Index theIndex = new Index();
+		theIndex.setName("TABLE1_IDX1");
+		theIndex.setIndexType(IndexType.NONUNIQUE);
+		theIndex.getExpressions().addExpressionFor(theAttribute);
+		model.addIndexToTable(table, theIndex);
+
+		model.removeIndex(table, theIndex);
+		model.removeAttributeFromTable(table, theAttribute);
+
+		assertEquals("", changeLog());
+	}
+
+	public void testAddAndRemoveTableCancelOut() throws Exception {
+		Table theTable = new Table();
+		theTable.setName("TABLE2");
+		theTable.addAttribute(model, createAttribute("ID", 10));
+		model.addTable(theTable);
+		model.addAttributeToTable(theTable, createAttribute("NAME", 20));
+		model.renameTable(theTable, "TABLE3");
+
+		model.addAttributeToTable(table, createAttribute("NAME", 20));
+
+		model.removeTable(theTable);
+
+		assertEquals("ALTER TABLE TABLE1 ADD NAME varchar(20);", changeLog());
+	}
+
+	public void testRenamesAreMerged() throws Exception {
+		model.renameTable(table, "TABLE2");
+		model.renameTable(table, "TABLE3");
+
+		assertEquals("ALTER TABLE TABLE1 RENAME TO TABLE3;", changeLog());
+
+		model.renameTable(table, "TABLE1");
+
+		assertEquals("", changeLog());
+
+		Attribute<Table> theAttribute = table.getAttributes().findByName("ID");
+		model.renameAttribute(theAttribute, "ID2");
+		model.renameAttribute(theAttribute, "ID3");
+
+		assertEquals("ALTER TABLE TABLE1 ALTER COLUMN ID RENAME TO ID3;", changeLog());
+	}
+
+	public void testChangesAreMergedIntoAddition() throws Exception {
+		Attribute<Table> theAttribute = createAttribute("NAME", 20);
+		model.addAttributeToTable(table, theAttribute);
+		model.changeAttribute(theAttribute, createChangedAttribute("NAME", 30));
+		model.renameAttribute(theAttribute, "TITLE");
+
+		assertEquals("ALTER TABLE TABLE1 ADD TITLE varchar(30);", changeLog());
+	}
+
+	public void testCoalescingKeepsTheOrder() throws Exception {
+		Table theOtherTable = new Table();
+		theOtherTable.setName("TABLE2");
+		theOtherTable.addAttribute(model, createAttribute("ID", 10));
+		model.addTable(theOtherTable);
+
+		Attribute<Table> theAttribute = createAttribute("NAME", 20);
+		model.addAttributeToTable(table, theAttribute);
+
+		// A view and another table depend on the new column
+		View theView = new View();
+		theView.setName("VIEW1");
+		theView.setSql("SELECT NAME FROM TABLE1");
+		model.addView(theView);
+		model.addAttributeToTable(theOtherTable, createAttribute("NAME", 20));
+
+		model.changeAttribute(theAttribute, createChangedAttribute("NAME", 30));
+		model.renameAttribute(theAttribute, "TITLE");
+
+		theView.setSql("SELECT TITLE FROM TABLE1");
+		model.changeView(theView);
+
+		StatementList theStatements = tracker.getStatements();
+		assertEquals("ALTER TABLE TABLE1 ADD TITLE varchar(30)", theStatements.get(1).getSql());
+		assertTrue(theStatements.get(2).getSql(), theStatements.get(2).getSql().contains("VIEW1"));
+		assertTrue(theStatements.get(2).getSql(), theStatements.get(2).getSql().contains("SELECT TITLE FROM TABLE1"));
+		assertEquals("ALTER TABLE TABLE2 ADD NAME varchar(20)", theStatements.get(3).getSql());
+		assertEquals(4, theStatements.size());
+	}
+
+	public void testChangesAreMerged() throws Exception {
+		Attribute<Table> theAttribute = table.getAttributes().findByName("ID");
+		model.changeAttribute(theAttribute, createChangedAttribute("ID", 20));
+		model.changeAttribute(theAttribute, createChangedAttribute("ID", 30));
+
+		StatementList theExpected = model.getDialect().createSQLGenerator()
+				.createChangeAttributeStatement(createChangedAttribute("ID", 10), createChangedAttribute("ID", 30));
+		assertEquals(theExpected.size(), tracker.getStatements().size());
+		assertEquals(theExpected.get(0).getSql(), tracker.getStatements().get(0).getSql());
+
+		model.changeAttribute(theAttribute, createChangedAttribute("ID", 10));
+
+		assertEquals("", changeLog());
+	}
+
+	public void testSavedStatementsAreNotCoalesced() throws Exception {
+		Attribute<Table> theAttribute = createAttribute("NAME", 20);
+		model.addAttributeToTable(table, theAttribute);
+		for (Statement theStatement : tracker.getNotSavedStatements()) {
+			theStatement.setSaved(true);
+		}
+
+		model.removeAttributeFromTable(table, theAttribute);
+
+		assertEquals("ALTER TABLE TABLE1 ADD NAME varchar(20);ALTER TABLE TABLE1 DROP COLUMN NAME;", changeLog());
+	}
+
+	public void testCoalescingCanBeDisabled() throws Exception {
+		tracker.setCoalescing(false);
+
+		Attribute<Table> theAttribute = createAttribute("NAME", 20);
+		model.addAttributeToTable(table, theAttribute);
+		model.removeAttributeFromTable(table, theAttribute);
+
+		assertEquals(2, tracker.getStatements().size());
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.ExecutionCheckpointLog;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementExecutor;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test for resuming a failed script with the checkpoint log, executed against H2.
+ */
+public class ExecutionCheckpointLogTest extends BaseERDesignerTestCaseImpl {
+
+	private List<Statement> createScript() {
+		List<Statement> theResult = new ArrayList<>();
+		theResult.add(new Statement("CREATE TABLE TABLE1 (ID INTEGER NOT NULL PRIMARY KEY)"));
+		theResult.add(new Statement("INSERT INTO TABLE1 (ID) VALUES (1)"));
+		theResult.add(new Statement("INSERT INTO TABLE2 (ID) VALUES (1)"));
+		theResult.add(new Statement("INSERT INTO TABLE1 (ID) VALUES (2)"));
+		return theResult;
+	}
+
+	private void execute(Connection aConnection, ExecutionCheckpointLog aLog, List<Statement> aStatements)
+			throws SQLException {
+		new StatementExecutor(aConnection).execute(aStatements, theStatement -> {
+			try {
+				aLog.checkpoint(theStatement);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	public void testResume() throws Exception {
+		File theDirectory = Files.createTempDirectory("checkpoints").toFile();
+
+		Class.forName("org.h2.Driver");
+		try (Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:checkpoint", "sa", "")) {
+			try {
+				// The third statement fails, TABLE2 does not exist
+				List<Statement> theScript = createScript();
+				ExecutionCheckpointLog theLog = ExecutionCheckpointLog.open(theDirectory, "checkpoint", "script.sql", theScript);
+				try {
+					execute(theConnection, theLog, theScript);
+					fail("TABLE2 does not exist");
+				} catch (SQLException e) {
+					// Expected
+				} finally {
+					theLog.close();
+				}
+				assertTrue(theLog.getFile().exists());
+
+				// A new run of the same script continues with the failed statement
+				theConnection.createStatement().execute("CREATE TABLE TABLE2 (ID INTEGER)");
+
+				theScript = createScript();
+				theLog = ExecutionCheckpointLog.open(theDirectory, "checkpoint", "script.sql", theScript);
+				assertEquals(2, theLog.restore());
+				assertTrue(theScript.get(0).isExecuted());
+				assertTrue(theScript.get(1).isExecuted());
+				assertFalse(theScript.get(2).isExecuted());
+
+				try {
+					execute(theConnection, theLog, theScript);
+				} finally {
+					theLog.close();
+				}
+
+				// The log is removed after the script was completed
+				assertFalse(theLog.getFile().exists());
+
+				// Another database or script does not use the log
+				theLog = ExecutionCheckpointLog.open(theDirectory, "another", "script.sql", createScript());
+				assertEquals(0, theLog.restore());
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+
+	public void testResumeEditedScript() throws Exception {
+		File theDirectory = Files.createTempDirectory("checkpoints").toFile();
+
+		Class.forName("org.h2.Driver");
+		try (Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:checkpointedit", "sa", "")) {
+			try {
+				// The third statement fails, TABLE2 does not exist
+				List<Statement> theScript = createScript();
+				ExecutionCheckpointLog theLog = ExecutionCheckpointLog.open(theDirectory, "checkpoint", "script.sql",
+						theScript);
+				try {
+					execute(theConnection, theLog, theScript);
+					fail("TABLE2 does not exist");
+				} catch (SQLException e) {
+					// Expected
+				} finally {
+					theLog.close();
+				}
+
+				// Another script on the same database does not use the log
+				assertEquals(0, ExecutionCheckpointLog.open(theDirectory, "checkpoint", "other.sql", createScript())
+						.restore());
+
+				// The failed statement is fixed, the run continues with it
+				theScript = createScript();
+				theScript.set(2, new Statement("INSERT INTO TABLE1 (ID) VALUES (3)"));
+				theLog = ExecutionCheckpointLog.open(theDirectory, "checkpoint", "script.sql", theScript);
+				assertEquals(2, theLog.restore());
+				assertTrue(theScript.get(0).isExecuted());
+				assertTrue(theScript.get(1).isExecuted());
+				assertFalse(theScript.get(2).isExecuted());
+
+				try {
+					execute(theConnection, theLog, theScript);
+				} finally {
+					theLog.close();
+				}
+				assertFalse(theLog.getFile().exists());
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+}
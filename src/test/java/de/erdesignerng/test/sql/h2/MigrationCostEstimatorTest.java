@@ -0,0 +1,83 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.MigrationCost;
+import de.erdesignerng.dialect.MigrationCostEstimate;
+import de.erdesignerng.dialect.MigrationCostEstimator;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.dialect.h2.H2SQLGenerator;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test for the migration cost estimation with statistics, executed against H2.
+ */
+public class MigrationCostEstimatorTest extends BaseERDesignerTestCaseImpl {
+
+	public void testEstimateWithStatistics() throws Exception {
+		Class.forName("org.h2.Driver");
+		Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:estimator", "sa", "");
+		try {
+			java.sql.Statement theStatement = theConnection.createStatement();
+			theStatement.execute("CREATE TABLE TABLE1 (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(20))");
+			theStatement.execute("INSERT INTO TABLE1 (ID, NAME) VALUES (1, 'A'), (2, 'B'), (3, 'C')");
+			theStatement.close();
+
+			// H2 has no statistics, so the rows are counted
+			H2SQLGenerator theGenerator = new H2SQLGenerator(new H2Dialect()) {
+				@Override
+				public String createTableStatisticsQuery() {
+					return "SELECT COUNT(*), NULL FROM TABLE1 WHERE ? = 'TABLE1'";
+				}
+			};
+
+			List<Statement> theStatements = new ArrayList<>();
+			theStatements.add(new Statement("CREATE INDEX TABLE1_IDX1 ON \"TABLE1\" (NAME)"));
+			theStatements.add(new Statement("ALTER TABLE PUBLIC.TABLE1 ALTER COLUMN NAME VARCHAR(40)"));
+			theStatements.add(new Statement("ALTER TABLE TABLE1 RENAME TO TABLE2"));
+			new MigrationCostEstimator(theGenerator, theConnection).estimate(theStatements);
+
+			MigrationCostEstimate theEstimate = theStatements.get(0).getCostEstimate();
+			assertEquals(MigrationCost.INDEX_BUILD, theEstimate.getCost());
+			assertEquals("\"TABLE1\"", theEstimate.getTableName());
+			assertEquals(3, theEstimate.getRowCount());
+			assertEquals(MigrationCostEstimate.UNKNOWN, theEstimate.getSizeInBytes());
+
+			theEstimate = theStatements.get(1).getCostEstimate();
+			assertEquals(MigrationCost.TABLE_REWRITE, theEstimate.getCost());
+			assertEquals(3, theEstimate.getRowCount());
+
+			theEstimate = theStatements.get(2).getCostEstimate();
+			assertEquals(MigrationCost.METADATA_ONLY, theEstimate.getCost());
+			assertEquals(MigrationCostEstimate.UNKNOWN, theEstimate.getRowCount());
+
+			// Without a statistics query, the JDBC metadata is used
+			theEstimate = new MigrationCostEstimator(new H2SQLGenerator(new H2Dialect()), theConnection)
+					.estimate(theStatements.get(1));
+			assertEquals(MigrationCost.TABLE_REWRITE, theEstimate.getCost());
+		} finally {
+			theConnection.close();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.Dialect;
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CascadeType;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.ModelIOUtilities;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.model.View;
+import de.erdesignerng.model.utils.MigrationScriptGenerator;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+/**
+ * Test for the incremental migration script generation, executed against H2.
+ */
+public class MigrationScriptGeneratorTest extends BaseERDesignerTestCaseImpl {
+
+	private final Dialect dialect = new H2Dialect();
+
+	private Attribute<Table> addAttribute(Model aModel, Table aTable, String aName, String aType, Integer aSize)
+			throws Exception {
+		Attribute<Table> theAttribute = new Attribute<>();
+		theAttribute.setName(aName);
+		theAttribute.setDatatype(dialect.getDataTypes().findByName(aType));
+		theAttribute.setSize(aSize);
+		theAttribute.setNullable(false);
+		aTable.addAttribute(aModel, theAttribute);
+		return theAttribute;
+	}
+
+	private Model createSourceModel() throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+
+		Table theMaster = new Table();
+		theMaster.setName("MASTER");
+		Attribute<Table> theMasterId = addAttribute(theModel, theMaster, "ID", "varchar", 10);
+		addAttribute(theModel, theMaster, "NAME", "varchar", 20);
+		Index thePK = new Index();
+		thePK.setName("MASTER_PK");
+		thePK.setIndexType(IndexType.PRIMARYKEY);
+		thePK.getExpressions().addExpressionFor(theMasterId);
+		theMaster.addIndex(theModel, thePK);
+		theModel.addTable(theMaster);
+
+		Table theDetail = new Table();
+		theDetail.setName("DETAIL");
+		addAttribute(theModel, theDetail, "ID", "integer", null);
+		Attribute<Table> theMasterRef = addAttribute(theModel, theDetail, "MASTER_ID", "varchar", 10);
+		Attribute<Table> theText = addAttribute(theModel, theDetail, "TEXT", "varchar", 20);
+		Index theIndex = new Index();
+		theIndex.setName("DETAIL_IDX1");
+		theIndex.setIndexType(IndexType.NONUNIQUE);
+		theIndex.getExpressions().addExpressionFor(theText);
+		theDetail.addIndex(theModel, theIndex);
+		theModel.addTable(theDetail);
+
+		Relation theRelation = new Relation();
+		theRelation.setName("DETAIL_FK1");
+		theRelation.setExportingTable(theMaster);
+		theRelation.setImportingTable(theDetail);
+		theRelation.setOnDelete(CascadeType.NOTHING);
+		theRelation.setOnUpdate(CascadeType.NOTHING);
+		theRelation.getMapping().put(thePK.getExpressions().get(0), theMasterRef);
+		theModel.addRelation(theRelation);
+
+		return theModel;
+	}
+
+	private void addView(Model aModel, String aName, String aSql) throws Exception {
+		View theView = new View();
+		theView.setName(aName);
+		theView.setSql(aSql);
+		aModel.addView(theView);
+	}
+
+	private Model copyOf(Model aModel) throws Exception {
+		StringWriter theWriter = new StringWriter();
+		ModelIOUtilities.getInstance().serializeModelToXML(aModel, theWriter);
+		return ModelIOUtilities.getInstance().deserializeModelFromXML(
+				new ByteArrayInputStream(theWriter.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private void execute(Connection aConnection, StatementList aStatements) throws Exception {
+		for (Statement theStatement : aStatements) {
+			java.sql.Statement theJDBCStatement = aConnection.createStatement();
+			theJDBCStatement.execute(theStatement.getSql());
+			theJDBCStatement.close();
+		}
+	}
+
+	public void testUnchangedModel() throws Exception {
+		Model theSource = createSourceModel();
+
+		StatementList theStatements = new MigrationScriptGenerator(dialect.createSQLGenerator())
+				.createMigrationStatements(theSource, copyOf(theSource));
+
+		assertTrue(theStatements.isEmpty());
+	}
+
+	public void testMigration() throws Exception {
+		Model theSource = createSourceModel();
+		Model theTarget = copyOf(theSource);
+
+		// Renamed column, new column, dropped index and a changed key column
+		Table theDetail = theTarget.getTables().findByName("DETAIL");
+		theDetail.getAttributes().findByName("TEXT").setName("DESCRIPTION");
+		addAttribute(theTarget, theDetail, "CREATED", "varchar", 30);
+		theDetail.getIndexes().remove(theDetail.getIndexes().findByName("DETAIL_IDX1"));
+
+		theTarget.getTables().findByName("MASTER").getAttributes().findByName("ID").setSize(20);
+		theDetail.getAttributes().findByName("MASTER_ID").setSize(20);
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		StatementList theStatements = new MigrationScriptGenerator(theGenerator).createMigrationStatements(
+				theSource, theTarget);
+
+		String theScript = statementListToString(theStatements, theGenerator);
+		assertTrue(compareStrings(theScript, "ALTER TABLE DETAIL DROP CONSTRAINT DETAIL_FK1;"
+				+ "ALTER TABLE MASTER DROP CONSTRAINT MASTER_PK;"
+				+ "DROP INDEX DETAIL_IDX1;"
+				+ "ALTER TABLE MASTER ALTER COLUMN ID varchar(20) NOT NULL;"
+				+ "ALTER TABLE DETAIL ALTER COLUMN MASTER_ID varchar(20) NOT NULL;"
+				+ "ALTER TABLE DETAIL ADD CREATED varchar(30) NOT NULL;"
+				+ "ALTER TABLE DETAIL ALTER COLUMN TEXT RENAME TO DESCRIPTION;"
+				+ "CREATE PRIMARY KEY ON MASTER(ID);"
+				+ "ALTER TABLE DETAIL ADD CONSTRAINT DETAIL_FK1 FOREIGN KEY (MASTER_ID) REFERENCES MASTER(ID) "
+				+ "ON DELETE NO ACTION ON UPDATE NO ACTION;"));
+
+	}
+
+	public void testMigrationExecutes() throws Exception {
+		Model theSource = createSourceModel();
+		Model theTarget = copyOf(theSource);
+
+		// H2 creates unnamed primary keys, so this script leaves them untouched
+		Table theDetail = theTarget.getTables().findByName("DETAIL");
+		theDetail.getAttributes().findByName("TEXT").setName("DESCRIPTION");
+		theDetail.getAttributes().findByName("DESCRIPTION").setSize(40);
+		addAttribute(theTarget, theDetail, "CREATED", "varchar", 30);
+		theTarget.getTables().findByName("MASTER").setName("MASTER_NEW");
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		StatementList theStatements = new MigrationScriptGenerator(theGenerator).createMigrationStatements(
+				theSource, theTarget);
+
+		Class.forName("org.h2.Driver");
+		try (Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:migration", "sa", "")) {
+			execute(theConnection, theGenerator.createCreateAllObjects(theSource));
+			execute(theConnection, theStatements);
+			theConnection.createStatement().execute("SELECT ID, MASTER_ID, DESCRIPTION, CREATED FROM DETAIL");
+			theConnection.createStatement().execute("SELECT ID, NAME FROM MASTER_NEW");
+			theConnection.createStatement().execute("SHUTDOWN");
+		}
+	}
+
+	public void testViewsOnAlteredTables() throws Exception {
+		Model theSource = createSourceModel();
+		addView(theSource, "V_MASTER", "SELECT ID, NAME FROM MASTER");
+		addView(theSource, "V_NAMES", "SELECT NAME FROM v_master");
+		addView(theSource, "V_DETAIL", "SELECT ID, TEXT FROM DETAIL");
+		Model theTarget = copyOf(theSource);
+
+		theTarget.getTables().findByName("MASTER").getAttributes().findByName("NAME").setSize(40);
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		StatementList theStatements = new MigrationScriptGenerator(theGenerator).createMigrationStatements(
+				theSource, theTarget);
+
+		String theScript = statementListToString(theStatements, theGenerator);
+		assertTrue(compareStrings(theScript, "DROP VIEW V_NAMES;"
+				+ "DROP VIEW V_MASTER;"
+				+ "ALTER TABLE MASTER ALTER COLUMN NAME varchar(40) NOT NULL;"
+				+ "CREATE VIEW V_MASTER AS SELECT ID, NAME FROM MASTER;"
+				+ "CREATE VIEW V_NAMES AS SELECT NAME FROM v_master;"));
+
+		Class.forName("org.h2.Driver");
+		try (Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:views", "sa", "")) {
+			execute(theConnection, theGenerator.createCreateAllObjects(theSource));
+			execute(theConnection, theStatements);
+			theConnection.createStatement().execute("SELECT NAME FROM V_NAMES");
+			theConnection.createStatement().execute("SHUTDOWN");
+		}
+	}
+}
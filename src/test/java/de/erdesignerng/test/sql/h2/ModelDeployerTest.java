@@ -0,0 +1,155 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.ConnectionProvider;
+import de.erdesignerng.dialect.DeploymentFailure;
+import de.erdesignerng.dialect.Dialect;
+import de.erdesignerng.dialect.ModelDeployer;
+import de.erdesignerng.dialect.h2.H2Dialect;
+import de.erdesignerng.model.Attribute;
+import de.erdesignerng.model.CascadeType;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.IndexType;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Test for the parallel deployment of a model, executed against H2.
+ */
+public class ModelDeployerTest extends BaseERDesignerTestCaseImpl {
+
+	private static final String URL = "jdbc:h2:mem:deployment";
+
+	private final Dialect dialect = new H2Dialect();
+
+	private final ConnectionProvider connectionProvider = new ConnectionProvider() {
+
+		@Override
+		public Connection createConnection() throws Exception {
+			Class.forName("org.h2.Driver");
+			return DriverManager.getConnection(URL, "sa", "");
+		}
+
+		@Override
+		public boolean generatesManagedConnection() {
+			return false;
+		}
+
+		@Override
+		public String createScriptStatementSeparator() {
+			return ";";
+		}
+	};
+
+	private Model createModel(int aTableCount) throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+
+		Table thePrevious = null;
+		for (int i = 0; i < aTableCount; i++) {
+			Table theTable = new Table();
+			theTable.setName("TABLE" + i);
+
+			Attribute<Table> theId = new Attribute<>();
+			theId.setName("ID");
+			theId.setDatatype(dialect.getDataTypes().findByName("integer"));
+			theId.setNullable(false);
+			theTable.addAttribute(theModel, theId);
+
+			Attribute<Table> theParent = new Attribute<>();
+			theParent.setName("PARENT_ID");
+			theParent.setDatatype(dialect.getDataTypes().findByName("integer"));
+			theTable.addAttribute(theModel, theParent);
+
+			Index thePK = new Index();
+			thePK.setName("TABLE" + i + "_PK");
+			thePK.setIndexType(IndexType.PRIMARYKEY);
+			thePK.getExpressions().addExpressionFor(theId);
+			theTable.addIndex(theModel, thePK);
+
+			Index theIndex = new Index();
+			theIndex.setName("TABLE" + i + "_IDX");
+			theIndex.setIndexType(IndexType.NONUNIQUE);
+			theIndex.getExpressions().addExpressionFor(theParent);
+			theTable.addIndex(theModel, theIndex);
+
+			theModel.addTable(theTable);
+
+			if (thePrevious != null) {
+				Relation theRelation = new Relation();
+				theRelation.setName("TABLE" + i + "_FK");
+				theRelation.setExportingTable(thePrevious);
+				theRelation.setImportingTable(theTable);
+				theRelation.setOnDelete(CascadeType.NOTHING);
+				theRelation.setOnUpdate(CascadeType.NOTHING);
+				theRelation.getMapping().put(thePrevious.getPrimarykey().getExpressions().get(0), theParent);
+				theModel.addRelation(theRelation);
+			}
+			thePrevious = theTable;
+		}
+		return theModel;
+	}
+
+	private int count(Connection aConnection, String aSQL) throws Exception {
+		try (ResultSet theResult = aConnection.createStatement().executeQuery(aSQL)) {
+			theResult.next();
+			return theResult.getInt(1);
+		}
+	}
+
+	public void testDeploy() throws Exception {
+		// Keeps the in memory database alive during the test
+		try (Connection theConnection = connectionProvider.createConnection()) {
+			try {
+				// This table exists, so its creation fails
+				theConnection.createStatement().execute("CREATE TABLE TABLE5 (X INTEGER)");
+
+				Model theModel = createModel(20);
+				ModelDeployer theDeployer = new ModelDeployer(connectionProvider, dialect.createSQLGenerator(), 4);
+				List<DeploymentFailure> theFailures = theDeployer.deploy(theModel);
+
+				// The table fails, both relations are skipped
+				assertEquals(3, theFailures.size());
+				assertEquals("TABLE5", theFailures.get(0).getObjectName());
+				assertFalse(theFailures.get(0).isSkipped());
+				assertNotNull(theFailures.get(0).getStatement());
+				assertTrue(theFailures.get(1).isSkipped());
+				assertEquals("table TABLE5 failed", theFailures.get(1).getReason());
+				assertTrue(theFailures.get(2).isSkipped());
+				assertEquals("table TABLE5 failed", theFailures.get(2).getReason());
+
+				assertEquals(20, count(theConnection,
+						"SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'"));
+				assertEquals(17, count(theConnection,
+						"SELECT COUNT(*) FROM INFORMATION_SCHEMA.CONSTRAINTS WHERE CONSTRAINT_TYPE = 'REFERENTIAL'"));
+				assertEquals(19, count(theConnection,
+						"SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME LIKE 'TABLE%IDX'"));
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+}
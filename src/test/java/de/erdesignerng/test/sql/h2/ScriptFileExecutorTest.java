@@ -0,0 +1,180 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.dialect.ExecutionCheckpointLog;
+import de.erdesignerng.dialect.SQLScriptReader;
+import de.erdesignerng.dialect.ScriptExecutionException;
+import de.erdesignerng.dialect.ScriptFileExecutor;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementExecutor;
+import de.erdesignerng.test.BaseERDesignerTestCaseImpl;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test for the streaming execution of script files, executed against H2.
+ */
+public class ScriptFileExecutorTest extends BaseERDesignerTestCaseImpl {
+
+	public void testSplitStatements() throws Exception {
+		String theScript = "CREATE TABLE T1 (ID INTEGER);\n"
+				+ "-- a comment; with separator\n"
+				+ "INSERT INTO T1 VALUES ('a;b');\n"
+				+ "/* block; comment */;\n"
+				+ "INSERT INTO \"T;1\" VALUES ('it''s');\n"
+				+ "\n;;\n"
+				+ "SELECT 1";
+
+		List<String> theStatements = new ArrayList<>();
+		try (SQLScriptReader theReader = new SQLScriptReader(new StringReader(theScript), ";")) {
+			Statement theStatement;
+			while ((theStatement = theReader.readStatement()) != null) {
+				theStatements.add(theStatement.getSql());
+			}
+			assertEquals(4, theReader.getStatementCount());
+		}
+
+		assertEquals(4, theStatements.size());
+		assertEquals("CREATE TABLE T1 (ID INTEGER)", theStatements.get(0));
+		assertEquals("-- a comment; with separator\nINSERT INTO T1 VALUES ('a;b')", theStatements.get(1));
+		assertEquals("INSERT INTO \"T;1\" VALUES ('it''s')", theStatements.get(2));
+		assertEquals("SELECT 1", theStatements.get(3));
+	}
+
+	public void testExecuteFile() throws Exception {
+		File theFile = File.createTempFile("script", ".sql");
+		theFile.deleteOnExit();
+		try (PrintWriter theWriter = new PrintWriter(new FileWriter(theFile))) {
+			theWriter.println("CREATE TABLE TESTTABLE (ID INTEGER NOT NULL PRIMARY KEY, NAME VARCHAR(20));");
+			for (int i = 0; i < 2500; i++) {
+				theWriter.println("INSERT INTO TESTTABLE (ID, NAME) VALUES (" + i + ", 'Name;" + i + "');");
+			}
+			// Statement 2502 fails
+			theWriter.println("INSERT INTO MISSING (ID) VALUES (1);");
+			theWriter.println("INSERT INTO TESTTABLE (ID, NAME) VALUES (2500, 'Last');");
+		}
+
+		Class.forName("org.h2.Driver");
+		try (Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:scriptfile", "sa", "")) {
+			try {
+				StatementExecutor theExecutor = new StatementExecutor(theConnection);
+				theExecutor.setBatchSize(100);
+				theExecutor.setTransactionSize(100);
+				ScriptFileExecutor theFileExecutor = new ScriptFileExecutor(theExecutor, ";",
+						StandardCharsets.UTF_8);
+
+				List<long[]> theProgress = new ArrayList<>();
+				long theFailedStatement = 0;
+				try {
+					theFileExecutor.execute(theFile, 0, (aBytesRead, aTotalBytes, aStatementCount) -> theProgress
+							.add(new long[]{aBytesRead, aTotalBytes, aStatementCount}));
+					fail("The table does not exist");
+				} catch (ScriptExecutionException e) {
+					theFailedStatement = e.getStatementNumber();
+				}
+				// The last transaction starts with statement 2501 and was rolled back
+				assertEquals(2501, theFailedStatement);
+				assertEquals(2, theProgress.size());
+				assertEquals(1000, theProgress.get(0)[2]);
+				assertEquals(2000, theProgress.get(1)[2]);
+				assertTrue(theProgress.get(1)[0] > theProgress.get(0)[0]);
+				assertEquals(theFile.length(), theProgress.get(0)[1]);
+
+				// Continue with the rolled back transaction
+				theConnection.createStatement().execute("CREATE TABLE MISSING (ID INTEGER)");
+				assertEquals(2503, theFileExecutor.execute(theFile, theFailedStatement - 1, null));
+
+				try (ResultSet theResult = theConnection.createStatement().executeQuery(
+						"SELECT COUNT(*) FROM TESTTABLE")) {
+					theResult.next();
+					assertEquals(2501, theResult.getInt(1));
+				}
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+
+	public void testContinueFromCheckpointLog() throws Exception {
+		File theFile = File.createTempFile("script", ".sql");
+		theFile.deleteOnExit();
+		try (PrintWriter theWriter = new PrintWriter(new FileWriter(theFile))) {
+			theWriter.println("CREATE TABLE TESTTABLE (ID INTEGER NOT NULL PRIMARY KEY);");
+			for (int i = 0; i < 1500; i++) {
+				theWriter.println("INSERT INTO TESTTABLE (ID) VALUES (" + i + ");");
+			}
+			// Statement 1502 fails
+			theWriter.println("INSERT INTO MISSING (ID) VALUES (1);");
+			theWriter.println("INSERT INTO TESTTABLE (ID) VALUES (1500);");
+		}
+		File theDirectory = new File(System.getProperty("java.io.tmpdir"), "checkpoints" + System.nanoTime());
+
+		Class.forName("org.h2.Driver");
+		try (Connection theConnection = DriverManager.getConnection("jdbc:h2:mem:scriptlog", "sa", "")) {
+			try {
+				StatementExecutor theExecutor = new StatementExecutor(theConnection);
+				theExecutor.setBatchSize(100);
+				theExecutor.setTransactionSize(100);
+				ScriptFileExecutor theFileExecutor = new ScriptFileExecutor(theExecutor, ";",
+						StandardCharsets.UTF_8);
+
+				ExecutionCheckpointLog theLog = ExecutionCheckpointLog.open(theDirectory, "h2", theFile.getPath(),
+						Collections.emptyList());
+				try {
+					theFileExecutor.execute(theFile, theLog, null);
+					fail("The table does not exist");
+				} catch (ScriptExecutionException e) {
+					assertEquals(1501, e.getStatementNumber());
+				} finally {
+					theLog.close();
+				}
+				assertEquals(1500, theLog.getEntryCount());
+
+				// A new run skips the recorded statements, including the ones
+				// of the first window
+				theConnection.createStatement().execute("CREATE TABLE MISSING (ID INTEGER)");
+				theLog = ExecutionCheckpointLog.open(theDirectory, "h2", theFile.getPath(), Collections.emptyList());
+				try {
+					assertEquals(1503, theFileExecutor.execute(theFile, theLog, null));
+				} finally {
+					theLog.close();
+				}
+				assertFalse(theLog.getFile().exists());
+
+				try (ResultSet theResult = theConnection.createStatement().executeQuery(
+						"SELECT COUNT(*) FROM TESTTABLE")) {
+					theResult.next();
+					assertEquals(1501, theResult.getInt(1));
+				}
+			} finally {
+				theConnection.createStatement().execute("SHUTDOWN");
+			}
+		}
+	}
+}
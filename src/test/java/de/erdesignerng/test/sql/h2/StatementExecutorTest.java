@@ -0,0 +1,32 @@
+/**
+ * Mogwai ERDesigner. Copyright (C) 2002 The Mogwai Project.
+ * 
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 59 Temple
+ * Place - Suite 330, Boston, MA 02111-1307, USA.
+ */
+package de.erdesignerng.test.sql.h2;
+
+import de.erdesignerng.test.sql.AbstractStatementExecutorTestImpl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+public class StatementExecutorTest extends AbstractStatementExecutorTestImpl {
+
+	@Override
+	protected Connection createConnection() throws Exception {
+		Class.forName("org.h2.Driver");
+		return DriverManager.getConnection("jdbc:h2:mem:executor", "sa", "");
+	}
+}
@@ -17,7 +17,14 @@
  */
 package de.erdesignerng.test.sql.mssql;
 
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.mssql.MSSQLDialect;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
 import de.erdesignerng.test.sql.AbstractDialectTestCase;
 
 /**
@@ -37,4 +44,45 @@ public class MSSQLDialectTest extends AbstractDialectTestCase {
 		intDataType = dialect.getDataTypes().findByName("int");
 		basePath = "/de/erdesignerng/test/sql/mssql/";
 	}
+
+	public void testCombinedAlterTableStatements() {
+		StatementList theStatements = new StatementList();
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ADD AT1 varchar(20)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ADD AT2 int NOT NULL"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP COLUMN AT3"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP COLUMN AT4"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ALTER COLUMN AT1 varchar(30)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE2 ADD AT1 int"));
+		theStatements.add(new Statement("ALTER TABLE TABLE2 DROP COLUMN AT2"));
+		theStatements.add(new Statement("CREATE INDEX IDX1 ON TABLE2 (AT1)"));
+
+		StatementList theResult = dialect.createSQLGenerator().createCombinedAlterTableStatements(theStatements);
+
+		assertEquals(6, theResult.size());
+		assertEquals("ALTER TABLE TABLE1 ADD AT1 varchar(20), AT2 int NOT NULL", theResult.get(0).getSql());
+		assertEquals("ALTER TABLE TABLE1 DROP COLUMN AT3, AT4", theResult.get(1).getSql());
+		assertSame(theStatements.get(4), theResult.get(2));
+		assertSame(theStatements.get(5), theResult.get(3));
+		assertSame(theStatements.get(6), theResult.get(4));
+		assertSame(theStatements.get(7), theResult.get(5));
+	}
+
+	public void testOnlineDDL() throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+		Relation theRelation = createReferenceRelation(theModel);
+		Table theTable = theRelation.getImportingTable();
+		Index theIndex = theTable.getIndexes().findByName("TESTTABLE2_IDX1");
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		theGenerator.setOnlineDDL(true);
+
+		assertTrue(theGenerator.createAddIndexToTableStatement(theTable, theIndex).get(0).getSql().startsWith(
+				"CREATE INDEX TESTTABLE2_IDX1 ON TESTTABLE2 (AT2) WITH (ONLINE = ON)"));
+
+		StatementList theStatements = theGenerator.createAddRelationStatement(theRelation);
+		assertEquals(2, theStatements.size());
+		assertTrue(theStatements.get(0).getSql().startsWith("ALTER TABLE TESTTABLE2 WITH NOCHECK ADD CONSTRAINT REL_1 "));
+		assertEquals("ALTER TABLE TESTTABLE2 WITH CHECK CHECK CONSTRAINT REL_1", theStatements.get(1).getSql());
+	}
 }
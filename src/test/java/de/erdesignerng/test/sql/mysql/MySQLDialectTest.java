@@ -17,7 +17,15 @@
  */
 package de.erdesignerng.test.sql.mysql;
 
+import de.erdesignerng.dialect.MigrationCost;
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.mysql.MySQLDialect;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
 import de.erdesignerng.test.sql.AbstractDialectTestCase;
 
 /**
@@ -37,4 +45,72 @@ public class MySQLDialectTest extends AbstractDialectTestCase {
 		intDataType = dialect.getDataTypes().findByName("INTEGER");
 		basePath = "/de/erdesignerng/test/sql/mysql/";
 	}
+
+	public void testCombinedAlterTableStatements() {
+		StatementList theStatements = new StatementList();
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ADD AT1 VARCHAR(20)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 MODIFY AT2 INTEGER NOT NULL"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP COLUMN AT3"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 MODIFY AT1 VARCHAR(30)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP FOREIGN KEY FK1"));
+		theStatements.add(new Statement("ALTER TABLE TABLE2 ADD AT1 INTEGER"));
+		theStatements.add(new Statement("ALTER TABLE TABLE2 ADD AT2 INTEGER"));
+		theStatements.add(new Statement("CREATE INDEX IDX1 ON TABLE2 (AT1)"));
+
+		StatementList theResult = dialect.createSQLGenerator().createCombinedAlterTableStatements(theStatements);
+
+		assertEquals(5, theResult.size());
+		assertEquals("ALTER TABLE TABLE1 ADD AT1 VARCHAR(20), MODIFY AT2 INTEGER NOT NULL, DROP COLUMN AT3",
+				theResult.get(0).getSql());
+		assertEquals("ALTER TABLE TABLE1 MODIFY AT1 VARCHAR(30)", theResult.get(1).getSql());
+		assertSame(theStatements.get(4), theResult.get(2));
+		assertEquals("ALTER TABLE TABLE2 ADD AT1 INTEGER, ADD AT2 INTEGER", theResult.get(3).getSql());
+		assertSame(theStatements.get(7), theResult.get(4));
+	}
+
+	public void testOnlineDDL() throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+		Relation theRelation = createReferenceRelation(theModel);
+		Table theTable = theRelation.getImportingTable();
+		Index theIndex = theTable.getIndexes().findByName("TESTTABLE2_IDX1");
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		theGenerator.setOnlineDDL(true);
+
+		assertEquals("CREATE INDEX TESTTABLE2_IDX1 ON TESTTABLE2 (AT2) ALGORITHM=INPLACE LOCK=NONE",
+				theGenerator.createAddIndexToTableStatement(theTable, theIndex).get(0).getSql());
+		assertEquals("ALTER TABLE TESTTABLE2 DROP COLUMN AT1, ALGORITHM=INPLACE, LOCK=NONE",
+				theGenerator.createRemoveAttributeFromTableStatement(theTable,
+						theTable.getAttributes().findByName("AT1")).get(0).getSql());
+
+		StatementList theStatements = new StatementList();
+		theStatements.addAll(theGenerator.createRemoveAttributeFromTableStatement(theTable,
+				theTable.getAttributes().findByName("AT1")));
+		theStatements.addAll(theGenerator.createRemoveAttributeFromTableStatement(theTable,
+				theTable.getAttributes().findByName("AT3")));
+		assertEquals("ALTER TABLE TESTTABLE2 DROP COLUMN AT1, DROP COLUMN AT3, ALGORITHM=INPLACE, LOCK=NONE",
+				theGenerator.createCombinedAlterTableStatements(theStatements).get(0).getSql());
+	}
+
+	public void testEstimateMigrationCost() throws Exception {
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 ADD NEWCOLUMN int, ADD OTHERCOLUMN int")));
+		assertEquals(MigrationCost.TABLE_REWRITE, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 ADD NEWCOLUMN int, ALGORITHM=INPLACE, LOCK=NONE")));
+		assertEquals(MigrationCost.INDEX_BUILD, theGenerator.estimateMigrationCost(new Statement(
+				"CREATE UNIQUE INDEX TESTTABLE2_IDX1 ON TESTTABLE2 (AT2) ALGORITHM=INPLACE LOCK=NONE")));
+		assertEquals(MigrationCost.TABLE_REWRITE, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 ADD CONSTRAINT REL_1 FOREIGN KEY (AT1) REFERENCES TESTTABLE1 (AT1)")));
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 DROP FOREIGN KEY REL_1")));
+		assertEquals(MigrationCost.TABLE_REWRITE, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 DROP PRIMARY KEY")));
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 CHANGE AT1 AT3 varchar(20)")));
+		assertEquals(MigrationCost.TABLE_REWRITE, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 MODIFY AT1 varchar(40)")));
+	}
 }
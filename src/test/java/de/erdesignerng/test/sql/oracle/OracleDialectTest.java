@@ -17,7 +17,14 @@
  */
 package de.erdesignerng.test.sql.oracle;
 
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.oracle.OracleDialect;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
 import de.erdesignerng.test.sql.AbstractDialectTestCase;
 
 /**
@@ -37,4 +44,42 @@ public class OracleDialectTest extends AbstractDialectTestCase {
 		intDataType = dialect.getDataTypes().findByName("LONG");
 		basePath = "/de/erdesignerng/test/sql/oracle/";
 	}
+
+	public void testCombinedAlterTableStatements() {
+		StatementList theStatements = new StatementList();
+		theStatements.add(new Statement("ALTER TABLE TABLE1 MODIFY AT1 VARCHAR2(20)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 MODIFY AT2 NUMBER NOT NULL"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ADD AT3 VARCHAR2(10)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ADD AT4 VARCHAR2(10)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP COLUMN AT5"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP COLUMN AT6"));
+
+		StatementList theResult = dialect.createSQLGenerator().createCombinedAlterTableStatements(theStatements);
+
+		assertEquals(3, theResult.size());
+		assertEquals("ALTER TABLE TABLE1 MODIFY (AT1 VARCHAR2(20), AT2 NUMBER NOT NULL)", theResult.get(0).getSql());
+		assertEquals("ALTER TABLE TABLE1 ADD (AT3 VARCHAR2(10), AT4 VARCHAR2(10))", theResult.get(1).getSql());
+		assertEquals("ALTER TABLE TABLE1 DROP (AT5, AT6)", theResult.get(2).getSql());
+	}
+
+	public void testOnlineDDL() throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+		Relation theRelation = createReferenceRelation(theModel);
+		Table theTable = theRelation.getImportingTable();
+		Index theIndex = theTable.getIndexes().findByName("TESTTABLE2_IDX1");
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		theGenerator.setOnlineDDL(true);
+
+		assertEquals("CREATE INDEX TESTTABLE2_IDX1 ON TESTTABLE2 (AT2) ONLINE",
+				theGenerator.createAddIndexToTableStatement(theTable, theIndex).get(0).getSql());
+		assertEquals("DROP INDEX TESTTABLE2_IDX1 ONLINE",
+				theGenerator.createRemoveIndexFromTableStatement(theTable, theIndex).get(0).getSql());
+
+		StatementList theStatements = theGenerator.createAddRelationStatement(theRelation);
+		assertEquals(2, theStatements.size());
+		assertTrue(theStatements.get(0).getSql().endsWith(" ENABLE NOVALIDATE"));
+		assertEquals("ALTER TABLE TESTTABLE2 MODIFY CONSTRAINT REL_1 VALIDATE", theStatements.get(1).getSql());
+	}
 }
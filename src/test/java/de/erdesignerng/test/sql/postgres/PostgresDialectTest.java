@@ -17,7 +17,15 @@
  */
 package de.erdesignerng.test.sql.postgres;
 
+import de.erdesignerng.dialect.MigrationCost;
+import de.erdesignerng.dialect.SQLGenerator;
+import de.erdesignerng.dialect.Statement;
+import de.erdesignerng.dialect.StatementList;
 import de.erdesignerng.dialect.postgres.PostgresDialect;
+import de.erdesignerng.model.Index;
+import de.erdesignerng.model.Model;
+import de.erdesignerng.model.Relation;
+import de.erdesignerng.model.Table;
 import de.erdesignerng.test.sql.AbstractDialectTestCase;
 import org.junit.Ignore;
 
@@ -39,4 +47,88 @@ public class PostgresDialectTest extends AbstractDialectTestCase {
 		intDataType = dialect.getDataTypes().findByName("integer");
 		basePath = "/de/erdesignerng/test/sql/postgres/";
 	}
+
+	public void testCombinedAlterTableStatements() {
+		StatementList theStatements = new StatementList();
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ADD AT1 varchar(20)"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ALTER AT2 TYPE integer"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 DROP COLUMN AT3"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 ALTER AT1 SET NOT NULL"));
+		theStatements.add(new Statement("ALTER TABLE TABLE1 RENAME COLUMN AT2 TO AT4"));
+		theStatements.add(new Statement("ALTER TABLE TABLE2 ADD AT1 integer"));
+		theStatements.add(new Statement("ALTER TABLE TABLE2 DROP CONSTRAINT FK1"));
+		theStatements.add(new Statement("CREATE INDEX IDX1 ON TABLE2 (AT1)"));
+
+		StatementList theResult = dialect.createSQLGenerator().createCombinedAlterTableStatements(theStatements);
+
+		assertEquals(5, theResult.size());
+		assertEquals("ALTER TABLE TABLE1 ADD AT1 varchar(20), ALTER AT2 TYPE integer, DROP COLUMN AT3",
+				theResult.get(0).getSql());
+		assertEquals("ALTER TABLE TABLE1 ALTER AT1 SET NOT NULL", theResult.get(1).getSql());
+		assertSame(theStatements.get(4), theResult.get(2));
+		assertEquals("ALTER TABLE TABLE2 ADD AT1 integer, DROP CONSTRAINT FK1", theResult.get(3).getSql());
+		assertSame(theStatements.get(7), theResult.get(4));
+	}
+
+	public void testOnlineDDL() throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+		Relation theRelation = createReferenceRelation(theModel);
+		Table theTable = theRelation.getImportingTable();
+		Index theIndex = theTable.getIndexes().findByName("TESTTABLE2_IDX1");
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		theGenerator.setOnlineDDL(true);
+
+		assertEquals("CREATE INDEX CONCURRENTLY TESTTABLE2_IDX1 ON TESTTABLE2 (AT2)",
+				theGenerator.createAddIndexToTableStatement(theTable, theIndex).get(0).getSql());
+		assertEquals("DROP INDEX CONCURRENTLY TESTTABLE2_IDX1",
+				theGenerator.createRemoveIndexFromTableStatement(theTable, theIndex).get(0).getSql());
+
+		StatementList theStatements = theGenerator.createAddRelationStatement(theRelation);
+		assertEquals(2, theStatements.size());
+		assertTrue(theStatements.get(0).getSql().endsWith(" NOT VALID"));
+		assertEquals("ALTER TABLE TESTTABLE2 VALIDATE CONSTRAINT REL_1", theStatements.get(1).getSql());
+
+		// Concurrent index statements cannot run in a transaction block
+		assertTrue(theGenerator.requiresAutoCommit(theGenerator.createAddIndexToTableStatement(theTable, theIndex)
+				.get(0)));
+		assertTrue(theGenerator.requiresAutoCommit(theGenerator.createRemoveIndexFromTableStatement(theTable,
+				theIndex).get(0)));
+		assertFalse(theGenerator.requiresAutoCommit(theStatements.get(0)));
+		theGenerator.setOnlineDDL(false);
+		assertFalse(theGenerator.requiresAutoCommit(theGenerator.createAddIndexToTableStatement(theTable, theIndex)
+				.get(0)));
+	}
+
+	public void testEstimateMigrationCost() throws Exception {
+		Model theModel = new Model();
+		theModel.setDialect(dialect);
+		Relation theRelation = createReferenceRelation(theModel);
+		Table theTable = theRelation.getImportingTable();
+
+		SQLGenerator theGenerator = dialect.createSQLGenerator();
+		theGenerator.setOnlineDDL(true);
+
+		StatementList theStatements = theGenerator.createAddRelationStatement(theRelation);
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(theStatements.get(0)));
+		assertEquals(MigrationCost.TABLE_SCAN, theGenerator.estimateMigrationCost(theStatements.get(1)));
+
+		Statement theStatement = theGenerator.createAddIndexToTableStatement(theTable,
+				theTable.getIndexes().findByName("TESTTABLE2_IDX1")).get(0);
+		assertEquals(MigrationCost.INDEX_BUILD, theGenerator.estimateMigrationCost(theStatement));
+		assertEquals("TESTTABLE2", theGenerator.getAffectedTableName(theStatement));
+
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 ADD NEWCOLUMN varchar(20) DEFAULT 'X' NOT NULL")));
+		assertEquals(MigrationCost.TABLE_REWRITE, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 ADD NEWCOLUMN serial")));
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 DROP COLUMN AT2")));
+		assertEquals(MigrationCost.TABLE_REWRITE, theGenerator.estimateMigrationCost(new Statement(
+				"ALTER TABLE TESTTABLE2 ADD NEWCOLUMN int, ALTER AT2 TYPE bigint")));
+		assertEquals(MigrationCost.METADATA_ONLY, theGenerator.estimateMigrationCost(new Statement(
+				"CREATE TABLE CHECKSUMS (ID int NOT NULL)")));
+		assertNull(theGenerator.getAffectedTableName(new Statement("DROP TABLE TESTTABLE2")));
+	}
 }